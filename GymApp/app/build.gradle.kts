@@ -53,6 +53,14 @@ android {
     buildFeatures {
         buildConfig = true
     }
+    testOptions {
+        // Android stubs such as Log return defaults under JVM unit tests
+        unitTests.isReturnDefaultValues = true
+        // Benchmarks are skipped unless run with -Pbenchmark=true
+        unitTests.all {
+            it.systemProperty("benchmark", project.findProperty("benchmark") ?: "false")
+        }
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -67,6 +75,7 @@ dependencies {
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.1.0")
     implementation("androidx.security:security-crypto:1.1.0-alpha06")
     implementation("androidx.work:work-runtime:2.9.0")
+    implementation("com.google.code.gson:gson:2.11.0")
     implementation(libs.mpandroidchart)
     testImplementation(libs.junit)
     testImplementation("org.mockito:mockito-core:5.14.2")
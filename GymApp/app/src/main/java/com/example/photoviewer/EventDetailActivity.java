@@ -4,7 +4,6 @@ import android.app.Dialog;
 import android.content.Intent;
 import android.content.res.ColorStateList;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
@@ -24,29 +23,31 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import com.example.photoviewer.images.ImageLoader;
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.images.TiledImageView;
+import com.example.photoviewer.models.ImageVariant;
 import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.scheduler.Priority;
 import com.example.photoviewer.services.GymApiService;
+import com.example.photoviewer.services.GymRepository;
+import com.example.photoviewer.services.LatestRequest;
 import com.example.photoviewer.services.SessionManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * EventDetailActivity - Displays detailed information about a specific usage event
  */
 public class EventDetailActivity extends AppCompatActivity {
     private static final String TAG = "EventDetailActivity";
-    private static final String API_BASE_URL = BuildConfig.API_BASE_URL.replaceAll("/$", "");
     private static final String COLOR_START = "#28A745";
     private static final String COLOR_END = "#DC3545";
 
@@ -62,11 +63,13 @@ public class EventDetailActivity extends AppCompatActivity {
     private TextView tvEventSummary;
 
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    private final ExecutorService imageExecutor = Executors.newSingleThreadExecutor();
+    private final LatestRequest detailRequest = new LatestRequest();
 
     private int eventId = -1;
     private MachineEvent currentEvent;
     private Bitmap loadedBitmap;
+    // Stored and fresh copies of the event share the image; download it once
+    private String requestedImageUrl;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -141,9 +144,11 @@ public class EventDetailActivity extends AppCompatActivity {
     private void loadEventDetail() {
         showLoadingState();
 
-        GymApiService.getInstance().getEventDetail(eventId, new GymApiService.EventDetailCallback() {
+        // The event is usually already stored from the event list
+        detailRequest.replace(GymRepository.getInstance().getEventDetail(eventId,
+                new GymRepository.DataCallback<MachineEvent>() {
             @Override
-            public void onSuccess(MachineEvent event) {
+            public void onData(MachineEvent event, boolean fromCache) {
                 mainHandler.post(() -> {
                     currentEvent = event;
                     populateUI(event);
@@ -158,16 +163,16 @@ public class EventDetailActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onError(String errorMessage) {
+            public void onError(String errorMessage, boolean hasCachedData) {
                 mainHandler.post(() -> {
                     if (GymApiService.ERROR_UNAUTHORIZED.equals(errorMessage)) {
                         handleUnauthorized();
-                    } else {
+                    } else if (!hasCachedData) {
                         showErrorState();
                     }
                 });
             }
-        });
+        }));
     }
 
     private void populateUI(MachineEvent event) {
@@ -200,7 +205,7 @@ public class EventDetailActivity extends AppCompatActivity {
         tvEventSummary.setText(getEventSummaryText(eventType));
 
         // Load image
-        loadEventImage(event.getImageUrl());
+        loadEventImage(event.getImageUrl(), event.getImageVariants());
     }
 
     private String formatCapturedAt(String capturedAt) {
@@ -247,45 +252,36 @@ public class EventDetailActivity extends AppCompatActivity {
         return "";
     }
 
-    private void loadEventImage(String imageUrl) {
-        ivEventImage.setImageResource(R.drawable.placeholder_image);
+    private void loadEventImage(String imageUrl, List<ImageVariant> variants) {
+        if (imageUrl != null && imageUrl.equals(requestedImageUrl)) {
+            return;
+        }
+        requestedImageUrl = imageUrl;
+        loadedBitmap = null;
 
         if (imageUrl == null || imageUrl.isEmpty()) {
+            ImageLoader.getInstance().clear(ivEventImage);
+            ivEventImage.setImageResource(R.drawable.placeholder_image);
             return;
         }
 
-        imageExecutor.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                String fullUrl = imageUrl;
-                if (!imageUrl.startsWith("http")) {
-                    fullUrl = API_BASE_URL + imageUrl;
-                }
-
-                URL url = new URL(fullUrl);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(5000);
-
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream inputStream = conn.getInputStream();
-                    Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                    inputStream.close();
+        // A variant is used if one covers the image view; the original otherwise
+        ImageRequest request = new ImageRequest.Builder(imageUrl)
+                .priority(Priority.INTERACTIVE)
+                .variants(variants)
+                .placeholder(R.drawable.placeholder_image)
+                .progressive(true)
+                .build();
+        ImageLoader.getInstance().load(request, ivEventImage, new ImageLoader.Listener() {
+            @Override
+            public void onSuccess(Bitmap bitmap) {
+                loadedBitmap = bitmap;
+            }
 
-                    if (bitmap != null) {
-                        loadedBitmap = bitmap;
-                        mainHandler.post(() -> ivEventImage.setImageBitmap(bitmap));
-                    }
-                } else {
-                    Log.e(TAG, "Failed to load event image: " + responseCode);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading event image: " + e.getMessage());
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
+            @Override
+            public void onError() {
+                Log.e(TAG, "Failed to load event image: " + imageUrl);
+                requestedImageUrl = null;
             }
         });
     }
@@ -295,15 +291,19 @@ public class EventDetailActivity extends AppCompatActivity {
         dialog.requestWindowFeature(Window.FEATURE_NO_TITLE);
         dialog.setContentView(R.layout.dialog_fullscreen_image);
 
-        ImageView ivFullscreen = dialog.findViewById(R.id.ivFullscreenImage);
+        TiledImageView ivFullscreen = dialog.findViewById(R.id.ivFullscreenImage);
         ImageButton buttonClose = dialog.findViewById(R.id.buttonClose);
 
-        if (loadedBitmap != null) {
-            ivFullscreen.setImageBitmap(loadedBitmap);
-        }
+        // The detail bitmap shows at once; zooming in decodes tiles of the original
+        ImageRequest request = new ImageRequest.Builder(requestedImageUrl)
+                .priority(Priority.INTERACTIVE)
+                .progressive(true)
+                .build();
+        ivFullscreen.load(request, null);
 
         buttonClose.setOnClickListener(v -> dialog.dismiss());
         ivFullscreen.setOnClickListener(v -> dialog.dismiss());
+        dialog.setOnDismissListener(d -> ivFullscreen.clear());
 
         dialog.show();
     }
@@ -350,10 +350,9 @@ public class EventDetailActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        imageExecutor.shutdown();
-        if (loadedBitmap != null && !loadedBitmap.isRecycled()) {
-            loadedBitmap.recycle();
-            loadedBitmap = null;
-        }
+        detailRequest.cancel();
+        // Cancel the image load; the bitmap belongs to the shared image cache, hand it back
+        ImageLoader.getInstance().clear(ivEventImage);
+        loadedBitmap = null;
     }
 }
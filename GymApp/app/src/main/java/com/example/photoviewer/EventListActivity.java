@@ -18,13 +18,15 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.photoviewer.adapters.EventAdapter;
 import com.example.photoviewer.dialogs.ImageViewerDialog;
+import com.example.photoviewer.images.ThumbnailPrefetcher;
 import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.services.EventPageSource;
 import com.example.photoviewer.services.GymApiService;
+import com.example.photoviewer.services.GymRepository;
 import com.example.photoviewer.services.SessionManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.ChipGroup;
 
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
@@ -38,6 +40,11 @@ public class EventListActivity extends AppCompatActivity {
     public static final String EXTRA_MACHINE_NAME = "machine_name";
     public static final String EXTRA_EVENT_ID = "event_id";
 
+    // Start loading the next page when this many rows are left below the viewport
+    private static final int PREFETCH_DISTANCE = 5;
+    // Stored events shown while the first page is fetched
+    private static final int STORED_PREVIEW_SIZE = 20;
+
     private SwipeRefreshLayout swipeRefreshLayout;
     private RecyclerView recyclerView;
     private EventAdapter adapter;
@@ -50,7 +57,9 @@ public class EventListActivity extends AppCompatActivity {
     private TextView tvTitle;
 
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    private List<MachineEvent> events = new ArrayList<>();
+    private EventPageSource pageSource;
+    private int loadCount;
+    private boolean firstPageShown;
     private ImageViewerDialog imageViewerDialog;
 
     private int machineId = -1;
@@ -80,6 +89,7 @@ public class EventListActivity extends AppCompatActivity {
         initializeViews();
         setupBackButton(machineName);
         setupRecyclerView();
+        setupPageSource();
         setupSwipeRefresh();
         setupFilterChips();
         setupDateRangeSelector();
@@ -128,6 +138,83 @@ public class EventListActivity extends AppCompatActivity {
         });
 
         recyclerView.setAdapter(adapter);
+
+        // Warm thumbnails for the rows about to scroll into view
+        new ThumbnailPrefetcher(adapter, ThumbnailPrefetcher.DEFAULT_PREFETCH_COUNT).attach(recyclerView);
+
+        // Load adjacent pages in the background as the user nears either end
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView view, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+                if (layoutManager == null || pageSource == null) {
+                    return;
+                }
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - 1 - PREFETCH_DISTANCE) {
+                    pageSource.loadNextPage();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                    pageSource.loadPreviousPage();
+                }
+            }
+        });
+    }
+
+    private void setupPageSource() {
+        pageSource = new EventPageSource(
+                (page, callback) -> GymRepository.getInstance().getMachineEventsPage(
+                        machineId, filterEventType, dateFrom, dateTo, page, callback),
+                mainHandler::post,
+                EventPageSource.DEFAULT_MAX_PAGES_IN_MEMORY,
+                new EventPageSource.Listener() {
+                    @Override
+                    public void onRefreshed(List<MachineEvent> events) {
+                        firstPageShown = true;
+                        swipeRefreshLayout.setRefreshing(false);
+                        adapter.setEvents(events);
+                        if (events.isEmpty()) {
+                            showEmptyState();
+                        } else {
+                            showEvents();
+                            recyclerView.scrollToPosition(0);
+                        }
+                    }
+
+                    @Override
+                    public void onAppended(List<MachineEvent> events, int droppedFromStart) {
+                        adapter.removeEventsFromStart(droppedFromStart);
+                        adapter.appendEvents(events);
+                    }
+
+                    @Override
+                    public void onPrepended(List<MachineEvent> events, int droppedFromEnd) {
+                        adapter.removeEventsFromEnd(droppedFromEnd);
+                        adapter.prependEvents(events);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage, boolean initialLoad) {
+                        if (initialLoad) {
+                            firstPageShown = true;
+                        }
+                        swipeRefreshLayout.setRefreshing(false);
+                        progressBar.setVisibility(View.GONE);
+                        if (GymApiService.ERROR_UNAUTHORIZED.equals(errorMessage)) {
+                            handleUnauthorized();
+                            return;
+                        }
+                        Toast.makeText(EventListActivity.this,
+                                "이벤트를 불러오지 못했습니다",
+                                Toast.LENGTH_SHORT).show();
+                        if (initialLoad) {
+                            if (adapter.getItemCount() == 0) {
+                                showEmptyState();
+                            } else {
+                                showEvents();
+                            }
+                        }
+                    }
+                });
     }
 
     private void setupSwipeRefresh() {
@@ -210,46 +297,19 @@ public class EventListActivity extends AppCompatActivity {
             showLoadingState();
         }
 
-        GymApiService.getInstance().getMachineEvents(
-                machineId,
-                filterEventType,
-                dateFrom,
-                dateTo,
-                new GymApiService.EventsCallback() {
-                    @Override
-                    public void onSuccess(List<MachineEvent> eventList) {
-                        mainHandler.post(() -> {
-                            events = eventList;
-                            swipeRefreshLayout.setRefreshing(false);
-                            if (events.isEmpty()) {
-                                showEmptyState();
-                            } else {
-                                showEvents();
-                            }
-                        });
+        // Show stored events for these filters until the first page arrives
+        int load = ++loadCount;
+        firstPageShown = false;
+        GymRepository.getInstance().getStoredEvents(machineId, filterEventType, dateFrom, dateTo,
+                STORED_PREVIEW_SIZE, events -> mainHandler.post(() -> {
+                    if (load != loadCount || firstPageShown || events == null) {
+                        return;
                     }
+                    adapter.setEvents(events);
+                    showEvents();
+                }));
 
-                    @Override
-                    public void onError(String errorMessage) {
-                        mainHandler.post(() -> {
-                            swipeRefreshLayout.setRefreshing(false);
-                            progressBar.setVisibility(View.GONE);
-                            if (GymApiService.ERROR_UNAUTHORIZED.equals(errorMessage)) {
-                                handleUnauthorized();
-                            } else {
-                                Toast.makeText(EventListActivity.this,
-                                        "이벤트를 불러오지 못했습니다",
-                                        Toast.LENGTH_SHORT).show();
-                                if (events.isEmpty()) {
-                                    showEmptyState();
-                                } else {
-                                    showEvents();
-                                }
-                            }
-                        });
-                    }
-                }
-        );
+        pageSource.refresh();
     }
 
     private void showLoadingState() {
@@ -262,7 +322,6 @@ public class EventListActivity extends AppCompatActivity {
         progressBar.setVisibility(View.GONE);
         recyclerView.setVisibility(View.VISIBLE);
         emptyStateLayout.setVisibility(View.GONE);
-        adapter.setEvents(events);
     }
 
     private void showEmptyState() {
@@ -278,6 +337,18 @@ public class EventListActivity extends AppCompatActivity {
         redirectToLogin();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (pageSource != null) {
+            pageSource.cancel();
+        }
+        if (recyclerView != null) {
+            // Recycles the rows still on screen, which gives their thumbnails back
+            recyclerView.setAdapter(null);
+        }
+    }
+
     private void redirectToLogin() {
         Intent intent = new Intent(this, LoginActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
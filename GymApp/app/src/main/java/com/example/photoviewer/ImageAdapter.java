@@ -8,12 +8,32 @@ import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.photoviewer.images.ImageLoader;
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.images.ThumbnailPrefetcher;
+
 import java.util.List;
 
-public class ImageAdapter extends RecyclerView.Adapter<ImageAdapter.ImageViewHolder> {
+/**
+ * Post feed rows. Rows are bound from post metadata; each image is loaded
+ * when its row is bound, through the shared image cache, which bounds how
+ * many downloads and decodes run at once. A row whose post reports its
+ * image size is laid out at that aspect ratio before the image arrives, so
+ * rows do not jump when it does; other rows keep the layout's height.
+ */
+public class ImageAdapter extends RecyclerView.Adapter<ImageAdapter.ImageViewHolder>
+        implements ThumbnailPrefetcher.RequestSource {
     private static final String TAG = "ImageAdapter";
+    // Bounds of a row's height / width, so a panorama does not become a
+    // sliver and a tall photo does not fill several screens
+    private static final float MIN_ASPECT = 0.5f;
+    private static final float MAX_ASPECT = 1.25f;
     private List<Post> postList;
     private OnPostClickListener clickListener;
+    // Pixel width of the row image and the layout's height, known once the
+    // first row is created
+    private int imageWidth;
+    private int imageHeight;
 
     public interface OnPostClickListener {
         void onPostClick(Post post);
@@ -29,27 +49,84 @@ public class ImageAdapter extends RecyclerView.Adapter<ImageAdapter.ImageViewHol
     @Override
     public ImageViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_image, parent, false);
+        ImageViewHolder holder = new ImageViewHolder(view);
+        if (imageWidth == 0) {
+            // The image fills the row width inside the row padding, at a fixed height
+            int width = parent.getWidth() - view.getPaddingLeft() - view.getPaddingRight();
+            ViewGroup.LayoutParams params = holder.imageView.getLayoutParams();
+            if (width > 0 && params != null && params.height > 0) {
+                imageWidth = width;
+                imageHeight = params.height;
+            }
+        }
         Log.d(TAG, "onCreateViewHolder called");
-        return new ImageViewHolder(view);
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ImageViewHolder holder, int position) {
         Post post = postList.get(position);
-        holder.imageView.setImageBitmap(post.getImageBitmap());
+        if (imageWidth > 0) {
+            ViewGroup.LayoutParams params = holder.imageView.getLayoutParams();
+            int height = rowImageHeight(post);
+            if (params.height != height) {
+                params.height = height;
+                holder.imageView.setLayoutParams(params);
+            }
+        }
+        ImageRequest request = getImageRequest(position);
+        if (request != null) {
+            ImageLoader.getInstance().load(request, holder.imageView);
+        } else {
+            ImageLoader.getInstance().clear(holder.imageView);
+            holder.imageView.setImageResource(R.drawable.placeholder_image);
+        }
         holder.itemView.setOnClickListener(v -> {
             if (clickListener != null) {
                 clickListener.onPostClick(post);
             }
         });
-        Log.d(TAG, "onBindViewHolder: position=" + position + ", title=" + post.getTitle());
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ImageViewHolder holder) {
+        super.onViewRecycled(holder);
+        // The row is off screen: cancel its load and give its bitmap back to the pool
+        ImageLoader.getInstance().clear(holder.imageView);
     }
 
     @Override
     public int getItemCount() {
-        int count = postList.size();
-        Log.d(TAG, "getItemCount: " + count);
-        return count;
+        return postList.size();
+    }
+
+    @Override
+    public ImageRequest getImageRequest(int position) {
+        if (position < 0 || position >= postList.size()) {
+            return null;
+        }
+        Post post = postList.get(position);
+        if (!post.hasImage()) {
+            return null;
+        }
+        ImageRequest.Builder builder = new ImageRequest.Builder(post.getImageUrl())
+                .placeholder(R.drawable.placeholder_image);
+        if (imageWidth > 0) {
+            builder.size(imageWidth, rowImageHeight(post));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Height of the row image: the post's aspect ratio within bounds, or the
+     * layout's height if the server did not report the image size
+     */
+    private int rowImageHeight(Post post) {
+        if (!post.hasImageSize()) {
+            return imageHeight;
+        }
+        int height = post.heightForWidth(imageWidth, imageHeight);
+        return Math.max((int) (imageWidth * MIN_ASPECT), Math.min(height, (int) (imageWidth * MAX_ASPECT)));
     }
 
     public static class ImageViewHolder extends RecyclerView.ViewHolder {
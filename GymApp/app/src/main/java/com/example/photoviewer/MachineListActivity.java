@@ -20,8 +20,11 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.photoviewer.adapters.MachineAdapter;
+import com.example.photoviewer.images.ThumbnailPrefetcher;
 import com.example.photoviewer.models.GymMachine;
 import com.example.photoviewer.services.GymApiService;
+import com.example.photoviewer.services.GymRepository;
+import com.example.photoviewer.services.LatestRequest;
 import com.example.photoviewer.services.SessionManager;
 
 import java.util.ArrayList;
@@ -47,6 +50,7 @@ public class MachineListActivity extends AppCompatActivity {
     private List<GymMachine> machines = new ArrayList<>();
     private MachineAdapter adapter;
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LatestRequest machinesRequest = new LatestRequest();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -91,6 +95,9 @@ public class MachineListActivity extends AppCompatActivity {
         adapter = new MachineAdapter();
         adapter.setOnMachineClickListener(this::onMachineClicked);
         recyclerView.setAdapter(adapter);
+
+        // Warm thumbnails for the rows about to scroll into view
+        new ThumbnailPrefetcher(adapter, ThumbnailPrefetcher.DEFAULT_PREFETCH_COUNT).attach(recyclerView);
     }
 
     private void setupSwipeRefresh() {
@@ -101,21 +108,27 @@ public class MachineListActivity extends AppCompatActivity {
     }
 
     /**
-     * Load machines from API
+     * Load machines: stored list first, then revalidate with the API
      */
     private void loadMachines() {
         Log.d(TAG, "Loading machines...");
 
-        // Show loading state
-        showLoadingState();
+        // Keep the current list on screen while revalidating
+        if (machines.isEmpty()) {
+            showLoadingState();
+        }
 
-        GymApiService.getInstance().getMachines(new GymApiService.MachinesCallback() {
+        machinesRequest.replace(GymRepository.getInstance().getMachines(
+                new GymRepository.DataCallback<List<GymMachine>>() {
             @Override
-            public void onSuccess(List<GymMachine> machineList) {
+            public void onData(List<GymMachine> machineList, boolean fromCache) {
                 mainHandler.post(() -> {
-                    Log.d(TAG, "Loaded " + machineList.size() + " machines");
+                    Log.d(TAG, "Loaded " + machineList.size() + " machines"
+                            + (fromCache ? " from local store" : ""));
                     machines = machineList;
-                    swipeRefreshLayout.setRefreshing(false);
+                    if (!fromCache) {
+                        swipeRefreshLayout.setRefreshing(false);
+                    }
 
                     if (machines.isEmpty()) {
                         showEmptyState();
@@ -126,7 +139,7 @@ public class MachineListActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onError(String errorMessage) {
+            public void onError(String errorMessage, boolean hasCachedData) {
                 mainHandler.post(() -> {
                     Log.e(TAG, "Error loading machines: " + errorMessage);
                     swipeRefreshLayout.setRefreshing(false);
@@ -134,13 +147,18 @@ public class MachineListActivity extends AppCompatActivity {
                     if (GymApiService.ERROR_UNAUTHORIZED.equals(errorMessage)) {
                         // Token expired/invalid - redirect to login
                         handleUnauthorized();
+                    } else if (hasCachedData || !machines.isEmpty()) {
+                        // Offline - keep showing the stored list
+                        Toast.makeText(MachineListActivity.this,
+                                "오프라인 상태입니다. 저장된 정보를 표시합니다",
+                                Toast.LENGTH_SHORT).show();
                     } else {
                         // Network or server error - show error state
                         showErrorState(errorMessage);
                     }
                 });
             }
-        });
+        }));
     }
 
     /**
@@ -260,6 +278,16 @@ public class MachineListActivity extends AppCompatActivity {
         Toast.makeText(this, "로그아웃 되었습니다", Toast.LENGTH_SHORT).show();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        machinesRequest.cancel();
+        if (recyclerView != null) {
+            // Recycles the rows still on screen, which gives their thumbnails back
+            recyclerView.setAdapter(null);
+        }
+    }
+
     private void redirectToLogin() {
         Intent intent = new Intent(this, LoginActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
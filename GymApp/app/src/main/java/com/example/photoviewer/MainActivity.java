@@ -1,11 +1,11 @@
 package com.example.photoviewer;
 
 import android.Manifest;
+import android.content.ClipData;
+import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.database.Cursor;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -28,29 +28,35 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.google.android.material.textfield.TextInputEditText;
+import com.example.photoviewer.images.ImageLoader;
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.images.ThumbnailPrefetcher;
+import com.example.photoviewer.images.UploadImageEncoder;
+import com.example.photoviewer.models.UploadJob;
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.network.HttpResponse;
+import com.example.photoviewer.network.HttpTransport;
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.TaskScheduler;
+import com.example.photoviewer.services.PostSyncClient;
 import com.example.photoviewer.services.SessionManager;
+import com.example.photoviewer.services.UploadQueue;
 import com.example.photoviewer.utils.SecureTokenManager;
 import com.example.photoviewer.utils.SyncPreferences;
 import com.example.photoviewer.utils.NotificationHelper;
+import com.example.photoviewer.workers.UploadWorker;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -68,17 +74,29 @@ public class MainActivity extends AppCompatActivity {
     private ProgressBar progressBar;
     private Post currentEditPost;
     private Bitmap currentEditImage;
+    // Picked replacement image, staged for upload when the edit is saved
+    private Uri currentEditImageUri;
     private int postIdToShowAfterRefresh = -1;
+    // Incremented on every refresh; pages of an older refresh are dropped
+    private int feedGeneration;
 
     // API URL automatically switches based on build type:
     // - Debug builds: http://10.0.2.2:8000/ (localhost via emulator)
     // - Release builds: https://mouseku.pythonanywhere.com/
     private final String site_url = BuildConfig.API_BASE_URL;
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final TaskScheduler scheduler = TaskScheduler.getInstance();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
+    // Uploads and edits are queued and sent by background workers
+    private UploadQueue uploadQueue;
+    private UploadQueue.Listener uploadListener;
+    private boolean uploadStatusShown;
+    // A queued job was sent; the feed is refreshed once the queue is empty
+    private boolean feedStaleAfterUpload;
+
     // Sync and notification helpers
     private SyncPreferences syncPrefs;
+    private PostSyncClient postSyncClient;
     private NotificationHelper notificationHelper;
 
     // Foreground polling
@@ -122,6 +140,8 @@ public class MainActivity extends AppCompatActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         imageAdapter = new ImageAdapter(postList, this::onPostClicked);
         recyclerView.setAdapter(imageAdapter);
+        // Warm images for the rows about to scroll into view
+        new ThumbnailPrefetcher(imageAdapter, ThumbnailPrefetcher.DEFAULT_PREFETCH_COUNT).attach(recyclerView);
 
         // Pull to Refresh 설정
         swipeRefreshLayout.setOnRefreshListener(() -> {
@@ -131,8 +151,24 @@ public class MainActivity extends AppCompatActivity {
 
         // Initialize sync and notification helpers
         syncPrefs = new SyncPreferences(this);
+        postSyncClient = new PostSyncClient(site_url);
         notificationHelper = new NotificationHelper(this);
 
+        // Observe the upload queue for progress and finished jobs
+        uploadQueue = UploadWorker.getQueue(this);
+        uploadListener = new UploadQueue.Listener() {
+            @Override
+            public void onQueueChanged(UploadQueue.Status status) {
+                showUploadStatus(status);
+            }
+
+            @Override
+            public void onJobFinished(UploadJob job, boolean success, String message) {
+                onUploadFinished(job, success, message);
+            }
+        };
+        uploadQueue.addListener(uploadListener);
+
         // Request notification permission (Android 13+)
         requestNotificationPermission();
 
@@ -192,6 +228,8 @@ public class MainActivity extends AppCompatActivity {
     private void logout() {
         SessionManager.getInstance().logout();
         syncPrefs.clear(); // Clear sync preferences on logout
+        // Queued uploads belong to this account
+        scheduler.submit(Priority.BACKGROUND, uploadQueue::clear);
         Intent intent = new Intent(MainActivity.this, SplashActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         startActivity(intent);
@@ -206,6 +244,18 @@ public class MainActivity extends AppCompatActivity {
         syncHandler.postDelayed(syncRunnable, 30000);
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (uploadQueue != null) {
+            uploadQueue.removeListener(uploadListener);
+        }
+        if (recyclerView != null) {
+            // Recycles the rows still on screen, which gives their thumbnails back
+            recyclerView.setAdapter(null);
+        }
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
@@ -217,151 +267,122 @@ public class MainActivity extends AppCompatActivity {
     public void onClickDownload(View v) {
         Toast.makeText(getApplicationContext(), "이미지 동기화 중...", Toast.LENGTH_SHORT).show();
         progressBar.setVisibility(View.VISIBLE);
-        executorService.execute(() -> {
-            List<Post> downloadedPosts = new ArrayList<>();
+        // A newer refresh supersedes the pages of an older one
+        int generation = ++feedGeneration;
+        scheduler.submit(Priority.INTERACTIVE, () -> {
+            // 이미지는 행이 화면에 표시될 때 ImageAdapter가 받아온다; 여기서는 메타데이터만 받는다
+            String pageUrl = site_url + "api_root/Post/";
+            int pageIndex = 0;
+            boolean failed = false;
             try {
-                URL url = new URL(site_url + "api_root/Post/");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(3000);
-                conn.setReadTimeout(3000);
-
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream is = conn.getInputStream();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-                    StringBuilder result = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        result.append(line);
-                    }
-                    is.close();
-                    conn.disconnect();
-
-                    JSONArray aryJson = new JSONArray(result.toString());
-                    Log.d(TAG, "Total posts received: " + aryJson.length());
-
-                    for (int i = 0; i < aryJson.length(); i++) {
-                        JSONObject post_json = aryJson.getJSONObject(i);
-                        int id = post_json.optInt("id", -1);
-                        String title = post_json.optString("title", "No title");
-                        String text = post_json.optString("text", "");
-                        String imageUrl = post_json.getString("image");
-
-                        Log.d(TAG, "Post #" + (i+1) + ": " + title);
-                        Log.d(TAG, "Image URL: " + imageUrl);
-
-                        if (imageUrl != null && !imageUrl.equals("null") && !imageUrl.isEmpty()) {
-                            try {
-                                Log.d(TAG, "Attempting to download image #" + (i+1));
-                                URL myImageUrl = new URL(imageUrl);
-                                HttpURLConnection imgConn = (HttpURLConnection) myImageUrl.openConnection();
-                                imgConn.setConnectTimeout(5000);
-                                imgConn.setReadTimeout(5000);
-
-                                int imgResponseCode = imgConn.getResponseCode();
-                                Log.d(TAG, "Image response code: " + imgResponseCode);
-
-                                if (imgResponseCode == HttpURLConnection.HTTP_OK) {
-                                    InputStream imgStream = imgConn.getInputStream();
-                                    Bitmap imageBitmap = BitmapFactory.decodeStream(imgStream);
-
-                                    if (imageBitmap != null) {
-                                        Post post = new Post(id, title, text, imageUrl, imageBitmap);
-                                        downloadedPosts.add(post);
-                                        Log.d(TAG, "✓ Image #" + (i+1) + " downloaded successfully");
-                                    } else {
-                                        Log.e(TAG, "✗ Image #" + (i+1) + " decode failed - bitmap is null");
-                                    }
-                                    imgStream.close();
-                                } else {
-                                    Log.e(TAG, "✗ Image #" + (i+1) + " download failed - HTTP " + imgResponseCode);
-                                }
-                                imgConn.disconnect();
-                            } catch (Exception e) {
-                                Log.e(TAG, "✗ Error downloading image #" + (i+1) + ": " + e.getMessage());
-                                e.printStackTrace();
-                            }
-                        } else {
-                            Log.w(TAG, "Post #" + (i+1) + " has no image");
-                        }
+                while (pageUrl != null) {
+                    String result = fetchPostPage(pageUrl, 3000);
+                    if (result == null) {
+                        failed = true;
+                        break;
                     }
-                    Log.d(TAG, "Total posts downloaded: " + downloadedPosts.size());
+                    List<Post> page = new ArrayList<>();
+                    pageUrl = parsePostPage(result, page);
+                    Log.d(TAG, "Post page #" + (pageIndex + 1) + ": " + page.size() + " posts");
+
+                    boolean firstPage = pageIndex == 0;
+                    boolean lastPage = pageUrl == null;
+                    mainHandler.post(() -> showPostPage(generation, page, firstPage, lastPage));
+                    pageIndex++;
                 }
             } catch (IOException | JSONException e) {
                 Log.e(TAG, "Error in download task: " + e.getMessage());
                 e.printStackTrace();
+                failed = true;
             }
 
-            mainHandler.post(() -> {
-                // Pull to Refresh 애니메이션 중지
-                swipeRefreshLayout.setRefreshing(false);
-                progressBar.setVisibility(View.GONE);
+            if (failed) {
+                boolean nothingShown = pageIndex == 0;
+                mainHandler.post(() -> {
+                    if (generation != feedGeneration) {
+                        return;
+                    }
+                    swipeRefreshLayout.setRefreshing(false);
+                    progressBar.setVisibility(View.GONE);
+                    if (nothingShown) {
+                        textView.setText("포스트를 불러오지 못했습니다.");
+                        Toast.makeText(getApplicationContext(),
+                            "포스트 다운로드 실패. Logcat을 확인하세요.",
+                            Toast.LENGTH_LONG).show();
+                    }
+                });
+            }
+        });
+    }
 
-                if (!downloadedPosts.isEmpty()) {
-                    Log.d(TAG, "Updating RecyclerView with " + downloadedPosts.size() + " posts");
+    /**
+     * Show one page of the post list. The first page replaces the rows, so the
+     * feed appears as soon as it arrives; later pages are appended.
+     */
+    private void showPostPage(int generation, List<Post> page, boolean firstPage, boolean lastPage) {
+        if (generation != feedGeneration) {
+            return;
+        }
+        if (firstPage) {
+            // Pull to Refresh 애니메이션 중지
+            swipeRefreshLayout.setRefreshing(false);
+            progressBar.setVisibility(View.GONE);
+            postList.clear();
+            postList.addAll(page);
+            imageAdapter.notifyDataSetChanged();
+        } else if (!page.isEmpty()) {
+            int start = postList.size();
+            postList.addAll(page);
+            imageAdapter.notifyItemRangeInserted(start, page.size());
+        }
+        if (!lastPage) {
+            return;
+        }
 
-                    // Check for new posts
-                    int lastSeenId = syncPrefs.getLastSeenPostId();
-                    int maxId = 0;
-                    int newPostCount = 0;
-                    String firstNewObjectName = null;
+        Log.d(TAG, "Feed loaded, postList size: " + postList.size());
 
-                    for (Post post : downloadedPosts) {
-                        int postId = post.getId();
-                        if (postId > maxId) {
-                            maxId = postId;
-                        }
-                        if (postId > lastSeenId) {
-                            newPostCount++;
-                            if (firstNewObjectName == null) {
-                                firstNewObjectName = post.getTitle();
-                            }
-                        }
-                    }
+        // Check for new posts
+        int lastSeenId = syncPrefs.getLastSeenPostId();
+        int maxId = 0;
+        int newPostCount = 0;
+        for (Post post : postList) {
+            int postId = post.getId();
+            if (postId > maxId) {
+                maxId = postId;
+            }
+            if (postId > lastSeenId) {
+                newPostCount++;
+            }
+        }
 
-                    Log.d(TAG, "lastSeenId=" + lastSeenId + ", maxId=" + maxId + ", newPostCount=" + newPostCount);
+        Log.d(TAG, "lastSeenId=" + lastSeenId + ", maxId=" + maxId + ", newPostCount=" + newPostCount);
 
-                    // Update UI
-                    postList.clear();
-                    postList.addAll(downloadedPosts);
-                    imageAdapter.notifyDataSetChanged();
-                    Log.d(TAG, "notifyDataSetChanged() called, postList size: " + postList.size());
-                    textView.setText("동기화 완료! (" + downloadedPosts.size() + "개 포스트)");
-                    Toast.makeText(getApplicationContext(),
-                        downloadedPosts.size() + "개의 포스트를 불러왔습니다.",
-                        Toast.LENGTH_SHORT).show();
+        textView.setText("동기화 완료! (" + postList.size() + "개 포스트)");
+        Toast.makeText(getApplicationContext(),
+            postList.size() + "개의 포스트를 불러왔습니다.",
+            Toast.LENGTH_SHORT).show();
 
-                    // Update lastSeenPostId
-                    if (maxId > lastSeenId) {
-                        syncPrefs.setLastSeenPostId(maxId);
-                        Log.d(TAG, "Updated lastSeenPostId to " + maxId);
-                    }
+        // Update lastSeenPostId
+        if (maxId > lastSeenId) {
+            syncPrefs.setLastSeenPostId(maxId);
+            Log.d(TAG, "Updated lastSeenPostId to " + maxId);
+        }
 
-                    // 저장 후 포스트 상세보기를 자동으로 표시해야 하는 경우
-                    if (postIdToShowAfterRefresh > 0) {
-                        Post postToShow = null;
-                        for (Post p : postList) {
-                            if (p.getId() == postIdToShowAfterRefresh) {
-                                postToShow = p;
-                                break;
-                            }
-                        }
-                        if (postToShow != null) {
-                            Log.d(TAG, "Showing post detail for post ID: " + postIdToShowAfterRefresh);
-                            onPostClicked(postToShow);
-                        }
-                        postIdToShowAfterRefresh = -1; // 초기화
-                    }
-                } else {
-                    textView.setText("포스트를 불러오지 못했습니다.");
-                    Toast.makeText(getApplicationContext(),
-                        "포스트 다운로드 실패. Logcat을 확인하세요.",
-                        Toast.LENGTH_LONG).show();
+        // 저장 후 포스트 상세보기를 자동으로 표시해야 하는 경우
+        if (postIdToShowAfterRefresh > 0) {
+            Post postToShow = null;
+            for (Post p : postList) {
+                if (p.getId() == postIdToShowAfterRefresh) {
+                    postToShow = p;
+                    break;
                 }
-            });
-        });
+            }
+            if (postToShow != null) {
+                Log.d(TAG, "Showing post detail for post ID: " + postIdToShowAfterRefresh);
+                onPostClicked(postToShow);
+            }
+            postIdToShowAfterRefresh = -1; // 초기화
+        }
     }
 
     private void onPostClicked(Post post) {
@@ -382,9 +403,7 @@ public class MainActivity extends AppCompatActivity {
             Button btnDelete = dialogView.findViewById(R.id.btnDeleteEdit);
 
             // Post 데이터로 뷰 채우기
-            if (post.getImageBitmap() != null) {
-                ivPostImage.setImageBitmap(post.getImageBitmap());
-            }
+            loadPostImage(post, ivPostImage);
             tvPostTitle.setText(post.getTitle());
             tvPostText.setText(post.getText());
 
@@ -397,6 +416,8 @@ public class MainActivity extends AppCompatActivity {
                     onEditPost(post);
                 })
                 .show();
+            // Hand the bitmap back to the shared cache once closed
+            dialog.setOnDismissListener(d -> ImageLoader.getInstance().clear(ivPostImage));
 
             // 삭제 버튼 클릭 핸들러 (버튼이 레이아웃에 있는 경우에만)
             if (btnDelete != null) {
@@ -420,6 +441,23 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Load a post image into a dialog through the shared image cache. The feed
+     * row bitmap, if cached, is shown at once and cross-fades to the full image.
+     */
+    private void loadPostImage(Post post, ImageView imageView) {
+        if (!post.hasImage()) {
+            imageView.setImageResource(R.drawable.placeholder_image);
+            return;
+        }
+        ImageRequest request = new ImageRequest.Builder(post.getImageUrl())
+                .priority(Priority.INTERACTIVE)
+                .placeholder(R.drawable.placeholder_image)
+                .progressive(true)
+                .build();
+        ImageLoader.getInstance().load(request, imageView);
+    }
+
     private void showDeleteConfirmDialog(Post post) {
         try {
             new AlertDialog.Builder(this)
@@ -461,8 +499,8 @@ public class MainActivity extends AppCompatActivity {
             // 새로 선택된 이미지가 있으면 그것을 표시, 없으면 기존 이미지 표시
             if (currentEditImage != null) {
                 ivEditImage.setImageBitmap(currentEditImage);
-            } else if (post.getImageBitmap() != null) {
-                ivEditImage.setImageBitmap(post.getImageBitmap());
+            } else {
+                loadPostImage(post, ivEditImage);
             }
             etEditTitle.setText(post.getTitle());
             etEditContent.setText(post.getText());
@@ -480,6 +518,7 @@ public class MainActivity extends AppCompatActivity {
                 .setView(dialogView)
                 .setNegativeButton("취소", null)
                 .show();
+            editDialog.setOnDismissListener(d -> ImageLoader.getInstance().clear(ivEditImage));
 
             // 저장 버튼 클릭 핸들러
             btnConfirmEdit.setOnClickListener(v -> {
@@ -527,9 +566,11 @@ public class MainActivity extends AppCompatActivity {
     }
 
     public void onClickUpload(View v) {
-        // 갤러리에서 이미지 선택
-        Intent intent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
+        // 갤러리에서 이미지 선택 (여러 장 선택 가능)
+        Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
         intent.setType("image/*");
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
         startActivityForResult(intent, PICK_IMAGE_REQUEST);
     }
 
@@ -542,36 +583,64 @@ public class MainActivity extends AppCompatActivity {
             Log.d(TAG, "Image selected: " + selectedImage);
 
             if (requestCode == PICK_IMAGE_REQUEST) {
-                // 새 포스트 업로드용 이미지 선택
-                selectedImageUri = selectedImage;
-                if (selectedImageUri != null) {
+                // 새 포스트 업로드용 이미지 선택 (여러 장이면 ClipData로 전달됨)
+                List<Uri> picked = getPickedUris(data);
+                if (picked.size() == 1) {
+                    selectedImageUri = picked.get(0);
                     showUploadDialog(selectedImageUri);
+                } else if (picked.size() > 1) {
+                    showBatchUploadDialog(picked);
                 }
             } else if (requestCode == REQUEST_CODE_EDIT_IMAGE) {
                 // 포스트 편집용 이미지 선택
-                try {
-                    currentEditImage = getBitmapFromUri(selectedImage);
-                    if (currentEditImage != null && currentEditPost != null) {
-                        // 편집 다이얼로그 다시 표시 (선택된 이미지 포함)
-                        onEditPost(currentEditPost);
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error loading image for edit: " + e.getMessage(), e);
-                    Toast.makeText(this, "이미지를 로드할 수 없습니다", Toast.LENGTH_SHORT).show();
+                // 미리보기는 화면 크기로 줄여서 백그라운드에서 디코딩
+                scheduler.submit(Priority.INTERACTIVE, () -> {
+                    Bitmap preview = getBitmapFromUri(selectedImage);
+                    mainHandler.post(() -> {
+                        if (preview == null) {
+                            Toast.makeText(this, "이미지를 로드할 수 없습니다", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        currentEditImageUri = selectedImage;
+                        currentEditImage = preview;
+                        if (currentEditPost != null) {
+                            // 편집 다이얼로그 다시 표시 (선택된 이미지 포함)
+                            onEditPost(currentEditPost);
+                        }
+                    });
+                });
+            }
+        }
+    }
+
+    /**
+     * Images returned by the picker: several in the clip data, or one as the data URI
+     */
+    private static List<Uri> getPickedUris(Intent data) {
+        List<Uri> uris = new ArrayList<>();
+        ClipData clip = data.getClipData();
+        if (clip != null) {
+            for (int i = 0; i < clip.getItemCount(); i++) {
+                Uri uri = clip.getItemAt(i).getUri();
+                if (uri != null) {
+                    uris.add(uri);
                 }
             }
+        } else if (data.getData() != null) {
+            uris.add(data.getData());
         }
+        return uris;
     }
 
+    /**
+     * Decode a picked image upright at preview size; blocks, call off the main thread
+     */
     private Bitmap getBitmapFromUri(Uri uri) {
         try {
-            InputStream inputStream = getContentResolver().openInputStream(uri);
-            if (inputStream != null) {
-                Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                inputStream.close();
-                return bitmap;
-            }
-        } catch (IOException e) {
+            int maxEdge = Math.max(getResources().getDisplayMetrics().widthPixels,
+                    getResources().getDisplayMetrics().heightPixels);
+            return UploadImageEncoder.decodeUpright(getContentResolver(), uri, maxEdge);
+        } catch (IOException | OutOfMemoryError e) {
             Log.e(TAG, "Error getting bitmap from URI: " + e.getMessage(), e);
         }
         return null;
@@ -598,183 +667,119 @@ public class MainActivity extends AppCompatActivity {
                     return;
                 }
 
-                Toast.makeText(this, "이미지 업로드 중...", Toast.LENGTH_SHORT).show();
                 uploadImage(imageUri, title, text);
             })
             .setNegativeButton("취소", null)
             .show();
     }
 
-    private void uploadImage(Uri imageUri, String title, String text) {
-        progressBar.setVisibility(View.VISIBLE);
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            DataOutputStream dos = null;
-            InputStream inputStream = null;
+    /**
+     * One title and text for several photos; each becomes a post numbered
+     * in the order the photos were picked
+     */
+    private void showBatchUploadDialog(List<Uri> imageUris) {
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_upload, null);
+        TextInputEditText etTitle = dialogView.findViewById(R.id.etTitle);
+        TextInputEditText etText = dialogView.findViewById(R.id.etText);
 
-            String lineEnd = "\r\n";
-            String twoHyphens = "--";
-            String boundary = "===boundary===" + System.currentTimeMillis() + "===";
+        new AlertDialog.Builder(this)
+            .setTitle("게시물 " + imageUris.size() + "개 작성")
+            .setView(dialogView)
+            .setPositiveButton("업로드", (dialog, which) -> {
+                String title = etTitle.getText().toString().trim();
+                String text = etText.getText().toString().trim();
 
-            try {
-                // ContentResolver를 통해 InputStream 직접 얻기
-                inputStream = getContentResolver().openInputStream(imageUri);
-                if (inputStream == null) {
-                    mainHandler.post(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        textView.setText("이미지를 읽을 수 없습니다.");
-                        Toast.makeText(MainActivity.this, "이미지 업로드 실패", Toast.LENGTH_SHORT).show();
-                    });
+                if (title.isEmpty()) {
+                    Toast.makeText(this, "제목을 입력하세요", Toast.LENGTH_SHORT).show();
                     return;
                 }
-
-                // 파일 이름 가져오기
-                String fileName = getFileName(imageUri);
-                Log.d(TAG, "Uploading file: " + fileName);
-                Log.d(TAG, "Title: " + title);
-                Log.d(TAG, "Text: " + text);
-                Log.d(TAG, "Uri: " + imageUri.toString());
-
-                // HTTP 연결 설정
-                URL url = new URL(site_url + "api_root/Post/");
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setDoInput(true);
-                conn.setDoOutput(true);
-                conn.setUseCaches(false);
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Connection", "Keep-Alive");
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-
-                dos = new DataOutputStream(conn.getOutputStream());
-
-                // title 필드
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"title\"" + lineEnd);
-                dos.writeBytes(lineEnd);
-                dos.writeBytes(title + lineEnd);
-
-                // text 필드
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"text\"" + lineEnd);
-                dos.writeBytes(lineEnd);
-                dos.writeBytes(text + lineEnd);
-
-                // image 필드
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"image\"; filename=\"" +
-                             fileName + "\"" + lineEnd);
-                dos.writeBytes("Content-Type: image/*" + lineEnd);
-                dos.writeBytes(lineEnd);
-
-                // 이미지 데이터 쓰기 (InputStream에서 직접 읽기)
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                long totalBytesRead = 0;
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    dos.write(buffer, 0, bytesRead);
-                    totalBytesRead += bytesRead;
+                if (text.isEmpty()) {
+                    Toast.makeText(this, "내용을 입력하세요", Toast.LENGTH_SHORT).show();
+                    return;
                 }
-                inputStream.close();
-                Log.d(TAG, "Total bytes uploaded: " + totalBytesRead);
 
-                dos.writeBytes(lineEnd);
-                dos.writeBytes(twoHyphens + boundary + twoHyphens + lineEnd);
-
-                dos.flush();
-                dos.close();
+                uploadImages(imageUris, title, text);
+            })
+            .setNegativeButton("취소", null)
+            .show();
+    }
 
-                // 응답 확인
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Upload response code: " + responseCode);
-
-                if (responseCode == HttpURLConnection.HTTP_CREATED ||
-                    responseCode == HttpURLConnection.HTTP_OK) {
-                    // 성공
-                    BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(conn.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    Log.d(TAG, "Upload response: " + response.toString());
+    /**
+     * Stage the picked images in the background, then queue them as one batch;
+     * the queue sends up to {@link UploadQueue#MAX_PARALLEL_UPLOADS} at a
+     * time and the feed is refreshed once, when the last one is done
+     */
+    private void uploadImages(List<Uri> imageUris, String title, String text) {
+        Context appContext = getApplicationContext();
+        int count = imageUris.size();
+        UploadJob[] posts = new UploadJob[count];
+        AtomicInteger remaining = new AtomicInteger(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            // Re-encoding takes seconds per photo; at BACKGROUND it leaves the
+            // reserved interactive worker and the feed thumbnails alone
+            scheduler.submit(Priority.BACKGROUND, () -> {
+                try {
+                    UploadWorker.StagedImage image = UploadWorker.stageImage(appContext, imageUris.get(index));
+                    posts[index] = UploadJob.newPost(title + " (" + (index + 1) + "/" + count + ")", text,
+                            image.getPath(), image.getFileName(), image.getMimeType());
+                } catch (IOException | SecurityException e) {
+                    Log.e(TAG, "Staging error for " + imageUris.get(index) + ": " + e.getMessage(), e);
+                }
+                if (remaining.decrementAndGet() > 0) {
+                    return;
+                }
 
-                    mainHandler.post(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        textView.setText("업로드 성공!");
-                        Toast.makeText(MainActivity.this,
-                            "이미지가 성공적으로 업로드되었습니다!",
-                            Toast.LENGTH_LONG).show();
-                        // 업로드 후 자동 동기화
-                        onClickDownload(null);
-                    });
-                } else {
-                    // 실패
-                    BufferedReader errorReader = new BufferedReader(
-                        new InputStreamReader(conn.getErrorStream()));
-                    StringBuilder errorResponse = new StringBuilder();
-                    String errorLine;
-                    while ((errorLine = errorReader.readLine()) != null) {
-                        errorResponse.append(errorLine);
+                // 모든 이미지가 준비되면 한 번에 대기열에 등록
+                List<UploadJob> staged = new ArrayList<>();
+                for (UploadJob post : posts) {
+                    if (post != null) {
+                        staged.add(post);
                     }
-                    errorReader.close();
-                    Log.e(TAG, "Upload failed: " + responseCode + " - " + errorResponse.toString());
-
-                    mainHandler.post(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        textView.setText("업로드 실패 (HTTP " + responseCode + ")");
-                        Toast.makeText(MainActivity.this,
-                            "업로드 실패: " + responseCode,
-                            Toast.LENGTH_LONG).show();
-                    });
                 }
+                if (!staged.isEmpty()) {
+                    uploadQueue.enqueueBatch(staged);
+                }
+                int unreadable = count - staged.size();
+                mainHandler.post(() -> Toast.makeText(appContext,
+                        staged.size() + "건이 업로드 대기열에 추가되었습니다"
+                                + (unreadable > 0 ? " (읽을 수 없는 이미지 " + unreadable + "건)" : ""),
+                        Toast.LENGTH_SHORT).show());
+            });
+        }
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Upload error: " + e.getMessage());
-                e.printStackTrace();
+    /**
+     * Stage the picked image and queue the new post; the upload itself runs
+     * in the background and survives rotation, leaving the app and network loss
+     */
+    private void uploadImage(Uri imageUri, String title, String text) {
+        Context appContext = getApplicationContext();
+        scheduler.submit(Priority.INTERACTIVE, () -> {
+            try {
+                Log.d(TAG, "Title: " + title);
+                Log.d(TAG, "Text: " + text);
+                Log.d(TAG, "Uri: " + imageUri.toString());
 
+                // 이미지는 줄여서 앱 저장소에 복사한 뒤 대기열에 등록 (업로드는 백그라운드에서)
+                UploadWorker.StagedImage image = UploadWorker.stageImage(appContext, imageUri);
+                uploadQueue.enqueueCreate(title, text, image.getPath(), image.getFileName(),
+                        image.getMimeType());
+                mainHandler.post(() -> Toast.makeText(appContext,
+                        "업로드 대기열에 추가되었습니다", Toast.LENGTH_SHORT).show());
+            } catch (IOException | SecurityException e) {
+                Log.e(TAG, "Staging error: " + e.getMessage(), e);
                 mainHandler.post(() -> {
-                    progressBar.setVisibility(View.GONE);
                     textView.setText("업로드 에러: " + e.getMessage());
-                    Toast.makeText(MainActivity.this,
-                        "업로드 중 오류 발생",
-                        Toast.LENGTH_LONG).show();
+                    Toast.makeText(appContext, "이미지를 읽을 수 없습니다", Toast.LENGTH_LONG).show();
                 });
-            } finally {
-                if (inputStream != null) {
-                    try {
-                        inputStream.close();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-                if (conn != null) {
-                    conn.disconnect();
-                }
             }
         });
     }
 
-    private String getFileName(Uri uri) {
-        String fileName = "image.jpg"; // 기본값
-        Cursor cursor = getContentResolver().query(uri, null, null, null, null);
-        if (cursor != null) {
-            try {
-                if (cursor.moveToFirst()) {
-                    int nameIndex = cursor.getColumnIndex(MediaStore.Images.Media.DISPLAY_NAME);
-                    if (nameIndex != -1) {
-                        fileName = cursor.getString(nameIndex);
-                    }
-                }
-            } finally {
-                cursor.close();
-            }
-        }
-        return fileName;
-    }
-
+    /**
+     * Queue an edit; edits of the same post that have not been sent yet are merged
+     */
     private void updatePost(Post post, String newTitle, String newContent) {
         if (post == null) {
             Toast.makeText(this, "포스트를 업데이트할 수 없습니다", Toast.LENGTH_SHORT).show();
@@ -782,99 +787,93 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        progressBar.setVisibility(View.VISIBLE);
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            DataOutputStream dos = null;
-
-            String lineEnd = "\r\n";
-            String twoHyphens = "--";
-            String boundary = "===boundary===" + System.currentTimeMillis() + "===";
+        // 새 이미지가 선택된 경우만 포함 (사용 후 초기화)
+        Uri newImageUri = currentEditImageUri;
+        currentEditImageUri = null;
+        currentEditImage = null;
 
+        Context appContext = getApplicationContext();
+        scheduler.submit(Priority.INTERACTIVE, () -> {
             try {
-                URL url = new URL(site_url + "api_root/Post/" + post.getId() + "/");
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("PUT");
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-                conn.setDoOutput(true);
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                dos = new DataOutputStream(conn.getOutputStream());
-
-                // 제목 필드 작성
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"title\"" + lineEnd + lineEnd);
-                dos.writeBytes(newTitle + lineEnd);
-
-                // 내용 필드 작성
-                dos.writeBytes(twoHyphens + boundary + lineEnd);
-                dos.writeBytes("Content-Disposition: form-data; name=\"text\"" + lineEnd + lineEnd);
-                dos.writeBytes(newContent + lineEnd);
-
-                // 새 이미지가 선택된 경우만 포함
-                if (currentEditImage != null) {
-                    dos.writeBytes(twoHyphens + boundary + lineEnd);
-                    dos.writeBytes("Content-Disposition: form-data; name=\"image\"; filename=\"image.jpg\"" + lineEnd);
-                    dos.writeBytes("Content-Type: image/jpeg" + lineEnd + lineEnd);
-
-                    // 이미지 데이터 작성
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    currentEditImage.compress(android.graphics.Bitmap.CompressFormat.JPEG, 90, baos);
-                    dos.write(baos.toByteArray());
-                    dos.writeBytes(lineEnd);
-
-                    currentEditImage = null; // 사용 후 초기화
-                }
-
-                // 경계선 끝
-                dos.writeBytes(twoHyphens + boundary + twoHyphens + lineEnd);
-                dos.flush();
-                dos.close();
-
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Update response code: " + responseCode);
+                // 선택한 원본에서 업로드용 파일을 새로 인코딩 (미리보기 Bitmap은 쓰지 않음)
+                UploadWorker.StagedImage image = newImageUri != null
+                        ? UploadWorker.stageImage(appContext, newImageUri) : null;
+                uploadQueue.enqueueEdit(post.getId(), newTitle, newContent,
+                        image != null ? image.getPath() : null,
+                        image != null ? image.getFileName() : null,
+                        image != null ? image.getMimeType() : null);
+                mainHandler.post(() -> Toast.makeText(appContext,
+                        "수정 내용이 대기열에 추가되었습니다", Toast.LENGTH_SHORT).show());
+            } catch (IOException | SecurityException e) {
+                Log.e(TAG, "Update error - Staging error: " + e.getMessage(), e);
+                mainHandler.post(() -> Toast.makeText(appContext,
+                        "이미지를 읽을 수 없습니다", Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
 
-                mainHandler.post(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    if (responseCode == HttpURLConnection.HTTP_OK ||
-                        responseCode == HttpURLConnection.HTTP_NO_CONTENT ||
-                        (responseCode >= 200 && responseCode < 205)) {
-                        Toast.makeText(MainActivity.this, "포스트가 수정되었습니다", Toast.LENGTH_SHORT).show();
-                        Log.d(TAG, "Post #" + post.getId() + " updated successfully");
-                        // 수정 후 목록 새로고침 및 포스트 상세보기 자동 표시
-                        postIdToShowAfterRefresh = post.getId();
-                        onClickDownload(null);
-                    } else {
-                        Toast.makeText(MainActivity.this, "수정 실패: HTTP " + responseCode, Toast.LENGTH_SHORT).show();
-                        Log.e(TAG, "Update failed with code: " + responseCode);
-                    }
-                });
+    /**
+     * Show the queue in the status line; called on the thread that changed the queue
+     */
+    private void showUploadStatus(UploadQueue.Status status) {
+        String text;
+        String doneText = "업로드 완료";
+        if (status.isIdle()) {
+            text = null;
+            int failed = status.getFailedCount();
+            if (status.getFinishedCount() > 1) {
+                doneText = "업로드 완료 " + (status.getFinishedCount() - failed) + "건"
+                        + (failed > 0 ? " (실패 " + failed + "건)" : "");
+            }
+        } else if (status.getBatchSize() > 1) {
+            // 여러 건: 전체 진행률과 전송 중인 게시물별 진행률
+            int percent = status.getBatchPercent();
+            StringBuilder line = new StringBuilder("업로드 " + status.getFinishedCount() + "/"
+                    + status.getBatchSize() + "건" + (percent >= 0 ? " · " + percent + "%" : ""));
+            for (UploadQueue.Item item : status.getItems()) {
+                int itemPercent = item.getPercent();
+                line.append("\n").append(item.getJob().getTitle())
+                        .append(itemPercent >= 0 ? " " + itemPercent + "%" : "");
+            }
+            text = line.toString();
+        } else {
+            int count = status.getPendingCount() + status.getRunningCount();
+            int percent = status.getPercent();
+            text = "업로드 대기 " + count + "건" + (percent >= 0 ? " · " + percent + "%" : "");
+        }
+        String finalDoneText = doneText;
+        mainHandler.post(() -> {
+            if (text != null) {
+                textView.setText(text);
+                uploadStatusShown = true;
+            } else if (uploadStatusShown) {
+                textView.setText(finalDoneText);
+                uploadStatusShown = false;
+            }
+        });
+    }
 
-            } catch (IOException e) {
-                Log.e(TAG, "Update error - Network error: " + e.getMessage(), e);
-                mainHandler.post(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    Toast.makeText(MainActivity.this, "네트워크 오류가 발생했습니다", Toast.LENGTH_SHORT).show();
-                });
-            } catch (Exception e) {
-                Log.e(TAG, "Update error - Unexpected error: " + e.getMessage(), e);
-                mainHandler.post(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    Toast.makeText(MainActivity.this, "오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
-            } finally {
-                if (dos != null) {
-                    try {
-                        dos.close();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-                if (conn != null) {
-                    conn.disconnect();
+    /**
+     * Called on the worker thread when a queued job was sent or rejected
+     */
+    private void onUploadFinished(UploadJob job, boolean success, String message) {
+        boolean idle = uploadQueue.getStatus().isIdle();
+        mainHandler.post(() -> {
+            if (success) {
+                if (job.getKind() == UploadJob.Kind.UPDATE) {
+                    // 수정 후 목록 새로고침 및 포스트 상세보기 자동 표시
+                    postIdToShowAfterRefresh = job.getPostId();
                 }
+                feedStaleAfterUpload = true;
+            } else {
+                Log.e(TAG, "Upload job #" + job.getId() + " failed: " + message);
+                Toast.makeText(MainActivity.this, "업로드 실패: " + job.getTitle() + " (" + message + ")",
+                        Toast.LENGTH_LONG).show();
+            }
+            if (idle && feedStaleAfterUpload) {
+                // 대기열이 비었을 때 한 번만 자동 동기화
+                feedStaleAfterUpload = false;
+                onClickDownload(null);
             }
         });
     }
@@ -886,7 +885,7 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        executorService.execute(() -> {
+        scheduler.submit(Priority.INTERACTIVE, () -> {
             HttpURLConnection conn = null;
             try {
                 URL url = new URL(site_url + "api_root/Post/" + post.getId() + "/");
@@ -924,68 +923,84 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Fetch one page of the post list JSON through the shared transport (gzip, keep-alive)
+     * @return response body, or null if the server did not answer 200
+     */
+    private String fetchPostPage(String pageUrl, int timeoutMs) throws IOException {
+        HttpRequest request = new HttpRequest.Builder(pageUrl)
+                .header("Authorization", "Token " + SessionManager.getInstance().getToken())
+                .connectTimeout(timeoutMs)
+                .readTimeout(timeoutMs)
+                .build();
+        try (HttpResponse response = HttpTransport.getInstance().execute(request)) {
+            if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+            return response.getBodyString();
+        }
+    }
+
+    /**
+     * Parse one page of the post list into posts
+     * @return URL of the next page, or null if this was the last one
+     */
+    private static String parsePostPage(String body, List<Post> into) throws JSONException {
+        // The list is paginated ({"count", "next", "results"}); older servers sent a bare array
+        JSONArray results;
+        String next = null;
+        if (body.trim().startsWith("[")) {
+            results = new JSONArray(body);
+        } else {
+            JSONObject page = new JSONObject(body);
+            results = page.getJSONArray("results");
+            if (!page.isNull("next")) {
+                next = page.getString("next");
+            }
+        }
+        for (int i = 0; i < results.length(); i++) {
+            into.add(new Post(results.getJSONObject(i)));
+        }
+        return next;
+    }
+
     /**
      * Check for new posts without updating UI
+     * Only the delta since the last seen post is requested, not the full list
      * Used by foreground polling and background sync
      * @param showNotification Whether to show notification for new posts
      */
     private void checkForNewPosts(boolean showNotification) {
-        executorService.execute(() -> {
+        scheduler.submit(Priority.BACKGROUND, () -> {
             try {
-                URL url = new URL(site_url + "api_root/Post/");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(2000);
-                conn.setReadTimeout(2000);
-
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream is = conn.getInputStream();
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-                    StringBuilder result = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        result.append(line);
-                    }
-                    is.close();
-                    conn.disconnect();
-
-                    JSONArray aryJson = new JSONArray(result.toString());
-                    int lastSeenId = syncPrefs.getLastSeenPostId();
-                    int maxId = 0;
-                    int newPostCount = 0;
-                    String firstNewObjectName = null;
-
-                    for (int i = 0; i < aryJson.length(); i++) {
-                        JSONObject post_json = aryJson.getJSONObject(i);
-                        int id = post_json.optInt("id", -1);
-                        if (id > maxId) {
-                            maxId = id;
-                        }
-                        if (id > lastSeenId) {
-                            newPostCount++;
-                            if (firstNewObjectName == null) {
-                                firstNewObjectName = post_json.optString("title", "");
-                            }
-                        }
+                boolean hasBaseline = syncPrefs.hasLastSeenPostId();
+                int lastSeenId = syncPrefs.getLastSeenPostId();
+                PostSyncClient.Delta delta = postSyncClient.fetchDelta(
+                        SessionManager.getInstance().getToken(), lastSeenId, 2000);
+
+                Log.d(TAG, "checkForNewPosts: lastSeenId=" + lastSeenId +
+                      ", watermark=" + delta.getWatermark() + ", newPostCount=" + delta.getNewCount() +
+                      ", reset=" + delta.isReset());
+
+                if (!hasBaseline) {
+                    // Nothing seen yet: start counting from the current newest post
+                    syncPrefs.setLastSeenPostId(delta.getWatermark());
+                } else if (delta.isReset()) {
+                    // Server no longer has our last seen post: reload the full list
+                    syncPrefs.setLastSeenPostId(delta.getWatermark());
+                    mainHandler.post(() -> onClickDownload(null));
+                } else if (delta.getNewCount() > 0) {
+                    if (showNotification) {
+                        // Show notification for new detections
+                        notificationHelper.showNewDetectionNotification(
+                                delta.getNewCount(), delta.getFirstNewTitle());
                     }
 
-                    Log.d(TAG, "checkForNewPosts: lastSeenId=" + lastSeenId +
-                          ", maxId=" + maxId + ", newPostCount=" + newPostCount);
-
-                    if (newPostCount > 0) {
-                        if (showNotification) {
-                            // Show notification for new detections
-                            notificationHelper.showNewDetectionNotification(newPostCount, firstNewObjectName);
-                        }
-
-                        // Update lastSeenPostId
-                        syncPrefs.setLastSeenPostId(maxId);
+                    // Update lastSeenPostId
+                    syncPrefs.setLastSeenPostId(delta.getWatermark());
 
-                        // Always trigger full sync to update UI
-                        mainHandler.post(() -> onClickDownload(null));
-                    }
+                    // Always trigger full sync to update UI
+                    mainHandler.post(() -> onClickDownload(null));
                 }
             } catch (IOException | JSONException e) {
                 Log.e(TAG, "Error in checkForNewPosts: " + e.getMessage());
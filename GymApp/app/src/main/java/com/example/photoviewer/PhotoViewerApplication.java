@@ -5,19 +5,34 @@ import android.app.Application;
 import android.os.Bundle;
 import android.util.Log;
 
+import androidx.work.BackoffPolicy;
 import androidx.work.Constraints;
 import androidx.work.NetworkType;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 
+import com.example.photoviewer.data.GymDatabase;
+import com.example.photoviewer.images.ImageLoader;
+import com.example.photoviewer.network.HttpTransport;
+import com.example.photoviewer.network.ResponseCache;
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.TaskScheduler;
+import com.example.photoviewer.services.GymApiService;
+import com.example.photoviewer.services.GymRepository;
+import com.example.photoviewer.services.UploadQueue;
+import com.example.photoviewer.utils.DiskLruCache;
+import com.example.photoviewer.utils.MemoryGovernor;
 import com.example.photoviewer.utils.SecureTokenManager;
 import com.example.photoviewer.workers.BackgroundSyncWorker;
+import com.example.photoviewer.workers.UploadWorker;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 public class PhotoViewerApplication extends Application {
     private static final String TAG = "PhotoViewerApplication";
     private static final long SESSION_TIMEOUT_MS = 600000; // 10 minutes
+    private static final long SYNC_BACKOFF_SECONDS = 60;
 
     // Volatile session state - resets to false when process dies
     private static boolean sessionActive = false;
@@ -60,9 +75,24 @@ public class PhotoViewerApplication extends Application {
             Log.e(TAG, "Failed to initialize SecureTokenManager", e);
         }
 
+        // Attach the conditional-GET cache to the shared HTTP transport
+        setupResponseCache();
+
+        // Every image view loads through one memory + disk cache
+        setupImageCache();
+
+        // Screens render from the on-device store before the network answers
+        setupLocalStore();
+
         // Initialize background sync with WorkManager
         setupBackgroundSync();
 
+        // Send uploads left in the journal by an earlier process
+        setupUploadQueue();
+
+        // Shed in-memory caches when the system is low on memory
+        setupMemoryGovernor();
+
         // Register ActivityLifecycleCallbacks to track app lifecycle
         registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacks() {
             @Override
@@ -129,6 +159,58 @@ public class PhotoViewerApplication extends Application {
         });
     }
 
+    /**
+     * Setup disk cache for validated API responses
+     * The cache index is loaded lazily on the first request, off the main thread
+     */
+    private void setupResponseCache() {
+        File cacheDir = new File(getCacheDir(), "api-responses");
+        HttpTransport.getInstance().setResponseCache(
+            new ResponseCache(cacheDir, ResponseCache.DEFAULT_MAX_SIZE));
+        Log.d(TAG, "Response cache configured at " + cacheDir);
+    }
+
+    /**
+     * Setup disk cache for downloaded images
+     * Like the response cache, its index is loaded on first use off the main thread
+     */
+    private void setupImageCache() {
+        File cacheDir = new File(getCacheDir(), "images");
+        ImageLoader.getInstance().setDiskCache(
+            new DiskLruCache(cacheDir, ImageLoader.DEFAULT_DISK_CACHE_SIZE));
+        Log.d(TAG, "Image cache configured at " + cacheDir);
+    }
+
+    /**
+     * Attach the SQLite store to the repository
+     * The database is opened lazily on the repository's disk thread
+     */
+    private void setupLocalStore() {
+        GymRepository.getInstance().setLocalStore(GymDatabase.getInstance(this));
+        Log.d(TAG, "Local store configured");
+    }
+
+    /**
+     * Register the in-memory caches trimmed on onTrimMemory/onLowMemory
+     * Screens register their own caches (e.g. zoom tiles) while they are shown
+     */
+    private void setupMemoryGovernor() {
+        MemoryGovernor governor = MemoryGovernor.getInstance();
+        governor.register("images", "bytes", ImageLoader.getInstance());
+        governor.register("parsed api responses", "entries", GymApiService.getInstance());
+        Log.d(TAG, "Memory governor configured");
+    }
+
+    /**
+     * Create the upload queue and restart the workers of jobs still in its journal
+     * The journal is read on a background thread
+     */
+    private void setupUploadQueue() {
+        UploadQueue queue = UploadWorker.getQueue(this);
+        TaskScheduler.getInstance().submit(Priority.BACKGROUND, queue::resume);
+        Log.d(TAG, "Upload queue configured");
+    }
+
     /**
      * Setup background sync with WorkManager
      * Runs periodic checks every 15 minutes for new posts
@@ -148,6 +230,9 @@ public class PhotoViewerApplication extends Application {
             TimeUnit.MINUTES
         )
         .setConstraints(constraints)
+        // Failed syncs (Result.retry) back off exponentially instead of every device
+        // retrying the server on the same fixed schedule
+        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, SYNC_BACKOFF_SECONDS, TimeUnit.SECONDS)
         .build();
 
         // Enqueue work (replace existing with same tag)
@@ -161,4 +246,15 @@ public class PhotoViewerApplication extends Application {
         Log.d(TAG, "Background sync worker scheduled (15 minute interval)");
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        MemoryGovernor.getInstance().onTrimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        MemoryGovernor.getInstance().onLowMemory();
+    }
 }
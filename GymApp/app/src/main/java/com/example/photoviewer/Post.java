@@ -1,20 +1,47 @@
 package com.example.photoviewer;
 
-import android.graphics.Bitmap;
+import org.json.JSONException;
+import org.json.JSONObject;
 
+/**
+ * Post metadata. The image itself is loaded on demand through the shared
+ * image cache; a post only knows where it is and how big it is.
+ */
 public class Post {
     private int id;
     private String title;
     private String text;
     private String imageUrl;
-    private Bitmap imageBitmap;
+    // Pixel size of the original image, 0 if the server did not report it
+    private int imageWidth;
+    private int imageHeight;
 
-    public Post(int id, String title, String text, String imageUrl, Bitmap imageBitmap) {
+    public Post(int id, String title, String text, String imageUrl) {
+        this(id, title, text, imageUrl, 0, 0);
+    }
+
+    public Post(int id, String title, String text, String imageUrl, int imageWidth, int imageHeight) {
         this.id = id;
         this.title = title;
         this.text = text;
         this.imageUrl = imageUrl;
-        this.imageBitmap = imageBitmap;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+    }
+
+    /**
+     * Constructor from one entry of the post list API response
+     *
+     * @param json JSONObject from API response
+     * @throws JSONException if the id is missing
+     */
+    public Post(JSONObject json) throws JSONException {
+        this.id = json.getInt("id");
+        this.title = json.optString("title", "No title");
+        this.text = json.optString("text", "");
+        this.imageUrl = json.isNull("image") ? null : json.optString("image", null);
+        this.imageWidth = json.optInt("image_width", 0);
+        this.imageHeight = json.optInt("image_height", 0);
     }
 
     public int getId() {
@@ -33,7 +60,34 @@ public class Post {
         return imageUrl;
     }
 
-    public Bitmap getImageBitmap() {
-        return imageBitmap;
+    public boolean hasImage() {
+        return imageUrl != null && !imageUrl.isEmpty();
+    }
+
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    /**
+     * True if the image size is known, so its aspect ratio can be laid out
+     * before the image has loaded
+     */
+    public boolean hasImageSize() {
+        return imageWidth > 0 && imageHeight > 0;
+    }
+
+    /**
+     * Height that shows the image at the given width without distortion,
+     * or fallback if the image size is unknown
+     */
+    public int heightForWidth(int width, int fallback) {
+        if (!hasImageSize() || width <= 0) {
+            return fallback;
+        }
+        return (int) ((long) width * imageHeight / imageWidth);
     }
 }
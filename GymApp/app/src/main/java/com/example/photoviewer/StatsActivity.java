@@ -17,6 +17,8 @@ import androidx.core.util.Pair;
 
 import com.example.photoviewer.models.MachineStats;
 import com.example.photoviewer.services.GymApiService;
+import com.example.photoviewer.services.GymRepository;
+import com.example.photoviewer.services.LatestRequest;
 import com.example.photoviewer.services.SessionManager;
 import com.github.mikephil.charting.charts.HorizontalBarChart;
 import com.github.mikephil.charting.components.XAxis;
@@ -63,6 +65,7 @@ public class StatsActivity extends AppCompatActivity {
     private ImageButton btnBack;
 
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LatestRequest statsRequest = new LatestRequest();
 
     private int machineId = -1;
     private String machineName = "";
@@ -218,13 +221,14 @@ public class StatsActivity extends AppCompatActivity {
     private void loadStats() {
         showLoadingState();
 
-        GymApiService.getInstance().getMachineStats(
+        // Stored stats render first; supersedes the request for a previous date range
+        statsRequest.replace(GymRepository.getInstance().getMachineStats(
                 machineId,
                 dateFrom,
                 dateTo,
-                new GymApiService.StatsCallback() {
+                new GymRepository.DataCallback<MachineStats>() {
                     @Override
-                    public void onSuccess(MachineStats stats) {
+                    public void onData(MachineStats stats, boolean fromCache) {
                         mainHandler.post(() -> {
                             if (stats.isEmpty()) {
                                 showEmptyState();
@@ -236,17 +240,17 @@ public class StatsActivity extends AppCompatActivity {
                     }
 
                     @Override
-                    public void onError(String errorMessage) {
+                    public void onError(String errorMessage, boolean hasCachedData) {
                         mainHandler.post(() -> {
                             if (GymApiService.ERROR_UNAUTHORIZED.equals(errorMessage)) {
                                 handleUnauthorized();
-                            } else {
+                            } else if (!hasCachedData) {
                                 showErrorState(errorMessage);
                             }
                         });
                     }
                 }
-        );
+        ));
     }
 
     private void populateUI(MachineStats stats) {
@@ -377,6 +381,12 @@ public class StatsActivity extends AppCompatActivity {
         redirectToLogin();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        statsRequest.cancel();
+    }
+
     private void redirectToLogin() {
         Intent intent = new Intent(this, LoginActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -1,10 +1,6 @@
 package com.example.photoviewer.adapters;
 
 import android.content.res.ColorStateList;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -15,16 +11,15 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.photoviewer.BuildConfig;
 import com.example.photoviewer.R;
 import com.example.photoviewer.dialogs.ImageViewerDialog;
+import com.example.photoviewer.images.ImageLoader;
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.images.ThumbnailPrefetcher;
+import com.example.photoviewer.models.ImageVariant;
 import com.example.photoviewer.models.MachineEvent;
-import com.example.photoviewer.services.SessionManager;
 import com.google.android.material.chip.Chip;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -32,22 +27,21 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * EventAdapter - RecyclerView adapter for displaying machine events
  */
-public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHolder> {
+public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHolder>
+        implements ThumbnailPrefetcher.RequestSource {
     private static final String TAG = "EventAdapter";
-    private static final String API_BASE_URL = BuildConfig.API_BASE_URL.replaceAll("/$", "");
     private static final String COLOR_START = "#28A745";
     private static final String COLOR_END = "#DC3545";
 
     private List<MachineEvent> events = new ArrayList<>();
+    // Pixel size of the thumbnail view, known once the first row is laid out
+    private int thumbnailWidth;
+    private int thumbnailHeight;
     private OnEventClickListener clickListener;
-    private final ExecutorService imageExecutor = Executors.newFixedThreadPool(3);
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     /**
      * Interface for handling event item clicks
@@ -74,10 +68,56 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
     }
 
     public void setEvents(List<MachineEvent> events) {
-        this.events = events != null ? events : new ArrayList<>();
+        this.events = events != null ? new ArrayList<>(events) : new ArrayList<>();
         notifyDataSetChanged();
     }
 
+    /**
+     * Append a page of events, rebinding only the inserted rows
+     */
+    public void appendEvents(List<MachineEvent> newEvents) {
+        if (newEvents.isEmpty()) {
+            return;
+        }
+        int start = events.size();
+        events.addAll(newEvents);
+        notifyItemRangeInserted(start, newEvents.size());
+    }
+
+    /**
+     * Insert a page of events at the top, rebinding only the inserted rows
+     */
+    public void prependEvents(List<MachineEvent> newEvents) {
+        if (newEvents.isEmpty()) {
+            return;
+        }
+        events.addAll(0, newEvents);
+        notifyItemRangeInserted(0, newEvents.size());
+    }
+
+    /**
+     * Remove rows from the top when a page leaves the in-memory window
+     */
+    public void removeEventsFromStart(int count) {
+        if (count <= 0) {
+            return;
+        }
+        events.subList(0, count).clear();
+        notifyItemRangeRemoved(0, count);
+    }
+
+    /**
+     * Remove rows from the bottom when a page leaves the in-memory window
+     */
+    public void removeEventsFromEnd(int count) {
+        if (count <= 0) {
+            return;
+        }
+        int start = events.size() - count;
+        events.subList(start, events.size()).clear();
+        notifyItemRangeRemoved(start, count);
+    }
+
     @NonNull
     @Override
     public EventViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -97,6 +137,13 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
         return events.size();
     }
 
+    @Override
+    public void onViewRecycled(@NonNull EventViewHolder holder) {
+        super.onViewRecycled(holder);
+        // The row is off screen: cancel its load and give its thumbnail back to the pool
+        ImageLoader.getInstance().clear(holder.ivThumbnail);
+    }
+
     /**
      * ViewHolder for event items
      */
@@ -154,7 +201,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
             tvDate.setText(formatted[0]);
             tvTime.setText(formatted[1]);
 
-            loadThumbnail(event.getImageUrl(), ivThumbnail);
+            loadThumbnail(event.getImageUrl(), event.getImageVariants(), ivThumbnail);
         }
     }
 
@@ -196,63 +243,48 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
     }
 
     /**
-     * Load thumbnail image from URL using HttpURLConnection
+     * Thumbnail request for a row, the same one the row loads when bound
      */
-    private void loadThumbnail(String imageUrl, ImageView imageView) {
-        imageView.setImageResource(R.drawable.placeholder_image);
+    @Override
+    public ImageRequest getImageRequest(int position) {
+        if (position < 0 || position >= events.size() || thumbnailWidth == 0) {
+            return null;
+        }
+        MachineEvent event = events.get(position);
+        return thumbnailRequest(event.getImageUrl(), event.getImageVariants());
+    }
 
+    private ImageRequest thumbnailRequest(String imageUrl, List<ImageVariant> variants) {
         if (imageUrl == null || imageUrl.isEmpty()) {
-            Log.d(TAG, "No image URL provided");
-            return;
+            return null;
         }
+        return new ImageRequest.Builder(imageUrl)
+                .size(thumbnailWidth, thumbnailHeight)
+                .variants(variants)
+                .placeholder(R.drawable.placeholder_image)
+                .build();
+    }
 
-        imageView.setTag(imageUrl);
-
-        imageExecutor.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                String fullUrl = imageUrl;
-                if (!imageUrl.startsWith("http")) {
-                    fullUrl = API_BASE_URL + imageUrl;
-                }
-
-                Log.d(TAG, "Loading thumbnail from: " + fullUrl);
-
-                URL url = new URL(fullUrl);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(5000);
-
-                // Add authorization header for authenticated media access
-                String token = SessionManager.getInstance().getToken();
-                if (token != null && !token.isEmpty()) {
-                    conn.setRequestProperty("Authorization", "Token " + token);
-                }
-
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream inputStream = conn.getInputStream();
-                    Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                    inputStream.close();
-
-                    if (bitmap != null) {
-                        String finalUrl = imageUrl;
-                        mainHandler.post(() -> {
-                            if (finalUrl.equals(imageView.getTag())) {
-                                imageView.setImageBitmap(bitmap);
-                            }
-                        });
-                    }
-                } else {
-                    Log.e(TAG, "Failed to load event image: " + responseCode + " from " + fullUrl);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading event image: " + e.getMessage());
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
+    /**
+     * Load thumbnail image through the shared image cache
+     */
+    private void loadThumbnail(String imageUrl, List<ImageVariant> variants, ImageView imageView) {
+        if (thumbnailWidth == 0) {
+            ViewGroup.LayoutParams params = imageView.getLayoutParams();
+            if (params != null && params.width > 0 && params.height > 0) {
+                thumbnailWidth = params.width;
+                thumbnailHeight = params.height;
             }
-        });
+        }
+
+        ImageRequest request = thumbnailRequest(imageUrl, variants);
+        if (request == null) {
+            Log.d(TAG, "No image URL provided");
+            ImageLoader.getInstance().clear(imageView);
+            imageView.setImageResource(R.drawable.placeholder_image);
+            return;
+        }
+        // Rebinding the row cancels the load of the image it showed before
+        ImageLoader.getInstance().load(request, imageView);
     }
 }
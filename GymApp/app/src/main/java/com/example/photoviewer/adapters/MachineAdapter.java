@@ -1,10 +1,5 @@
 package com.example.photoviewer.adapters;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,32 +9,31 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.photoviewer.BuildConfig;
 import com.example.photoviewer.R;
+import com.example.photoviewer.images.ImageLoader;
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.images.ThumbnailPrefetcher;
 import com.example.photoviewer.models.GymMachine;
+import com.example.photoviewer.models.ImageVariant;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * MachineAdapter - RecyclerView adapter for displaying gym machines
  *
  * Displays machine info including thumbnail, name, location, and event count.
- * Handles thumbnail loading in background thread.
+ * Thumbnails are loaded through the shared {@link ImageLoader}.
  */
-public class MachineAdapter extends RecyclerView.Adapter<MachineAdapter.MachineViewHolder> {
+public class MachineAdapter extends RecyclerView.Adapter<MachineAdapter.MachineViewHolder>
+        implements ThumbnailPrefetcher.RequestSource {
     private static final String TAG = "MachineAdapter";
-    private static final String API_BASE_URL = BuildConfig.API_BASE_URL.replaceAll("/$", "");
 
     private List<GymMachine> machines = new ArrayList<>();
+    // Pixel size of the thumbnail view, known once the first row is laid out
+    private int thumbnailWidth;
+    private int thumbnailHeight;
     private OnMachineClickListener clickListener;
-    private final ExecutorService imageExecutor = Executors.newFixedThreadPool(3);
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     /**
      * Interface for handling machine item clicks
@@ -79,6 +73,13 @@ public class MachineAdapter extends RecyclerView.Adapter<MachineAdapter.MachineV
         return machines.size();
     }
 
+    @Override
+    public void onViewRecycled(@NonNull MachineViewHolder holder) {
+        super.onViewRecycled(holder);
+        // The row is off screen: cancel its load and give its thumbnail back to the pool
+        ImageLoader.getInstance().clear(holder.ivThumbnail);
+    }
+
     /**
      * ViewHolder for machine items
      */
@@ -120,65 +121,52 @@ public class MachineAdapter extends RecyclerView.Adapter<MachineAdapter.MachineV
             tvStatus.setText("Active");
 
             // Load thumbnail image in background
-            loadThumbnail(machine.getThumbnailUrl(), ivThumbnail);
+            loadThumbnail(machine.getThumbnailUrl(), machine.getThumbnailVariants(), ivThumbnail);
         }
     }
 
     /**
-     * Load thumbnail image from URL using HttpURLConnection
-     * Runs in background thread, updates UI on main thread
+     * Thumbnail request for a row, the same one the row loads when bound
      */
-    private void loadThumbnail(String thumbnailUrl, ImageView imageView) {
-        // Set placeholder first
-        imageView.setImageResource(R.drawable.placeholder_image);
+    @Override
+    public ImageRequest getImageRequest(int position) {
+        if (position < 0 || position >= machines.size() || thumbnailWidth == 0) {
+            return null;
+        }
+        GymMachine machine = machines.get(position);
+        return thumbnailRequest(machine.getThumbnailUrl(), machine.getThumbnailVariants());
+    }
 
+    private ImageRequest thumbnailRequest(String thumbnailUrl, List<ImageVariant> variants) {
         if (thumbnailUrl == null || thumbnailUrl.isEmpty()) {
-            return;
+            return null;
         }
+        return new ImageRequest.Builder(thumbnailUrl)
+                .size(thumbnailWidth, thumbnailHeight)
+                .variants(variants)
+                .placeholder(R.drawable.placeholder_image)
+                .build();
+    }
 
-        // Store reference to check if view was recycled
-        imageView.setTag(thumbnailUrl);
-
-        imageExecutor.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                // Build full URL if relative
-                String fullUrl = thumbnailUrl;
-                if (!thumbnailUrl.startsWith("http")) {
-                    fullUrl = API_BASE_URL + thumbnailUrl;
-                }
-
-                Log.d(TAG, "Loading thumbnail: " + fullUrl);
-
-                URL url = new URL(fullUrl);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(5000);
-
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream inputStream = conn.getInputStream();
-                    Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                    inputStream.close();
-
-                    if (bitmap != null) {
-                        mainHandler.post(() -> {
-                            // Check if view is still showing same image URL
-                            if (thumbnailUrl.equals(imageView.getTag())) {
-                                imageView.setImageBitmap(bitmap);
-                            }
-                        });
-                    }
-                } else {
-                    Log.e(TAG, "Failed to load thumbnail: " + responseCode);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading thumbnail: " + e.getMessage());
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
+    /**
+     * Load thumbnail image through the shared image cache
+     */
+    private void loadThumbnail(String thumbnailUrl, List<ImageVariant> variants, ImageView imageView) {
+        if (thumbnailWidth == 0) {
+            ViewGroup.LayoutParams params = imageView.getLayoutParams();
+            if (params != null && params.width > 0 && params.height > 0) {
+                thumbnailWidth = params.width;
+                thumbnailHeight = params.height;
             }
-        });
+        }
+
+        ImageRequest request = thumbnailRequest(thumbnailUrl, variants);
+        if (request == null) {
+            ImageLoader.getInstance().clear(imageView);
+            imageView.setImageResource(R.drawable.placeholder_image);
+            return;
+        }
+        // Rebinding the row cancels the load of the image it showed before
+        ImageLoader.getInstance().load(request, imageView);
     }
 }
@@ -0,0 +1,371 @@
+package com.example.photoviewer.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.example.photoviewer.models.GymMachine;
+import com.example.photoviewer.models.ImageVariant;
+import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.models.MachineStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GymDatabase - SQLite implementation of {@link LocalStore}
+ *
+ * Events are indexed by (machine_id, captured_at) to match the per-machine,
+ * newest-first queries of the event list; daily usage is keyed by
+ * (machine_id, date) so any date range can be read back from the rows of
+ * earlier, overlapping ranges. Each machine keeps at most
+ * {@link #MAX_EVENTS_PER_MACHINE} events; older ones are pruned on write.
+ */
+public class GymDatabase extends SQLiteOpenHelper implements LocalStore {
+    private static final String DATABASE_NAME = "gym.db";
+    private static final int DATABASE_VERSION = 2;
+    private static final int MAX_EVENTS_PER_MACHINE = 1000;
+
+    private static final String TABLE_MACHINES = "machines";
+    private static final String TABLE_EVENTS = "events";
+    private static final String TABLE_STATS = "machine_stats";
+    private static final String TABLE_DAILY_USAGE = "daily_usage";
+
+    private static GymDatabase instance;
+
+    private GymDatabase(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized GymDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new GymDatabase(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        // Readers do not block the writer saving a fresh response
+        db.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_MACHINES + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "position INTEGER NOT NULL, "
+                + "name TEXT, "
+                + "machine_type TEXT, "
+                + "location TEXT, "
+                + "description TEXT, "
+                + "thumbnail_url TEXT, "
+                + "thumbnail_variants TEXT, "
+                + "is_active INTEGER NOT NULL, "
+                + "event_count INTEGER NOT NULL, "
+                + "last_event_type TEXT, "
+                + "last_event_captured_at TEXT)");
+
+        db.execSQL("CREATE TABLE " + TABLE_EVENTS + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "machine_id INTEGER NOT NULL, "
+                + "machine_name TEXT, "
+                + "event_type TEXT, "
+                + "event_type_display TEXT, "
+                + "image_url TEXT, "
+                + "image_variants TEXT, "
+                + "captured_at TEXT NOT NULL, "
+                + "person_count INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_events_machine_captured ON "
+                + TABLE_EVENTS + " (machine_id, captured_at DESC)");
+
+        db.execSQL("CREATE TABLE " + TABLE_STATS + " ("
+                + "machine_id INTEGER NOT NULL, "
+                + "date_from TEXT NOT NULL, "
+                + "date_to TEXT NOT NULL, "
+                + "machine_name TEXT, "
+                + "total_starts INTEGER NOT NULL, "
+                + "total_ends INTEGER NOT NULL, "
+                + "first_date TEXT NOT NULL, "
+                + "last_date TEXT NOT NULL, "
+                + "PRIMARY KEY (machine_id, date_from, date_to))");
+
+        db.execSQL("CREATE TABLE " + TABLE_DAILY_USAGE + " ("
+                + "machine_id INTEGER NOT NULL, "
+                + "date TEXT NOT NULL, "
+                + "count INTEGER NOT NULL, "
+                + "PRIMARY KEY (machine_id, date))");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Everything here can be fetched again from the server
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_MACHINES);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_EVENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_STATS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_DAILY_USAGE);
+        onCreate(db);
+    }
+
+    // ==================== Machines ====================
+
+    @Override
+    public List<GymMachine> getMachines() {
+        List<GymMachine> machines = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE_MACHINES, null, null, null,
+                null, null, "position")) {
+            while (c.moveToNext()) {
+                String lastEventType = getString(c, "last_event_type");
+                GymMachine.LastEvent lastEvent = lastEventType == null ? null
+                        : new GymMachine.LastEvent(lastEventType, getString(c, "last_event_captured_at"));
+                machines.add(new GymMachine(
+                        getInt(c, "id"),
+                        getString(c, "name"),
+                        getString(c, "machine_type"),
+                        getString(c, "location"),
+                        getString(c, "description"),
+                        getString(c, "thumbnail_url"),
+                        ImageVariant.listFromJsonString(getString(c, "thumbnail_variants")),
+                        getInt(c, "is_active") != 0,
+                        getInt(c, "event_count"),
+                        lastEvent));
+            }
+        }
+        return machines.isEmpty() ? null : machines;
+    }
+
+    @Override
+    public void saveMachines(List<GymMachine> machines) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_MACHINES, null, null);
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < machines.size(); i++) {
+                GymMachine machine = machines.get(i);
+                values.clear();
+                values.put("id", machine.getId());
+                values.put("position", i);
+                values.put("name", machine.getName());
+                values.put("machine_type", machine.getMachineType());
+                values.put("location", machine.getLocation());
+                values.put("description", machine.getDescription());
+                values.put("thumbnail_url", machine.getThumbnailUrl());
+                values.put("thumbnail_variants", ImageVariant.listToJsonString(machine.getThumbnailVariants()));
+                values.put("is_active", machine.isActive() ? 1 : 0);
+                values.put("event_count", machine.getEventCount());
+                GymMachine.LastEvent lastEvent = machine.getLastEvent();
+                values.put("last_event_type", lastEvent != null ? lastEvent.getEventType() : null);
+                values.put("last_event_captured_at", lastEvent != null ? lastEvent.getCapturedAt() : null);
+                db.insertWithOnConflict(TABLE_MACHINES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // ==================== Events ====================
+
+    @Override
+    public List<MachineEvent> getMachineEvents(int machineId, String eventType,
+                                               String dateFrom, String dateTo, int limit) {
+        StringBuilder selection = new StringBuilder("machine_id = ?");
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(machineId));
+        if (eventType != null && !eventType.isEmpty()) {
+            selection.append(" AND event_type = ?");
+            args.add(eventType);
+        }
+        if (dateFrom != null && !dateFrom.isEmpty()) {
+            // captured_at is ISO-8601, so a date prefix compares lexically
+            selection.append(" AND captured_at >= ?");
+            args.add(dateFrom);
+        }
+        if (dateTo != null && !dateTo.isEmpty()) {
+            selection.append(" AND captured_at < date(?, '+1 day')");
+            args.add(dateTo);
+        }
+
+        List<MachineEvent> events = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE_EVENTS, null, selection.toString(),
+                args.toArray(new String[0]), null, null, "captured_at DESC, id DESC",
+                String.valueOf(limit))) {
+            while (c.moveToNext()) {
+                events.add(readEvent(c));
+            }
+        }
+        return events.isEmpty() ? null : events;
+    }
+
+    @Override
+    public MachineEvent getEvent(int eventId) {
+        try (Cursor c = getReadableDatabase().query(TABLE_EVENTS, null, "id = ?",
+                new String[]{String.valueOf(eventId)}, null, null, null)) {
+            return c.moveToFirst() ? readEvent(c) : null;
+        }
+    }
+
+    @Override
+    public void saveEvents(List<MachineEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            List<Integer> machineIds = new ArrayList<>();
+            for (MachineEvent event : events) {
+                values.clear();
+                values.put("id", event.getId());
+                values.put("machine_id", event.getMachineId());
+                values.put("machine_name", event.getMachineName());
+                values.put("event_type", event.getEventType());
+                values.put("event_type_display", event.getEventTypeDisplay());
+                values.put("image_url", event.getImageUrl());
+                values.put("image_variants", ImageVariant.listToJsonString(event.getImageVariants()));
+                values.put("captured_at", event.getCapturedAt() != null ? event.getCapturedAt() : "");
+                values.put("person_count", event.getPersonCount());
+                db.insertWithOnConflict(TABLE_EVENTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                if (!machineIds.contains(event.getMachineId())) {
+                    machineIds.add(event.getMachineId());
+                }
+            }
+            for (int machineId : machineIds) {
+                String id = String.valueOf(machineId);
+                db.execSQL("DELETE FROM " + TABLE_EVENTS + " WHERE machine_id = ? AND id NOT IN ("
+                                + "SELECT id FROM " + TABLE_EVENTS + " WHERE machine_id = ? "
+                                + "ORDER BY captured_at DESC LIMIT " + MAX_EVENTS_PER_MACHINE + ")",
+                        new Object[]{id, id});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static MachineEvent readEvent(Cursor c) {
+        MachineEvent event = new MachineEvent(
+                getInt(c, "id"),
+                getInt(c, "machine_id"),
+                getString(c, "machine_name"),
+                getString(c, "event_type"),
+                getString(c, "event_type_display"),
+                getString(c, "image_url"),
+                getString(c, "captured_at"),
+                getInt(c, "person_count"));
+        event.setImageVariants(ImageVariant.listFromJsonString(getString(c, "image_variants")));
+        return event;
+    }
+
+    // ==================== Stats ====================
+
+    @Override
+    public MachineStats getMachineStats(int machineId, String dateFrom, String dateTo) {
+        SQLiteDatabase db = getReadableDatabase();
+        String id = String.valueOf(machineId);
+        String machineName;
+        int totalStarts;
+        int totalEnds;
+        String firstDate;
+        String lastDate;
+        try (Cursor c = db.query(TABLE_STATS, null, "machine_id = ? AND date_from = ? AND date_to = ?",
+                new String[]{id, nonNull(dateFrom), nonNull(dateTo)}, null, null, null)) {
+            if (!c.moveToFirst()) {
+                return null;
+            }
+            machineName = getString(c, "machine_name");
+            totalStarts = getInt(c, "total_starts");
+            totalEnds = getInt(c, "total_ends");
+            firstDate = getString(c, "first_date");
+            lastDate = getString(c, "last_date");
+        }
+
+        List<MachineStats.DailyUsage> dailyUsage = new ArrayList<>();
+        try (Cursor c = db.query(TABLE_DAILY_USAGE, new String[]{"date", "count"},
+                "machine_id = ? AND date >= ? AND date <= ?",
+                new String[]{id, firstDate, lastDate}, null, null, "date")) {
+            while (c.moveToNext()) {
+                dailyUsage.add(new MachineStats.DailyUsage(c.getString(0), c.getInt(1)));
+            }
+        }
+        return new MachineStats(machineId, machineName, totalStarts, totalEnds, dailyUsage);
+    }
+
+    @Override
+    public void saveMachineStats(MachineStats stats, String dateFrom, String dateTo) {
+        List<MachineStats.DailyUsage> dailyUsage = stats.getDailyUsage() != null
+                ? stats.getDailyUsage() : new ArrayList<>();
+        // Without an explicit range, the server's default range is whatever it returned
+        String firstDate = nonNull(dateFrom);
+        String lastDate = nonNull(dateTo);
+        for (MachineStats.DailyUsage day : dailyUsage) {
+            if (dateFrom == null && (firstDate.isEmpty() || day.getDate().compareTo(firstDate) < 0)) {
+                firstDate = day.getDate();
+            }
+            if (dateTo == null && day.getDate().compareTo(lastDate) > 0) {
+                lastDate = day.getDate();
+            }
+        }
+
+        String id = String.valueOf(stats.getMachineId());
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            values.put("machine_id", stats.getMachineId());
+            values.put("date_from", nonNull(dateFrom));
+            values.put("date_to", nonNull(dateTo));
+            values.put("machine_name", stats.getMachineName());
+            values.put("total_starts", stats.getTotalStarts());
+            values.put("total_ends", stats.getTotalEnds());
+            values.put("first_date", firstDate);
+            values.put("last_date", lastDate);
+            db.insertWithOnConflict(TABLE_STATS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+            // Days missing from the response had no usage
+            db.delete(TABLE_DAILY_USAGE, "machine_id = ? AND date >= ? AND date <= ?",
+                    new String[]{id, firstDate, lastDate});
+            for (MachineStats.DailyUsage day : dailyUsage) {
+                values.clear();
+                values.put("machine_id", stats.getMachineId());
+                values.put("date", day.getDate());
+                values.put("count", day.getCount());
+                db.insertWithOnConflict(TABLE_DAILY_USAGE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Override
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_MACHINES, null, null);
+            db.delete(TABLE_EVENTS, null, null);
+            db.delete(TABLE_STATS, null, null);
+            db.delete(TABLE_DAILY_USAGE, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String getString(Cursor c, String column) {
+        return c.getString(c.getColumnIndexOrThrow(column));
+    }
+
+    private static int getInt(Cursor c, String column) {
+        return c.getInt(c.getColumnIndexOrThrow(column));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.photoviewer.data;
+
+import com.example.photoviewer.models.GymMachine;
+import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.models.MachineStats;
+
+import java.util.List;
+
+/**
+ * LocalStore - On-device copy of the data last received from the API
+ *
+ * Reads return null when nothing has been stored yet. All methods do disk
+ * I/O and must be called off the main thread.
+ */
+public interface LocalStore {
+
+    List<GymMachine> getMachines();
+
+    /**
+     * Replace the stored machine list, keeping the server's order
+     */
+    void saveMachines(List<GymMachine> machines);
+
+    /**
+     * Newest stored events of a machine matching the same filters as the
+     * events API (event type and inclusive YYYY-MM-DD date range, each optional)
+     */
+    List<MachineEvent> getMachineEvents(int machineId, String eventType,
+                                        String dateFrom, String dateTo, int limit);
+
+    MachineEvent getEvent(int eventId);
+
+    /**
+     * Insert or update events by id
+     */
+    void saveEvents(List<MachineEvent> events);
+
+    MachineStats getMachineStats(int machineId, String dateFrom, String dateTo);
+
+    void saveMachineStats(MachineStats stats, String dateFrom, String dateTo);
+
+    /**
+     * Remove everything, e.g. on logout
+     */
+    void clear();
+}
@@ -0,0 +1,130 @@
+package com.example.photoviewer.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.example.photoviewer.models.UploadJob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UploadJournal - SQLite implementation of {@link UploadStore}
+ *
+ * A database of its own ("uploads.db"), so dropping the cache tables of
+ * {@link GymDatabase} on a schema change never loses a queued upload.
+ * Only pending jobs are stored; a job is deleted once it is done.
+ */
+public class UploadJournal extends SQLiteOpenHelper implements UploadStore {
+    private static final String DATABASE_NAME = "uploads.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE_JOBS = "upload_jobs";
+
+    private static UploadJournal instance;
+
+    private UploadJournal(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized UploadJournal getInstance(Context context) {
+        if (instance == null) {
+            instance = new UploadJournal(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_JOBS + " ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "kind TEXT NOT NULL, "
+                + "post_id INTEGER NOT NULL, "
+                + "title TEXT NOT NULL, "
+                + "text TEXT NOT NULL, "
+                + "image_path TEXT, "
+                + "image_name TEXT, "
+                + "image_type TEXT, "
+                + "upload_session TEXT, "
+                + "attempts INTEGER NOT NULL, "
+                + "created_at INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Migrate rather than drop: the rows are uploads nobody has sent yet
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE " + TABLE_JOBS + " ADD COLUMN upload_session TEXT");
+        }
+    }
+
+    @Override
+    public List<UploadJob> getJobs() {
+        List<UploadJob> jobs = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE_JOBS, null, null, null,
+                null, null, "id")) {
+            while (c.moveToNext()) {
+                jobs.add(new UploadJob(
+                        c.getLong(c.getColumnIndexOrThrow("id")),
+                        UploadJob.Kind.valueOf(getString(c, "kind")),
+                        getInt(c, "post_id"),
+                        getString(c, "title"),
+                        getString(c, "text"),
+                        getString(c, "image_path"),
+                        getString(c, "image_name"),
+                        getString(c, "image_type"),
+                        getString(c, "upload_session"),
+                        getInt(c, "attempts"),
+                        c.getLong(c.getColumnIndexOrThrow("created_at"))));
+            }
+        }
+        return jobs;
+    }
+
+    @Override
+    public long insert(UploadJob job) {
+        return getWritableDatabase().insertOrThrow(TABLE_JOBS, null, toValues(job));
+    }
+
+    @Override
+    public void update(UploadJob job) {
+        getWritableDatabase().update(TABLE_JOBS, toValues(job), "id = ?",
+                new String[]{String.valueOf(job.getId())});
+    }
+
+    @Override
+    public void delete(long id) {
+        getWritableDatabase().delete(TABLE_JOBS, "id = ?", new String[]{String.valueOf(id)});
+    }
+
+    @Override
+    public void clear() {
+        getWritableDatabase().delete(TABLE_JOBS, null, null);
+    }
+
+    private static ContentValues toValues(UploadJob job) {
+        ContentValues values = new ContentValues();
+        values.put("kind", job.getKind().name());
+        values.put("post_id", job.getPostId());
+        values.put("title", job.getTitle());
+        values.put("text", job.getText());
+        values.put("image_path", job.getImagePath());
+        values.put("image_name", job.getImageName());
+        values.put("image_type", job.getImageType());
+        values.put("upload_session", job.getUploadSession());
+        values.put("attempts", job.getAttempts());
+        values.put("created_at", job.getCreatedAt());
+        return values;
+    }
+
+    private static String getString(Cursor c, String column) {
+        return c.getString(c.getColumnIndexOrThrow(column));
+    }
+
+    private static int getInt(Cursor c, String column) {
+        return c.getInt(c.getColumnIndexOrThrow(column));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.photoviewer.data;
+
+import com.example.photoviewer.models.UploadJob;
+
+import java.util.List;
+
+/**
+ * UploadStore - Journal of uploads that have not reached the server yet
+ *
+ * Unlike {@link LocalStore} nothing here can be fetched again, so it is
+ * kept apart from the cache and survives schema changes of it. All methods
+ * do disk I/O and must be called off the main thread.
+ */
+public interface UploadStore {
+
+    /**
+     * Every pending job, oldest first
+     */
+    List<UploadJob> getJobs();
+
+    /**
+     * Store a new job
+     *
+     * @return the id assigned to it
+     */
+    long insert(UploadJob job);
+
+    /**
+     * Replace the stored job with the same id
+     */
+    void update(UploadJob job);
+
+    void delete(long id);
+
+    /**
+     * Remove every job, e.g. on logout
+     */
+    void clear();
+}
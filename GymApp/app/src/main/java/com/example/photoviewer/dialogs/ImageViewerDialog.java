@@ -3,47 +3,37 @@ package com.example.photoviewer.dialogs;
 import android.app.Dialog;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.Window;
 import android.widget.ImageButton;
-import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
-import com.example.photoviewer.BuildConfig;
 import com.example.photoviewer.R;
+import com.example.photoviewer.images.ImageLoader;
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.images.TiledImageView;
 import com.example.photoviewer.models.MachineEvent;
-import com.example.photoviewer.services.SessionManager;
+import com.example.photoviewer.scheduler.Priority;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * ImageViewerDialog - Fullscreen dialog for viewing event images
  */
 public class ImageViewerDialog {
     private static final String TAG = "ImageViewerDialog";
-    private static final String API_BASE_URL = BuildConfig.API_BASE_URL.replaceAll("/$", "");
 
     private final Context context;
     private Dialog dialog;
-    private final ExecutorService imageExecutor = Executors.newSingleThreadExecutor();
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     public ImageViewerDialog(Context context) {
         this.context = context;
@@ -69,7 +59,7 @@ public class ImageViewerDialog {
             window.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
         }
 
-        ImageView ivFullImage = dialog.findViewById(R.id.ivFullImage);
+        TiledImageView ivFullImage = dialog.findViewById(R.id.ivFullImage);
         ImageButton btnClose = dialog.findViewById(R.id.btnClose);
         ProgressBar progressBar = dialog.findViewById(R.id.progressBar);
         TextView tvEventType = dialog.findViewById(R.id.tvEventType);
@@ -100,9 +90,12 @@ public class ImageViewerDialog {
         // Close button
         btnClose.setOnClickListener(v -> dismiss());
 
-        // Click on image or background to close
+        // Tap on image or background to close; pinch and double tap zoom
         ivFullImage.setOnClickListener(v -> dismiss());
 
+        // Hand the bitmap and tiles back to the shared cache once closed
+        dialog.setOnDismissListener(d -> ivFullImage.clear());
+
         // Load full image
         loadFullImage(event.getImageUrl(), ivFullImage, progressBar);
 
@@ -119,55 +112,32 @@ public class ImageViewerDialog {
     }
 
     /**
-     * Load full resolution image from URL
+     * Load full resolution image through the shared image cache. The list
+     * thumbnail, if cached, is shown at once and cross-fades to the full image;
+     * zooming in decodes tiles of the original.
      */
-    private void loadFullImage(String imageUrl, ImageView imageView, ProgressBar progressBar) {
+    private void loadFullImage(String imageUrl, TiledImageView imageView, ProgressBar progressBar) {
         progressBar.setVisibility(View.VISIBLE);
 
-        imageExecutor.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                String fullUrl = imageUrl;
-                if (!imageUrl.startsWith("http")) {
-                    fullUrl = API_BASE_URL + imageUrl;
-                }
-
-                Log.d(TAG, "Loading full image from: " + fullUrl);
-
-                URL url = new URL(fullUrl);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
+        ImageRequest request = new ImageRequest.Builder(imageUrl)
+                .priority(Priority.INTERACTIVE)
+                .progressive(true)
+                .build();
+        imageView.load(request, new ImageLoader.Listener() {
+            @Override
+            public void onPreview(Bitmap preview) {
+                progressBar.setVisibility(View.GONE);
+            }
 
-                // Add authorization header for authenticated media access
-                String token = SessionManager.getInstance().getToken();
-                if (token != null && !token.isEmpty()) {
-                    conn.setRequestProperty("Authorization", "Token " + token);
-                }
+            @Override
+            public void onSuccess(Bitmap bitmap) {
+                progressBar.setVisibility(View.GONE);
+            }
 
-                int responseCode = conn.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    InputStream inputStream = conn.getInputStream();
-                    Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                    inputStream.close();
-
-                    mainHandler.post(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        if (bitmap != null) {
-                            imageView.setImageBitmap(bitmap);
-                        }
-                    });
-                } else {
-                    Log.e(TAG, "Failed to load image: " + responseCode + " from " + fullUrl);
-                    mainHandler.post(() -> progressBar.setVisibility(View.GONE));
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading image: " + e.getMessage());
-                mainHandler.post(() -> progressBar.setVisibility(View.GONE));
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
+            @Override
+            public void onError() {
+                Log.e(TAG, "Failed to load image: " + imageUrl);
+                progressBar.setVisibility(View.GONE);
             }
         });
     }
@@ -0,0 +1,123 @@
+package com.example.photoviewer.images;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * BitmapDecoder - Decode images at the size they are shown at
+ *
+ * Reads the bounds first, then decodes with the sample size and pixel
+ * format from a {@link DecodePlan}. A target size of 0 decodes at full size.
+ *
+ * Given a {@link BitmapPool}, the decode goes into a pooled bitmap through
+ * inBitmap when one fits, and into a new bitmap otherwise. Decoded bitmaps
+ * are mutable so they can be pooled again later.
+ */
+public final class BitmapDecoder {
+    private static final String TAG = "BitmapDecoder";
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private interface DecodeCall {
+        Bitmap decode(BitmapFactory.Options options);
+    }
+
+    private BitmapDecoder() {
+    }
+
+    /**
+     * @return decoded bitmap, or null if the data is not an image
+     */
+    public static Bitmap decodeByteArray(byte[] data, int targetWidth, int targetHeight) {
+        return decodeByteArray(data, targetWidth, targetHeight, null);
+    }
+
+    /**
+     * @param pool bitmaps to decode into, may be null
+     * @return decoded bitmap, or null if the data is not an image
+     */
+    public static Bitmap decodeByteArray(byte[] data, int targetWidth, int targetHeight, BitmapPool pool) {
+        return decode(options -> BitmapFactory.decodeByteArray(data, 0, data.length, options),
+                targetWidth, targetHeight, pool);
+    }
+
+    /**
+     * @return decoded bitmap, or null if the file is missing or not an image
+     */
+    public static Bitmap decodeFile(String path, int targetWidth, int targetHeight) {
+        return decodeFile(path, targetWidth, targetHeight, null);
+    }
+
+    /**
+     * @param pool bitmaps to decode into, may be null
+     * @return decoded bitmap, or null if the file is missing or not an image
+     */
+    public static Bitmap decodeFile(String path, int targetWidth, int targetHeight, BitmapPool pool) {
+        return decode(options -> BitmapFactory.decodeFile(path, options), targetWidth, targetHeight, pool);
+    }
+
+    /**
+     * Decode a stream that cannot be rewound; it is buffered for the two passes
+     */
+    public static Bitmap decodeStream(InputStream in, int targetWidth, int targetHeight) throws IOException {
+        return decodeByteArray(readFully(in), targetWidth, targetHeight);
+    }
+
+    public static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static Bitmap decode(DecodeCall call, int targetWidth, int targetHeight, BitmapPool pool) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        call.decode(options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        DecodePlan plan = DecodePlan.forTarget(options.outWidth, options.outHeight,
+                options.outMimeType, targetWidth, targetHeight);
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = plan.getSampleSize();
+        options.inPreferredConfig = plan.isOpaque() ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        if (pool == null) {
+            return call.decode(options);
+        }
+
+        options.inBitmap = pool.get(plan.getWidth(), plan.getHeight(), options.inPreferredConfig);
+        Bitmap reused = options.inBitmap;
+        Bitmap bitmap;
+        try {
+            bitmap = call.decode(options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap could not take this image after all
+            Log.w(TAG, "inBitmap reuse failed: " + e.getMessage());
+            pool.put(reused);
+            options.inBitmap = null;
+            reused = null;
+            bitmap = call.decode(options);
+        }
+
+        if (bitmap == null) {
+            // Not decodable; the pooled bitmap is still good for the next one
+            pool.put(reused);
+        } else if (bitmap == reused) {
+            pool.recordReuse();
+        } else {
+            pool.put(reused);
+            pool.recordAllocation();
+        }
+        return bitmap;
+    }
+}
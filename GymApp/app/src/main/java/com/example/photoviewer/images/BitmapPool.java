@@ -0,0 +1,149 @@
+package com.example.photoviewer.images;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * BitmapPool - Bitmaps nobody shows or caches anymore, kept for inBitmap reuse
+ *
+ * Bitmaps are bucketed by allocation size. A decode takes the smallest
+ * pooled bitmap that is big enough, up to {@link #MAX_OVERSIZE} times the
+ * size it needs, and decodes into it instead of allocating. Once the list
+ * has scrolled far enough to fill the memory cache, each new thumbnail
+ * reuses one the cache just evicted, so {@link #getAllocationCount()} stops
+ * growing.
+ *
+ * Only {@link ImageLoader} puts bitmaps here, after the last view and the
+ * memory cache let go of them, and {@link TiledImageView} when its tile
+ * cache evicts a tile. Bitmaps dropped from a full pool are recycled.
+ */
+public class BitmapPool {
+    // Reusing a bitmap much larger than needed would waste the memory saved
+    static final int MAX_OVERSIZE = 2;
+
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> buckets = new TreeMap<>();
+    private final long maxSize;
+    private long size;
+    private int count;
+    private long reuses;
+    private long allocations;
+    private long drops;
+
+    public BitmapPool(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Take a bitmap that can hold width x height pixels of the given config
+     *
+     * @return pooled bitmap, or null if none fits
+     */
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        long needed = (long) width * height * bytesPerPixel(config);
+        Map.Entry<Integer, ArrayDeque<Bitmap>> bucket = buckets.ceilingEntry((int) Math.min(needed, Integer.MAX_VALUE));
+        if (bucket == null || bucket.getKey() > needed * MAX_OVERSIZE) {
+            return null;
+        }
+        return take(bucket);
+    }
+
+    /**
+     * Offer a bitmap for reuse; immutable, recycled or oversized bitmaps are not kept
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        int byteCount = bitmap.getAllocationByteCount();
+        if (byteCount > maxSize) {
+            drop(bitmap);
+            return;
+        }
+        buckets.computeIfAbsent(byteCount, k -> new ArrayDeque<>()).addLast(bitmap);
+        size += byteCount;
+        count++;
+        trimToSize(maxSize);
+    }
+
+    /**
+     * Drop pooled bitmaps, largest first, until the pool fits in the given size
+     */
+    public synchronized void trimToSize(long targetSize) {
+        while (size > targetSize && !buckets.isEmpty()) {
+            drop(take(buckets.lastEntry()));
+        }
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * Decodes that reused a pooled bitmap
+     */
+    public synchronized long getReuseCount() {
+        return reuses;
+    }
+
+    /**
+     * Decodes that had to allocate a new bitmap
+     */
+    public synchronized long getAllocationCount() {
+        return allocations;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getBitmapCount() {
+        return count;
+    }
+
+    public synchronized void resetCounts() {
+        reuses = 0;
+        allocations = 0;
+        drops = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US,
+                "%d reused, %d allocated, %d dropped; %d pooled (%d bytes)",
+                reuses, allocations, drops, count, size);
+    }
+
+    synchronized void recordReuse() {
+        reuses++;
+    }
+
+    synchronized void recordAllocation() {
+        allocations++;
+    }
+
+    static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565) {
+            return DecodePlan.BYTES_PER_PIXEL_OPAQUE;
+        }
+        return DecodePlan.BYTES_PER_PIXEL_ALPHA;
+    }
+
+    private Bitmap take(Map.Entry<Integer, ArrayDeque<Bitmap>> bucket) {
+        Bitmap bitmap = bucket.getValue().pollFirst();
+        if (bucket.getValue().isEmpty()) {
+            buckets.remove(bucket.getKey());
+        }
+        size -= bucket.getKey();
+        count--;
+        return bitmap;
+    }
+
+    private void drop(Bitmap bitmap) {
+        drops++;
+        bitmap.recycle();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.photoviewer.images;
+
+/**
+ * DecodePlan - How to decode a source image for a target size
+ *
+ * Worked out from the bounds alone, before any pixels are decoded:
+ * - Sample size: the largest power of two that keeps both sides at or
+ *   above the target, so a 1920x1080 frame for a 144px thumbnail decodes
+ *   at 480x270 instead of full size.
+ * - Pixel format: 2 bytes per pixel (RGB_565) for sources without alpha,
+ *   4 bytes (ARGB_8888) otherwise.
+ *
+ * Plain Java so the arithmetic can be unit tested off device.
+ */
+public final class DecodePlan {
+    public static final int BYTES_PER_PIXEL_OPAQUE = 2;
+    public static final int BYTES_PER_PIXEL_ALPHA = 4;
+
+    private final int sampleSize;
+    private final int width;
+    private final int height;
+    private final boolean opaque;
+
+    private DecodePlan(int sampleSize, int width, int height, boolean opaque) {
+        this.sampleSize = sampleSize;
+        this.width = width;
+        this.height = height;
+        this.opaque = opaque;
+    }
+
+    /**
+     * Plan a decode of a sourceWidth x sourceHeight image into a targetWidth x targetHeight view
+     *
+     * @param mimeType source type from the bounds pass, may be null
+     */
+    public static DecodePlan forTarget(int sourceWidth, int sourceHeight, String mimeType,
+                                       int targetWidth, int targetHeight) {
+        int sampleSize = calculateInSampleSize(sourceWidth, sourceHeight, targetWidth, targetHeight);
+        return new DecodePlan(sampleSize,
+                sampledSize(sourceWidth, sampleSize),
+                sampledSize(sourceHeight, sampleSize),
+                isOpaqueFormat(mimeType));
+    }
+
+    /**
+     * Largest power of two that keeps both decoded sides at or above the target
+     */
+    public static int calculateInSampleSize(int sourceWidth, int sourceHeight,
+                                            int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return sampleSize;
+        }
+        while (sourceWidth / (sampleSize * 2) >= targetWidth
+                && sourceHeight / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * JPEG has no alpha channel, so it loses nothing in RGB_565
+     */
+    public static boolean isOpaqueFormat(String mimeType) {
+        return "image/jpeg".equals(mimeType);
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Decoded width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Decoded height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isOpaque() {
+        return opaque;
+    }
+
+    /**
+     * Heap taken by the decoded bitmap
+     */
+    public long getByteCount() {
+        int bytesPerPixel = opaque ? BYTES_PER_PIXEL_OPAQUE : BYTES_PER_PIXEL_ALPHA;
+        return (long) width * height * bytesPerPixel;
+    }
+
+    private static int sampledSize(int size, int sampleSize) {
+        return (size + sampleSize - 1) / sampleSize;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.photoviewer.images;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ImageCacheStats - Where each image request was answered from
+ *
+ * Every request counts exactly once: as a memory hit, a disk hit, a
+ * network load, a failure or a cancellation. Cancellations are split by
+ * whether the load had started; one canceled before it started saved all
+ * of its work. Hit ratios only count requests that completed.
+ */
+public class ImageCacheStats {
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong networkLoads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong networkBytes = new AtomicLong();
+    private final AtomicLong canceledBeforeStart = new AtomicLong();
+    private final AtomicLong canceledInFlight = new AtomicLong();
+
+    public long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    public long getNetworkLoadCount() {
+        return networkLoads.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Image bytes downloaded so far
+     */
+    public long getNetworkBytes() {
+        return networkBytes.get();
+    }
+
+    /**
+     * Loads canceled while still queued, before any work was done
+     */
+    public long getCanceledBeforeStartCount() {
+        return canceledBeforeStart.get();
+    }
+
+    /**
+     * Loads canceled while reading caches, downloading or decoding
+     */
+    public long getCanceledInFlightCount() {
+        return canceledInFlight.get();
+    }
+
+    public long getCanceledCount() {
+        return canceledBeforeStart.get() + canceledInFlight.get();
+    }
+
+    public long getRequestCount() {
+        return getCompletedCount() + getCanceledCount();
+    }
+
+    /**
+     * Requests that were answered or failed, i.e. not canceled
+     */
+    public long getCompletedCount() {
+        return memoryHits.get() + diskHits.get() + networkLoads.get() + failures.get();
+    }
+
+    /**
+     * Share of completed requests answered from memory
+     */
+    public double getMemoryHitRatio() {
+        return ratio(memoryHits.get(), getCompletedCount());
+    }
+
+    /**
+     * Share of memory misses answered from disk
+     */
+    public double getDiskHitRatio() {
+        return ratio(diskHits.get(), getCompletedCount() - memoryHits.get());
+    }
+
+    /**
+     * Share of completed requests that did not need the network
+     */
+    public double getOverallHitRatio() {
+        return ratio(memoryHits.get() + diskHits.get(), getCompletedCount());
+    }
+
+    public void reset() {
+        memoryHits.set(0);
+        diskHits.set(0);
+        networkLoads.set(0);
+        failures.set(0);
+        networkBytes.set(0);
+        canceledBeforeStart.set(0);
+        canceledInFlight.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%d requests: %d memory, %d disk, %d network (%d bytes), %d failed, "
+                        + "%d canceled (%d before start); hit ratio %.2f",
+                getRequestCount(), memoryHits.get(), diskHits.get(), networkLoads.get(),
+                networkBytes.get(), failures.get(), getCanceledCount(), canceledBeforeStart.get(),
+                getOverallHitRatio());
+    }
+
+    public void recordMemoryHit() {
+        memoryHits.incrementAndGet();
+    }
+
+    public void recordDiskHit() {
+        diskHits.incrementAndGet();
+    }
+
+    public void recordNetworkLoad(long bytes) {
+        networkLoads.incrementAndGet();
+        networkBytes.addAndGet(bytes);
+    }
+
+    public void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public void recordCanceled(boolean started) {
+        if (started) {
+            canceledInFlight.incrementAndGet();
+        } else {
+            canceledBeforeStart.incrementAndGet();
+        }
+    }
+
+    private static double ratio(long part, long total) {
+        return total > 0 ? (double) part / total : 0;
+    }
+}
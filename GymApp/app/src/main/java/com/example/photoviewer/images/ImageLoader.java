@@ -0,0 +1,726 @@
+package com.example.photoviewer.images;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.TransitionDrawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.network.HttpCall;
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.network.HttpResponse;
+import com.example.photoviewer.network.HttpTransport;
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.TaskScheduler;
+import com.example.photoviewer.services.SessionManager;
+import com.example.photoviewer.utils.DiskLruCache;
+import com.example.photoviewer.utils.MemoryGovernor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ImageLoader - Single image loading path for every image view in the app
+ *
+ * A request is answered from the first level that has it:
+ * 1. Memory: decoded bitmaps in an LRU cache bounded in bytes, keyed by URL
+ *    and target size; a hit is shown synchronously on the main thread.
+ * 2. Disk: downloaded bytes in a size-capped {@link DiskLruCache} keyed by
+ *    URL, written atomically (temp file, then rename).
+ * 3. Network: the shared {@link HttpTransport}, with the session token for
+ *    authenticated media.
+ *
+ * Bitmaps are decoded through {@link BitmapDecoder} at the request's target
+ * size rather than at the source size.
+ *
+ * Cache reads and decodes run on the {@link TaskScheduler} and downloads on
+ * the {@link HttpTransport} dispatcher, both at the request's priority.
+ * Each view has at most one load: binding it to another image, or
+ * {@link #clear(ImageView)}, cancels the old load wherever it is, whether
+ * queued, downloading or waiting to decode. Cancellations are counted in
+ * {@link ImageCacheStats}.
+ *
+ * A progressive request first shows the largest cached size of the same
+ * URL, typically the list thumbnail, and cross-fades to the requested
+ * size once it is decoded.
+ *
+ * Each bitmap counts its holders: the memory cache, the views showing it
+ * and loads about to deliver it. When the last one lets go, the bitmap
+ * goes to the {@link BitmapPool} and a later decode reuses it. Views give
+ * their bitmap back through {@link #clear(ImageView)}, or when they are
+ * bound to the next image. Lists clear their rows in onViewRecycled, and
+ * their screens detach the adapter in onDestroy so that rows still on
+ * screen are recycled too; otherwise their bitmaps stay counted for good.
+ */
+public class ImageLoader implements MemoryGovernor.Trimmable {
+    private static final String TAG = "ImageLoader";
+    private static final String API_BASE_URL = BuildConfig.API_BASE_URL.replaceAll("/$", "");
+    public static final long DEFAULT_DISK_CACHE_SIZE = 50L * 1024 * 1024; // 50 MB
+    private static final int MEMORY_CACHE_DIVISOR = 8;
+    private static final int BITMAP_POOL_DIVISOR = 16;
+    private static final int IMAGE_TIMEOUT_MS = 10000;
+    private static final int CROSS_FADE_MS = 200;
+
+    private static ImageLoader instance;
+    // Also the lock for refCounts, since evictions call back under it
+    private final MemoryLruCache<Bitmap> memoryCache;
+    private final IdentityHashMap<Bitmap, Integer> refCounts = new IdentityHashMap<>();
+    // Main thread only
+    private final WeakHashMap<ImageView, Bitmap> boundBitmaps = new WeakHashMap<>();
+    private final WeakHashMap<ImageView, Load> activeLoads = new WeakHashMap<>();
+    private final HashMap<String, Load> prefetches = new HashMap<>();
+    private final BitmapPool bitmapPool;
+    private volatile DiskLruCache diskCache;
+    private final ImageCacheStats stats = new ImageCacheStats();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Result callback; both methods run on the main thread. The bitmap may
+     * only be kept while the target view shows it.
+     */
+    public interface Listener {
+        void onSuccess(Bitmap bitmap);
+        void onError();
+
+        /**
+         * A cached smaller version is shown while a progressive request loads
+         */
+        default void onPreview(Bitmap preview) {
+        }
+    }
+
+    private ImageLoader() {
+        // An eighth of the heap, the usual budget for a bitmap memory cache
+        long maxBytes = Runtime.getRuntime().maxMemory() / MEMORY_CACHE_DIVISOR;
+        memoryCache = new MemoryLruCache<>(maxBytes, Bitmap::getAllocationByteCount,
+                (key, bitmap) -> release(bitmap));
+        bitmapPool = new BitmapPool(Runtime.getRuntime().maxMemory() / BITMAP_POOL_DIVISOR);
+    }
+
+    /**
+     * Get singleton instance of ImageLoader
+     */
+    public static synchronized ImageLoader getInstance() {
+        if (instance == null) {
+            instance = new ImageLoader();
+        }
+        return instance;
+    }
+
+    public void setDiskCache(DiskLruCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    public ImageCacheStats getStats() {
+        return stats;
+    }
+
+    public MemoryLruCache<Bitmap> getMemoryCache() {
+        return memoryCache;
+    }
+
+    public BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Load an image into a view. Call on the main thread.
+     */
+    public void load(ImageRequest request, ImageView target) {
+        load(request, target, null);
+    }
+
+    /**
+     * Load an image into a view (may be null) and report the result. Call on the main thread.
+     * A request without a target size is sized to the view, or to the screen.
+     */
+    public void load(ImageRequest request, ImageView target, Listener listener) {
+        ImageRequest sized = request.hasSize() ? request : withTargetSize(request, target);
+        String key = sized.getKey();
+        if (target != null) {
+            Load active = activeLoads.get(target);
+            if (active != null && active.key.equals(key)) {
+                // Rebound to the image it is already loading
+                active.listener = listener;
+                return;
+            }
+            cancel(target);
+            if (!key.equals(target.getTag())) {
+                unbind(target, sized.getPlaceholderResId());
+            }
+            target.setTag(key);
+        }
+
+        Bitmap cached = getFromMemory(key);
+        if (cached != null) {
+            stats.recordMemoryHit();
+            deliver(key, cached, target, listener, false);
+            return;
+        }
+        boolean previewShown = target != null && sized.isProgressive()
+                && showPreview(sized, target, listener);
+
+        Load prefetch = prefetches.remove(key);
+        if (prefetch != null) {
+            if (prefetch.adopt(sized.getPriority(), target, listener)) {
+                // Already underway; deliver its result here instead of loading twice
+                prefetch.crossFade = previewShown;
+                if (target != null) {
+                    activeLoads.put(target, prefetch);
+                }
+                return;
+            }
+            // Still queued at prefetch priority; start over at this request's priority
+            prefetch.cancel();
+        }
+
+        Load load = new Load(sized, target, listener);
+        load.crossFade = previewShown;
+        if (target != null) {
+            activeLoads.put(target, load);
+        }
+        load.start();
+    }
+
+    /**
+     * Warm the memory cache for an image a view will soon ask for, at
+     * {@link Priority#PREFETCH}. The request must carry the size the view
+     * will use, or the cache key will not match. Call on the main thread.
+     */
+    public void prefetch(ImageRequest request) {
+        if (!request.hasSize()) {
+            return;
+        }
+        String key = request.getKey();
+        if (prefetches.containsKey(key) || memoryCache.get(key) != null) {
+            return;
+        }
+        Load load = new Load(request.newBuilder().priority(Priority.PREFETCH).build(), null, null);
+        prefetches.put(key, load);
+        load.start();
+    }
+
+    /**
+     * Cancel all outstanding prefetches, e.g. during a fling. Call on the main thread.
+     */
+    public void cancelPrefetches() {
+        for (Load load : prefetches.values()) {
+            load.cancel();
+        }
+        prefetches.clear();
+    }
+
+    /**
+     * Cancel the view's pending or in-flight load, if any. Call on the main thread.
+     */
+    public void cancel(ImageView target) {
+        Load active = activeLoads.remove(target);
+        if (active != null) {
+            active.cancel();
+        }
+    }
+
+    /**
+     * Unbind a view: cancel its load, stop showing its bitmap and give the
+     * bitmap back. Call on the main thread, e.g. when a row is recycled.
+     */
+    public void clear(ImageView target) {
+        cancel(target);
+        target.setTag(null);
+        unbind(target, 0);
+    }
+
+    /**
+     * Drop all decoded bitmaps; the disk cache is kept
+     */
+    public void clearMemory() {
+        memoryCache.evictAll();
+        bitmapPool.clear();
+    }
+
+    @Override
+    public long getMemorySize() {
+        return memoryCache.getSize() + bitmapPool.getSize();
+    }
+
+    /**
+     * Shrink the memory cache and the pool under memory pressure. Bitmaps
+     * still shown by a view stay alive until the view lets go of them.
+     */
+    @Override
+    public void trimMemory(float keepFraction) {
+        if (keepFraction <= 0f) {
+            clearMemory();
+            return;
+        }
+        memoryCache.trimToSize((long) (memoryCache.getSize() * keepFraction));
+        // After the cache, so the bitmaps it just gave back are trimmed too
+        bitmapPool.trimToSize((long) (bitmapPool.getSize() * keepFraction));
+    }
+
+    /**
+     * Drop memory and disk caches, e.g. when the user logs out
+     */
+    public void clearAll() {
+        clearMemory();
+        DiskLruCache disk = diskCache;
+        if (disk != null) {
+            TaskScheduler.getInstance().submit(Priority.BACKGROUND, disk::evictAll);
+        }
+    }
+
+    /**
+     * Open the original image for region decoding, from the disk cache or,
+     * if it is not there, by downloading it into the disk cache. Blocks;
+     * call off the main thread.
+     *
+     * @throws IOException on network errors, non-200 responses and undecodable data
+     */
+    public BitmapRegionDecoder openRegionDecoder(String url, Priority priority) throws IOException {
+        String resolved = resolveUrl(url);
+        DiskLruCache disk = diskCache;
+        File file = disk != null ? disk.get(resolved) : null;
+        if (file != null) {
+            try {
+                return BitmapRegionDecoder.newInstance(file.getPath(), false);
+            } catch (IOException e) {
+                // Evicted meanwhile or unreadable; fall back to the network
+                disk.remove(resolved);
+            }
+        }
+
+        byte[] data;
+        try (HttpResponse response = HttpTransport.getInstance().execute(buildHttpRequest(resolved, priority))) {
+            if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Failed to load image: " + response.getCode() + " from " + resolved);
+            }
+            data = BitmapDecoder.readFully(response.getBody());
+        }
+        writeToDisk(resolved, data);
+        return BitmapRegionDecoder.newInstance(data, 0, data.length, false);
+    }
+
+    /**
+     * Resolve a media path from the API against the server URL
+     */
+    public static String resolveUrl(String url) {
+        if (url == null || url.startsWith("http")) {
+            return url;
+        }
+        return API_BASE_URL + url;
+    }
+
+    /**
+     * Show the largest cached size of the request's URL, if any
+     *
+     * @return true if a preview is now bound to the view
+     */
+    private boolean showPreview(ImageRequest request, ImageView target, Listener listener) {
+        Bitmap preview;
+        synchronized (memoryCache) {
+            preview = memoryCache.findLargest(request.getUrl() + "#");
+            if (preview == null) {
+                return false;
+            }
+            acquire(preview);
+        }
+        try {
+            target.setImageBitmap(preview);
+            bind(target, preview);
+            if (listener != null) {
+                listener.onPreview(preview);
+            }
+        } finally {
+            release(preview);
+        }
+        return true;
+    }
+
+    /**
+     * Hand a loaded bitmap to the view and listener, then drop the load's
+     * own reference to it. Runs on the main thread.
+     *
+     * @param crossFade fade from the preview bound to the view, if it still has one
+     */
+    private void deliver(String key, Bitmap bitmap, ImageView target, Listener listener, boolean crossFade) {
+        try {
+            if (target != null && !key.equals(target.getTag())) {
+                // The view was rebound to another image meanwhile
+                return;
+            }
+            if (bitmap == null) {
+                if (listener != null) {
+                    listener.onError();
+                }
+                return;
+            }
+            if (target != null) {
+                if (crossFade && boundBitmaps.get(target) != null) {
+                    crossFade(target, bitmap);
+                } else {
+                    target.setImageBitmap(bitmap);
+                }
+                bind(target, bitmap);
+            }
+            if (listener != null) {
+                listener.onSuccess(bitmap);
+            }
+        } finally {
+            if (bitmap != null) {
+                release(bitmap);
+            }
+        }
+    }
+
+    private void crossFade(ImageView target, Bitmap bitmap) {
+        Bitmap preview = boundBitmaps.get(target);
+        // The preview is drawn until the fade ends; keep it out of the pool until then
+        acquire(preview);
+        TransitionDrawable fade = new TransitionDrawable(new Drawable[]{
+                new BitmapDrawable(target.getResources(), preview),
+                new BitmapDrawable(target.getResources(), bitmap)});
+        fade.setCrossFadeEnabled(true);
+        target.setImageDrawable(fade);
+        fade.startTransition(CROSS_FADE_MS);
+
+        mainHandler.postDelayed(() -> {
+            if (target.getDrawable() == fade && boundBitmaps.get(target) == bitmap) {
+                target.setImageBitmap(bitmap);
+            }
+            release(preview);
+        }, CROSS_FADE_MS);
+    }
+
+    /**
+     * Stop showing the view's bitmap, so it can be pooled, and show the placeholder instead
+     */
+    private void unbind(ImageView target, int placeholderResId) {
+        if (placeholderResId != 0) {
+            target.setImageResource(placeholderResId);
+        } else {
+            target.setImageDrawable(null);
+        }
+        Bitmap previous = boundBitmaps.remove(target);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    private void bind(ImageView target, Bitmap bitmap) {
+        acquire(bitmap);
+        Bitmap previous = boundBitmaps.put(target, bitmap);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    /**
+     * Memory cache lookup that also takes a reference for the caller
+     */
+    private Bitmap getFromMemory(String key) {
+        synchronized (memoryCache) {
+            Bitmap bitmap = memoryCache.get(key);
+            if (bitmap != null) {
+                acquire(bitmap);
+            }
+            return bitmap;
+        }
+    }
+
+    private void putInMemory(String key, Bitmap bitmap) {
+        synchronized (memoryCache) {
+            acquire(bitmap);
+            if (!memoryCache.put(key, bitmap)) {
+                release(bitmap);
+            }
+        }
+    }
+
+    private void acquire(Bitmap bitmap) {
+        synchronized (memoryCache) {
+            Integer count = refCounts.get(bitmap);
+            refCounts.put(bitmap, count == null ? 1 : count + 1);
+        }
+    }
+
+    private void release(Bitmap bitmap) {
+        synchronized (memoryCache) {
+            Integer count = refCounts.get(bitmap);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                refCounts.put(bitmap, count - 1);
+                return;
+            }
+            refCounts.remove(bitmap);
+        }
+        bitmapPool.put(bitmap);
+    }
+
+    private Bitmap decodeFromDisk(String url, ImageRequest request) {
+        DiskLruCache disk = diskCache;
+        if (disk == null) {
+            return null;
+        }
+        File file = disk.get(url);
+        if (file == null) {
+            return null;
+        }
+        Bitmap bitmap = BitmapDecoder.decodeFile(file.getPath(),
+                request.getWidth(), request.getHeight(), bitmapPool);
+        if (bitmap == null) {
+            // Evicted meanwhile or unreadable; fall back to the network
+            disk.remove(url);
+        }
+        return bitmap;
+    }
+
+    private void writeToDisk(String url, byte[] data) {
+        DiskLruCache disk = diskCache;
+        if (disk == null) {
+            return;
+        }
+        try {
+            disk.put(url, data);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to cache image on disk: " + e.getMessage());
+        }
+    }
+
+    private static HttpRequest buildHttpRequest(String url, Priority priority) {
+        HttpRequest.Builder builder = new HttpRequest.Builder(url)
+                .connectTimeout(IMAGE_TIMEOUT_MS)
+                .readTimeout(IMAGE_TIMEOUT_MS)
+                .priority(priority);
+        // Media behind authentication needs the session token
+        String token = SessionManager.getInstance().getToken();
+        if (token != null && !token.isEmpty()) {
+            builder.header("Authorization", "Token " + token);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Size a request to the view's fixed layout size, else to the screen
+     */
+    private static ImageRequest withTargetSize(ImageRequest request, ImageView target) {
+        int width = 0;
+        int height = 0;
+        if (target != null) {
+            ViewGroup.LayoutParams params = target.getLayoutParams();
+            if (params != null) {
+                width = params.width;
+                height = params.height;
+            }
+        }
+        if (width <= 0 || height <= 0) {
+            DisplayMetrics metrics = target != null
+                    ? target.getResources().getDisplayMetrics()
+                    : Resources.getSystem().getDisplayMetrics();
+            width = metrics.widthPixels;
+            height = metrics.heightPixels;
+        }
+        return request.newBuilder().size(width, height).build();
+    }
+
+    /**
+     * One image on its way to a view: memory and disk on the scheduler, then
+     * a download on the dispatcher and a decode back on the scheduler.
+     * Cancel stops whichever stage is current; the outcome (or the
+     * cancellation) is counted exactly once. A prefetch has no target until
+     * a view adopts it.
+     */
+    private final class Load {
+        private final ImageRequest request;
+        private final String key;
+        private volatile Priority priority;
+        // Main thread only
+        private ImageView target;
+        private Listener listener;
+        private boolean crossFade;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private volatile boolean started;
+        private volatile boolean canceled;
+        // Current stage, guarded by this
+        private TaskScheduler.Task task;
+        private HttpCall call;
+
+        Load(ImageRequest request, ImageView target, Listener listener) {
+            this.request = request;
+            this.key = request.getKey();
+            this.priority = request.getPriority();
+            this.target = target;
+            this.listener = listener;
+        }
+
+        void start() {
+            schedule(this::readCaches);
+        }
+
+        /**
+         * Hand a started prefetch to a view; later stages run at its priority
+         *
+         * @return false if the load has not started or was canceled
+         */
+        boolean adopt(Priority priority, ImageView target, Listener listener) {
+            if (!started || canceled) {
+                return false;
+            }
+            this.priority = priority;
+            this.target = target;
+            this.listener = listener;
+            return true;
+        }
+
+        void cancel() {
+            canceled = true;
+            TaskScheduler.Task currentTask;
+            HttpCall currentCall;
+            synchronized (this) {
+                currentTask = task;
+                currentCall = call;
+            }
+            if (currentTask != null) {
+                currentTask.cancel();
+            }
+            if (currentCall != null) {
+                currentCall.cancel();
+            }
+            if (settled.compareAndSet(false, true)) {
+                stats.recordCanceled(started);
+            }
+        }
+
+        private void schedule(Runnable stage) {
+            TaskScheduler.Task next = TaskScheduler.getInstance().submit(priority, () -> {
+                started = true;
+                if (!canceled) {
+                    stage.run();
+                }
+            });
+            synchronized (this) {
+                task = next;
+            }
+        }
+
+        private void readCaches() {
+            Bitmap bitmap = getFromMemory(key);
+            if (bitmap != null) {
+                // Loaded by an earlier request for the same key while this one was queued
+                if (settled.compareAndSet(false, true)) {
+                    stats.recordMemoryHit();
+                }
+                finish(bitmap);
+                return;
+            }
+
+            String url = resolveUrl(request.getSourceUrl());
+            bitmap = decodeFromDisk(url, request);
+            if (bitmap != null) {
+                keep(bitmap);
+                if (settled.compareAndSet(false, true)) {
+                    stats.recordDiskHit();
+                }
+                finish(bitmap);
+                return;
+            }
+            if (!canceled) {
+                download(url);
+            }
+        }
+
+        private void download(String url) {
+            HttpCall next = HttpTransport.getInstance().enqueue(buildHttpRequest(url, priority),
+                    new HttpTransport.Callback() {
+                        @Override
+                        public void onResponse(HttpResponse response) throws IOException {
+                            if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                                Log.e(TAG, "Failed to load image: " + response.getCode() + " from " + url);
+                                fail();
+                                return;
+                            }
+                            byte[] data = BitmapDecoder.readFully(response.getBody());
+                            // Cached even if the view moves on before the decode
+                            writeToDisk(url, data);
+                            schedule(() -> decode(url, data));
+                        }
+
+                        @Override
+                        public void onFailure(HttpRequest httpRequest, IOException e) {
+                            Log.e(TAG, "Error loading image: " + e.getMessage());
+                            fail();
+                        }
+                    });
+            synchronized (this) {
+                call = next;
+            }
+            if (canceled) {
+                next.cancel();
+            }
+        }
+
+        private void decode(String url, byte[] data) {
+            Bitmap bitmap = BitmapDecoder.decodeByteArray(data,
+                    request.getWidth(), request.getHeight(), bitmapPool);
+            if (bitmap == null) {
+                Log.e(TAG, "Failed to decode image: " + url);
+                fail();
+                return;
+            }
+            keep(bitmap);
+            if (settled.compareAndSet(false, true)) {
+                stats.recordNetworkLoad(data.length);
+            }
+            finish(bitmap);
+        }
+
+        /**
+         * Take a reference for this load and put a new bitmap in the memory cache
+         */
+        private void keep(Bitmap bitmap) {
+            acquire(bitmap);
+            putInMemory(key, bitmap);
+        }
+
+        private void fail() {
+            if (settled.compareAndSet(false, true)) {
+                stats.recordFailure();
+            }
+            finish(null);
+        }
+
+        /**
+         * Hand the result to the main thread; a canceled load only gives its reference back
+         */
+        private void finish(Bitmap bitmap) {
+            mainHandler.post(() -> {
+                if (target == null) {
+                    prefetches.remove(key, this);
+                } else if (activeLoads.get(target) == this) {
+                    activeLoads.remove(target);
+                }
+                if (canceled) {
+                    if (bitmap != null) {
+                        release(bitmap);
+                    }
+                    return;
+                }
+                deliver(key, bitmap, target, listener, crossFade);
+            });
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.photoviewer.images;
+
+import com.example.photoviewer.models.ImageVariant;
+import com.example.photoviewer.scheduler.Priority;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ImageRequest - Immutable description of one image to load
+ *
+ * The memory cache key includes the target size, so a 48dp thumbnail and
+ * the full-screen image of the same URL are cached separately. The disk
+ * cache stores the downloaded bytes once per URL.
+ *
+ * When the server offers downscaled variants of the image, the smallest
+ * one that covers the target size is downloaded instead of the original
+ * ({@link #getSourceUrl}). The memory cache key stays on the original URL,
+ * so progressive previews find it whichever source was downloaded.
+ *
+ * Built with {@link Builder} and loaded by {@link ImageLoader}.
+ */
+public final class ImageRequest {
+    /**
+     * Variant formats BitmapFactory decodes on every supported API level
+     * (minSdk 24 has lossy and lossless WebP), smallest encoding first
+     */
+    static final List<String> DECODABLE_FORMATS = Collections.unmodifiableList(
+            Arrays.asList("webp", "jpeg"));
+
+    private final String url;
+    private final int width;
+    private final int height;
+    private final Priority priority;
+    private final int placeholderResId;
+    private final boolean progressive;
+    private final List<ImageVariant> variants;
+
+    private ImageRequest(Builder builder) {
+        this.url = builder.url;
+        this.width = builder.width;
+        this.height = builder.height;
+        this.priority = builder.priority;
+        this.placeholderResId = builder.placeholderResId;
+        this.progressive = builder.progressive;
+        this.variants = builder.variants;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * URL to download: the smallest decodable variant that covers the
+     * target size, else the original
+     */
+    public String getSourceUrl() {
+        ImageVariant variant = ImageVariant.pickSmallest(variants, width, height, DECODABLE_FORMATS);
+        return variant != null ? variant.getUrl() : url;
+    }
+
+    /**
+     * Target width in pixels, 0 if not known yet
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Target height in pixels, 0 if not known yet
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean hasSize() {
+        return width > 0 && height > 0;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Drawable shown while the image loads, 0 for none
+     */
+    public int getPlaceholderResId() {
+        return placeholderResId;
+    }
+
+    /**
+     * Whether a cached smaller version is shown until this one is ready
+     */
+    public boolean isProgressive() {
+        return progressive;
+    }
+
+    /**
+     * Memory cache key: source URL plus target size
+     */
+    public String getKey() {
+        return url + "#" + width + "x" + height;
+    }
+
+    public Builder newBuilder() {
+        return new Builder(url)
+                .size(width, height)
+                .priority(priority)
+                .placeholder(placeholderResId)
+                .progressive(progressive)
+                .variants(variants);
+    }
+
+    /**
+     * Builder for ImageRequest
+     */
+    public static class Builder {
+        private final String url;
+        private int width;
+        private int height;
+        private Priority priority = Priority.VISIBLE_IMAGE;
+        private int placeholderResId;
+        private boolean progressive;
+        private List<ImageVariant> variants = Collections.emptyList();
+
+        public Builder(String url) {
+            this.url = url;
+        }
+
+        /**
+         * Target size in pixels; left unset, the loader uses the view's size
+         */
+        public Builder size(int width, int height) {
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        /**
+         * Scheduling class; images default to {@link Priority#VISIBLE_IMAGE}
+         */
+        public Builder priority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Drawable the view shows until the image is delivered
+         */
+        public Builder placeholder(int placeholderResId) {
+            this.placeholderResId = placeholderResId;
+            return this;
+        }
+
+        /**
+         * Show any cached size of the same URL at once, then cross-fade to
+         * this size when it is loaded
+         */
+        public Builder progressive(boolean progressive) {
+            this.progressive = progressive;
+            return this;
+        }
+
+        /**
+         * Downscaled copies of the image the loader may download instead
+         */
+        public Builder variants(List<ImageVariant> variants) {
+            this.variants = variants != null ? variants : Collections.<ImageVariant>emptyList();
+            return this;
+        }
+
+        public ImageRequest build() {
+            return new ImageRequest(this);
+        }
+    }
+}
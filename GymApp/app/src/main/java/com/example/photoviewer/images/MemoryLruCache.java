@@ -0,0 +1,141 @@
+package com.example.photoviewer.images;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MemoryLruCache - In-memory LRU cache bounded by the total size of its values
+ *
+ * Values larger than the whole cache are not stored. Evicted values are
+ * only dropped from the cache; they may still be on screen, so the cache
+ * never recycles them. An {@link EvictionListener} hears about every value
+ * that leaves the cache and decides what to do with it.
+ */
+public class MemoryLruCache<V> {
+
+    /**
+     * Size of a value in bytes
+     */
+    public interface Sizer<V> {
+        int sizeOf(V value);
+    }
+
+    /**
+     * Told about each value that leaves the cache: evicted, replaced, removed
+     * or cleared. Called with the cache lock held.
+     */
+    public interface EvictionListener<V> {
+        void onEvicted(String key, V value);
+    }
+
+    private final LinkedHashMap<String, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Sizer<V> sizer;
+    private final EvictionListener<V> evictionListener;
+    private final long maxSize;
+    private long size;
+
+    public MemoryLruCache(long maxSize, Sizer<V> sizer) {
+        this(maxSize, sizer, null);
+    }
+
+    public MemoryLruCache(long maxSize, Sizer<V> sizer, EvictionListener<V> evictionListener) {
+        this.maxSize = maxSize;
+        this.sizer = sizer;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Get a value and mark it as recently used
+     *
+     * @return cached value, or null on a miss
+     */
+    public synchronized V get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Store a value, replacing any value under the same key
+     *
+     * @return false if the value is larger than the whole cache and was not stored
+     */
+    public synchronized boolean put(String key, V value) {
+        int valueSize = sizer.sizeOf(value);
+        removeEntry(key);
+        if (valueSize > maxSize) {
+            return false;
+        }
+        entries.put(key, value);
+        size += valueSize;
+        trimToSize(maxSize);
+        return true;
+    }
+
+    /**
+     * Largest value whose key starts with the prefix, without marking it as used
+     *
+     * @return value, or null if no key matches
+     */
+    public synchronized V findLargest(String keyPrefix) {
+        V largest = null;
+        int largestSize = -1;
+        for (Map.Entry<String, V> entry : entries.entrySet()) {
+            if (entry.getKey().startsWith(keyPrefix)) {
+                int valueSize = sizer.sizeOf(entry.getValue());
+                if (valueSize > largestSize) {
+                    largest = entry.getValue();
+                    largestSize = valueSize;
+                }
+            }
+        }
+        return largest;
+    }
+
+    public synchronized V remove(String key) {
+        return removeEntry(key);
+    }
+
+    /**
+     * Evict least recently used values until the cache fits in the given size
+     */
+    public synchronized void trimToSize(long targetSize) {
+        Iterator<Map.Entry<String, V>> iterator = entries.entrySet().iterator();
+        while (size > targetSize && iterator.hasNext()) {
+            Map.Entry<String, V> eldest = iterator.next();
+            size -= sizer.sizeOf(eldest.getValue());
+            iterator.remove();
+            notifyEvicted(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    public synchronized void evictAll() {
+        trimToSize(-1);
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private V removeEntry(String key) {
+        V previous = entries.remove(key);
+        if (previous != null) {
+            size -= sizer.sizeOf(previous);
+            notifyEvicted(key, previous);
+        }
+        return previous;
+    }
+
+    private void notifyEvicted(String key, V value) {
+        if (evictionListener != null) {
+            evictionListener.onEvicted(key, value);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.photoviewer.images;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * ThumbnailPrefetcher - Warms the image cache for the rows about to scroll into view
+ *
+ * Follows the scroll direction and prefetches the next rows past the
+ * visible ones at {@link com.example.photoviewer.scheduler.Priority#PREFETCH},
+ * so thumbnails are usually in memory by the time their row is bound.
+ *
+ * While flinging faster than {@link #FLING_SCREENS_PER_SECOND} the rows
+ * would be gone before their images arrive, so prefetching stops and
+ * outstanding prefetches are canceled. It resumes once scrolling slows
+ * down or settles.
+ */
+public class ThumbnailPrefetcher extends RecyclerView.OnScrollListener {
+    public static final int DEFAULT_PREFETCH_COUNT = 10;
+    public static final float FLING_SCREENS_PER_SECOND = 2f;
+
+    /**
+     * The request a row will load for its thumbnail, so a prefetch warms the same cache key
+     */
+    public interface RequestSource {
+        /**
+         * @return request for the row, or null if it has no image or its size is not known yet
+         */
+        ImageRequest getImageRequest(int position);
+    }
+
+    private final RequestSource source;
+    private final int prefetchCount;
+    private int direction = 1;
+    private long lastScrollNanos;
+    private boolean paused;
+
+    public ThumbnailPrefetcher(RequestSource source, int prefetchCount) {
+        this.source = source;
+        this.prefetchCount = prefetchCount;
+    }
+
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(this);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsed = now - lastScrollNanos;
+        lastScrollNanos = now;
+        direction = dy > 0 ? 1 : -1;
+
+        float pixelsPerSecond = elapsed > 0 ? Math.abs(dy) * 1e9f / elapsed : 0;
+        if (isFling(pixelsPerSecond, recyclerView.getHeight())) {
+            pause();
+            return;
+        }
+        paused = false;
+        prefetch(recyclerView);
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            paused = false;
+            prefetch(recyclerView);
+        }
+    }
+
+    /**
+     * Positions to prefetch past the visible rows in the scroll direction
+     */
+    public static int[] positionsToPrefetch(int firstVisible, int lastVisible, int direction,
+                                            int count, int itemCount) {
+        int start = direction > 0 ? lastVisible + 1 : firstVisible - 1;
+        int end = direction > 0 ? Math.min(itemCount - 1, start + count - 1) : Math.max(0, start - count + 1);
+        int size = Math.max(0, (end - start) * direction + 1);
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = start + i * direction;
+        }
+        return positions;
+    }
+
+    public static boolean isFling(float pixelsPerSecond, int viewHeight) {
+        return viewHeight > 0 && pixelsPerSecond > viewHeight * FLING_SCREENS_PER_SECOND;
+    }
+
+    private void pause() {
+        if (!paused) {
+            paused = true;
+            ImageLoader.getInstance().cancelPrefetches();
+        }
+    }
+
+    private void prefetch(RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (!(layoutManager instanceof LinearLayoutManager) || adapter == null) {
+            return;
+        }
+        LinearLayoutManager linear = (LinearLayoutManager) layoutManager;
+        int first = linear.findFirstVisibleItemPosition();
+        int last = linear.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        ImageLoader loader = ImageLoader.getInstance();
+        for (int position : positionsToPrefetch(first, last, direction, prefetchCount, adapter.getItemCount())) {
+            ImageRequest request = source.getImageRequest(position);
+            if (request != null) {
+                loader.prefetch(request);
+            }
+        }
+    }
+}
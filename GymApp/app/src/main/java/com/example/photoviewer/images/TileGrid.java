@@ -0,0 +1,128 @@
+package com.example.photoviewer.images;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TileGrid - Which parts of a large image to decode for the current zoom
+ *
+ * The image is cut into square tiles that decode to about
+ * {@link #TILE_SIZE} pixels each. At sample size n a tile covers
+ * TILE_SIZE * n source pixels, so zoomed out a few coarse tiles cover the
+ * screen and zoomed in only the fine tiles under the viewport are decoded.
+ * The sample size follows the zoom: the largest power of two that still
+ * gives at least one decoded pixel per screen pixel.
+ *
+ * Plain Java so the arithmetic can be unit tested off device.
+ */
+public final class TileGrid {
+    public static final int TILE_SIZE = 512;
+
+    private TileGrid() {
+    }
+
+    /**
+     * One tile: a source rectangle and the sample size to decode it at
+     */
+    public static final class Tile {
+        private final int sampleSize;
+        private final int column;
+        private final int row;
+        private final int left;
+        private final int top;
+        private final int right;
+        private final int bottom;
+
+        Tile(int sampleSize, int column, int row, int left, int top, int right, int bottom) {
+            this.sampleSize = sampleSize;
+            this.column = column;
+            this.row = row;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getLeft() {
+            return left;
+        }
+
+        public int getTop() {
+            return top;
+        }
+
+        public int getRight() {
+            return right;
+        }
+
+        public int getBottom() {
+            return bottom;
+        }
+
+        /**
+         * Cache key, unique per sample size and grid position
+         */
+        public String getKey() {
+            return sampleSize + "/" + column + "/" + row;
+        }
+    }
+
+    /**
+     * Sample size for a zoom level
+     *
+     * @param scale screen pixels per source pixel
+     */
+    public static int sampleSizeForScale(float scale) {
+        int sampleSize = 1;
+        if (scale <= 0) {
+            return sampleSize;
+        }
+        while (sampleSize * 2 * scale <= 1f) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Tiles that intersect the visible part of the image, row by row
+     *
+     * The visible rectangle (left, top, right, bottom) is in source pixels.
+     */
+    public static List<Tile> visibleTiles(int imageWidth, int imageHeight, int sampleSize,
+                                          int left, int top, int right, int bottom) {
+        List<Tile> tiles = new ArrayList<>();
+        int span = TILE_SIZE * sampleSize;
+        left = Math.max(left, 0);
+        top = Math.max(top, 0);
+        right = Math.min(right, imageWidth);
+        bottom = Math.min(bottom, imageHeight);
+        if (left >= right || top >= bottom) {
+            return tiles;
+        }
+        int firstColumn = left / span;
+        int lastColumn = (right - 1) / span;
+        int firstRow = top / span;
+        int lastRow = (bottom - 1) / span;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                tiles.add(new Tile(sampleSize, column, row,
+                        column * span, row * span,
+                        Math.min((column + 1) * span, imageWidth),
+                        Math.min((row + 1) * span, imageHeight)));
+            }
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,496 @@
+package com.example.photoviewer.images;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.widget.ImageView;
+
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.TaskScheduler;
+import com.example.photoviewer.utils.MemoryGovernor;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TiledImageView - Zoomable full-size image view
+ *
+ * The image loads through {@link ImageLoader} at screen size as usual, and
+ * pinch, drag and double tap zoom and pan it. Once the zoom goes past the
+ * resolution of that bitmap, the original is opened with a
+ * {@link BitmapRegionDecoder} and only the {@link TileGrid} tiles under the
+ * viewport are decoded, at the sample size of the current zoom, on the
+ * {@link TaskScheduler}. Tiles that scroll away before they are decoded
+ * are canceled.
+ *
+ * Decoded tiles live in a byte-bounded LRU cache; evicted tiles go to the
+ * shared {@link BitmapPool} and later tiles decode into them. The cache is
+ * trimmed with the others by the {@link MemoryGovernor} while the view is
+ * attached. Call {@link #clear()} when the view goes away.
+ */
+public class TiledImageView extends ImageView {
+    private static final String TAG = "TiledImageView";
+    private static final int TILE_CACHE_DIVISOR = 16;
+    // Zoom in until one source pixel covers this many screen pixels
+    private static final float MAX_SCALE = 2f;
+    private static final float DOUBLE_TAP_ZOOM = 3f;
+
+    private final Matrix matrix = new Matrix();
+    private final Matrix inverse = new Matrix();
+    private final RectF bounds = new RectF();
+    private final RectF tileRect = new RectF();
+    private final float[] values = new float[9];
+    private final Paint tilePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+    private final MemoryLruCache<Bitmap> tileCache;
+    private final MemoryGovernor.Trimmable tileTrimmer;
+    private final Map<String, TaskScheduler.Task> pendingTiles = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Source size; the loaded bitmap's size until the original is opened
+    private int imageWidth;
+    private int imageHeight;
+    private float fitScale = 1f;
+    private List<TileGrid.Tile> visibleTiles = Collections.emptyList();
+    private BitmapRegionDecoder decoder;
+    private TaskScheduler.Task openTask;
+    private Bitmap.Config tileConfig = Bitmap.Config.ARGB_8888;
+    // Bumped by every load and clear; results of an older one are dropped
+    private int generation;
+
+    public TiledImageView(Context context) {
+        this(context, null);
+    }
+
+    public TiledImageView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setScaleType(ScaleType.MATRIX);
+        scaleDetector = new ScaleGestureDetector(context, new ScaleListener());
+        gestureDetector = new GestureDetector(context, new GestureListener());
+        BitmapPool pool = ImageLoader.getInstance().getBitmapPool();
+        tileCache = new MemoryLruCache<>(Runtime.getRuntime().maxMemory() / TILE_CACHE_DIVISOR,
+                Bitmap::getAllocationByteCount, (key, bitmap) -> pool.put(bitmap));
+        tileTrimmer = new MemoryGovernor.Trimmable() {
+            @Override
+            public long getMemorySize() {
+                return tileCache.getSize();
+            }
+
+            @Override
+            public void trimMemory(float keepFraction) {
+                tileCache.trimToSize((long) (tileCache.getSize() * keepFraction));
+            }
+        };
+    }
+
+    /**
+     * Load an image; tiles of the original are decoded as the user zooms in.
+     * Call on the main thread.
+     */
+    public void load(ImageRequest request, ImageLoader.Listener listener) {
+        releaseTiles();
+        int loadGeneration = ++generation;
+        ImageLoader.getInstance().load(request, this, new ImageLoader.Listener() {
+            @Override
+            public void onPreview(Bitmap preview) {
+                if (listener != null) {
+                    listener.onPreview(preview);
+                }
+            }
+
+            @Override
+            public void onSuccess(Bitmap bitmap) {
+                tileConfig = bitmap.getConfig() == Bitmap.Config.RGB_565
+                        ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+                openSource(request.getUrl(), loadGeneration);
+                if (listener != null) {
+                    listener.onSuccess(bitmap);
+                }
+            }
+
+            @Override
+            public void onError() {
+                if (listener != null) {
+                    listener.onError();
+                }
+            }
+        });
+    }
+
+    /**
+     * Cancel the load and pending tiles, and give all bitmaps back. Call on the main thread.
+     */
+    public void clear() {
+        generation++;
+        releaseTiles();
+        ImageLoader.getInstance().clear(this);
+    }
+
+    @Override
+    public void setImageDrawable(Drawable drawable) {
+        super.setImageDrawable(drawable);
+        // Called by the ImageView constructor before the fields are set
+        if (matrix == null || decoder != null || drawable == null) {
+            return;
+        }
+        if (drawable.getIntrinsicWidth() > 0 && drawable.getIntrinsicHeight() > 0) {
+            setImageSize(drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight());
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        resetZoom();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        MemoryGovernor.getInstance().register("zoom tiles", "bytes", tileTrimmer);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        MemoryGovernor.getInstance().unregister(tileTrimmer);
+        clear();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        scaleDetector.onTouchEvent(event);
+        gestureDetector.onTouchEvent(event);
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        Drawable drawable = getDrawable();
+        if (drawable == null || imageWidth == 0) {
+            return;
+        }
+        int saveCount = canvas.save();
+        canvas.concat(matrix);
+        // The loaded bitmap stretched over the whole source, sharp tiles on top
+        drawable.setBounds(0, 0, imageWidth, imageHeight);
+        drawable.draw(canvas);
+        for (TileGrid.Tile tile : visibleTiles) {
+            Bitmap bitmap = tileCache.get(tile.getKey());
+            if (bitmap != null) {
+                tileRect.set(tile.getLeft(), tile.getTop(), tile.getRight(), tile.getBottom());
+                canvas.drawBitmap(bitmap, null, tileRect, tilePaint);
+            }
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * A new image is shown before the original is open: fit it to the view
+     */
+    private void setImageSize(int width, int height) {
+        if (width == imageWidth && height == imageHeight) {
+            return;
+        }
+        imageWidth = width;
+        imageHeight = height;
+        resetZoom();
+    }
+
+    /**
+     * The original is open: switch to its size, keeping what is on screen where it is
+     */
+    private void setSourceSize(int width, int height) {
+        if (imageWidth == 0) {
+            setImageSize(width, height);
+            return;
+        }
+        float ratio = (float) imageWidth / width;
+        matrix.preScale(ratio, ratio);
+        fitScale *= ratio;
+        imageWidth = width;
+        imageHeight = height;
+        keepInView();
+    }
+
+    private void resetZoom() {
+        if (imageWidth == 0 || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+        fitScale = Math.min((float) getWidth() / imageWidth, (float) getHeight() / imageHeight);
+        matrix.setScale(fitScale, fitScale);
+        keepInView();
+        updateTiles();
+    }
+
+    private float getScale() {
+        matrix.getValues(values);
+        return values[Matrix.MSCALE_X];
+    }
+
+    private void zoomBy(float factor, float focusX, float focusY) {
+        float scale = getScale();
+        float maxScale = Math.max(MAX_SCALE, fitScale);
+        float target = Math.max(fitScale, Math.min(scale * factor, maxScale));
+        matrix.postScale(target / scale, target / scale, focusX, focusY);
+        keepInView();
+    }
+
+    /**
+     * Center the image along sides where it is smaller than the view, and
+     * keep it covering the view along the others
+     */
+    private void keepInView() {
+        bounds.set(0, 0, imageWidth, imageHeight);
+        matrix.mapRect(bounds);
+        float dx;
+        if (bounds.width() <= getWidth()) {
+            dx = (getWidth() - bounds.width()) / 2 - bounds.left;
+        } else {
+            dx = Math.max(getWidth() - bounds.right, Math.min(-bounds.left, 0));
+        }
+        float dy;
+        if (bounds.height() <= getHeight()) {
+            dy = (getHeight() - bounds.height()) / 2 - bounds.top;
+        } else {
+            dy = Math.max(getHeight() - bounds.bottom, Math.min(-bounds.top, 0));
+        }
+        matrix.postTranslate(dx, dy);
+        invalidate();
+    }
+
+    /**
+     * Work out the tiles under the viewport at the current zoom, decode the
+     * missing ones and cancel those no longer needed
+     */
+    private void updateTiles() {
+        Drawable drawable = getDrawable();
+        float scale = getScale();
+        // The loaded bitmap is sharp enough until the zoom passes its resolution
+        if (decoder == null || drawable == null
+                || scale <= (float) drawable.getIntrinsicWidth() / imageWidth) {
+            visibleTiles = Collections.emptyList();
+            cancelPendingTiles(Collections.emptySet());
+            return;
+        }
+
+        int sampleSize = TileGrid.sampleSizeForScale(scale);
+        matrix.invert(inverse);
+        bounds.set(0, 0, getWidth(), getHeight());
+        inverse.mapRect(bounds);
+        visibleTiles = TileGrid.visibleTiles(imageWidth, imageHeight, sampleSize,
+                (int) Math.floor(bounds.left), (int) Math.floor(bounds.top),
+                (int) Math.ceil(bounds.right), (int) Math.ceil(bounds.bottom));
+
+        Set<String> wanted = new HashSet<>();
+        for (TileGrid.Tile tile : visibleTiles) {
+            wanted.add(tile.getKey());
+            if (tileCache.get(tile.getKey()) == null && !pendingTiles.containsKey(tile.getKey())) {
+                decodeTile(tile);
+            }
+        }
+        cancelPendingTiles(wanted);
+        invalidate();
+    }
+
+    private void cancelPendingTiles(Set<String> keep) {
+        Iterator<Map.Entry<String, TaskScheduler.Task>> iterator = pendingTiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, TaskScheduler.Task> entry = iterator.next();
+            if (!keep.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void openSource(String url, int loadGeneration) {
+        openTask = TaskScheduler.getInstance().submit(Priority.INTERACTIVE, () -> {
+            BitmapRegionDecoder opened;
+            try {
+                opened = ImageLoader.getInstance().openRegionDecoder(url, Priority.INTERACTIVE);
+            } catch (IOException e) {
+                // Zooming still works, just without more detail
+                Log.w(TAG, "Cannot open image for tiling: " + e.getMessage());
+                return;
+            }
+            mainHandler.post(() -> {
+                if (loadGeneration != generation) {
+                    opened.recycle();
+                    return;
+                }
+                decoder = opened;
+                setSourceSize(opened.getWidth(), opened.getHeight());
+                updateTiles();
+            });
+        });
+    }
+
+    private void decodeTile(TileGrid.Tile tile) {
+        BitmapRegionDecoder source = decoder;
+        Bitmap.Config config = tileConfig;
+        int tileGeneration = generation;
+        pendingTiles.put(tile.getKey(), TaskScheduler.getInstance().submit(Priority.INTERACTIVE, () -> {
+            Bitmap bitmap = decodeRegion(source, tile, config);
+            mainHandler.post(() -> onTileDecoded(tile, bitmap, tileGeneration));
+        }));
+    }
+
+    private void onTileDecoded(TileGrid.Tile tile, Bitmap bitmap, int tileGeneration) {
+        pendingTiles.remove(tile.getKey());
+        if (bitmap == null) {
+            return;
+        }
+        if (tileGeneration != generation || tileCache.get(tile.getKey()) != null
+                || !tileCache.put(tile.getKey(), bitmap)) {
+            ImageLoader.getInstance().getBitmapPool().put(bitmap);
+            return;
+        }
+        invalidate();
+    }
+
+    /**
+     * Decode one tile, into a pooled bitmap when one is big enough. Runs on the scheduler.
+     */
+    private static Bitmap decodeRegion(BitmapRegionDecoder source, TileGrid.Tile tile, Bitmap.Config config) {
+        int sampleSize = tile.getSampleSize();
+        int width = (tile.getRight() - tile.getLeft() + sampleSize - 1) / sampleSize;
+        int height = (tile.getBottom() - tile.getTop() + sampleSize - 1) / sampleSize;
+        BitmapPool pool = ImageLoader.getInstance().getBitmapPool();
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = config;
+        options.inMutable = true;
+        Bitmap reused = pool.get(width, height, config);
+        if (reused != null) {
+            try {
+                // Region decodes keep the size of the bitmap they decode into
+                reused.reconfigure(width, height, config);
+                options.inBitmap = reused;
+            } catch (IllegalArgumentException e) {
+                pool.put(reused);
+                reused = null;
+            }
+        }
+
+        Rect region = new Rect(tile.getLeft(), tile.getTop(), tile.getRight(), tile.getBottom());
+        try {
+            Bitmap bitmap;
+            try {
+                bitmap = source.decodeRegion(region, options);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "inBitmap reuse failed: " + e.getMessage());
+                pool.put(reused);
+                options.inBitmap = null;
+                reused = null;
+                bitmap = source.decodeRegion(region, options);
+            }
+            if (bitmap == null) {
+                pool.put(reused);
+            } else if (bitmap == reused) {
+                pool.recordReuse();
+            } else {
+                pool.put(reused);
+                pool.recordAllocation();
+            }
+            return bitmap;
+        } catch (IllegalStateException e) {
+            // The view let go of the decoder while this tile was queued
+            pool.put(reused);
+            return null;
+        }
+    }
+
+    /**
+     * Cancel pending work, give tiles back to the pool and close the original
+     */
+    private void releaseTiles() {
+        if (openTask != null) {
+            openTask.cancel();
+            openTask = null;
+        }
+        cancelPendingTiles(Collections.emptySet());
+        visibleTiles = Collections.emptyList();
+        tileCache.evictAll();
+        if (decoder != null) {
+            decoder.recycle();
+            decoder = null;
+        }
+        imageWidth = 0;
+        imageHeight = 0;
+        matrix.reset();
+    }
+
+    private final class ScaleListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            zoomBy(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+            return true;
+        }
+
+        @Override
+        public void onScaleEnd(ScaleGestureDetector detector) {
+            updateTiles();
+        }
+    }
+
+    private final class GestureListener extends GestureDetector.SimpleOnGestureListener {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            return true;
+        }
+
+        @Override
+        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+            matrix.postTranslate(-distanceX, -distanceY);
+            keepInView();
+            if (!scaleDetector.isInProgress()) {
+                updateTiles();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean onDoubleTap(MotionEvent e) {
+            if (getScale() > fitScale * 1.01f) {
+                resetZoom();
+            } else {
+                zoomBy(DOUBLE_TAP_ZOOM, e.getX(), e.getY());
+                updateTiles();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean onSingleTapConfirmed(MotionEvent e) {
+            return performClick();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.photoviewer.images;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * UploadImageEncoder - Shrinks a picked photo into a small file for upload
+ *
+ * The pipeline reads the bounds and EXIF orientation first, decodes with a
+ * sample size for the maximum long edge ({@link UploadPlan}), scales and
+ * turns the pixels upright in one pass, and re-encodes into a temp file,
+ * lowering the quality step by step until the file fits the byte target.
+ * Memory is bounded by the output size, not by the camera's resolution,
+ * and the encoded bytes go straight to disk.
+ *
+ * Blocks on disk and CPU; call off the main thread.
+ */
+public final class UploadImageEncoder {
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private UploadImageEncoder() {
+    }
+
+    /**
+     * Encoding of the uploaded file
+     */
+    public enum Format {
+        JPEG("image/jpeg", "jpg"),
+        WEBP("image/webp", "webp");
+
+        private final String mimeType;
+        private final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        Bitmap.CompressFormat compressFormat() {
+            if (this == JPEG) {
+                return Bitmap.CompressFormat.JPEG;
+            }
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                    ? Bitmap.CompressFormat.WEBP_LOSSY
+                    : Bitmap.CompressFormat.WEBP;
+        }
+    }
+
+    /**
+     * Immutable pipeline settings, built with {@link Builder}
+     */
+    public static final class Options {
+        private final int maxLongEdge;
+        private final long targetBytes;
+        private final int quality;
+        private final int minQuality;
+        private final int qualityStep;
+        private final Format format;
+
+        private Options(Builder builder) {
+            this.maxLongEdge = builder.maxLongEdge;
+            this.targetBytes = builder.targetBytes;
+            this.quality = builder.quality;
+            this.minQuality = builder.minQuality;
+            this.qualityStep = builder.qualityStep;
+            this.format = builder.format;
+        }
+
+        public int getMaxLongEdge() {
+            return maxLongEdge;
+        }
+
+        public long getTargetBytes() {
+            return targetBytes;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        /**
+         * Builder for Options
+         */
+        public static class Builder {
+            private int maxLongEdge = 1920;
+            private long targetBytes = 400 * 1024;
+            private int quality = 85;
+            private int minQuality = 60;
+            private int qualityStep = 10;
+            private Format format = Format.JPEG;
+
+            /**
+             * Longest side of the uploaded image; larger photos are scaled down
+             */
+            public Builder maxLongEdge(int maxLongEdge) {
+                this.maxLongEdge = maxLongEdge;
+                return this;
+            }
+
+            /**
+             * File size the quality is lowered towards, down to the minimum quality
+             */
+            public Builder targetBytes(long targetBytes) {
+                this.targetBytes = targetBytes;
+                return this;
+            }
+
+            /**
+             * Quality of the first encode and the lowest one tried
+             */
+            public Builder quality(int quality, int minQuality) {
+                this.quality = quality;
+                this.minQuality = minQuality;
+                return this;
+            }
+
+            public Builder format(Format format) {
+                this.format = format;
+                return this;
+            }
+
+            public Options build() {
+                return new Options(this);
+            }
+        }
+    }
+
+    /**
+     * The encoded temp file; the caller deletes it after the upload
+     */
+    public static final class Result {
+        private final File file;
+        private final Format format;
+        private final int width;
+        private final int height;
+
+        Result(File file, Format format, int width, int height) {
+            this.file = file;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getMimeType() {
+            return format.getMimeType();
+        }
+
+        /**
+         * Upload file name: the picked file's name with the new extension
+         */
+        public String fileName(String originalName) {
+            String base = originalName != null ? originalName : "image";
+            int dot = base.lastIndexOf('.');
+            if (dot > 0) {
+                base = base.substring(0, dot);
+            }
+            return base + "." + format.getExtension();
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    /**
+     * Shrink and re-encode the image at uri into a temp file in dir
+     *
+     * @throws IOException if the image cannot be read or decoded, or the file cannot be written
+     */
+    public static Result encode(ContentResolver resolver, Uri uri, File dir, Options options)
+            throws IOException {
+        Bitmap bitmap = decodeUpright(resolver, uri, options.maxLongEdge);
+        File file = File.createTempFile("upload", "." + options.format.getExtension(), dir);
+        try {
+            int quality = options.quality;
+            while (true) {
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE)) {
+                    if (!bitmap.compress(options.format.compressFormat(), quality, out)) {
+                        throw new IOException("Could not encode " + options.format);
+                    }
+                }
+                int next = UploadPlan.nextQuality(quality, file.length(), options.targetBytes,
+                        options.minQuality, options.qualityStep);
+                if (next < 0) {
+                    break;
+                }
+                quality = next;
+            }
+            return new Result(file, options.format, bitmap.getWidth(), bitmap.getHeight());
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * Decode the image at uri upright, with its long edge at most maxLongEdge;
+     * also used for the preview of a picked photo
+     *
+     * @throws IOException if the image cannot be read or decoded
+     */
+    public static Bitmap decodeUpright(ContentResolver resolver, Uri uri, int maxLongEdge)
+            throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + uri);
+        }
+
+        UploadPlan plan = UploadPlan.forSource(bounds.outWidth, bounds.outHeight,
+                readOrientation(resolver, uri), maxLongEdge);
+        BitmapFactory.Options decode = new BitmapFactory.Options();
+        decode.inSampleSize = plan.getSampleSize();
+        // Always full color: what is decoded here is re-encoded and stored, so
+        // RGB_565 banding would be kept for good. The sample size bounds memory.
+        decode.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap sampled;
+        try (InputStream in = open(resolver, uri)) {
+            sampled = BitmapFactory.decodeStream(in, null, decode);
+        }
+        if (sampled == null) {
+            throw new IOException("Could not decode " + uri);
+        }
+
+        // Scale the sampled pixels to the exact output size and turn them upright in one pass
+        boolean swapped = plan.getRotationDegrees() % 180 != 0;
+        float scaleX = (float) (swapped ? plan.getHeight() : plan.getWidth()) / sampled.getWidth();
+        float scaleY = (float) (swapped ? plan.getWidth() : plan.getHeight()) / sampled.getHeight();
+        if (scaleX == 1f && scaleY == 1f && plan.getRotationDegrees() == 0 && !plan.isMirrored()) {
+            return sampled;
+        }
+        Matrix matrix = new Matrix();
+        matrix.setScale(plan.isMirrored() ? -scaleX : scaleX, scaleY);
+        matrix.postRotate(plan.getRotationDegrees());
+        Bitmap upright = Bitmap.createBitmap(sampled, 0, 0, sampled.getWidth(), sampled.getHeight(),
+                matrix, true);
+        if (upright != sampled) {
+            sampled.recycle();
+        }
+        return upright;
+    }
+
+    private static int readOrientation(ContentResolver resolver, Uri uri) {
+        try (InputStream in = open(resolver, uri)) {
+            return new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException | RuntimeException e) {
+            // No readable EXIF: keep the stored orientation
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        return in;
+    }
+}
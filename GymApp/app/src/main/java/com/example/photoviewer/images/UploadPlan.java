@@ -0,0 +1,143 @@
+package com.example.photoviewer.images;
+
+/**
+ * UploadPlan - How to shrink a picked photo before it is uploaded
+ *
+ * Worked out from the bounds and the EXIF orientation alone:
+ * - Sample size: the largest power of two that keeps the decoded long edge
+ *   at or above the maximum, so a 12 MP photo decodes at a quarter of its
+ *   pixels and the decode never holds more than about four times the
+ *   output.
+ * - Output size: the upright image scaled down to the maximum long edge,
+ *   never up.
+ * - Rotation and mirroring that turn the stored pixels upright, since the
+ *   re-encoded file carries no EXIF.
+ *
+ * Plain Java so the arithmetic can be unit tested off device.
+ */
+public final class UploadPlan {
+    // EXIF orientation values, the same as ExifInterface.ORIENTATION_*
+    public static final int ORIENTATION_NORMAL = 1;
+    public static final int ORIENTATION_FLIP_HORIZONTAL = 2;
+    public static final int ORIENTATION_ROTATE_180 = 3;
+    public static final int ORIENTATION_FLIP_VERTICAL = 4;
+    public static final int ORIENTATION_TRANSPOSE = 5;
+    public static final int ORIENTATION_ROTATE_90 = 6;
+    public static final int ORIENTATION_TRANSVERSE = 7;
+    public static final int ORIENTATION_ROTATE_270 = 8;
+
+    private final int sampleSize;
+    private final int width;
+    private final int height;
+    private final int rotationDegrees;
+    private final boolean mirrored;
+
+    private UploadPlan(int sampleSize, int width, int height, int rotationDegrees, boolean mirrored) {
+        this.sampleSize = sampleSize;
+        this.width = width;
+        this.height = height;
+        this.rotationDegrees = rotationDegrees;
+        this.mirrored = mirrored;
+    }
+
+    /**
+     * Plan the upload of a stored sourceWidth x sourceHeight image
+     *
+     * @param orientation EXIF orientation, 0 or 1 if none
+     * @param maxLongEdge longest side of the uploaded image in pixels
+     */
+    public static UploadPlan forSource(int sourceWidth, int sourceHeight, int orientation, int maxLongEdge) {
+        int longEdge = Math.max(sourceWidth, sourceHeight);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= maxLongEdge) {
+            sampleSize *= 2;
+        }
+
+        boolean swapped = swapsSides(orientation);
+        int uprightWidth = swapped ? sourceHeight : sourceWidth;
+        int uprightHeight = swapped ? sourceWidth : sourceHeight;
+        int width = uprightWidth;
+        int height = uprightHeight;
+        if (longEdge > maxLongEdge) {
+            double scale = (double) maxLongEdge / longEdge;
+            width = Math.max(1, (int) Math.round(uprightWidth * scale));
+            height = Math.max(1, (int) Math.round(uprightHeight * scale));
+        }
+        return new UploadPlan(sampleSize, width, height, rotationFor(orientation), mirroredFor(orientation));
+    }
+
+    /**
+     * Next quality to try after an encode came out at encodedBytes
+     *
+     * @return a lower quality, or -1 to keep the current encode
+     */
+    public static int nextQuality(int quality, long encodedBytes, long targetBytes,
+                                  int minQuality, int qualityStep) {
+        if (encodedBytes <= targetBytes || quality <= minQuality) {
+            return -1;
+        }
+        return Math.max(minQuality, quality - qualityStep);
+    }
+
+    /**
+     * Orientations stored sideways: the upright image swaps width and height
+     */
+    public static boolean swapsSides(int orientation) {
+        return orientation >= ORIENTATION_TRANSPOSE && orientation <= ORIENTATION_ROTATE_270;
+    }
+
+    private static int rotationFor(int orientation) {
+        switch (orientation) {
+            case ORIENTATION_ROTATE_180:
+            case ORIENTATION_FLIP_VERTICAL:
+                return 180;
+            case ORIENTATION_ROTATE_90:
+            case ORIENTATION_TRANSVERSE:
+                return 90;
+            case ORIENTATION_ROTATE_270:
+            case ORIENTATION_TRANSPOSE:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean mirroredFor(int orientation) {
+        return orientation == ORIENTATION_FLIP_HORIZONTAL
+                || orientation == ORIENTATION_FLIP_VERTICAL
+                || orientation == ORIENTATION_TRANSPOSE
+                || orientation == ORIENTATION_TRANSVERSE;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Uploaded width in pixels, upright
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Uploaded height in pixels, upright
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Clockwise rotation applied after mirroring
+     */
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    /**
+     * Whether the stored pixels are mirrored horizontally before rotating
+     */
+    public boolean isMirrored() {
+        return mirrored;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.photoviewer.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * EventPage - One page of a paginated event list
+ *
+ * Mirrors the PageNumberPagination envelope returned by the server:
+ * total count, whether next/previous pages exist, and the page results.
+ */
+public class EventPage {
+    private final int pageNumber;
+    private final int count;
+    private final boolean hasNext;
+    private final boolean hasPrevious;
+    private final List<MachineEvent> events;
+
+    public EventPage(int pageNumber, int count, boolean hasNext, boolean hasPrevious,
+                     List<MachineEvent> events) {
+        this.pageNumber = pageNumber;
+        this.count = count;
+        this.hasNext = hasNext;
+        this.hasPrevious = hasPrevious;
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Total number of events across all pages
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    public List<MachineEvent> getEvents() {
+        return events;
+    }
+}
@@ -3,6 +3,9 @@ package com.example.photoviewer.models;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * GymMachine - Data model for gym equipment
  *
@@ -16,6 +19,8 @@ public class GymMachine {
     private final String location;
     private final String description;
     private final String thumbnailUrl;
+    // Downscaled copies of the thumbnail, empty if the server sent none
+    private final List<ImageVariant> thumbnailVariants;
     private final boolean isActive;
     private final int eventCount;
     private final LastEvent lastEvent;
@@ -59,6 +64,29 @@ public class GymMachine {
         }
     }
 
+    public GymMachine(int id, String name, String machineType, String location,
+                      String description, String thumbnailUrl, boolean isActive,
+                      int eventCount, LastEvent lastEvent) {
+        this(id, name, machineType, location, description, thumbnailUrl,
+                Collections.<ImageVariant>emptyList(), isActive, eventCount, lastEvent);
+    }
+
+    public GymMachine(int id, String name, String machineType, String location,
+                      String description, String thumbnailUrl, List<ImageVariant> thumbnailVariants,
+                      boolean isActive, int eventCount, LastEvent lastEvent) {
+        this.id = id;
+        this.name = name;
+        this.machineType = machineType;
+        this.location = location;
+        this.description = description;
+        this.thumbnailUrl = thumbnailUrl;
+        this.thumbnailVariants = thumbnailVariants != null
+                ? thumbnailVariants : Collections.<ImageVariant>emptyList();
+        this.isActive = isActive;
+        this.eventCount = eventCount;
+        this.lastEvent = lastEvent;
+    }
+
     /**
      * Constructor from JSONObject
      * Parses API response JSON into GymMachine object
@@ -73,6 +101,7 @@ public class GymMachine {
         this.location = json.optString("location", "");
         this.description = json.optString("description", "");
         this.thumbnailUrl = json.optString("thumbnail", "");
+        this.thumbnailVariants = ImageVariant.listFromJson(json.optJSONArray("thumbnail_variants"));
         this.isActive = json.optBoolean("is_active", true);
         this.eventCount = json.optInt("event_count", 0);
 
@@ -107,6 +136,10 @@ public class GymMachine {
         return thumbnailUrl;
     }
 
+    public List<ImageVariant> getThumbnailVariants() {
+        return thumbnailVariants;
+    }
+
     public boolean isActive() {
         return isActive;
     }
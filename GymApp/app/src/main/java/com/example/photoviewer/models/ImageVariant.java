@@ -0,0 +1,154 @@
+package com.example.photoviewer.models;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ImageVariant - A downscaled copy of a server image
+ *
+ * The server keeps the original frame and generates fixed-size variants of
+ * it in WebP and JPEG. A view that is smaller than the original loads the
+ * smallest variant that still fills it, see {@link #pickSmallest}.
+ */
+public final class ImageVariant {
+    private final int width;
+    private final int height;
+    private final String format;
+    private final String url;
+
+    public ImageVariant(int width, int height, String format, String url) {
+        this.width = width;
+        this.height = height;
+        this.format = format;
+        this.url = url;
+    }
+
+    /**
+     * Parse one entry of an {@code image_variants} / {@code thumbnail_variants} array
+     *
+     * @return the variant, or null if the entry has no URL or size
+     */
+    public static ImageVariant fromJson(JSONObject json) {
+        if (json == null) {
+            return null;
+        }
+        String url = json.optString("url", "");
+        int width = json.optInt("width", 0);
+        int height = json.optInt("height", 0);
+        if (url.isEmpty() || width <= 0 || height <= 0) {
+            return null;
+        }
+        return new ImageVariant(width, height, json.optString("format", ""), url);
+    }
+
+    /**
+     * Parse a variants array; null or malformed entries are skipped
+     */
+    public static List<ImageVariant> listFromJson(JSONArray array) {
+        if (array == null || array.length() == 0) {
+            return Collections.emptyList();
+        }
+        List<ImageVariant> variants = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            ImageVariant variant = fromJson(array.optJSONObject(i));
+            if (variant != null) {
+                variants.add(variant);
+            }
+        }
+        return variants;
+    }
+
+    /**
+     * Parse variants stored by {@link #listToJsonString}; null or bad text yields none
+     */
+    public static List<ImageVariant> listFromJsonString(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return listFromJson(new JSONArray(text));
+        } catch (JSONException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Variants as the JSON array text the server sent, for local storage;
+     * null if there are none
+     */
+    public static String listToJsonString(List<ImageVariant> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        JSONArray array = new JSONArray();
+        try {
+            for (ImageVariant variant : variants) {
+                array.put(new JSONObject()
+                        .put("width", variant.width)
+                        .put("height", variant.height)
+                        .put("format", variant.format)
+                        .put("url", variant.url));
+            }
+        } catch (JSONException e) {
+            return null;
+        }
+        return array.toString();
+    }
+
+    /**
+     * Smallest variant in a decodable format that covers the target size
+     *
+     * A variant covers the target when both of its sides are at least the
+     * target's, so it fills the view without being scaled up. Among equal
+     * sizes the format listed first in {@code formats} wins.
+     *
+     * @param formats decodable formats, most preferred first
+     * @return the variant to load, or null to load the original
+     */
+    public static ImageVariant pickSmallest(List<ImageVariant> variants, int targetWidth,
+                                            int targetHeight, List<String> formats) {
+        if (variants == null || targetWidth <= 0 || targetHeight <= 0) {
+            return null;
+        }
+        ImageVariant best = null;
+        long bestArea = Long.MAX_VALUE;
+        int bestRank = Integer.MAX_VALUE;
+        for (ImageVariant variant : variants) {
+            int rank = formats.indexOf(variant.format);
+            if (rank < 0 || variant.width < targetWidth || variant.height < targetHeight) {
+                continue;
+            }
+            long area = (long) variant.width * variant.height;
+            if (area < bestArea || (area == bestArea && rank < bestRank)) {
+                best = variant;
+                bestArea = area;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Encoding of the variant: "webp" or "jpeg"
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
@@ -3,6 +3,9 @@ package com.example.photoviewer.models;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * MachineEvent - Data model for equipment usage events.
  *
@@ -17,6 +20,21 @@ public class MachineEvent {
     private String imageUrl;
     private String capturedAt;
     private int personCount;
+    // Downscaled copies of the image, empty if the server sent none
+    private List<ImageVariant> imageVariants = Collections.emptyList();
+
+    public MachineEvent(int id, int machineId, String machineName, String eventType,
+                        String eventTypeDisplay, String imageUrl, String capturedAt,
+                        int personCount) {
+        this.id = id;
+        this.machineId = machineId;
+        this.machineName = machineName;
+        this.eventType = eventType;
+        this.eventTypeDisplay = eventTypeDisplay;
+        this.imageUrl = imageUrl;
+        this.capturedAt = capturedAt;
+        this.personCount = personCount;
+    }
 
     /**
      * Constructor from JSONObject
@@ -36,6 +54,7 @@ public class MachineEvent {
         this.imageUrl = json.optString("image", "");
         this.capturedAt = json.optString("captured_at", "");
         this.personCount = json.optInt("person_count", 0);
+        this.imageVariants = ImageVariant.listFromJson(json.optJSONArray("image_variants"));
     }
 
     public int getId() {
@@ -101,4 +120,15 @@ public class MachineEvent {
     public void setPersonCount(int personCount) {
         this.personCount = personCount;
     }
+
+    /**
+     * Downscaled copies of the image, in no particular order
+     */
+    public List<ImageVariant> getImageVariants() {
+        return imageVariants;
+    }
+
+    public void setImageVariants(List<ImageVariant> imageVariants) {
+        this.imageVariants = imageVariants != null ? imageVariants : Collections.<ImageVariant>emptyList();
+    }
 }
@@ -41,6 +41,15 @@ public class MachineStats {
         }
     }
 
+    public MachineStats(int machineId, String machineName, int totalStarts, int totalEnds,
+                        List<DailyUsage> dailyUsage) {
+        this.machineId = machineId;
+        this.machineName = machineName;
+        this.totalStarts = totalStarts;
+        this.totalEnds = totalEnds;
+        this.dailyUsage = dailyUsage;
+    }
+
     /**
      * Constructor from JSONObject
      * Parses API response JSON into MachineStats object.
@@ -0,0 +1,169 @@
+package com.example.photoviewer.models;
+
+/**
+ * UploadJob - A new post or a post edit waiting in the upload queue
+ *
+ * The image, if any, has already been staged to app storage, so the job
+ * can be sent long after the picker's permission on the original is gone.
+ * A job stays in the journal until the server has accepted it or rejected
+ * it for good.
+ */
+public final class UploadJob {
+
+    public enum Kind {
+        /** POST a new post; title, text and image are all required */
+        CREATE,
+        /** PUT an existing post; the image is only sent if it was replaced */
+        UPDATE
+    }
+
+    private final long id;
+    private final Kind kind;
+    private final int postId;
+    private final String title;
+    private final String text;
+    private final String imagePath;
+    private final String imageName;
+    private final String imageType;
+    private final String uploadSession;
+    private final int attempts;
+    private final long createdAt;
+
+    public UploadJob(long id, Kind kind, int postId, String title, String text,
+                     String imagePath, String imageName, String imageType,
+                     String uploadSession, int attempts, long createdAt) {
+        this.id = id;
+        this.kind = kind;
+        this.postId = postId;
+        this.title = title;
+        this.text = text;
+        this.imagePath = imagePath;
+        this.imageName = imageName;
+        this.imageType = imageType;
+        this.uploadSession = uploadSession;
+        this.attempts = attempts;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * A new post to be queued; the journal assigns its id
+     */
+    public static UploadJob newPost(String title, String text, String imagePath,
+                                    String imageName, String imageType) {
+        return new UploadJob(0, Kind.CREATE, 0, title, text, imagePath, imageName, imageType,
+                null, 0, System.currentTimeMillis());
+    }
+
+    /**
+     * The same job with the id assigned by the journal
+     */
+    public UploadJob withId(long newId) {
+        return new UploadJob(newId, kind, postId, title, text, imagePath, imageName, imageType,
+                uploadSession, attempts, createdAt);
+    }
+
+    /**
+     * The same job with the server's upload session for its image
+     */
+    public UploadJob withUploadSession(String session) {
+        return new UploadJob(id, kind, postId, title, text, imagePath, imageName, imageType,
+                session, attempts, createdAt);
+    }
+
+    /**
+     * The same job with its staged image replaced, e.g. re-encoded in a
+     * format the server accepts; the old image's upload session is dropped
+     */
+    public UploadJob withImage(String newImagePath, String newImageName, String newImageType) {
+        return new UploadJob(id, kind, postId, title, text, newImagePath, newImageName, newImageType,
+                null, attempts, createdAt);
+    }
+
+    /**
+     * The same job after one more failed attempt
+     */
+    public UploadJob withFailedAttempt() {
+        return new UploadJob(id, kind, postId, title, text, imagePath, imageName, imageType,
+                uploadSession, attempts + 1, createdAt);
+    }
+
+    /**
+     * This queued edit with a later edit of the same post folded in: the
+     * later title and text win, and the later image if it has one (whose
+     * bytes the server has none of yet). Without a later image the upload
+     * session is kept; if it was already completed, completing it again
+     * applies the merged title and text to the post.
+     */
+    public UploadJob mergedWith(UploadJob later) {
+        boolean laterImage = later.imagePath != null;
+        return new UploadJob(id, kind, postId, later.title, later.text,
+                laterImage ? later.imagePath : imagePath,
+                laterImage ? later.imageName : imageName,
+                laterImage ? later.imageType : imageType,
+                laterImage ? null : uploadSession,
+                attempts, createdAt);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Post being edited; 0 for a new post
+     */
+    public int getPostId() {
+        return postId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Staged image file, or null if the job sends no image
+     */
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /**
+     * File name sent with the image part
+     */
+    public String getImageName() {
+        return imageName;
+    }
+
+    /**
+     * MIME type of the staged image
+     */
+    public String getImageType() {
+        return imageType;
+    }
+
+    /**
+     * Server upload session holding the image bytes sent so far, or null
+     * if none was created yet
+     */
+    public String getUploadSession() {
+        return uploadSession;
+    }
+
+    /**
+     * Failed attempts so far
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
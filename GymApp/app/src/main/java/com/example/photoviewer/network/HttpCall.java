@@ -0,0 +1,103 @@
+package com.example.photoviewer.network;
+
+import com.example.photoviewer.scheduler.Priority;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * HttpCall - One asynchronous request queued on the {@link HttpDispatcher}
+ *
+ * A call can be cancelled at any point. A queued call is removed from the
+ * dispatcher, a running call has its connection closed, and in both cases the
+ * callback is not invoked afterwards.
+ */
+public class HttpCall implements Runnable {
+    private final HttpTransport transport;
+    private final HttpRequest request;
+    private final HttpTransport.Callback callback;
+    private volatile boolean canceled;
+    private HttpURLConnection connection;
+    long enqueuedAtNanos;
+
+    HttpCall(HttpTransport transport, HttpRequest request, HttpTransport.Callback callback) {
+        this.transport = transport;
+        this.request = request;
+        this.callback = callback;
+    }
+
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    String host() {
+        return request.getHost();
+    }
+
+    Priority priority() {
+        return request.getPriority();
+    }
+
+    /**
+     * Cancel the call; no callback is delivered after this returns
+     */
+    public void cancel() {
+        canceled = true;
+        transport.getDispatcher().cancel(this);
+        HttpURLConnection conn;
+        synchronized (this) {
+            conn = connection;
+        }
+        if (conn != null) {
+            // Unblocks a connect or read in progress on the dispatcher thread
+            conn.disconnect();
+        }
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Remember the connection of the running call so cancel() can close it
+     */
+    void attach(HttpURLConnection conn) throws IOException {
+        synchronized (this) {
+            connection = conn;
+        }
+        if (canceled) {
+            conn.disconnect();
+            throw new IOException("Canceled");
+        }
+    }
+
+    @Override
+    public void run() {
+        if (canceled) {
+            return;
+        }
+        HttpResponse response;
+        try {
+            response = transport.execute(request, this);
+        } catch (IOException e) {
+            if (!canceled) {
+                callback.onFailure(request, e);
+            }
+            return;
+        }
+        try {
+            if (!canceled) {
+                callback.onResponse(response);
+            }
+        } catch (IOException e) {
+            if (!canceled) {
+                callback.onFailure(request, e);
+            }
+        } finally {
+            response.close();
+            synchronized (this) {
+                connection = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.photoviewer.network;
+
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.QueueStats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HttpDispatcher - Bounded concurrent executor for {@link HttpCall}s
+ *
+ * Runs at most {@code maxRequests} calls at once and at most
+ * {@code maxRequestsPerHost} against a single host. Calls over either limit
+ * wait in a ready queue and are promoted as running calls finish.
+ *
+ * The ready queue is ordered by {@link HttpRequest#getPriority()}, FIFO
+ * within a class, and the last slot of each host is kept for
+ * {@link Priority#INTERACTIVE} calls so a tap is not stuck behind a host
+ * full of image downloads.
+ */
+public class HttpDispatcher {
+    public static final int DEFAULT_MAX_REQUESTS = 16;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 4;
+
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final ExecutorService executor;
+
+    private final List<HttpCall> readyCalls = new ArrayList<>();
+    private final List<HttpCall> runningCalls = new ArrayList<>();
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private final QueueStats queueStats = new QueueStats();
+
+    public HttpDispatcher() {
+        this(DEFAULT_MAX_REQUESTS, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    public HttpDispatcher(int maxRequests, int maxRequestsPerHost) {
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "http-dispatcher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public void enqueue(HttpCall call) {
+        synchronized (this) {
+            // Insert after the last queued call of the same or a higher class
+            int index = readyCalls.size();
+            while (index > 0 && readyCalls.get(index - 1).priority().compareTo(call.priority()) > 0) {
+                index--;
+            }
+            readyCalls.add(index, call);
+            call.enqueuedAtNanos = System.nanoTime();
+            queueStats.recordQueued(call.priority());
+        }
+        promoteAndExecute();
+    }
+
+    /**
+     * Drop a call that has not started yet. Running calls are stopped by
+     * {@link HttpCall#cancel()} itself.
+     */
+    synchronized void cancel(HttpCall call) {
+        if (readyCalls.remove(call)) {
+            queueStats.recordDropped(call.priority());
+        }
+    }
+
+    public synchronized int getRunningCallsCount() {
+        return runningCalls.size();
+    }
+
+    public synchronized int getQueuedCallsCount() {
+        return readyCalls.size();
+    }
+
+    /**
+     * Per-priority queue depth and time from enqueue to start
+     */
+    public QueueStats getQueueStats() {
+        return queueStats;
+    }
+
+    private void finished(HttpCall call) {
+        synchronized (this) {
+            if (runningCalls.remove(call)) {
+                String host = call.host();
+                int count = runningPerHost.containsKey(host) ? runningPerHost.get(host) : 0;
+                if (count <= 1) {
+                    runningPerHost.remove(host);
+                } else {
+                    runningPerHost.put(host, count - 1);
+                }
+            }
+        }
+        promoteAndExecute();
+    }
+
+    private int hostLimit(HttpCall call) {
+        if (call.priority() == Priority.INTERACTIVE || maxRequestsPerHost < 2) {
+            return maxRequestsPerHost;
+        }
+        return maxRequestsPerHost - 1;
+    }
+
+    /**
+     * Move eligible calls from the ready queue to the executor
+     */
+    private void promoteAndExecute() {
+        List<HttpCall> executable = new ArrayList<>();
+        synchronized (this) {
+            Iterator<HttpCall> iterator = readyCalls.iterator();
+            while (iterator.hasNext() && runningCalls.size() < maxRequests) {
+                HttpCall call = iterator.next();
+                String host = call.host();
+                int count = runningPerHost.containsKey(host) ? runningPerHost.get(host) : 0;
+                if (count >= hostLimit(call)) {
+                    continue;
+                }
+                iterator.remove();
+                queueStats.recordStarted(call.priority(), System.nanoTime() - call.enqueuedAtNanos);
+                runningCalls.add(call);
+                runningPerHost.put(host, count + 1);
+                executable.add(call);
+            }
+        }
+
+        for (HttpCall call : executable) {
+            executor.execute(() -> {
+                try {
+                    call.run();
+                } finally {
+                    finished(call);
+                }
+            });
+        }
+    }
+}
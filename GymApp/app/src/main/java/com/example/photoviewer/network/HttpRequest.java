@@ -0,0 +1,184 @@
+package com.example.photoviewer.network;
+
+import com.example.photoviewer.scheduler.Priority;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HttpRequest - Immutable description of a single HTTP request
+ *
+ * Built with {@link Builder} and executed by {@link HttpTransport}.
+ */
+public class HttpRequest {
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 10000;
+    public static final int DEFAULT_READ_TIMEOUT_MS = 10000;
+
+    private final String url;
+    private final String method;
+    private final Map<String, String> headers;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final boolean conditionalCache;
+    private final RequestBody body;
+    private final Priority priority;
+
+    private HttpRequest(Builder builder) {
+        this.url = builder.url;
+        this.method = builder.method;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(builder.headers));
+        this.connectTimeoutMs = builder.connectTimeoutMs;
+        this.readTimeoutMs = builder.readTimeoutMs;
+        this.conditionalCache = builder.conditionalCache;
+        this.body = builder.body;
+        this.priority = builder.priority;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public int getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    /**
+     * Whether the transport may revalidate this request against its {@link ResponseCache}
+     */
+    public boolean isConditionalCacheEnabled() {
+        return conditionalCache;
+    }
+
+    /**
+     * Request body, or null for requests without one
+     */
+    public RequestBody getBody() {
+        return body;
+    }
+
+    /**
+     * Scheduling class in the dispatcher's ready queue
+     */
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Host name used by the dispatcher for per-host limits
+     */
+    public String getHost() {
+        try {
+            return new URL(url).getHost();
+        } catch (MalformedURLException e) {
+            return "";
+        }
+    }
+
+    public Builder newBuilder() {
+        Builder builder = new Builder(url)
+                .method(method)
+                .connectTimeout(connectTimeoutMs)
+                .readTimeout(readTimeoutMs)
+                .conditionalCache(conditionalCache)
+                .priority(priority);
+        builder.headers.putAll(headers);
+        builder.body = body;
+        return builder;
+    }
+
+    /**
+     * Builder for HttpRequest
+     */
+    public static class Builder {
+        private final String url;
+        private String method = "GET";
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private int connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+        private int readTimeoutMs = DEFAULT_READ_TIMEOUT_MS;
+        private boolean conditionalCache;
+        private RequestBody body;
+        private Priority priority = Priority.INTERACTIVE;
+
+        public Builder(String url) {
+            this.url = url;
+        }
+
+        public Builder method(String method) {
+            this.method = method;
+            return this;
+        }
+
+        public Builder header(String name, String value) {
+            if (value == null) {
+                headers.remove(name);
+            } else {
+                headers.put(name, value);
+            }
+            return this;
+        }
+
+        public Builder connectTimeout(int timeoutMs) {
+            this.connectTimeoutMs = timeoutMs;
+            return this;
+        }
+
+        public Builder readTimeout(int timeoutMs) {
+            this.readTimeoutMs = timeoutMs;
+            return this;
+        }
+
+        /**
+         * Scheduling class; API calls default to {@link Priority#INTERACTIVE}
+         */
+        public Builder priority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Store the response with its validators and revalidate with a conditional GET
+         */
+        public Builder conditionalCache(boolean enabled) {
+            this.conditionalCache = enabled;
+            return this;
+        }
+
+        /**
+         * Send the given bytes as the request body with the given Content-Type
+         */
+        public Builder body(byte[] content, String contentType) {
+            return body(RequestBody.create(content, contentType));
+        }
+
+        /**
+         * Stream the given body to the server; its content type becomes the Content-Type header
+         */
+        public Builder body(RequestBody body) {
+            this.body = body;
+            return header("Content-Type", body.contentType());
+        }
+
+        public HttpRequest build() {
+            return new HttpRequest(this);
+        }
+    }
+}
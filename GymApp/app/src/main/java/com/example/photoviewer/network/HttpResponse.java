@@ -0,0 +1,105 @@
+package com.example.photoviewer.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpResponse - Response of a request executed by {@link HttpTransport}
+ *
+ * The body is exposed as a stream. Closing the response drains whatever is
+ * left of the body so the underlying keep-alive connection can go back to the
+ * pool; only a body that cannot be drained forces a disconnect.
+ */
+public class HttpResponse implements Closeable {
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private final HttpURLConnection connection;
+    private final HttpRequest request;
+    private final int code;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+    private boolean closed;
+
+    HttpResponse(HttpURLConnection connection, HttpRequest request, int code, InputStream body) {
+        this.connection = connection;
+        this.request = request;
+        this.code = code;
+        this.headers = connection.getHeaderFields();
+        this.body = body != null ? body : new ByteArrayInputStream(new byte[0]);
+    }
+
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public boolean isSuccessful() {
+        return code >= 200 && code < 300;
+    }
+
+    /**
+     * Get first value of a response header (case-insensitive), or null
+     */
+    public String getHeader(String name) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (entry.getKey() != null && entry.getKey().equalsIgnoreCase(name)
+                    && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Response body stream. Must be consumed before {@link #close()}.
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Read the whole body as a UTF-8 string
+     */
+    public String getBodyString() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean drained = false;
+        try {
+            byte[] buffer = new byte[8192];
+            int total = 0;
+            int read;
+            while (total <= MAX_DRAIN_BYTES && (read = body.read(buffer)) != -1) {
+                total += read;
+            }
+            drained = total <= MAX_DRAIN_BYTES;
+            body.close();
+        } catch (IOException ignored) {
+        }
+        if (!drained) {
+            connection.disconnect();
+        }
+    }
+}
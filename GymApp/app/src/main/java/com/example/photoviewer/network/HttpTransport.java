@@ -0,0 +1,215 @@
+package com.example.photoviewer.network;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HttpTransport - Shared HTTP layer for all API clients
+ *
+ * Every request goes through a single execution path that keeps connections
+ * alive: responses are drained and closed instead of disconnected, so the
+ * platform connection pool can reuse the TCP/TLS connection for the next call.
+ * Asynchronous calls run on a shared {@link HttpDispatcher} with global and
+ * per-host concurrency limits, so independent screens no longer wait on each
+ * other behind one serial executor.
+ *
+ * Requests built with {@code conditionalCache(true)} are revalidated against
+ * the optional {@link ResponseCache}: stored validators are sent with the
+ * request and a 304 is answered with the cached body.
+ *
+ * Responses are requested with {@code Accept-Encoding: gzip} and inflated
+ * while the caller reads them; {@link TransferStats} counts the bytes on the
+ * wire against the decoded bytes.
+ */
+public class HttpTransport {
+    private static final String TAG = "HttpTransport";
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private static HttpTransport instance;
+    private final HttpDispatcher dispatcher;
+    private volatile ResponseCache responseCache;
+    private final TransferStats transferStats = new TransferStats();
+
+    /**
+     * Callback interface for asynchronous calls.
+     * Both methods run on a dispatcher thread; the response is closed after
+     * onResponse returns.
+     */
+    public interface Callback {
+        void onResponse(HttpResponse response) throws IOException;
+        void onFailure(HttpRequest request, IOException e);
+    }
+
+    public HttpTransport(HttpDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        // Keep-alive pool used by HttpURLConnection
+        System.setProperty("http.keepAlive", "true");
+        System.setProperty("http.maxConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+    }
+
+    /**
+     * Get singleton instance of HttpTransport
+     */
+    public static synchronized HttpTransport getInstance() {
+        if (instance == null) {
+            instance = new HttpTransport(new HttpDispatcher());
+        }
+        return instance;
+    }
+
+    public HttpDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public TransferStats getTransferStats() {
+        return transferStats;
+    }
+
+    /**
+     * Queue a request on the dispatcher
+     */
+    public HttpCall enqueue(HttpRequest request, Callback callback) {
+        HttpCall call = new HttpCall(this, request, callback);
+        dispatcher.enqueue(call);
+        return call;
+    }
+
+    /**
+     * Execute a request on the calling thread.
+     * The caller must close the returned response.
+     */
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        return execute(request, null);
+    }
+
+    /**
+     * Execute on behalf of an asynchronous call, which may cancel the connection
+     */
+    HttpResponse execute(HttpRequest request, HttpCall call) throws IOException {
+        ResponseCache cache = request.isConditionalCacheEnabled() ? responseCache : null;
+        ResponseCache.Entry cached = cache != null ? cache.get(request.getUrl()) : null;
+
+        HttpURLConnection conn = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+        try {
+            if (call != null) {
+                call.attach(conn);
+            }
+            conn.setRequestMethod(request.getMethod());
+            conn.setConnectTimeout(request.getConnectTimeoutMs());
+            conn.setReadTimeout(request.getReadTimeoutMs());
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (request.getHeader("Accept-Encoding") == null) {
+                // Asking explicitly turns off the platform's transparent gunzip,
+                // so compressed bytes can be counted before they are inflated
+                conn.setRequestProperty("Accept-Encoding", "gzip");
+            }
+            if (cached != null) {
+                if (cached.getEtag() != null) {
+                    conn.setRequestProperty("If-None-Match", cached.getEtag());
+                }
+                if (cached.getLastModified() != null) {
+                    conn.setRequestProperty("If-Modified-Since", cached.getLastModified());
+                }
+            }
+            RequestBody requestBody = request.getBody();
+            if (requestBody != null) {
+                conn.setDoOutput(true);
+                // Without a streaming mode HttpURLConnection buffers the whole body
+                long length = requestBody.contentLength();
+                if (length >= 0) {
+                    conn.setFixedLengthStreamingMode(length);
+                } else {
+                    conn.setChunkedStreamingMode(0);
+                }
+                try (OutputStream out = conn.getOutputStream()) {
+                    requestBody.writeTo(out);
+                }
+            }
+
+            int code = conn.getResponseCode();
+            InputStream body = code >= HttpURLConnection.HTTP_BAD_REQUEST
+                    ? conn.getErrorStream()
+                    : conn.getInputStream();
+            Log.d(TAG, request.getMethod() + " " + request.getUrl() + " -> " + code);
+            body = decode(request, conn, code, body);
+
+            if (cache != null) {
+                body = applyCache(cache, cached, request, conn, code, body);
+                cached = null;
+            }
+            return new HttpResponse(conn, request, code, body);
+        } catch (IOException e) {
+            if (cached != null) {
+                cached.close();
+            }
+            conn.disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * Count the body on the wire and inflate it if the server gzipped it
+     */
+    private InputStream decode(HttpRequest request, HttpURLConnection conn,
+                               int code, InputStream body) throws IOException {
+        if (body == null || "HEAD".equals(request.getMethod())
+                || code == HttpURLConnection.HTTP_NO_CONTENT
+                || code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return body;
+        }
+        boolean gzip = "gzip".equalsIgnoreCase(conn.getContentEncoding());
+        transferStats.recordResponse(gzip);
+        InputStream wire = transferStats.countWire(body);
+        if (gzip) {
+            wire = new GZIPInputStream(wire, GZIP_BUFFER_SIZE);
+        }
+        return transferStats.countDecoded(wire);
+    }
+
+    /**
+     * Swap in the cached body on 304, or tee a fresh 200 body into the cache
+     */
+    private InputStream applyCache(ResponseCache cache, ResponseCache.Entry cached,
+                                   HttpRequest request, HttpURLConnection conn,
+                                   int code, InputStream body) throws IOException {
+        if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            if (body != null) {
+                body.close();
+            }
+            cache.recordNotModified();
+            return cached.getBody();
+        }
+        if (cached != null) {
+            cached.close();
+        }
+
+        if (code != HttpURLConnection.HTTP_OK) {
+            return body;
+        }
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+        if (etag == null && lastModified == null) {
+            cache.remove(request.getUrl());
+            return body;
+        }
+        return cache.cacheWhileReading(request.getUrl(), etag, lastModified, body);
+    }
+}
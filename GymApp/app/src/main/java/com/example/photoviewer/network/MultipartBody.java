@@ -0,0 +1,267 @@
+package com.example.photoviewer.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * MultipartBody - multipart/form-data body streamed part by part
+ *
+ * Text fields are encoded up front; file parts are read from their
+ * {@link Source} while the body is written, through one small buffer, so
+ * uploading a large photo costs a few KB of heap instead of the photo's
+ * size. When every part knows its length the total is computed up front
+ * and the transport sends it in fixed-length mode; otherwise it is sent
+ * chunked.
+ *
+ * Built with {@link Builder}.
+ */
+public final class MultipartBody extends RequestBody {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int BUFFER_SIZE = 8192;
+    // Progress is reported at most once per this many bytes, and at the end
+    private static final long PROGRESS_STEP_BYTES = 64 * 1024;
+
+    private final String boundary;
+    private final List<Part> parts;
+    private final ProgressListener progressListener;
+    private final long contentLength;
+
+    /**
+     * Content of a file part, opened when the body is written
+     */
+    public interface Source {
+        InputStream open() throws IOException;
+
+        /**
+         * Exact number of bytes {@link #open} yields, or -1 if not known
+         */
+        long length();
+    }
+
+    /**
+     * Upload progress, called on the thread writing the body
+     */
+    public interface ProgressListener {
+        /**
+         * @param contentLength total bytes, or -1 if not known up front
+         */
+        void onProgress(long bytesWritten, long contentLength);
+    }
+
+    private static final class Part {
+        final byte[] headers;
+        final byte[] content;
+        final Source source;
+
+        Part(byte[] headers, byte[] content, Source source) {
+            this.headers = headers;
+            this.content = content;
+            this.source = source;
+        }
+
+        long contentLength() {
+            return content != null ? content.length : source.length();
+        }
+    }
+
+    private MultipartBody(Builder builder) {
+        this.boundary = builder.boundary;
+        this.parts = Collections.unmodifiableList(new ArrayList<>(builder.parts));
+        this.progressListener = builder.progressListener;
+        long length = closingDelimiter().length;
+        for (Part part : parts) {
+            long partLength = part.contentLength();
+            if (partLength < 0) {
+                length = -1;
+                break;
+            }
+            length += part.headers.length + partLength + CRLF.length;
+        }
+        this.contentLength = length;
+    }
+
+    /**
+     * File part content read from a file
+     */
+    public static Source fromFile(File file) {
+        return new Source() {
+            @Override
+            public InputStream open() throws IOException {
+                return new FileInputStream(file);
+            }
+
+            @Override
+            public long length() {
+                return file.length();
+            }
+        };
+    }
+
+    /**
+     * File part content already in memory
+     */
+    public static Source fromBytes(byte[] content) {
+        return new Source() {
+            @Override
+            public InputStream open() {
+                return new ByteArrayInputStream(content);
+            }
+
+            @Override
+            public long length() {
+                return content.length;
+            }
+        };
+    }
+
+    public String getBoundary() {
+        return boundary;
+    }
+
+    @Override
+    public String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        ProgressOutputStream sink = new ProgressOutputStream(out);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (Part part : parts) {
+            sink.write(part.headers);
+            if (part.content != null) {
+                sink.write(part.content);
+            } else {
+                writeSource(part.source, sink, buffer);
+            }
+            sink.write(CRLF);
+        }
+        sink.write(closingDelimiter());
+        sink.flush();
+        sink.reportProgress();
+    }
+
+    private static void writeSource(Source source, OutputStream sink, byte[] buffer) throws IOException {
+        long expected = source.length();
+        long written = 0;
+        try (InputStream in = source.open()) {
+            if (in == null) {
+                throw new IOException("Upload source could not be opened");
+            }
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                sink.write(buffer, 0, read);
+                written += read;
+            }
+        }
+        if (expected >= 0 && written != expected) {
+            // The declared Content-Length no longer matches what is sent
+            throw new IOException("Upload source changed size: expected " + expected
+                    + " bytes, read " + written);
+        }
+    }
+
+    private byte[] closingDelimiter() {
+        return ("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Counts what is written and reports it to the progress listener
+     */
+    private final class ProgressOutputStream extends FilterOutputStream {
+        private long written;
+        private long reported = -1;
+
+        ProgressOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            advance(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            advance(len);
+        }
+
+        private void advance(long count) {
+            written += count;
+            if (written - reported >= PROGRESS_STEP_BYTES) {
+                reportProgress();
+            }
+        }
+
+        void reportProgress() {
+            if (progressListener != null && written != reported) {
+                progressListener.onProgress(written, contentLength);
+            }
+            reported = written;
+        }
+    }
+
+    /**
+     * Builder for MultipartBody
+     */
+    public static class Builder {
+        private final String boundary = "----PhotoViewer" + UUID.randomUUID().toString().replace("-", "");
+        private final List<Part> parts = new ArrayList<>();
+        private ProgressListener progressListener;
+
+        /**
+         * Add a text field, encoded as UTF-8
+         */
+        public Builder addFormField(String name, String value) {
+            String headers = "Content-Disposition: form-data; name=\"" + escape(name) + "\"\r\n";
+            parts.add(new Part(partHeaders(headers), value.getBytes(StandardCharsets.UTF_8), null));
+            return this;
+        }
+
+        /**
+         * Add a file, read from the source only while the body is written
+         */
+        public Builder addFilePart(String name, String fileName, String contentType, Source source) {
+            String headers = "Content-Disposition: form-data; name=\"" + escape(name)
+                    + "\"; filename=\"" + escape(fileName) + "\"\r\n"
+                    + "Content-Type: " + contentType + "\r\n";
+            parts.add(new Part(partHeaders(headers), null, source));
+            return this;
+        }
+
+        public Builder progressListener(ProgressListener listener) {
+            this.progressListener = listener;
+            return this;
+        }
+
+        public MultipartBody build() {
+            return new MultipartBody(this);
+        }
+
+        private byte[] partHeaders(String headers) {
+            return ("--" + boundary + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static String escape(String value) {
+            // Quotes and line breaks would end the header value early
+            return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+        }
+    }
+}
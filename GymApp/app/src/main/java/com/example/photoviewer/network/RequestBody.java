@@ -0,0 +1,50 @@
+package com.example.photoviewer.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * RequestBody - Content sent with a request, written straight to the connection
+ *
+ * A body with a known length is sent in fixed-length streaming mode, one
+ * without in chunked mode; either way {@link HttpTransport} never buffers it.
+ */
+public abstract class RequestBody {
+
+    /**
+     * Value of the Content-Type header
+     */
+    public abstract String contentType();
+
+    /**
+     * Number of bytes {@link #writeTo} writes, or -1 if not known up front
+     */
+    public abstract long contentLength();
+
+    /**
+     * Write the content; may be called once per attempt
+     */
+    public abstract void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Body of bytes already in memory
+     */
+    public static RequestBody create(byte[] content, String contentType) {
+        return new RequestBody() {
+            @Override
+            public String contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return content.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(content);
+            }
+        };
+    }
+}
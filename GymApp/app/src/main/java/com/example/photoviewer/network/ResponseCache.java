@@ -0,0 +1,245 @@
+package com.example.photoviewer.network;
+
+import android.util.Log;
+
+import com.example.photoviewer.utils.DiskLruCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ResponseCache - Disk cache of validated GET responses
+ *
+ * Stores the body of each cacheable response together with its ETag and
+ * Last-Modified validators, keyed by URL. {@link HttpTransport} sends the
+ * validators back as If-None-Match / If-Modified-Since and, when the server
+ * answers 304, serves the stored body instead of downloading it again.
+ *
+ * Entry layout: UTF etag, UTF last-modified, then the raw body bytes.
+ */
+public class ResponseCache {
+    private static final String TAG = "ResponseCache";
+    public static final long DEFAULT_MAX_SIZE = 5L * 1024 * 1024; // 5 MB
+
+    private final DiskLruCache disk;
+    private final AtomicLong notModifiedCount = new AtomicLong();
+    private final AtomicLong storedCount = new AtomicLong();
+
+    public ResponseCache(File directory, long maxSize) {
+        this.disk = new DiskLruCache(directory, maxSize);
+    }
+
+    /**
+     * Open the cached entry for a URL
+     *
+     * @return entry whose body must be closed by the caller, or null on a miss
+     */
+    public Entry get(String url) {
+        File file = disk.get(url);
+        if (file == null) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            return new Entry(emptyToNull(etag), emptyToNull(lastModified), in);
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache entry for " + url + ": " + e.getMessage());
+            closeQuietly(in);
+            disk.remove(url);
+            return null;
+        }
+    }
+
+    /**
+     * Wrap a network body so that it is written to the cache while the caller
+     * reads it. The entry is committed only if the body is read to the end.
+     */
+    public InputStream cacheWhileReading(String url, String etag, String lastModified,
+                                         InputStream body) {
+        DiskLruCache.Editor editor = disk.edit(url);
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(editor.newOutputStream()));
+            out.writeUTF(etag != null ? etag : "");
+            out.writeUTF(lastModified != null ? lastModified : "");
+            return new CachingInputStream(body, out, editor);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot cache response for " + url + ": " + e.getMessage());
+            editor.abort();
+            return body;
+        }
+    }
+
+    public void remove(String url) {
+        disk.remove(url);
+    }
+
+    public void evictAll() {
+        disk.evictAll();
+    }
+
+    void recordNotModified() {
+        notModifiedCount.incrementAndGet();
+    }
+
+    /**
+     * Number of responses served from cache after a 304
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * Number of full responses written to the cache
+     */
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public long getSize() {
+        return disk.getSize();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Entry - Validators and body stream of one cached response
+     */
+    public static class Entry implements Closeable {
+        private final String etag;
+        private final String lastModified;
+        private final InputStream body;
+
+        Entry(String etag, String lastModified, InputStream body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(body);
+        }
+    }
+
+    /**
+     * Copies every byte read from the network body into a cache editor
+     */
+    private class CachingInputStream extends FilterInputStream {
+        private final DataOutputStream out;
+        private final DiskLruCache.Editor editor;
+        private boolean failed;
+        private boolean done;
+
+        CachingInputStream(InputStream in, DataOutputStream out, DiskLruCache.Editor editor) {
+            super(in);
+            this.out = out;
+            this.editor = editor;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                finish(true);
+            } else {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read == -1) {
+                finish(true);
+            } else {
+                write(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes would leave a hole in the cached body
+            failed = true;
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish(false);
+            super.close();
+        }
+
+        private void write(byte[] buffer, int offset, int length) {
+            if (failed || done) {
+                return;
+            }
+            try {
+                out.write(buffer, offset, length);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        private void finish(boolean complete) {
+            if (done) {
+                return;
+            }
+            done = true;
+            closeQuietly(out);
+            if (!complete || failed) {
+                editor.abort();
+                return;
+            }
+            try {
+                editor.commit();
+                storedCount.incrementAndGet();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to commit cached response: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.example.photoviewer.network;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ResumableUpload - Sends a file through the server's resumable upload API
+ *
+ * Protocol, under {@code api_root/uploads/}:
+ * - POST uploads/ creates a session for the file's name, type and size
+ * - PUT uploads/&lt;id&gt;/ with {@code Content-Range: bytes start-end/size}
+ *   writes one chunk at the committed offset (409 with the offset otherwise)
+ * - GET uploads/&lt;id&gt;/ returns the committed offset
+ * - POST uploads/&lt;id&gt;/complete/ checks the SHA-256 of the whole file
+ *   and creates the post, or edits the one given as "post"
+ *
+ * The server commits a chunk only once its whole body has arrived, so after
+ * a dropped connection the upload asks for the committed offset and goes on
+ * from there: a drop at 90% costs at most one chunk, not the whole file.
+ * With the session id kept by the caller (see {@link SessionListener}) the
+ * upload also resumes after the process was killed.
+ *
+ * Built with {@link Builder}; {@link #upload} blocks, call it off the main thread.
+ */
+public final class ResumableUpload {
+    private static final String TAG = "ResumableUpload";
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    // Consecutive failures without progress before the upload gives up
+    public static final int DEFAULT_MAX_STALLS = 5;
+    private static final long DEFAULT_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 30000;
+    private static final int BUFFER_SIZE = 8192;
+    // The server stores the image and generates its thumbnails before answering
+    private static final int COMPLETE_READ_TIMEOUT_MS = 60000;
+
+    private final HttpTransport transport;
+    private final String uploadsUrl;
+    private final String token;
+    private final File file;
+    private final String fileName;
+    private final String contentType;
+    private final int chunkSize;
+    private final int maxStalls;
+    private final long retryDelayMs;
+    private final SessionListener sessionListener;
+    private final MultipartBody.ProgressListener progressListener;
+    private String sessionId;
+    private List<String> acceptedTypes;
+
+    /**
+     * Told about each new session, so an interrupted upload can be resumed later
+     */
+    public interface SessionListener {
+        void onSessionCreated(String sessionId);
+    }
+
+    /**
+     * Final answer of the server: the completed post, or the reason it was refused
+     */
+    public static final class Result {
+        private final int code;
+        private final String body;
+
+        Result(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public boolean isSuccessful() {
+            return code >= 200 && code < 300;
+        }
+    }
+
+    private ResumableUpload(Builder builder) {
+        this.transport = builder.transport;
+        this.uploadsUrl = builder.baseUrl + "api_root/uploads/";
+        this.token = builder.token;
+        this.file = builder.file;
+        this.fileName = builder.fileName;
+        this.contentType = builder.contentType;
+        this.chunkSize = builder.chunkSize;
+        this.maxStalls = builder.maxStalls;
+        this.retryDelayMs = builder.retryDelayMs;
+        this.sessionListener = builder.sessionListener;
+        this.progressListener = builder.progressListener;
+        this.sessionId = builder.sessionId;
+    }
+
+    /**
+     * Session being uploaded to, or null before one was created
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Image types the server said it accepts when asked for a session, or
+     * null if it did not say (a resumed session, or an older server)
+     */
+    public List<String> getAcceptedTypes() {
+        return acceptedTypes;
+    }
+
+    /**
+     * Send the file, resuming after dropped connections, then complete it
+     *
+     * @param fields form fields of the post sent with the completion, e.g. title and text
+     * @return the server's answer to the completion, or a 4xx that ended the upload
+     * @throws IOException if the connection kept failing, or the server kept
+     *                     answering, without progress
+     */
+    public Result upload(Map<String, String> fields) throws IOException {
+        long size = file.length();
+        String checksum = sha256(file);
+        long offset = -1;
+        int stalls = 0;
+        boolean restarted = false;
+
+        while (true) {
+            try {
+                if (sessionId != null && offset < 0) {
+                    offset = queryOffset();
+                }
+                if (sessionId == null) {
+                    Result created = createSession(size);
+                    if (created != null) {
+                        return created;
+                    }
+                    offset = 0;
+                }
+
+                while (offset < size) {
+                    long committed = putChunk(offset, size);
+                    if (committed <= offset) {
+                        // e.g. a 409 naming the same offset: retrying at once would spin
+                        throw new IOException("Server did not advance past " + committed);
+                    }
+                    stalls = 0;
+                    offset = committed;
+                    if (progressListener != null) {
+                        progressListener.onProgress(offset, size);
+                    }
+                }
+
+                Result result = complete(checksum, fields);
+                if (result.getCode() == 422 && !restarted) {
+                    // Checksum mismatch: the server dropped the bytes, send them once more
+                    Log.w(TAG, "Checksum mismatch, sending " + fileName + " again");
+                    restarted = true;
+                    offset = 0;
+                    continue;
+                }
+                if (result.getCode() == 409) {
+                    // Not all bytes committed after all; counted as a stall so
+                    // a server that keeps answering 409 cannot loop forever
+                    throw new IOException("Server refused completion at " + offset + "/" + size);
+                }
+                return result;
+            } catch (IOException e) {
+                stalls++;
+                Log.w(TAG, "Upload of " + fileName + " interrupted at " + offset + "/" + size
+                        + " (" + stalls + "/" + maxStalls + "): " + e.getMessage());
+                if (stalls > maxStalls) {
+                    throw e;
+                }
+                sleep(Math.min(MAX_RETRY_DELAY_MS, retryDelayMs << (stalls - 1)));
+                // Where the server stands is only known after asking it
+                offset = -1;
+            }
+        }
+    }
+
+    /**
+     * @return null when the session was created, or the server's refusal
+     */
+    private Result createSession(long size) throws IOException {
+        String json;
+        try {
+            json = new JSONObject()
+                    .put("file_name", fileName)
+                    .put("content_type", contentType)
+                    .put("size", size)
+                    .toString();
+        } catch (JSONException e) {
+            throw new IOException("Cannot encode session request", e);
+        }
+        try (HttpResponse response = transport.execute(request(uploadsUrl, "POST")
+                .body(json.getBytes(StandardCharsets.UTF_8), "application/json")
+                .build())) {
+            String body = response.getBodyString();
+            checkServerError(response);
+            acceptedTypes = readAcceptedTypes(body);
+            if (response.getCode() != 201) {
+                return new Result(response.getCode(), body);
+            }
+            sessionId = readJson(body).optString("id", null);
+            if (sessionId == null) {
+                throw new IOException("Session response without id");
+            }
+        }
+        Log.d(TAG, "Upload session " + sessionId + " for " + fileName + ", " + size + " bytes");
+        if (sessionListener != null) {
+            sessionListener.onSessionCreated(sessionId);
+        }
+        return null;
+    }
+
+    /**
+     * @return committed offset, or -1 if the session no longer exists
+     */
+    private long queryOffset() throws IOException {
+        try (HttpResponse response = transport.execute(request(sessionUrl(), "GET").build())) {
+            String body = response.getBodyString();
+            if (response.getCode() == 404) {
+                sessionId = null;
+                return -1;
+            }
+            checkSuccess(response);
+            return readOffset(body);
+        }
+    }
+
+    /**
+     * Send the chunk starting at offset
+     *
+     * @return the offset the server committed
+     */
+    private long putChunk(long offset, long size) throws IOException {
+        long length = Math.min(chunkSize, size - offset);
+        String range = "bytes " + offset + "-" + (offset + length - 1) + "/" + size;
+        try (HttpResponse response = transport.execute(request(sessionUrl(), "PUT")
+                .header("Content-Range", range)
+                .body(new FileRangeBody(file, offset, length))
+                .build())) {
+            String body = response.getBodyString();
+            if (response.getCode() == 404) {
+                // Session expired on the server: the retry starts a new one
+                sessionId = null;
+                throw new IOException("Upload session expired");
+            }
+            if (response.getCode() == 409) {
+                return readOffset(body);
+            }
+            checkSuccess(response);
+            return readOffset(body);
+        }
+    }
+
+    private Result complete(String checksum, Map<String, String> fields) throws IOException {
+        String json;
+        try {
+            JSONObject request = new JSONObject().put("sha256", checksum);
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                request.put(field.getKey(), field.getValue());
+            }
+            json = request.toString();
+        } catch (JSONException e) {
+            throw new IOException("Cannot encode completion", e);
+        }
+        try (HttpResponse response = transport.execute(request(sessionUrl() + "complete/", "POST")
+                .readTimeout(COMPLETE_READ_TIMEOUT_MS)
+                .body(json.getBytes(StandardCharsets.UTF_8), "application/json")
+                .build())) {
+            String body = response.getBodyString();
+            checkServerError(response);
+            return new Result(response.getCode(), body);
+        }
+    }
+
+    private HttpRequest.Builder request(String url, String method) {
+        return new HttpRequest.Builder(url)
+                .method(method)
+                .header("Authorization", "Token " + token);
+    }
+
+    private String sessionUrl() {
+        return uploadsUrl + sessionId + "/";
+    }
+
+    /**
+     * Server errors and throttling are retried like dropped connections
+     */
+    private static void checkServerError(HttpResponse response) throws IOException {
+        int code = response.getCode();
+        if (code >= 500 || code == 408 || code == 429) {
+            throw new IOException("HTTP " + code);
+        }
+    }
+
+    private static void checkSuccess(HttpResponse response) throws IOException {
+        checkServerError(response);
+        if (!response.isSuccessful()) {
+            throw new IOException("Unexpected HTTP " + response.getCode());
+        }
+    }
+
+    private static long readOffset(String body) throws IOException {
+        long offset = readJson(body).optLong("offset", -1);
+        if (offset < 0) {
+            throw new IOException("Response without offset");
+        }
+        return offset;
+    }
+
+    private static List<String> readAcceptedTypes(String body) {
+        JSONArray types;
+        try {
+            types = new JSONObject(body).optJSONArray("accepted_types");
+        } catch (JSONException e) {
+            return null;
+        }
+        if (types == null) {
+            return null;
+        }
+        List<String> accepted = new ArrayList<>();
+        for (int i = 0; i < types.length(); i++) {
+            accepted.add(types.optString(i));
+        }
+        return accepted;
+    }
+
+    private static JSONObject readJson(String body) throws IOException {
+        try {
+            return new JSONObject(body);
+        } catch (JSONException e) {
+            throw new IOException("Malformed upload response", e);
+        }
+    }
+
+    /**
+     * Hex SHA-256 of the whole file, compared by the server on completion
+     */
+    static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        return hex.toString();
+    }
+
+    private static void sleep(long delayMs) throws IOException {
+        if (delayMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrupted", e);
+        }
+    }
+
+    /**
+     * One chunk of the file, read while it is written to the connection
+     */
+    private static final class FileRangeBody extends RequestBody {
+        private final File file;
+        private final long offset;
+        private final long length;
+
+        FileRangeBody(File file, long offset, long length) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public String contentType() {
+            return "application/octet-stream";
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                in.seek(offset);
+                long remaining = length;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read == -1) {
+                        throw new IOException("Upload file shrank while sending");
+                    }
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder for ResumableUpload
+     */
+    public static class Builder {
+        private final String baseUrl;
+        private final String token;
+        private final File file;
+        private HttpTransport transport = HttpTransport.getInstance();
+        private String fileName;
+        private String contentType = "image/jpeg";
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private int maxStalls = DEFAULT_MAX_STALLS;
+        private long retryDelayMs = DEFAULT_RETRY_DELAY_MS;
+        private String sessionId;
+        private SessionListener sessionListener;
+        private MultipartBody.ProgressListener progressListener;
+
+        /**
+         * @param baseUrl API base URL ending in "/"
+         */
+        public Builder(String baseUrl, String token, File file) {
+            this.baseUrl = baseUrl;
+            this.token = token;
+            this.file = file;
+            this.fileName = file.getName();
+        }
+
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Name and type the post's image is stored under
+         */
+        public Builder file(String fileName, String contentType) {
+            this.fileName = fileName;
+            this.contentType = contentType;
+            return this;
+        }
+
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Consecutive failures without progress before giving up, and the
+         * delay before the first retry (doubled on each further one)
+         */
+        public Builder retries(int maxStalls, long retryDelayMs) {
+            this.maxStalls = maxStalls;
+            this.retryDelayMs = retryDelayMs;
+            return this;
+        }
+
+        /**
+         * Resume a session created by an earlier attempt; a session the
+         * server no longer knows is replaced by a new one
+         */
+        public Builder resumeSession(String sessionId) {
+            this.sessionId = sessionId;
+            return this;
+        }
+
+        public Builder sessionListener(SessionListener listener) {
+            this.sessionListener = listener;
+            return this;
+        }
+
+        /**
+         * Committed bytes, reported after each chunk
+         */
+        public Builder progressListener(MultipartBody.ProgressListener listener) {
+            this.progressListener = listener;
+            return this;
+        }
+
+        public ResumableUpload build() {
+            return new ResumableUpload(this);
+        }
+    }
+}
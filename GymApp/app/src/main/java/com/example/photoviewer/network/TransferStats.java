@@ -0,0 +1,111 @@
+package com.example.photoviewer.network;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TransferStats - Byte counters for response bodies read through {@link HttpTransport}
+ *
+ * Wire bytes are counted as they come off the connection (compressed when
+ * the server gzipped the body); decoded bytes are what callers actually read.
+ * Bodies answered from the {@link ResponseCache} on a 304 count for neither.
+ */
+public class TransferStats {
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private final AtomicLong responseCount = new AtomicLong();
+    private final AtomicLong compressedResponseCount = new AtomicLong();
+
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    public long getResponseCount() {
+        return responseCount.get();
+    }
+
+    public long getCompressedResponseCount() {
+        return compressedResponseCount.get();
+    }
+
+    /**
+     * Bytes saved by compression so far
+     */
+    public long getSavedBytes() {
+        return Math.max(0, decodedBytes.get() - wireBytes.get());
+    }
+
+    public void reset() {
+        wireBytes.set(0);
+        decodedBytes.set(0);
+        responseCount.set(0);
+        compressedResponseCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d responses (%d gzip), %d wire bytes, %d decoded bytes",
+                responseCount.get(), compressedResponseCount.get(), wireBytes.get(), decodedBytes.get());
+    }
+
+    void recordResponse(boolean compressed) {
+        responseCount.incrementAndGet();
+        if (compressed) {
+            compressedResponseCount.incrementAndGet();
+        }
+    }
+
+    InputStream countWire(InputStream in) {
+        return new CountingInputStream(in, wireBytes);
+    }
+
+    InputStream countDecoded(InputStream in) {
+        return new CountingInputStream(in, decodedBytes);
+    }
+
+    /**
+     * Adds every byte read through it to a shared counter
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong counter;
+
+        CountingInputStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counter.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counter.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                counter.addAndGet(skipped);
+            }
+            return skipped;
+        }
+    }
+}
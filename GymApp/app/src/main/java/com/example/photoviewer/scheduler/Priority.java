@@ -0,0 +1,18 @@
+package com.example.photoviewer.scheduler;
+
+/**
+ * Priority - Scheduling class of a task or request, highest first
+ *
+ * Queued work of a higher class always starts before queued work of a lower
+ * class; within a class work starts in submission order.
+ */
+public enum Priority {
+    /** Direct result of a user action: a tap, opening a screen, a dialog image */
+    INTERACTIVE,
+    /** Images of rows currently on screen */
+    VISIBLE_IMAGE,
+    /** Work for content the user has not reached yet */
+    PREFETCH,
+    /** Polling and sync the user is not waiting for */
+    BACKGROUND
+}
@@ -0,0 +1,100 @@
+package com.example.photoviewer.scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QueueStats - Per-priority queue depth and wait time
+ *
+ * Wait time is measured from submission until the work starts, so it shows
+ * how long each class is held back by the classes above it.
+ */
+public class QueueStats {
+    private final AtomicInteger[] queued = new AtomicInteger[Priority.values().length];
+    private final AtomicLong[] started = new AtomicLong[Priority.values().length];
+    private final AtomicLong[] totalWaitNanos = new AtomicLong[Priority.values().length];
+    private final AtomicLong[] maxWaitNanos = new AtomicLong[Priority.values().length];
+
+    public QueueStats() {
+        for (int i = 0; i < queued.length; i++) {
+            queued[i] = new AtomicInteger();
+            started[i] = new AtomicLong();
+            totalWaitNanos[i] = new AtomicLong();
+            maxWaitNanos[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Work of this class currently waiting to start
+     */
+    public int getQueueDepth(Priority priority) {
+        return queued[priority.ordinal()].get();
+    }
+
+    /**
+     * Work of this class that has started since the last reset
+     */
+    public long getStartedCount(Priority priority) {
+        return started[priority.ordinal()].get();
+    }
+
+    public long getAverageWaitMs(Priority priority) {
+        long count = started[priority.ordinal()].get();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos[priority.ordinal()].get() / count);
+    }
+
+    public long getMaxWaitMs(Priority priority) {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos[priority.ordinal()].get());
+    }
+
+    /**
+     * Reset the wait counters; queue depth keeps tracking queued work
+     */
+    public void reset() {
+        for (int i = 0; i < queued.length; i++) {
+            started[i].set(0);
+            totalWaitNanos[i].set(0);
+            maxWaitNanos[i].set(0);
+        }
+    }
+
+    public void recordQueued(Priority priority) {
+        queued[priority.ordinal()].incrementAndGet();
+    }
+
+    /**
+     * Queued work was cancelled before it started
+     */
+    public void recordDropped(Priority priority) {
+        queued[priority.ordinal()].decrementAndGet();
+    }
+
+    public void recordStarted(Priority priority, long waitNanos) {
+        int index = priority.ordinal();
+        queued[index].decrementAndGet();
+        started[index].incrementAndGet();
+        totalWaitNanos[index].addAndGet(waitNanos);
+        maxWaitNanos[index].accumulateAndGet(waitNanos, Math::max);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("QueueStats{");
+        for (Priority priority : Priority.values()) {
+            if (priority.ordinal() > 0) {
+                builder.append(", ");
+            }
+            builder.append(priority.name().toLowerCase())
+                    .append("=[queued=").append(getQueueDepth(priority))
+                    .append(", started=").append(getStartedCount(priority))
+                    .append(", avgWaitMs=").append(getAverageWaitMs(priority))
+                    .append(", maxWaitMs=").append(getMaxWaitMs(priority))
+                    .append(']');
+        }
+        return builder.append('}').toString();
+    }
+}
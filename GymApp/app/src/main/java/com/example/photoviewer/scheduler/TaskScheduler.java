@@ -0,0 +1,233 @@
+package com.example.photoviewer.scheduler;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * TaskScheduler - App-wide worker pool for blocking work, ordered by {@link Priority}
+ *
+ * Replaces the per-screen and per-adapter executors. Queued tasks start
+ * highest class first and FIFO within a class, so a tap never waits behind
+ * queued thumbnail downloads. One worker is reserved for
+ * {@link Priority#INTERACTIVE} tasks: lower classes can occupy at most
+ * {@code threadCount - 1} workers, so interactive work starts as soon as it
+ * is submitted even while every other worker is busy with images.
+ *
+ * API calls do not run here; they are scheduled by the
+ * {@link com.example.photoviewer.network.HttpDispatcher}.
+ */
+public class TaskScheduler {
+    private static final String TAG = "TaskScheduler";
+    public static final int DEFAULT_THREAD_COUNT = 4;
+
+    private static TaskScheduler instance;
+
+    private final int threadCount;
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final QueueStats stats = new QueueStats();
+    private long nextSequence;
+    private int runningNonInteractive;
+
+    /**
+     * Handle of a submitted task
+     */
+    public static final class Task implements Comparable<Task> {
+        private final TaskScheduler scheduler;
+        private final Priority priority;
+        private final Runnable runnable;
+        private final long sequence;
+        private final long submittedAtNanos = System.nanoTime();
+        private volatile boolean canceled;
+
+        Task(TaskScheduler scheduler, Priority priority, Runnable runnable, long sequence) {
+            this.scheduler = scheduler;
+            this.priority = priority;
+            this.runnable = runnable;
+            this.sequence = sequence;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Remove the task if it has not started; a running task is left to finish
+         */
+        public void cancel() {
+            canceled = true;
+            scheduler.remove(this);
+        }
+
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public TaskScheduler(int threadCount) {
+        if (threadCount < 2) {
+            throw new IllegalArgumentException("threadCount must be at least 2");
+        }
+        this.threadCount = threadCount;
+        for (int i = 1; i <= threadCount; i++) {
+            Thread worker = new Thread(this::workLoop, "task-scheduler-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Get singleton instance of TaskScheduler
+     */
+    public static synchronized TaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new TaskScheduler(DEFAULT_THREAD_COUNT);
+        }
+        return instance;
+    }
+
+    public Task submit(Priority priority, Runnable runnable) {
+        Task task;
+        synchronized (queue) {
+            task = new Task(this, priority, runnable, nextSequence++);
+            queue.add(task);
+            stats.recordQueued(priority);
+            queue.notifyAll();
+        }
+        return task;
+    }
+
+    /**
+     * Executor that runs its tasks one at a time, in submission order, on this
+     * scheduler's workers at the given priority
+     *
+     * For callers that need ordered access to one resource (e.g. a local
+     * database) without keeping a thread of their own.
+     */
+    public Executor serialExecutor(Priority priority) {
+        return new SerialExecutor(this, priority);
+    }
+
+    public QueueStats getStats() {
+        return stats;
+    }
+
+    private void remove(Task task) {
+        synchronized (queue) {
+            if (queue.remove(task)) {
+                stats.recordDropped(task.priority);
+            }
+        }
+    }
+
+    private void workLoop() {
+        while (true) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (!task.canceled) {
+                    task.runnable.run();
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Task failed: " + e.getMessage());
+            } finally {
+                finished(task);
+            }
+        }
+    }
+
+    /**
+     * Wait for the head of the queue to be allowed to start
+     */
+    private Task take() throws InterruptedException {
+        synchronized (queue) {
+            while (true) {
+                Task head = queue.peek();
+                if (head != null && canStart(head)) {
+                    queue.poll();
+                    if (head.priority != Priority.INTERACTIVE) {
+                        runningNonInteractive++;
+                    }
+                    stats.recordStarted(head.priority, System.nanoTime() - head.submittedAtNanos);
+                    return head;
+                }
+                // The head is the highest queued class, so if it cannot
+                // start nothing behind it can either
+                queue.wait();
+            }
+        }
+    }
+
+    private boolean canStart(Task task) {
+        return task.priority == Priority.INTERACTIVE || runningNonInteractive < threadCount - 1;
+    }
+
+    private void finished(Task task) {
+        if (task.priority == Priority.INTERACTIVE) {
+            return;
+        }
+        synchronized (queue) {
+            runningNonInteractive--;
+            queue.notifyAll();
+        }
+    }
+
+    /**
+     * Hands the next task to the scheduler only after the previous one finished
+     */
+    private static final class SerialExecutor implements Executor {
+        private final TaskScheduler scheduler;
+        private final Priority priority;
+        private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        private boolean active;
+
+        SerialExecutor(TaskScheduler scheduler, Priority priority) {
+            this.scheduler = scheduler;
+            this.priority = priority;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            synchronized (pending) {
+                pending.add(command);
+                if (active) {
+                    return;
+                }
+                active = true;
+            }
+            scheduler.submit(priority, this::drainOne);
+        }
+
+        private void drainOne() {
+            Runnable next;
+            synchronized (pending) {
+                next = pending.poll();
+            }
+            try {
+                next.run();
+            } finally {
+                synchronized (pending) {
+                    if (pending.isEmpty()) {
+                        active = false;
+                    } else {
+                        scheduler.submit(priority, this::drainOne);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -2,10 +2,11 @@ package com.example.photoviewer.services;
 
 import android.util.Log;
 import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.network.HttpResponse;
+import com.example.photoviewer.network.HttpTransport;
 import org.json.JSONObject;
-import java.io.OutputStream;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 
 public class AuthenticationService {
@@ -26,76 +27,49 @@ public class AuthenticationService {
         new Thread(() -> {
             try {
                 Log.d(TAG, "Creating URL: " + API_BASE_URL + LOGIN_ENDPOINT);
-                URL url = new URL(API_BASE_URL + LOGIN_ENDPOINT);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setDoOutput(true);
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                Log.d(TAG, "Connection opened, preparing request body");
 
                 // Create request body with security_key
                 JSONObject requestBody = new JSONObject();
                 requestBody.put("security_key", securityKey);
                 Log.d(TAG, "Request body: {\"security_key\": \"***\"}");
 
-                // Send request
-                try (OutputStream os = conn.getOutputStream()) {
-                    byte[] input = requestBody.toString().getBytes(StandardCharsets.UTF_8);
-                    Log.d(TAG, "Writing " + input.length + " bytes to connection");
-                    os.write(input, 0, input.length);
-                    Log.d(TAG, "Request sent successfully");
-                }
+                byte[] input = requestBody.toString().getBytes(StandardCharsets.UTF_8);
+                HttpRequest request = new HttpRequest.Builder(API_BASE_URL + LOGIN_ENDPOINT)
+                        .method("POST")
+                        .body(input, "application/json")
+                        .build();
+                Log.d(TAG, "Writing " + input.length + " bytes to connection");
 
-                // Handle response
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Response code: " + responseCode);
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    // Read response
-                    StringBuilder response = new StringBuilder();
-                    try (java.io.BufferedReader br = new java.io.BufferedReader(
-                            new java.io.InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            response.append(line);
-                        }
-                    }
+                // Send request and handle response
+                try (HttpResponse response = HttpTransport.getInstance().execute(request)) {
+                    int responseCode = response.getCode();
+                    Log.d(TAG, "Response code: " + responseCode);
+                    if (responseCode == HttpURLConnection.HTTP_OK) {
+                        JSONObject responseJson = new JSONObject(response.getBodyString());
+                        String token = responseJson.getString("token");
+                        Log.d(TAG, "Login successful, token: " + token.substring(0, Math.min(10, token.length())) + "...");
+                        callback.onSuccess(token);
+                    } else {
+                        // Handle error response
+                        Log.d(TAG, "Error response code: " + responseCode);
+                        String error = response.getBodyString();
 
-                    JSONObject responseJson = new JSONObject(response.toString());
-                    String token = responseJson.getString("token");
-                    Log.d(TAG, "Login successful, token: " + token.substring(0, Math.min(10, token.length())) + "...");
-                    callback.onSuccess(token);
-                } else {
-                    // Handle error response
-                    Log.d(TAG, "Error response code: " + responseCode);
-                    StringBuilder error = new StringBuilder();
-                    try (java.io.BufferedReader br = new java.io.BufferedReader(
-                            new java.io.InputStreamReader(conn.getErrorStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            error.append(line);
+                        Log.d(TAG, "Error response body: " + error);
+                        String errorMessage = "Login failed";
+                        try {
+                            JSONObject errorJson = new JSONObject(error);
+                            if (errorJson.has("error")) {
+                                errorMessage = errorJson.getString("error");
+                            }
+                        } catch (Exception e) {
+                            // Use default error message
+                            Log.e(TAG, "Error parsing error response: " + e.getMessage());
                         }
-                    }
 
-                    Log.d(TAG, "Error response body: " + error.toString());
-                    String errorMessage = "Login failed";
-                    try {
-                        JSONObject errorJson = new JSONObject(error.toString());
-                        if (errorJson.has("error")) {
-                            errorMessage = errorJson.getString("error");
-                        }
-                    } catch (Exception e) {
-                        // Use default error message
-                        Log.e(TAG, "Error parsing error response: " + e.getMessage());
+                        Log.d(TAG, "Calling onError with: " + errorMessage);
+                        callback.onError(errorMessage);
                     }
-
-                    Log.d(TAG, "Calling onError with: " + errorMessage);
-                    callback.onError(errorMessage);
                 }
-
-                conn.disconnect();
             } catch (Exception e) {
                 Log.e(TAG, "Exception in login: " + e.getMessage(), e);
                 callback.onError("Network error: " + e.getMessage());
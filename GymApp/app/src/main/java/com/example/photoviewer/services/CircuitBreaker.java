@@ -0,0 +1,114 @@
+package com.example.photoviewer.services;
+
+import android.util.Log;
+
+import java.util.function.LongSupplier;
+
+/**
+ * CircuitBreaker - Stops calling an endpoint that keeps failing
+ *
+ * Closed: requests go through; {@code failureThreshold} consecutive failures
+ * open the breaker. Open: requests fail fast without touching the network
+ * until {@code openDurationMs} has passed. Half-open: a single probe request
+ * is let through; its success closes the breaker, its failure opens it again.
+ */
+public class CircuitBreaker {
+    private static final String TAG = "CircuitBreaker";
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_DURATION_MS = 30000;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final LongSupplier clock;
+    private final ResilienceStats stats;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilMs;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, ResilienceStats stats) {
+        this(name, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION_MS, System::currentTimeMillis, stats);
+    }
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMs,
+                          LongSupplier clock, ResilienceStats stats) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+        this.stats = stats;
+    }
+
+    /**
+     * Whether a request may be sent now. Returning true in the half-open
+     * state makes that request the probe; report its outcome.
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case OPEN:
+                if (clock.getAsLong() < openUntilMs) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            Log.d(TAG, name + ": closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            open(openDurationMs);
+        }
+    }
+
+    /**
+     * Open for at least the given time, e.g. a Retry-After too long to wait out
+     */
+    public synchronized void openFor(long durationMs) {
+        open(Math.max(durationMs, openDurationMs));
+    }
+
+    /**
+     * The request let through was abandoned before it finished; allow another probe
+     */
+    public synchronized void recordCanceled() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open(long durationMs) {
+        if (state != State.OPEN) {
+            stats.recordBreakerTrip();
+            Log.w(TAG, name + ": open for " + durationMs + "ms after "
+                    + consecutiveFailures + " failures");
+        }
+        state = State.OPEN;
+        openUntilMs = clock.getAsLong() + durationMs;
+        probeInFlight = false;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.photoviewer.services;
+
+import com.example.photoviewer.models.EventPage;
+import com.example.photoviewer.models.MachineEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * EventPageSource - Windowed, page-by-page event feed
+ *
+ * Loads events one server page at a time and keeps a sliding window of at
+ * most {@code maxPagesInMemory} pages. Loading past the end of the window
+ * drops pages from the opposite side, so arbitrarily deep history can be
+ * browsed with bounded memory; dropped pages are fetched again when the user
+ * scrolls back.
+ *
+ * Page state (first/last loaded page number, has next/previous) is the cursor.
+ * Events already in the window are skipped when a page arrives, since new
+ * events shift page boundaries on the server between requests.
+ *
+ * All state is touched only on the callback executor (the main thread in
+ * the app). A refresh cancels the load it supersedes, and any response that
+ * still slips through from an older refresh is ignored.
+ */
+public class EventPageSource {
+    public static final int DEFAULT_MAX_PAGES_IN_MEMORY = 10;
+
+    /**
+     * Fetches a single page; invoked with the 1-based page number
+     */
+    public interface PageFetcher {
+        GymApiService.ApiCall fetchPage(int page, GymApiService.EventPageCallback callback);
+    }
+
+    /**
+     * Receives window changes on the callback executor
+     */
+    public interface Listener {
+        void onRefreshed(List<MachineEvent> events);
+        void onAppended(List<MachineEvent> events, int droppedFromStart);
+        void onPrepended(List<MachineEvent> events, int droppedFromEnd);
+        void onError(String errorMessage, boolean initialLoad);
+    }
+
+    private final PageFetcher fetcher;
+    private final Executor callbackExecutor;
+    private final int maxPagesInMemory;
+    private final Listener listener;
+
+    private final LatestRequest currentLoad = new LatestRequest();
+    private final Deque<List<MachineEvent>> pages = new ArrayDeque<>();
+    private final List<MachineEvent> window = new ArrayList<>();
+    private int firstPage;
+    private int lastPage;
+    private boolean hasNext;
+    private int totalCount;
+    private boolean loading;
+    private int generation;
+    private int requestCount;
+
+    public EventPageSource(PageFetcher fetcher, Executor callbackExecutor,
+                           int maxPagesInMemory, Listener listener) {
+        this.fetcher = fetcher;
+        this.callbackExecutor = callbackExecutor;
+        this.maxPagesInMemory = Math.max(2, maxPagesInMemory);
+        this.listener = listener;
+    }
+
+    /**
+     * Discard the window and load the first page.
+     * Any load still in flight is superseded.
+     */
+    public void refresh() {
+        generation++;
+        loading = true;
+        fetch(1, new PageHandler() {
+            @Override
+            void onPage(EventPage page) {
+                pages.clear();
+                window.clear();
+                List<MachineEvent> events = new ArrayList<>(page.getEvents());
+                pages.add(events);
+                window.addAll(events);
+                firstPage = 1;
+                lastPage = 1;
+                hasNext = page.hasNext();
+                totalCount = page.getCount();
+                listener.onRefreshed(Collections.unmodifiableList(new ArrayList<>(events)));
+            }
+
+            @Override
+            boolean isInitialLoad() {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Load the page after the window
+     *
+     * @return true if a request was started
+     */
+    public boolean loadNextPage() {
+        if (loading || lastPage == 0 || !hasNext) {
+            return false;
+        }
+        loading = true;
+        fetch(lastPage + 1, new PageHandler() {
+            @Override
+            void onPage(EventPage page) {
+                List<MachineEvent> events = withoutLoaded(page.getEvents());
+                pages.addLast(events);
+                window.addAll(events);
+                lastPage = page.getPageNumber();
+                hasNext = page.hasNext();
+                totalCount = page.getCount();
+
+                int dropped = 0;
+                if (pages.size() > maxPagesInMemory) {
+                    dropped = pages.removeFirst().size();
+                    window.subList(0, dropped).clear();
+                    firstPage++;
+                }
+                listener.onAppended(Collections.unmodifiableList(events), dropped);
+                if (events.isEmpty() && hasNext) {
+                    // Page held only already-shown events; no scroll will follow
+                    loadNextPage();
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Re-load the page before the window after it was dropped
+     *
+     * @return true if a request was started
+     */
+    public boolean loadPreviousPage() {
+        if (loading || firstPage <= 1) {
+            return false;
+        }
+        loading = true;
+        fetch(firstPage - 1, new PageHandler() {
+            @Override
+            void onPage(EventPage page) {
+                List<MachineEvent> events = withoutLoaded(page.getEvents());
+                pages.addFirst(events);
+                window.addAll(0, events);
+                firstPage = page.getPageNumber();
+                totalCount = page.getCount();
+
+                int dropped = 0;
+                if (pages.size() > maxPagesInMemory) {
+                    dropped = pages.removeLast().size();
+                    window.subList(window.size() - dropped, window.size()).clear();
+                    lastPage--;
+                    hasNext = true;
+                }
+                listener.onPrepended(Collections.unmodifiableList(events), dropped);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Cancel any page load in flight, e.g. when the screen goes away
+     */
+    public void cancel() {
+        generation++;
+        loading = false;
+        currentLoad.cancel();
+    }
+
+    public boolean hasNextPage() {
+        return hasNext;
+    }
+
+    public boolean hasPreviousPage() {
+        return firstPage > 1;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public int getFirstLoadedPage() {
+        return firstPage;
+    }
+
+    public int getLastLoadedPage() {
+        return lastPage;
+    }
+
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Total number of events on the server for the current filters
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Events currently held in memory, in display order
+     */
+    public List<MachineEvent> getEvents() {
+        return Collections.unmodifiableList(window);
+    }
+
+    private List<MachineEvent> withoutLoaded(List<MachineEvent> events) {
+        Set<Integer> loadedIds = new HashSet<>();
+        for (MachineEvent event : window) {
+            loadedIds.add(event.getId());
+        }
+        List<MachineEvent> fresh = new ArrayList<>(events.size());
+        for (MachineEvent event : events) {
+            if (loadedIds.add(event.getId())) {
+                fresh.add(event);
+            }
+        }
+        return fresh;
+    }
+
+    private void fetch(int pageNumber, PageHandler handler) {
+        int requestGeneration = generation;
+        int requestNumber = ++requestCount;
+        GymApiService.ApiCall call = fetcher.fetchPage(pageNumber, new GymApiService.EventPageCallback() {
+            @Override
+            public void onSuccess(EventPage page) {
+                callbackExecutor.execute(() -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    loading = false;
+                    handler.onPage(page);
+                });
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                callbackExecutor.execute(() -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    loading = false;
+                    listener.onError(errorMessage, handler.isInitialLoad());
+                });
+            }
+        });
+        // A callback delivered synchronously may already have started the next load
+        if (requestNumber == requestCount) {
+            currentLoad.replace(call);
+        }
+    }
+
+    private abstract static class PageHandler {
+        abstract void onPage(EventPage page);
+
+        boolean isInitialLoad() {
+            return false;
+        }
+    }
+}
@@ -3,40 +3,189 @@ package com.example.photoviewer.services;
 import android.util.Log;
 
 import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.models.EventPage;
 import com.example.photoviewer.models.GymMachine;
 import com.example.photoviewer.models.MachineEvent;
 import com.example.photoviewer.models.MachineStats;
+import com.example.photoviewer.network.HttpCall;
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.network.HttpResponse;
+import com.example.photoviewer.network.HttpTransport;
+import com.example.photoviewer.network.ResponseCache;
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.TaskScheduler;
+import com.example.photoviewer.utils.MemoryGovernor;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.Map;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GymApiService - API client for gym machine endpoints
  *
  * Singleton service for fetching gym equipment data from the backend API.
- * Uses ExecutorService for background network operations.
+ * Requests run concurrently on the shared {@link HttpTransport}. Responses are
+ * revalidated with conditional GETs; on 304 the previously parsed result is
+ * reused so an unchanged screen costs neither a download nor a parse.
+ * Every call returns an {@link ApiCall} handle; identical queries in flight
+ * share one network request.
+ *
+ * Failed GETs are retried per {@link RetryPolicy} (backoff with jitter,
+ * Retry-After honored) before an error reaches the caller. Each endpoint has
+ * a {@link CircuitBreaker}; while it is open calls fail fast, or are answered
+ * with the last parsed result for the same URL if there is one.
  */
-public class GymApiService {
+public class GymApiService implements MemoryGovernor.Trimmable {
     private static final String TAG = "GymApiService";
     private static final String API_BASE_URL = BuildConfig.API_BASE_URL.replaceAll("/$", "");
     private static final String MACHINES_ENDPOINT = "/api_root/machines/";
     private static final String EVENTS_ENDPOINT_TEMPLATE = "/api/machines/%d/events/";
     private static final String EVENT_DETAIL_ENDPOINT_TEMPLATE = "/api_root/events/%d/";
     private static final String STATS_ENDPOINT_TEMPLATE = "/api_root/machines/%d/stats/";
+    private static final int MAX_PARSED_RESULTS = 32;
 
     private static GymApiService instance;
-    private final ExecutorService executorService;
+    private final HttpTransport transport;
+    private final RetryPolicy retryPolicy = new RetryPolicy();
+    private final ResilienceStats resilienceStats = new ResilienceStats();
+    private final Map<String, CircuitBreaker> breakers = new HashMap<>();
+    // A timer only: retries are delayed here and then handed to the HttpDispatcher,
+    // so no TaskScheduler worker sleeps through a backoff
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "api-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Parsed results of validated responses, keyed by URL
+    private final Map<String, ParsedResult> parsedResults =
+            new LinkedHashMap<String, ParsedResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ParsedResult> eldest) {
+                    return size() > MAX_PARSED_RESULTS;
+                }
+            };
+
+    // Requests on the network, keyed by URL, shared by identical queries
+    private final Map<String, InFlightRequest<?>> inFlight = new HashMap<>();
+
+    private static class InFlightRequest<T> {
+        final String key;
+        final HttpRequest request;
+        final BodyParser<T> parser;
+        final CircuitBreaker breaker;
+        final List<Subscriber<T>> subscribers = new ArrayList<>();
+        int attempts;
+        HttpCall call;
+        ScheduledFuture<?> pendingRetry;
+        boolean canceled;
+
+        InFlightRequest(String key, HttpRequest request, BodyParser<T> parser, CircuitBreaker breaker) {
+            this.key = key;
+            this.request = request;
+            this.parser = parser;
+            this.breaker = breaker;
+        }
+    }
+
+    private static class Subscriber<T> {
+        final SuccessHandler<T> onSuccess;
+        final ErrorHandler onError;
+        volatile boolean canceled;
+
+        Subscriber(SuccessHandler<T> onSuccess, ErrorHandler onError) {
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+    }
+
+    /**
+     * One caller's view of a possibly shared request
+     */
+    private class SubscriberCall<T> implements ApiCall {
+        private final InFlightRequest<T> flight;
+        private final Subscriber<T> subscriber;
+
+        SubscriberCall(InFlightRequest<T> flight, Subscriber<T> subscriber) {
+            this.flight = flight;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void cancel() {
+            subscriber.canceled = true;
+            boolean orphaned = false;
+            HttpCall orphanedCall = null;
+            ScheduledFuture<?> orphanedRetry = null;
+            synchronized (inFlight) {
+                flight.subscribers.remove(subscriber);
+                if (flight.subscribers.isEmpty() && inFlight.get(flight.key) == flight) {
+                    inFlight.remove(flight.key);
+                    flight.canceled = true;
+                    orphaned = true;
+                    orphanedCall = flight.call;
+                    orphanedRetry = flight.pendingRetry;
+                }
+            }
+            if (orphaned) {
+                Log.d(TAG, "Cancelled: " + flight.key);
+                if (orphanedCall != null) {
+                    orphanedCall.cancel();
+                }
+                if (orphanedRetry != null) {
+                    orphanedRetry.cancel(false);
+                }
+                flight.breaker.recordCanceled();
+            }
+        }
+    }
+
+    private static class ParsedResult {
+        final String validator;
+        final Object value;
+
+        ParsedResult(String validator, Object value) {
+            this.validator = validator;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Handle to a pending API request
+     */
+    public interface ApiCall {
+        ApiCall NONE = () -> { };
+
+        /**
+         * Stop delivering the result to this caller. The network request is
+         * cancelled once no other caller shares it.
+         */
+        void cancel();
+    }
+
+    private interface BodyParser<T> {
+        T parse(HttpResponse response) throws IOException, JSONException;
+    }
+
+    private interface SuccessHandler<T> {
+        void onSuccess(T result);
+    }
+
+    private interface ErrorHandler {
+        void onError(String errorMessage);
+    }
 
     /**
      * Callback interface for machines API calls
@@ -54,6 +203,14 @@ public class GymApiService {
         void onError(String errorMessage);
     }
 
+    /**
+     * Callback interface for paged events API calls
+     */
+    public interface EventPageCallback {
+        void onSuccess(EventPage page);
+        void onError(String errorMessage);
+    }
+
     /**
      * Callback interface for single event detail API calls
      */
@@ -78,7 +235,7 @@ public class GymApiService {
     public static final String ERROR_SERVER = "SERVER_ERROR";
 
     private GymApiService() {
-        executorService = Executors.newSingleThreadExecutor();
+        transport = HttpTransport.getInstance();
     }
 
     /**
@@ -95,324 +252,389 @@ public class GymApiService {
      * Fetch all active gym machines from the API
      *
      * @param callback MachinesCallback to handle success or error
+     * @return handle to cancel the request
      */
-    public void getMachines(MachinesCallback callback) {
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                String token = SessionManager.getInstance().getToken();
-                if (token == null || token.isEmpty()) {
-                    Log.e(TAG, "No auth token available");
-                    callback.onError(ERROR_UNAUTHORIZED);
-                    return;
-                }
+    public ApiCall getMachines(MachinesCallback callback) {
+        String urlStr = API_BASE_URL + MACHINES_ENDPOINT;
+        return get(MACHINES_ENDPOINT, urlStr, response -> {
+            List<GymMachine> machines = GymJsonDecoder.decodeMachines(response.getBody());
+            Log.d(TAG, "Successfully parsed " + machines.size() + " machines");
+            return machines;
+        }, callback::onSuccess, callback::onError);
+    }
 
-                String urlStr = API_BASE_URL + MACHINES_ENDPOINT;
-                Log.d(TAG, "Fetching machines from: " + urlStr);
-
-                URL url = new URL(urlStr);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("Authorization", "Token " + token);
-                conn.setRequestProperty("Accept", "application/json");
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Response code: " + responseCode);
-
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    // Success - parse response
-                    StringBuilder response = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            response.append(line);
-                        }
+    /**
+     * Fetch the first page of events for a specific machine with optional filters
+     *
+     * @return handle to cancel the request
+     */
+    public ApiCall getMachineEvents(int machineId,
+                                    String eventType,
+                                    String dateFrom,
+                                    String dateTo,
+                                    EventsCallback callback) {
+        return getMachineEventsPage(machineId, eventType, dateFrom, dateTo, 1,
+                new EventPageCallback() {
+                    @Override
+                    public void onSuccess(EventPage page) {
+                        callback.onSuccess(page.getEvents());
                     }
 
-                    List<GymMachine> machines = parseMachinesResponse(response.toString());
-                    Log.d(TAG, "Successfully parsed " + machines.size() + " machines");
-                    callback.onSuccess(machines);
-
-                } else if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
-                    // 401 Unauthorized - token expired/invalid
-                    Log.e(TAG, "Unauthorized - token invalid or expired");
-                    SessionManager.getInstance().logout();
-                    callback.onError(ERROR_UNAUTHORIZED);
-
-                } else if (responseCode >= 500) {
-                    // Server error
-                    Log.e(TAG, "Server error: " + responseCode);
-                    callback.onError(ERROR_SERVER);
-
-                } else {
-                    // Other error
-                    Log.e(TAG, "API error: " + responseCode);
-                    callback.onError(ERROR_NETWORK);
-                }
+                    @Override
+                    public void onError(String errorMessage) {
+                        callback.onError(errorMessage);
+                    }
+                });
+    }
 
-            } catch (java.net.UnknownHostException e) {
-                Log.e(TAG, "Network error - unknown host: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.net.SocketTimeoutException e) {
-                Log.e(TAG, "Network error - timeout: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.io.IOException e) {
-                Log.e(TAG, "Network error: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (JSONException e) {
-                Log.e(TAG, "JSON parsing error: " + e.getMessage());
-                callback.onError(ERROR_SERVER);
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
-            }
-        });
+    /**
+     * Fetch one page of events for a specific machine with optional filters
+     *
+     * @param page 1-based page number
+     * @param callback EventPageCallback receiving the page and its paging state
+     * @return handle to cancel the request
+     */
+    public ApiCall getMachineEventsPage(int machineId,
+                                        String eventType,
+                                        String dateFrom,
+                                        String dateTo,
+                                        int page,
+                                        EventPageCallback callback) {
+        String urlStr = buildEventsUrl(machineId, eventType, dateFrom, dateTo, page);
+        return get(EVENTS_ENDPOINT_TEMPLATE, urlStr, response -> {
+            EventPage eventPage = GymJsonDecoder.decodeEventPage(response.getBody(), page);
+            Log.d(TAG, "Successfully parsed page " + page + " with "
+                    + eventPage.getEvents().size() + " events");
+            return eventPage;
+        }, callback::onSuccess, callback::onError);
     }
 
     /**
-     * Fetch events for a specific machine with optional filters
+     * Fetch a single event detail by event ID
+     *
+     * @param eventId Event ID to fetch
+     * @param callback EventDetailCallback to handle success or error
+     * @return handle to cancel the request
      */
-    public void getMachineEvents(int machineId,
-                                 String eventType,
-                                 String dateFrom,
-                                 String dateTo,
-                                 EventsCallback callback) {
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                String token = SessionManager.getInstance().getToken();
-                if (token == null || token.isEmpty()) {
-                    Log.e(TAG, "No auth token available");
-                    callback.onError(ERROR_UNAUTHORIZED);
-                    return;
-                }
+    public ApiCall getEventDetail(int eventId, EventDetailCallback callback) {
+        String urlStr = API_BASE_URL + String.format(EVENT_DETAIL_ENDPOINT_TEMPLATE, eventId);
+        return get(EVENT_DETAIL_ENDPOINT_TEMPLATE, urlStr, response -> {
+            MachineEvent event = GymJsonDecoder.decodeEvent(response.getBody());
+            Log.d(TAG, "Successfully parsed event detail: " + eventId);
+            return event;
+        }, callback::onSuccess, callback::onError);
+    }
 
-                String urlStr = buildEventsUrl(machineId, eventType, dateFrom, dateTo);
-                Log.d(TAG, "Fetching events from: " + urlStr);
-
-                URL url = new URL(urlStr);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("Authorization", "Token " + token);
-                conn.setRequestProperty("Accept", "application/json");
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Response code: " + responseCode);
-
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    StringBuilder response = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            response.append(line);
-                        }
-                    }
+    /**
+     * Fetch usage statistics for a specific machine with date range
+     *
+     * @param machineId Machine ID to fetch stats for
+     * @param dateFrom Start date in YYYY-MM-DD format
+     * @param dateTo End date in YYYY-MM-DD format
+     * @param callback StatsCallback to handle success or error
+     * @return handle to cancel the request
+     */
+    public ApiCall getMachineStats(int machineId, String dateFrom, String dateTo, StatsCallback callback) {
+        String urlStr = buildStatsUrl(machineId, dateFrom, dateTo);
+        return get(STATS_ENDPOINT_TEMPLATE, urlStr, response -> {
+            MachineStats stats = new MachineStats(new JSONObject(response.getBodyString()));
+            Log.d(TAG, "Successfully parsed stats for machine: " + machineId);
+            return stats;
+        }, callback::onSuccess, callback::onError);
+    }
 
-                    List<MachineEvent> events = parseEventsResponse(response.toString());
-                    Log.d(TAG, "Successfully parsed " + events.size() + " events");
-                    callback.onSuccess(events);
+    /**
+     * Number of parsed results kept for 304 responses
+     */
+    @Override
+    public long getMemorySize() {
+        synchronized (parsedResults) {
+            return parsedResults.size();
+        }
+    }
 
-                } else if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
-                    Log.e(TAG, "Unauthorized - token invalid or expired");
-                    SessionManager.getInstance().logout();
-                    callback.onError(ERROR_UNAUTHORIZED);
+    /**
+     * Drop the least recently used parsed results; a later 304 for a dropped
+     * URL is parsed again from the response cache
+     */
+    @Override
+    public void trimMemory(float keepFraction) {
+        synchronized (parsedResults) {
+            int keep = (int) (parsedResults.size() * keepFraction);
+            Iterator<String> eldest = parsedResults.keySet().iterator();
+            while (parsedResults.size() > keep && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop parsed results and the on-disk response cache, e.g. when the user
+     * logs out; an open circuit breaker then has nothing of theirs to serve
+     */
+    public void clearCache() {
+        synchronized (parsedResults) {
+            parsedResults.clear();
+        }
+        ResponseCache cache = transport.getResponseCache();
+        if (cache != null) {
+            TaskScheduler.getInstance().submit(Priority.BACKGROUND, cache::evictAll);
+        }
+    }
 
-                } else if (responseCode >= 500) {
-                    Log.e(TAG, "Server error: " + responseCode);
-                    callback.onError(ERROR_SERVER);
+    /**
+     * Single execution and error path shared by all GET endpoints.
+     * Runs on the shared transport; handlers are invoked on a dispatcher thread.
+     *
+     * A request for a URL that is already in flight joins it instead of
+     * opening another connection; every subscriber receives the same result.
+     *
+     * @param endpoint endpoint path or template; requests to it share a circuit breaker
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ApiCall get(String endpoint, String urlStr, BodyParser<T> parser,
+                            SuccessHandler<T> onSuccess, ErrorHandler onError) {
+        String token = SessionManager.getInstance().getToken();
+        if (token == null || token.isEmpty()) {
+            Log.e(TAG, "No auth token available");
+            onError.onError(ERROR_UNAUTHORIZED);
+            return ApiCall.NONE;
+        }
 
-                } else {
-                    Log.e(TAG, "API error: " + responseCode);
-                    callback.onError(ERROR_NETWORK);
-                }
+        Subscriber<T> subscriber = new Subscriber<>(onSuccess, onError);
+        InFlightRequest<T> flight;
+        synchronized (inFlight) {
+            InFlightRequest<T> existing = (InFlightRequest<T>) inFlight.get(urlStr);
+            if (existing != null) {
+                Log.d(TAG, "Joining in-flight request: " + urlStr);
+                existing.subscribers.add(subscriber);
+                return new SubscriberCall<>(existing, subscriber);
+            }
 
-            } catch (java.net.UnknownHostException e) {
-                Log.e(TAG, "Network error - unknown host: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.net.SocketTimeoutException e) {
-                Log.e(TAG, "Network error - timeout: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.io.IOException e) {
-                Log.e(TAG, "Network error: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (JSONException e) {
-                Log.e(TAG, "JSON parsing error: " + e.getMessage());
-                callback.onError(ERROR_SERVER);
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
+            CircuitBreaker breaker = breakerFor(endpoint);
+            if (breaker.allowRequest()) {
+                Log.d(TAG, "Fetching: " + urlStr);
+                HttpRequest request = new HttpRequest.Builder(urlStr)
+                        .header("Authorization", "Token " + token)
+                        .header("Accept", "application/json")
+                        .conditionalCache(true)
+                        .build();
+                flight = new InFlightRequest<>(urlStr, request, parser, breaker);
+                flight.subscribers.add(subscriber);
+                inFlight.put(urlStr, flight);
+            } else {
+                flight = null;
             }
-        });
+        }
+        if (flight == null) {
+            // Outside the lock: the callback may run synchronously
+            failFast(urlStr, onSuccess, onError);
+            return ApiCall.NONE;
+        }
+        attempt(flight);
+        return new SubscriberCall<>(flight, subscriber);
     }
 
     /**
-     * Fetch a single event detail by event ID
-     *
-     * @param eventId Event ID to fetch
-     * @param callback EventDetailCallback to handle success or error
+     * Circuit is open: answer with the last parsed result for this URL, or an error
      */
-    public void getEventDetail(int eventId, EventDetailCallback callback) {
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                String token = SessionManager.getInstance().getToken();
-                if (token == null || token.isEmpty()) {
-                    Log.e(TAG, "No auth token available");
-                    callback.onError(ERROR_UNAUTHORIZED);
-                    return;
-                }
+    @SuppressWarnings("unchecked")
+    private <T> void failFast(String urlStr, SuccessHandler<T> onSuccess, ErrorHandler onError) {
+        ParsedResult cached;
+        synchronized (parsedResults) {
+            cached = parsedResults.get(urlStr);
+        }
+        resilienceStats.recordFastFailure(cached != null);
+        if (cached != null) {
+            Log.w(TAG, "Circuit open, serving last result: " + urlStr);
+            onSuccess.onSuccess((T) cached.value);
+        } else {
+            Log.w(TAG, "Circuit open, failing fast: " + urlStr);
+            onError.onError(ERROR_SERVER);
+        }
+    }
 
-                String urlStr = API_BASE_URL + String.format(EVENT_DETAIL_ENDPOINT_TEMPLATE, eventId);
-                Log.d(TAG, "Fetching event detail from: " + urlStr);
-
-                URL url = new URL(urlStr);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("Authorization", "Token " + token);
-                conn.setRequestProperty("Accept", "application/json");
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Response code: " + responseCode);
-
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    StringBuilder response = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            response.append(line);
+    /**
+     * Send one attempt of a request; failed attempts come back through {@link #onAttemptFailed}
+     */
+    private <T> void attempt(InFlightRequest<T> flight) {
+        synchronized (inFlight) {
+            if (flight.canceled) {
+                return;
+            }
+            flight.attempts++;
+            flight.pendingRetry = null;
+            flight.call = transport.enqueue(flight.request, new HttpTransport.Callback() {
+                @Override
+                public void onResponse(HttpResponse response) throws IOException {
+                    int responseCode = response.getCode();
+                    Log.d(TAG, "Response code: " + responseCode);
+
+                    if (responseCode == HttpURLConnection.HTTP_OK
+                            || responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                        flight.breaker.recordSuccess();
+                        T result;
+                        try {
+                            result = parseOrReuse(flight.key, response, flight.parser);
+                        } catch (JSONException e) {
+                            Log.e(TAG, "JSON parsing error: " + e.getMessage());
+                            deliverError(flight, ERROR_SERVER);
+                            return;
                         }
+                        deliverSuccess(flight, result);
+
+                    } else if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                        // 401 Unauthorized - token expired/invalid
+                        Log.e(TAG, "Unauthorized - token invalid or expired");
+                        flight.breaker.recordSuccess();
+                        SessionManager.getInstance().logout();
+                        deliverError(flight, ERROR_UNAUTHORIZED);
+
+                    } else if (responseCode >= 500 || RetryPolicy.isRetryableStatus(responseCode)) {
+                        Log.e(TAG, "Server error: " + responseCode);
+                        onAttemptFailed(flight, responseCode, response.getHeader("Retry-After"),
+                                responseCode >= 500 ? ERROR_SERVER : ERROR_NETWORK);
+
+                    } else {
+                        Log.e(TAG, "API error: " + responseCode);
+                        flight.breaker.recordSuccess();
+                        deliverError(flight, ERROR_NETWORK);
                     }
+                }
 
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    MachineEvent event = new MachineEvent(jsonObject);
-                    Log.d(TAG, "Successfully parsed event detail: " + eventId);
-                    callback.onSuccess(event);
-
-                } else if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
-                    Log.e(TAG, "Unauthorized - token invalid or expired");
-                    SessionManager.getInstance().logout();
-                    callback.onError(ERROR_UNAUTHORIZED);
+                @Override
+                public void onFailure(HttpRequest failedRequest, IOException e) {
+                    if (e instanceof java.net.UnknownHostException) {
+                        Log.e(TAG, "Network error - unknown host: " + e.getMessage());
+                    } else if (e instanceof java.net.SocketTimeoutException) {
+                        Log.e(TAG, "Network error - timeout: " + e.getMessage());
+                    } else {
+                        Log.e(TAG, "Network error: " + e.getMessage());
+                    }
+                    onAttemptFailed(flight, RetryPolicy.NETWORK_FAILURE, null, ERROR_NETWORK);
+                }
+            });
+        }
+    }
 
-                } else if (responseCode >= 500) {
-                    Log.e(TAG, "Server error: " + responseCode);
-                    callback.onError(ERROR_SERVER);
+    /**
+     * Record the failure with the breaker, then retry after a delay or report the error
+     */
+    private <T> void onAttemptFailed(InFlightRequest<T> flight, int code, String retryAfter,
+                                     String errorMessage) {
+        long now = System.currentTimeMillis();
+        long retryAfterMs = RetryPolicy.hasRetryAfter(code)
+                ? RetryPolicy.parseRetryAfterMs(retryAfter, now) : -1;
+        if (retryAfterMs > retryPolicy.getMaxRetryAfterMs()) {
+            // The server asked for a longer pause than a retry should wait
+            flight.breaker.openFor(retryAfterMs);
+        } else {
+            flight.breaker.recordFailure();
+        }
 
-                } else {
-                    Log.e(TAG, "API error: " + responseCode);
-                    callback.onError(ERROR_NETWORK);
-                }
+        long delayMs = retryPolicy.retryDelayMs(flight.attempts, code, retryAfter, now);
+        if (delayMs < 0 || flight.breaker.getState() != CircuitBreaker.State.CLOSED) {
+            deliverError(flight, errorMessage);
+            return;
+        }
+        synchronized (inFlight) {
+            if (flight.canceled) {
+                return;
+            }
+            resilienceStats.recordRetry();
+            Log.d(TAG, "Retrying in " + delayMs + "ms (attempt " + (flight.attempts + 1) + "): "
+                    + flight.key);
+            flight.pendingRetry = retryScheduler.schedule(() -> attempt(flight),
+                    delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
 
-            } catch (java.net.UnknownHostException e) {
-                Log.e(TAG, "Network error - unknown host: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.net.SocketTimeoutException e) {
-                Log.e(TAG, "Network error - timeout: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.io.IOException e) {
-                Log.e(TAG, "Network error: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (JSONException e) {
-                Log.e(TAG, "JSON parsing error: " + e.getMessage());
-                callback.onError(ERROR_SERVER);
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
+    private CircuitBreaker breakerFor(String endpoint) {
+        synchronized (breakers) {
+            CircuitBreaker breaker = breakers.get(endpoint);
+            if (breaker == null) {
+                breaker = new CircuitBreaker(endpoint, resilienceStats);
+                breakers.put(endpoint, breaker);
             }
-        });
+            return breaker;
+        }
+    }
+
+    public ResilienceStats getResilienceStats() {
+        return resilienceStats;
     }
 
     /**
-     * Fetch usage statistics for a specific machine with date range
-     *
-     * @param machineId Machine ID to fetch stats for
-     * @param dateFrom Start date in YYYY-MM-DD format
-     * @param dateTo End date in YYYY-MM-DD format
-     * @param callback StatsCallback to handle success or error
+     * Detach the subscribers of a finished request
      */
-    public void getMachineStats(int machineId, String dateFrom, String dateTo, StatsCallback callback) {
-        executorService.execute(() -> {
-            HttpURLConnection conn = null;
-            try {
-                String token = SessionManager.getInstance().getToken();
-                if (token == null || token.isEmpty()) {
-                    Log.e(TAG, "No auth token available");
-                    callback.onError(ERROR_UNAUTHORIZED);
-                    return;
-                }
+    private <T> List<Subscriber<T>> finish(InFlightRequest<T> flight) {
+        synchronized (inFlight) {
+            if (inFlight.get(flight.key) == flight) {
+                inFlight.remove(flight.key);
+            }
+            List<Subscriber<T>> subscribers = new ArrayList<>(flight.subscribers);
+            flight.subscribers.clear();
+            return subscribers;
+        }
+    }
 
-                String urlStr = buildStatsUrl(machineId, dateFrom, dateTo);
-                Log.d(TAG, "Fetching stats from: " + urlStr);
-
-                URL url = new URL(urlStr);
-                conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("Authorization", "Token " + token);
-                conn.setRequestProperty("Accept", "application/json");
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-
-                int responseCode = conn.getResponseCode();
-                Log.d(TAG, "Response code: " + responseCode);
-
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    StringBuilder response = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            response.append(line);
-                        }
-                    }
+    private <T> void deliverSuccess(InFlightRequest<T> flight, T result) {
+        for (Subscriber<T> subscriber : finish(flight)) {
+            if (!subscriber.canceled) {
+                subscriber.onSuccess.onSuccess(result);
+            }
+        }
+    }
 
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    MachineStats stats = new MachineStats(jsonObject);
-                    Log.d(TAG, "Successfully parsed stats for machine: " + machineId);
-                    callback.onSuccess(stats);
+    private <T> void deliverError(InFlightRequest<T> flight, String errorMessage) {
+        for (Subscriber<T> subscriber : finish(flight)) {
+            if (!subscriber.canceled) {
+                subscriber.onError.onError(errorMessage);
+            }
+        }
+    }
 
-                } else if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
-                    Log.e(TAG, "Unauthorized - token invalid or expired");
-                    SessionManager.getInstance().logout();
-                    callback.onError(ERROR_UNAUTHORIZED);
+    /**
+     * Number of distinct requests currently on the network
+     */
+    public int getInFlightCount() {
+        synchronized (inFlight) {
+            return inFlight.size();
+        }
+    }
 
-                } else if (responseCode >= 500) {
-                    Log.e(TAG, "Server error: " + responseCode);
-                    callback.onError(ERROR_SERVER);
+    /**
+     * Reuse the parsed result of a 304 when its validator still matches,
+     * otherwise parse the body (fresh or served from the response cache)
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T parseOrReuse(String urlStr, HttpResponse response, BodyParser<T> parser)
+            throws IOException, JSONException {
+        String validator = response.getHeader("ETag");
+        if (validator == null) {
+            validator = response.getHeader("Last-Modified");
+        }
 
-                } else {
-                    Log.e(TAG, "API error: " + responseCode);
-                    callback.onError(ERROR_NETWORK);
+        if (response.getCode() == HttpURLConnection.HTTP_NOT_MODIFIED && validator != null) {
+            synchronized (parsedResults) {
+                ParsedResult cached = parsedResults.get(urlStr);
+                if (cached != null && validator.equals(cached.validator)) {
+                    Log.d(TAG, "Not modified, reusing parsed result: " + urlStr);
+                    return (T) cached.value;
                 }
+            }
+        }
 
-            } catch (java.net.UnknownHostException e) {
-                Log.e(TAG, "Network error - unknown host: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.net.SocketTimeoutException e) {
-                Log.e(TAG, "Network error - timeout: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (java.io.IOException e) {
-                Log.e(TAG, "Network error: " + e.getMessage());
-                callback.onError(ERROR_NETWORK);
-            } catch (JSONException e) {
-                Log.e(TAG, "JSON parsing error: " + e.getMessage());
-                callback.onError(ERROR_SERVER);
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
-                }
+        T result = parser.parse(response);
+        synchronized (parsedResults) {
+            if (validator != null) {
+                parsedResults.put(urlStr, new ParsedResult(validator, result));
+            } else {
+                parsedResults.remove(urlStr);
             }
-        });
+        }
+        return result;
     }
 
     private String buildStatsUrl(int machineId, String dateFrom, String dateTo) {
@@ -433,7 +655,8 @@ public class GymApiService {
         return urlBuilder.toString();
     }
 
-    private String buildEventsUrl(int machineId, String eventType, String dateFrom, String dateTo) {
+    private String buildEventsUrl(int machineId, String eventType, String dateFrom, String dateTo,
+                                  int page) {
         StringBuilder urlBuilder = new StringBuilder();
         urlBuilder.append(API_BASE_URL);
         urlBuilder.append(String.format(EVENTS_ENDPOINT_TEMPLATE, machineId));
@@ -452,40 +675,13 @@ public class GymApiService {
         if (dateTo != null && !dateTo.isEmpty()) {
             urlBuilder.append(hasQuery ? "&" : "?");
             urlBuilder.append("date_to=").append(dateTo);
+            hasQuery = true;
         }
-
-        return urlBuilder.toString();
-    }
-
-    /**
-     * Parse paginated JSON response into list of GymMachine objects
-     */
-    private List<GymMachine> parseMachinesResponse(String jsonStr) throws JSONException {
-        List<GymMachine> machines = new ArrayList<>();
-        JSONObject response = new JSONObject(jsonStr);
-        JSONArray jsonArray = response.getJSONArray("results");
-
-        for (int i = 0; i < jsonArray.length(); i++) {
-            GymMachine machine = new GymMachine(jsonArray.getJSONObject(i));
-            machines.add(machine);
-        }
-
-        return machines;
-    }
-
-    /**
-     * Parse paginated JSON response into list of MachineEvent objects
-     */
-    private List<MachineEvent> parseEventsResponse(String jsonStr) throws JSONException {
-        List<MachineEvent> events = new ArrayList<>();
-        JSONObject response = new JSONObject(jsonStr);
-        JSONArray jsonArray = response.getJSONArray("results");
-
-        for (int i = 0; i < jsonArray.length(); i++) {
-            MachineEvent event = new MachineEvent(jsonArray.getJSONObject(i));
-            events.add(event);
+        if (page > 1) {
+            urlBuilder.append(hasQuery ? "&" : "?");
+            urlBuilder.append("page=").append(page);
         }
 
-        return events;
+        return urlBuilder.toString();
     }
 }
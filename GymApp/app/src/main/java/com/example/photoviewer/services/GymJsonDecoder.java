@@ -0,0 +1,407 @@
+package com.example.photoviewer.services;
+
+import com.example.photoviewer.models.EventPage;
+import com.example.photoviewer.models.GymMachine;
+import com.example.photoviewer.models.ImageVariant;
+import com.example.photoviewer.models.MachineEvent;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * GymJsonDecoder - Streaming decoder for gym API responses
+ *
+ * Reads the response stream token by token straight into model objects,
+ * without buffering the body into a String or building an org.json tree.
+ * Field fallbacks match the JSONObject constructors of the models: missing or
+ * null values take the same defaults, numbers and strings are coerced the way
+ * optInt/optString do, and {@code machine} falls back to {@code machine_id}.
+ *
+ * Malformed or unexpected JSON is reported as {@link JSONException} so callers
+ * keep treating it as a server error rather than a network error.
+ */
+public final class GymJsonDecoder {
+
+    private GymJsonDecoder() {
+    }
+
+    /**
+     * Decode the results of a paginated machine list
+     */
+    public static List<GymMachine> decodeMachines(InputStream body) throws IOException, JSONException {
+        List<GymMachine> machines = new ArrayList<>();
+        try (JsonReader reader = newReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("results".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        machines.add(readMachine(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw malformed(e);
+        }
+        return machines;
+    }
+
+    /**
+     * Decode the results of a paginated event list
+     */
+    public static List<MachineEvent> decodeEvents(InputStream body) throws IOException, JSONException {
+        return decodeEventPage(body, 1).getEvents();
+    }
+
+    /**
+     * Decode a paginated event list together with its paging envelope
+     *
+     * @param pageNumber page number that was requested
+     */
+    public static EventPage decodeEventPage(InputStream body, int pageNumber)
+            throws IOException, JSONException {
+        List<MachineEvent> events = new ArrayList<>();
+        int count = 0;
+        boolean hasNext = false;
+        boolean hasPrevious = false;
+        try (JsonReader reader = newReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "count":
+                        count = readInt(reader, 0);
+                        break;
+                    case "next":
+                        hasNext = !readString(reader, "").isEmpty();
+                        break;
+                    case "previous":
+                        hasPrevious = !readString(reader, "").isEmpty();
+                        break;
+                    case "results":
+                        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                            reader.skipValue();
+                            break;
+                        }
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            events.add(readEvent(reader));
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw malformed(e);
+        }
+        return new EventPage(pageNumber, count, hasNext, hasPrevious, events);
+    }
+
+    /**
+     * Decode a single event object
+     */
+    public static MachineEvent decodeEvent(InputStream body) throws IOException, JSONException {
+        try (JsonReader reader = newReader(body)) {
+            return readEvent(reader);
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw malformed(e);
+        }
+    }
+
+    private static JsonReader newReader(InputStream body) {
+        return new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    private static GymMachine readMachine(JsonReader reader) throws IOException, JSONException {
+        Integer id = null;
+        String name = "";
+        String machineType = "";
+        String location = "";
+        String description = "";
+        String thumbnailUrl = "";
+        List<ImageVariant> thumbnailVariants = Collections.emptyList();
+        boolean isActive = true;
+        int eventCount = 0;
+        GymMachine.LastEvent lastEvent = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = readRequiredInt(reader, "id");
+                    break;
+                case "name":
+                    name = readString(reader, "");
+                    break;
+                case "machine_type":
+                    machineType = readString(reader, "");
+                    break;
+                case "location":
+                    location = readString(reader, "");
+                    break;
+                case "description":
+                    description = readString(reader, "");
+                    break;
+                case "thumbnail":
+                    thumbnailUrl = readString(reader, "");
+                    break;
+                case "thumbnail_variants":
+                    thumbnailVariants = readVariants(reader);
+                    break;
+                case "is_active":
+                    isActive = readBoolean(reader, true);
+                    break;
+                case "event_count":
+                    eventCount = readInt(reader, 0);
+                    break;
+                case "last_event":
+                    lastEvent = readLastEvent(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (id == null) {
+            throw new JSONException("JSONObject[\"id\"] not found.");
+        }
+        return new GymMachine(id, name, machineType, location, description, thumbnailUrl,
+                thumbnailVariants, isActive, eventCount, lastEvent);
+    }
+
+    private static GymMachine.LastEvent readLastEvent(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String eventType = "";
+        String capturedAt = "";
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "event_type":
+                    eventType = readString(reader, "");
+                    break;
+                case "captured_at":
+                    capturedAt = readString(reader, "");
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return new GymMachine.LastEvent(eventType, capturedAt);
+    }
+
+    private static MachineEvent readEvent(JsonReader reader) throws IOException, JSONException {
+        Integer id = null;
+        int machineValue = 0;
+        int machineIdValue = 0;
+        String machineName = "";
+        String eventType = "";
+        String eventTypeDisplay = "";
+        String imageUrl = "";
+        List<ImageVariant> imageVariants = Collections.emptyList();
+        String capturedAt = "";
+        int personCount = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = readRequiredInt(reader, "id");
+                    break;
+                case "machine":
+                    machineValue = readInt(reader, 0);
+                    break;
+                case "machine_id":
+                    machineIdValue = readInt(reader, 0);
+                    break;
+                case "machine_name":
+                    machineName = readString(reader, "");
+                    break;
+                case "event_type":
+                    eventType = readString(reader, "");
+                    break;
+                case "event_type_display":
+                    eventTypeDisplay = readString(reader, "");
+                    break;
+                case "image":
+                    imageUrl = readString(reader, "");
+                    break;
+                case "image_variants":
+                    imageVariants = readVariants(reader);
+                    break;
+                case "captured_at":
+                    capturedAt = readString(reader, "");
+                    break;
+                case "person_count":
+                    personCount = readInt(reader, 0);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (id == null) {
+            throw new JSONException("JSONObject[\"id\"] not found.");
+        }
+        int machineId = machineValue != 0 ? machineValue : machineIdValue;
+        MachineEvent event = new MachineEvent(id, machineId, machineName, eventType, eventTypeDisplay,
+                imageUrl, capturedAt, personCount);
+        event.setImageVariants(imageVariants);
+        return event;
+    }
+
+    /**
+     * Read an image variants array; entries without a URL or size are dropped
+     * like in {@link ImageVariant#fromJson}
+     */
+    private static List<ImageVariant> readVariants(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return Collections.emptyList();
+        }
+        List<ImageVariant> variants = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            int width = 0;
+            int height = 0;
+            String format = "";
+            String url = "";
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "width":
+                        width = readInt(reader, 0);
+                        break;
+                    case "height":
+                        height = readInt(reader, 0);
+                        break;
+                    case "format":
+                        format = readString(reader, "");
+                        break;
+                    case "url":
+                        url = readString(reader, "");
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            if (!url.isEmpty() && width > 0 && height > 0) {
+                variants.add(new ImageVariant(width, height, format, url));
+            }
+        }
+        reader.endArray();
+        return variants;
+    }
+
+    /**
+     * Read a scalar as a string; null and nested values yield the fallback
+     */
+    private static String readString(JsonReader reader, String fallback) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return fallback;
+            default:
+                reader.skipValue();
+                return fallback;
+        }
+    }
+
+    /**
+     * Read a number or numeric string, truncating decimals like optInt
+     */
+    private static int readInt(JsonReader reader, int fallback) throws IOException {
+        JsonToken token = reader.peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            reader.skipValue();
+            return fallback;
+        }
+        Integer value = parseInt(reader.nextString());
+        return value != null ? value : fallback;
+    }
+
+    private static int readRequiredInt(JsonReader reader, String name) throws IOException, JSONException {
+        JsonToken token = reader.peek();
+        Integer value = null;
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            value = parseInt(reader.nextString());
+        } else {
+            reader.skipValue();
+        }
+        if (value == null) {
+            throw new JSONException("JSONObject[\"" + name + "\"] is not an int.");
+        }
+        return value;
+    }
+
+    private static Integer parseInt(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            try {
+                return (int) Double.parseDouble(text);
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static boolean readBoolean(JsonReader reader, boolean fallback) throws IOException {
+        switch (reader.peek()) {
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case STRING:
+                String text = reader.nextString();
+                if ("true".equalsIgnoreCase(text)) {
+                    return true;
+                }
+                if ("false".equalsIgnoreCase(text)) {
+                    return false;
+                }
+                return fallback;
+            default:
+                reader.skipValue();
+                return fallback;
+        }
+    }
+
+    private static JSONException malformed(Exception e) {
+        return new JSONException("Unexpected JSON structure: " + e.getMessage());
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.photoviewer.services;
+
+import android.util.Log;
+
+import com.example.photoviewer.data.LocalStore;
+import com.example.photoviewer.models.EventPage;
+import com.example.photoviewer.models.GymMachine;
+import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.models.MachineStats;
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.TaskScheduler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * GymRepository - Offline-first access to machines, events and stats
+ *
+ * Screens read through the repository instead of calling {@link GymApiService}
+ * directly. Data stored on the device is delivered first (in milliseconds, and
+ * also when the network is down), then the API response replaces it and is
+ * written back to the {@link LocalStore}.
+ *
+ * Callbacks run on a background thread, like those of GymApiService.
+ * Without a local store (e.g. before the application sets one) every call
+ * simply goes to the network.
+ */
+public class GymRepository {
+    private static final String TAG = "GymRepository";
+
+    private static GymRepository instance;
+    private final GymApiService api;
+    // Stored data gates the first frame of a screen; one task at a time keeps
+    // reads, writes and clear() in order
+    private final Executor diskExecutor = TaskScheduler.getInstance().serialExecutor(Priority.INTERACTIVE);
+    private final OfflineFirstLoader loader = new OfflineFirstLoader(diskExecutor);
+    private volatile LocalStore localStore;
+
+    /**
+     * Receives stored and fresh data for one request
+     */
+    public interface DataCallback<T> {
+        /**
+         * @param fromCache true for the stored value delivered before the network answered
+         */
+        void onData(T data, boolean fromCache);
+
+        /**
+         * @param hasCachedData true if stored data was delivered and is still on screen
+         */
+        void onError(String errorMessage, boolean hasCachedData);
+    }
+
+    /**
+     * Receives stored events read for the event list
+     */
+    public interface StoredEventsCallback {
+        void onStoredEvents(List<MachineEvent> events);
+    }
+
+    private GymRepository() {
+        api = GymApiService.getInstance();
+    }
+
+    /**
+     * Get singleton instance of GymRepository
+     */
+    public static synchronized GymRepository getInstance() {
+        if (instance == null) {
+            instance = new GymRepository();
+        }
+        return instance;
+    }
+
+    public void setLocalStore(LocalStore localStore) {
+        this.localStore = localStore;
+    }
+
+    /**
+     * Machine list: stored list first, then the API result
+     */
+    public GymApiService.ApiCall getMachines(DataCallback<List<GymMachine>> callback) {
+        LocalStore store = localStore;
+        return loader.load(
+                () -> store != null ? store.getMachines() : null,
+                result -> api.getMachines(new GymApiService.MachinesCallback() {
+                    @Override
+                    public void onSuccess(List<GymMachine> machines) {
+                        result.onSuccess(machines);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        result.onError(errorMessage);
+                    }
+                }),
+                machines -> {
+                    if (store != null) {
+                        store.saveMachines(machines);
+                    }
+                },
+                callback);
+    }
+
+    /**
+     * Single event: stored copy first (e.g. from the event list), then the API result
+     */
+    public GymApiService.ApiCall getEventDetail(int eventId, DataCallback<MachineEvent> callback) {
+        LocalStore store = localStore;
+        return loader.load(
+                () -> store != null ? store.getEvent(eventId) : null,
+                result -> api.getEventDetail(eventId, new GymApiService.EventDetailCallback() {
+                    @Override
+                    public void onSuccess(MachineEvent event) {
+                        result.onSuccess(event);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        result.onError(errorMessage);
+                    }
+                }),
+                event -> {
+                    if (store != null) {
+                        store.saveEvents(Collections.singletonList(event));
+                    }
+                },
+                callback);
+    }
+
+    /**
+     * Machine stats for a date range: stored stats first, then the API result
+     */
+    public GymApiService.ApiCall getMachineStats(int machineId, String dateFrom, String dateTo,
+                                                 DataCallback<MachineStats> callback) {
+        LocalStore store = localStore;
+        return loader.load(
+                () -> store != null ? store.getMachineStats(machineId, dateFrom, dateTo) : null,
+                result -> api.getMachineStats(machineId, dateFrom, dateTo, new GymApiService.StatsCallback() {
+                    @Override
+                    public void onSuccess(MachineStats stats) {
+                        result.onSuccess(stats);
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        result.onError(errorMessage);
+                    }
+                }),
+                stats -> {
+                    if (store != null) {
+                        store.saveMachineStats(stats, dateFrom, dateTo);
+                    }
+                },
+                callback);
+    }
+
+    /**
+     * Fetch one page of events from the API and store its events.
+     * Paging stays on the network; stored events only seed the first screen
+     * through {@link #getStoredEvents}.
+     */
+    public GymApiService.ApiCall getMachineEventsPage(int machineId, String eventType,
+                                                      String dateFrom, String dateTo, int page,
+                                                      GymApiService.EventPageCallback callback) {
+        LocalStore store = localStore;
+        return api.getMachineEventsPage(machineId, eventType, dateFrom, dateTo, page,
+                new GymApiService.EventPageCallback() {
+                    @Override
+                    public void onSuccess(EventPage eventPage) {
+                        callback.onSuccess(eventPage);
+                        if (store != null) {
+                            runOnDisk(() -> store.saveEvents(eventPage.getEvents()));
+                        }
+                    }
+
+                    @Override
+                    public void onError(String errorMessage) {
+                        callback.onError(errorMessage);
+                    }
+                });
+    }
+
+    /**
+     * Newest stored events matching the event list filters; the callback
+     * receives null if none are stored
+     */
+    public void getStoredEvents(int machineId, String eventType, String dateFrom, String dateTo,
+                                int limit, StoredEventsCallback callback) {
+        LocalStore store = localStore;
+        if (store == null) {
+            callback.onStoredEvents(null);
+            return;
+        }
+        diskExecutor.execute(() -> {
+            List<MachineEvent> events = null;
+            try {
+                events = store.getMachineEvents(machineId, eventType, dateFrom, dateTo, limit);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Local read failed: " + e.getMessage());
+            }
+            callback.onStoredEvents(events);
+        });
+    }
+
+    /**
+     * Remove all stored data, e.g. when the user logs out
+     */
+    public void clearLocalData() {
+        LocalStore store = localStore;
+        if (store != null) {
+            runOnDisk(store::clear);
+        }
+    }
+
+    private void runOnDisk(Runnable task) {
+        diskExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Local store operation failed: " + e.getMessage());
+            }
+        });
+    }
+}
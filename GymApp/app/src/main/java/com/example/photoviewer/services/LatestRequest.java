@@ -0,0 +1,31 @@
+package com.example.photoviewer.services;
+
+/**
+ * LatestRequest - Keeps only the newest request of a screen alive
+ *
+ * Starting a new query through {@link #replace(GymApiService.ApiCall)}
+ * cancels the previous one, so a slow response for an old filter can never
+ * be delivered after the response for the filter the user picked last.
+ */
+public class LatestRequest {
+    private GymApiService.ApiCall current = GymApiService.ApiCall.NONE;
+
+    /**
+     * Make the given call the current one and cancel the call it supersedes
+     */
+    public synchronized void replace(GymApiService.ApiCall call) {
+        GymApiService.ApiCall previous = current;
+        current = call != null ? call : GymApiService.ApiCall.NONE;
+        if (previous != current) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Cancel the current call, e.g. when the screen is destroyed
+     */
+    public synchronized void cancel() {
+        current.cancel();
+        current = GymApiService.ApiCall.NONE;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.photoviewer.services;
+
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+
+/**
+ * OfflineFirstLoader - Serves stored data first, then revalidates with the API
+ *
+ * The local read runs on the disk executor while the network request is
+ * already in flight. The stored value is delivered only if the network has
+ * not answered yet, so a screen never goes back from fresh to stale data. A
+ * network error that arrives before the local read finishes is held until the
+ * read is done, so the caller knows whether stored data is on screen.
+ */
+public class OfflineFirstLoader {
+    private static final String TAG = "OfflineFirstLoader";
+
+    /**
+     * Reads the stored value; returns null if nothing is stored
+     */
+    public interface LocalRead<T> {
+        T read();
+    }
+
+    /**
+     * Stores a value received from the network
+     */
+    public interface LocalWrite<T> {
+        void write(T value);
+    }
+
+    /**
+     * Starts the network request and reports its outcome to the given result
+     */
+    public interface RemoteFetch<T> {
+        GymApiService.ApiCall fetch(RemoteResult<T> result);
+    }
+
+    public interface RemoteResult<T> {
+        void onSuccess(T value);
+        void onError(String errorMessage);
+    }
+
+    private final Executor diskExecutor;
+
+    public OfflineFirstLoader(Executor diskExecutor) {
+        this.diskExecutor = diskExecutor;
+    }
+
+    /**
+     * Deliver the stored value (if any) and then the network value to the callback
+     *
+     * @return handle that cancels both the pending delivery and the request
+     */
+    public <T> GymApiService.ApiCall load(LocalRead<T> localRead,
+                                          RemoteFetch<T> remoteFetch,
+                                          LocalWrite<T> localWrite,
+                                          GymRepository.DataCallback<T> callback) {
+        Load<T> load = new Load<>(callback);
+        diskExecutor.execute(() -> {
+            T stored = null;
+            try {
+                stored = localRead.read();
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Local read failed: " + e.getMessage());
+            }
+            load.onStored(stored);
+        });
+        GymApiService.ApiCall call = remoteFetch.fetch(new RemoteResult<T>() {
+            @Override
+            public void onSuccess(T value) {
+                if (!load.onFresh(value)) {
+                    return;
+                }
+                diskExecutor.execute(() -> {
+                    try {
+                        localWrite.write(value);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Local write failed: " + e.getMessage());
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                load.onRemoteError(errorMessage);
+            }
+        });
+        load.setRemoteCall(call);
+        return load;
+    }
+
+    /**
+     * State of one load; deliveries are serialized on this object
+     */
+    private static class Load<T> implements GymApiService.ApiCall {
+        private final GymRepository.DataCallback<T> callback;
+        private GymApiService.ApiCall remoteCall = GymApiService.ApiCall.NONE;
+        private boolean storedDone;
+        private boolean hasStored;
+        private boolean freshDelivered;
+        private String pendingError;
+        private boolean canceled;
+
+        Load(GymRepository.DataCallback<T> callback) {
+            this.callback = callback;
+        }
+
+        synchronized void setRemoteCall(GymApiService.ApiCall call) {
+            if (canceled) {
+                call.cancel();
+            } else {
+                remoteCall = call;
+            }
+        }
+
+        synchronized void onStored(T stored) {
+            storedDone = true;
+            if (canceled) {
+                return;
+            }
+            if (stored != null && !freshDelivered) {
+                hasStored = true;
+                callback.onData(stored, true);
+            }
+            if (pendingError != null) {
+                callback.onError(pendingError, hasStored);
+                pendingError = null;
+            }
+        }
+
+        synchronized boolean onFresh(T value) {
+            if (canceled) {
+                return false;
+            }
+            freshDelivered = true;
+            callback.onData(value, false);
+            return true;
+        }
+
+        synchronized void onRemoteError(String errorMessage) {
+            if (canceled) {
+                return;
+            }
+            if (storedDone) {
+                callback.onError(errorMessage, hasStored);
+            } else {
+                pendingError = errorMessage;
+            }
+        }
+
+        @Override
+        public void cancel() {
+            GymApiService.ApiCall call;
+            synchronized (this) {
+                canceled = true;
+                call = remoteCall;
+            }
+            call.cancel();
+        }
+    }
+}
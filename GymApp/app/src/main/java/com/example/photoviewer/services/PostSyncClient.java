@@ -0,0 +1,116 @@
+package com.example.photoviewer.services;
+
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.network.HttpResponse;
+import com.example.photoviewer.network.HttpTransport;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * PostSyncClient - Asks the server what changed since the last seen post
+ *
+ * Foreground polling and the background worker only need to know whether
+ * there are new posts, how many, and the title of the first one. Instead of
+ * downloading the whole post list, they send their watermark (the highest
+ * post id seen) as since_id and get back a small delta: the new watermark,
+ * the number of newer posts and at most {@link #PREVIEW_LIMIT} of them.
+ *
+ * Methods block; call them off the main thread.
+ */
+public class PostSyncClient {
+    private static final int PREVIEW_LIMIT = 1;
+
+    private final String siteUrl;
+
+    /**
+     * @param siteUrl API base URL ending with '/'
+     */
+    public PostSyncClient(String siteUrl) {
+        this.siteUrl = siteUrl;
+    }
+
+    /**
+     * Result of one incremental sync
+     */
+    public static class Delta {
+        private final int watermark;
+        private final int newCount;
+        private final boolean reset;
+        private final String firstNewTitle;
+
+        Delta(int watermark, int newCount, boolean reset, String firstNewTitle) {
+            this.watermark = watermark;
+            this.newCount = newCount;
+            this.reset = reset;
+            this.firstNewTitle = firstNewTitle;
+        }
+
+        /**
+         * Highest post id on the server; store it as the next since_id
+         */
+        public int getWatermark() {
+            return watermark;
+        }
+
+        public int getNewCount() {
+            return newCount;
+        }
+
+        /**
+         * True if the server does not know the client's watermark (e.g. posts
+         * were deleted); the client should reload the full list
+         */
+        public boolean isReset() {
+            return reset;
+        }
+
+        /**
+         * Title of the oldest new post, or null if there are none
+         */
+        public String getFirstNewTitle() {
+            return firstNewTitle;
+        }
+    }
+
+    /**
+     * Fetch posts newer than the given watermark
+     *
+     * @param sinceId highest post id already seen, 0 to establish a baseline
+     * @throws IOException on network errors and non-200 responses
+     */
+    public Delta fetchDelta(String token, int sinceId, int timeoutMs) throws IOException, JSONException {
+        HttpRequest request = new HttpRequest.Builder(siteUrl + "api_root/Post/?since_id=" + sinceId
+                + "&limit=" + PREVIEW_LIMIT)
+                .header("Authorization", "Token " + token)
+                .connectTimeout(timeoutMs)
+                .readTimeout(timeoutMs)
+                .build();
+        String body;
+        try (HttpResponse response = HttpTransport.getInstance().execute(request)) {
+            if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Sync failed with HTTP code: " + response.getCode());
+            }
+            body = response.getBodyString();
+        }
+        return parseDelta(body);
+    }
+
+    static Delta parseDelta(String body) throws JSONException {
+        JSONObject json = new JSONObject(body);
+        JSONArray results = json.optJSONArray("results");
+        String firstNewTitle = null;
+        if (results != null && results.length() > 0) {
+            firstNewTitle = results.getJSONObject(0).optString("title", "");
+        }
+        return new Delta(
+                json.getInt("watermark"),
+                json.optInt("new_count", 0),
+                json.optBoolean("reset", false),
+                firstNewTitle);
+    }
+}
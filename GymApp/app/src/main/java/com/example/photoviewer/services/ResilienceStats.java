@@ -0,0 +1,70 @@
+package com.example.photoviewer.services;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ResilienceStats - Counters for retries and circuit breakers in {@link GymApiService}
+ */
+public class ResilienceStats {
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong breakerTrips = new AtomicLong();
+    private final AtomicLong fastFailures = new AtomicLong();
+    private final AtomicLong servedWhileOpen = new AtomicLong();
+
+    /**
+     * Requests sent again after a failed attempt
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Times a circuit breaker opened
+     */
+    public long getBreakerTripCount() {
+        return breakerTrips.get();
+    }
+
+    /**
+     * Requests rejected without touching the network because a breaker was open
+     */
+    public long getFastFailureCount() {
+        return fastFailures.get();
+    }
+
+    /**
+     * Rejected requests answered with the last parsed result instead of an error
+     */
+    public long getServedWhileOpenCount() {
+        return servedWhileOpen.get();
+    }
+
+    public void reset() {
+        retries.set(0);
+        breakerTrips.set(0);
+        fastFailures.set(0);
+        servedWhileOpen.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d retries, %d breaker trips, %d fast failures (%d served cached)",
+                retries.get(), breakerTrips.get(), fastFailures.get(), servedWhileOpen.get());
+    }
+
+    void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    void recordBreakerTrip() {
+        breakerTrips.incrementAndGet();
+    }
+
+    void recordFastFailure(boolean servedCached) {
+        fastFailures.incrementAndGet();
+        if (servedCached) {
+            servedWhileOpen.incrementAndGet();
+        }
+    }
+}
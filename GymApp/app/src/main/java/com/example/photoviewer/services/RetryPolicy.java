@@ -0,0 +1,139 @@
+package com.example.photoviewer.services;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * RetryPolicy - When and how long to wait before retrying an idempotent GET
+ *
+ * Timeouts, connection failures and 408/429/500/502/503/504 are retried up to
+ * {@code maxAttempts} attempts in total. The delay is exponential backoff with
+ * full jitter (a random value between 0 and the capped exponential delay), so
+ * devices that failed at the same moment do not come back at the same moment.
+ * A 429 or 503 with a Retry-After header waits exactly as long as the server
+ * asked; if that is longer than {@code maxRetryAfterMs} the request is not
+ * retried at all.
+ */
+public class RetryPolicy {
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_DELAY_MS = 500;
+    public static final long DEFAULT_MAX_DELAY_MS = 8000;
+    public static final long DEFAULT_MAX_RETRY_AFTER_MS = 30000;
+
+    /**
+     * Status passed for attempts that failed without a response (IOException)
+     */
+    public static final int NETWORK_FAILURE = -1;
+
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_BAD_GATEWAY = 502;
+    private static final int HTTP_UNAVAILABLE = 503;
+    private static final int HTTP_GATEWAY_TIMEOUT = 504;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxRetryAfterMs;
+    private final Random random;
+
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS,
+                DEFAULT_MAX_RETRY_AFTER_MS, new Random());
+    }
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs,
+                       long maxRetryAfterMs, Random random) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxRetryAfterMs = maxRetryAfterMs;
+        this.random = random;
+    }
+
+    public long getMaxRetryAfterMs() {
+        return maxRetryAfterMs;
+    }
+
+    public static boolean isRetryableStatus(int code) {
+        return code == NETWORK_FAILURE
+                || code == HTTP_REQUEST_TIMEOUT
+                || code == HTTP_TOO_MANY_REQUESTS
+                || code == 500
+                || code == HTTP_BAD_GATEWAY
+                || code == HTTP_UNAVAILABLE
+                || code == HTTP_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Whether the status may carry a Retry-After the client should honor
+     */
+    public static boolean hasRetryAfter(int code) {
+        return code == HTTP_TOO_MANY_REQUESTS || code == HTTP_UNAVAILABLE;
+    }
+
+    /**
+     * Delay before the next attempt
+     *
+     * @param attemptsMade attempts already sent, at least 1
+     * @param code response status, or {@link #NETWORK_FAILURE}
+     * @param retryAfter Retry-After header of the response, or null
+     * @return delay in milliseconds, or -1 if the request should not be retried
+     */
+    public long retryDelayMs(int attemptsMade, int code, String retryAfter, long nowMs) {
+        if (attemptsMade >= maxAttempts || !isRetryableStatus(code)) {
+            return -1;
+        }
+        if (hasRetryAfter(code)) {
+            long retryAfterMs = parseRetryAfterMs(retryAfter, nowMs);
+            if (retryAfterMs >= 0) {
+                return retryAfterMs <= maxRetryAfterMs ? retryAfterMs : -1;
+            }
+        }
+        return backoffDelayMs(attemptsMade);
+    }
+
+    /**
+     * Full-jitter exponential backoff: uniform in [0, min(maxDelay, base * 2^(attemptsMade - 1))]
+     */
+    public long backoffDelayMs(int attemptsMade) {
+        int shift = Math.min(Math.max(attemptsMade - 1, 0), 20);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << shift);
+        synchronized (random) {
+            return (long) (random.nextDouble() * (ceiling + 1));
+        }
+    }
+
+    /**
+     * Parse a Retry-After header given as delta-seconds or as an HTTP date
+     *
+     * @return milliseconds to wait (0 for dates in the past), or -1 if absent or invalid
+     */
+    public static long parseRetryAfterMs(String value, long nowMs) {
+        if (value == null) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return -1;
+        }
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds >= 0 ? seconds * 1000 : -1;
+        } catch (NumberFormatException ignored) {
+            // Not delta-seconds; try the HTTP date form
+        }
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = format.parse(trimmed);
+            return Math.max(0, date.getTime() - nowMs);
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
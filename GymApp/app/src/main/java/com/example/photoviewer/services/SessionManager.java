@@ -1,5 +1,6 @@
 package com.example.photoviewer.services;
 
+import com.example.photoviewer.images.ImageLoader;
 import com.example.photoviewer.utils.SecureTokenManager;
 
 public class SessionManager {
@@ -37,5 +38,9 @@ public class SessionManager {
 
     public void logout() {
         SecureTokenManager.getInstance().clearAll();
+        // Data of the previous user must not be shown to the next one
+        GymRepository.getInstance().clearLocalData();
+        GymApiService.getInstance().clearCache();
+        ImageLoader.getInstance().clearAll();
     }
 }
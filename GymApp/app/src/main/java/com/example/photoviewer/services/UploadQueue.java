@@ -0,0 +1,611 @@
+package com.example.photoviewer.services;
+
+import android.util.Log;
+
+import com.example.photoviewer.data.UploadStore;
+import com.example.photoviewer.models.UploadJob;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * UploadQueue - Durable queue of new posts and post edits
+ *
+ * Screens hand uploads to the queue and move on; the jobs are written to
+ * the {@link UploadStore} journal first and sent by background workers
+ * that survive rotation, leaving the app and losing the network. A job
+ * leaves the journal only when the server accepted it or rejected it for
+ * good, so a lost connection or a killed process just means it is sent
+ * again later.
+ *
+ * - Concurrency: jobs are spread over {@link #MAX_PARALLEL_UPLOADS} worker
+ *   lanes; each worker claims the oldest job nobody is sending, so a lane
+ *   stuck on a large photo does not hold back the jobs behind it.
+ * - Batches: photos picked together are queued at once, largest first
+ *   ({@link #enqueueBatch}); {@link Status} reports each running job and
+ *   the progress of everything queued since the queue was last idle.
+ * - Edits: a later edit of a post that is still queued is merged into the
+ *   queued one, so the post is sent once with the latest title and text
+ *   (and the latest image, if any was picked). An edit of a post whose
+ *   previous edit is being sent waits for it, so edits never overtake.
+ *
+ * Which jobs are being sent is only kept in memory: after a restart every
+ * stored job is pending again. Delivery is therefore at least once.
+ * Methods do disk I/O and must be called off the main thread; listeners
+ * are called on the thread that changed the queue.
+ */
+public class UploadQueue {
+    private static final String TAG = "UploadQueue";
+
+    // A phone's uplink is shared by every upload, so more streams only split
+    // it; three hide the per-request latency and the server's thumbnail work
+    public static final int MAX_PARALLEL_UPLOADS = 3;
+
+    private static UploadQueue instance;
+
+    private final UploadStore store;
+    private final WorkScheduler workScheduler;
+    private final Map<Long, UploadJob> running = new LinkedHashMap<>();
+    // Job id -> {bytes sent, content length} of the body being written
+    private final Map<Long, long[]> progress = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private int storedCount = -1;
+    // Jobs that left the queue since it was last idle
+    private int finishedCount;
+    private int failedCount;
+
+    /**
+     * Starts the worker of a lane, if it is not already queued to run
+     */
+    public interface WorkScheduler {
+        void scheduleLane(int lane);
+    }
+
+    /**
+     * Observes the queue, e.g. to show upload progress
+     */
+    public interface Listener {
+        /**
+         * Called when jobs are added, claimed, finished or report progress
+         */
+        void onQueueChanged(Status status);
+
+        /**
+         * Called once per job that left the queue
+         *
+         * @param message reason of a failure, null on success
+         */
+        void onJobFinished(UploadJob job, boolean success, String message);
+    }
+
+    /**
+     * A job being sent and how much of its body is written
+     */
+    public static final class Item {
+        private final UploadJob job;
+        private final long bytesSent;
+        private final long bytesTotal;
+
+        Item(UploadJob job, long bytesSent, long bytesTotal) {
+            this.job = job;
+            this.bytesSent = bytesSent;
+            this.bytesTotal = bytesTotal;
+        }
+
+        public UploadJob getJob() {
+            return job;
+        }
+
+        /**
+         * Percentage of the body written, or -1 if not known yet
+         */
+        public int getPercent() {
+            return bytesTotal > 0 ? (int) (bytesSent * 100 / bytesTotal) : -1;
+        }
+    }
+
+    /**
+     * Snapshot of the queue
+     */
+    public static final class Status {
+        private final int pendingCount;
+        private final int runningCount;
+        private final long bytesSent;
+        private final long bytesTotal;
+        private final int finishedCount;
+        private final int failedCount;
+        private final List<Item> items;
+
+        Status(int pendingCount, int runningCount, long bytesSent, long bytesTotal,
+               int finishedCount, int failedCount, List<Item> items) {
+            this.pendingCount = pendingCount;
+            this.runningCount = runningCount;
+            this.bytesSent = bytesSent;
+            this.bytesTotal = bytesTotal;
+            this.finishedCount = finishedCount;
+            this.failedCount = failedCount;
+            this.items = items;
+        }
+
+        /**
+         * Jobs waiting for a worker
+         */
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        /**
+         * Jobs being sent
+         */
+        public int getRunningCount() {
+            return runningCount;
+        }
+
+        public boolean isIdle() {
+            return pendingCount == 0 && runningCount == 0;
+        }
+
+        /**
+         * Bytes written of the bodies being sent
+         */
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        /**
+         * Total length of the bodies being sent, 0 if not known yet
+         */
+        public long getBytesTotal() {
+            return bytesTotal;
+        }
+
+        /**
+         * Percentage of the bodies being sent, or -1 if not known
+         */
+        public int getPercent() {
+            return bytesTotal > 0 ? (int) (bytesSent * 100 / bytesTotal) : -1;
+        }
+
+        /**
+         * Jobs sent or rejected since the queue was last idle
+         */
+        public int getFinishedCount() {
+            return finishedCount;
+        }
+
+        /**
+         * Of the finished jobs, those rejected
+         */
+        public int getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * Jobs queued since the queue was last idle: finished, running and pending
+         */
+        public int getBatchSize() {
+            return finishedCount + runningCount + pendingCount;
+        }
+
+        /**
+         * The jobs being sent, oldest first
+         */
+        public List<Item> getItems() {
+            return items;
+        }
+
+        /**
+         * Percentage of the batch, finished jobs counting in full and running
+         * ones by how much of their body is written; -1 if the batch is empty
+         */
+        public int getBatchPercent() {
+            int size = getBatchSize();
+            if (size == 0) {
+                return -1;
+            }
+            long done = finishedCount * 100L;
+            for (Item item : items) {
+                done += Math.max(0, item.getPercent());
+            }
+            return (int) (done / size);
+        }
+    }
+
+    public UploadQueue(UploadStore store, WorkScheduler workScheduler) {
+        this.store = store;
+        this.workScheduler = workScheduler;
+    }
+
+    /**
+     * Create the shared queue; later calls return the existing one
+     */
+    public static synchronized UploadQueue initialize(UploadStore store, WorkScheduler workScheduler) {
+        if (instance == null) {
+            instance = new UploadQueue(store, workScheduler);
+        }
+        return instance;
+    }
+
+    /**
+     * The shared queue, or null before {@link #initialize}
+     */
+    public static synchronized UploadQueue getInstance() {
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queue a new post
+     *
+     * @param imagePath staged image file; the queue deletes it when the job is done
+     */
+    public UploadJob enqueueCreate(String title, String text, String imagePath,
+                                   String imageName, String imageType) {
+        UploadJob job;
+        synchronized (this) {
+            job = insert(UploadJob.newPost(title, text, imagePath, imageName, imageType));
+        }
+        Log.d(TAG, "Queued new post #" + job.getId() + ": " + title);
+        workScheduler.scheduleLane(laneOf(job));
+        notifyChanged();
+        return job;
+    }
+
+    /**
+     * Queue several new posts at once, e.g. photos picked together
+     *
+     * The largest image is queued first, so the slowest upload starts first
+     * and the batch ends close to it instead of waiting for a large photo
+     * claimed last. Each lane's worker is started once for the batch.
+     *
+     * @param posts new posts from {@link UploadJob#newPost}
+     * @return the queued jobs, in the order they will be sent
+     */
+    public List<UploadJob> enqueueBatch(List<UploadJob> posts) {
+        Map<UploadJob, Long> sizes = new HashMap<>();
+        for (UploadJob post : posts) {
+            sizes.put(post, post.getImagePath() != null ? new File(post.getImagePath()).length() : 0L);
+        }
+        List<UploadJob> ordered = new ArrayList<>(posts);
+        Collections.sort(ordered, (a, b) -> Long.compare(sizes.get(b), sizes.get(a)));
+
+        List<UploadJob> jobs = new ArrayList<>();
+        boolean[] lanes = new boolean[MAX_PARALLEL_UPLOADS];
+        synchronized (this) {
+            for (UploadJob post : ordered) {
+                UploadJob job = insert(post);
+                jobs.add(job);
+                lanes[laneOf(job)] = true;
+            }
+        }
+        Log.d(TAG, "Queued " + jobs.size() + " new posts");
+        for (int lane = 0; lane < lanes.length; lane++) {
+            if (lanes[lane]) {
+                workScheduler.scheduleLane(lane);
+            }
+        }
+        notifyChanged();
+        return jobs;
+    }
+
+    /**
+     * Queue an edit of a post, merged into a queued edit of the same post if there is one
+     *
+     * @param imagePath staged replacement image, or null to keep the current one
+     */
+    public UploadJob enqueueEdit(int postId, String title, String text, String imagePath,
+                                 String imageName, String imageType) {
+        UploadJob edit = new UploadJob(0, UploadJob.Kind.UPDATE, postId, title, text,
+                imagePath, imageName, imageType, null, 0, System.currentTimeMillis());
+        UploadJob job;
+        synchronized (this) {
+            UploadJob queued = findQueuedEdit(postId, -1);
+            if (queued != null) {
+                job = queued.mergedWith(edit);
+                if (imagePath != null) {
+                    deleteImage(queued);
+                }
+                store.update(job);
+                Log.d(TAG, "Merged edit of post " + postId + " into queued job #" + job.getId());
+            } else {
+                job = insert(edit);
+                Log.d(TAG, "Queued edit of post " + postId + " as job #" + job.getId());
+            }
+        }
+        workScheduler.scheduleLane(laneOf(job));
+        notifyChanged();
+        return job;
+    }
+
+    /**
+     * Take the oldest job nobody is sending; edits of a post being sent are skipped
+     *
+     * @return the job, now marked as running, or null if there is nothing to send
+     */
+    public UploadJob claimNext() {
+        UploadJob claimed = null;
+        synchronized (this) {
+            for (UploadJob job : loadJobs()) {
+                if (running.containsKey(job.getId()) || isEditInFlight(job)) {
+                    continue;
+                }
+                running.put(job.getId(), job);
+                claimed = job;
+                break;
+            }
+        }
+        if (claimed != null) {
+            notifyChanged();
+        }
+        return claimed;
+    }
+
+    /**
+     * Progress of the body of a running job, called while it is written
+     */
+    public void reportProgress(long jobId, long bytesSent, long contentLength) {
+        synchronized (this) {
+            if (!running.containsKey(jobId)) {
+                return;
+            }
+            progress.put(jobId, new long[]{bytesSent, contentLength});
+        }
+        notifyChanged();
+    }
+
+    /**
+     * Record the server's upload session of a running job, so its image is
+     * resumed rather than sent again after a retry or a restart
+     */
+    public void setUploadSession(UploadJob job, String session) {
+        synchronized (this) {
+            UploadJob current = running.get(job.getId());
+            if (current == null || !isStored(job.getId())) {
+                return;
+            }
+            UploadJob updated = current.withUploadSession(session);
+            running.put(job.getId(), updated);
+            store.update(updated);
+        }
+    }
+
+    /**
+     * Replace the staged image of a running job, deleting the old file
+     *
+     * @return the job with the new image, to be sent instead
+     */
+    public UploadJob replaceImage(UploadJob job, String imagePath, String imageName, String imageType) {
+        UploadJob updated;
+        synchronized (this) {
+            UploadJob current = running.get(job.getId());
+            if (current == null) {
+                current = job;
+            }
+            deleteImage(current);
+            updated = current.withImage(imagePath, imageName, imageType);
+            if (running.containsKey(job.getId())) {
+                running.put(job.getId(), updated);
+            }
+            if (isStored(job.getId())) {
+                store.update(updated);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * The server accepted the job: drop it and its staged image
+     */
+    public void complete(UploadJob job) {
+        finish(job, true, null);
+    }
+
+    /**
+     * The server rejected the job for good: drop it and its staged image
+     */
+    public void fail(UploadJob job, String message) {
+        finish(job, false, message);
+    }
+
+    /**
+     * Put a running job back to be sent again later
+     *
+     * A later edit of the same post queued in the meantime is merged into
+     * it, so the post is still sent once.
+     *
+     * @param failedAttempt whether the attempt failed, as opposed to being stopped
+     */
+    public void release(UploadJob job, boolean failedAttempt) {
+        synchronized (this) {
+            // The running copy has the upload session recorded while it was sent
+            UploadJob current = running.remove(job.getId());
+            if (current == null) {
+                current = job;
+            }
+            progress.remove(job.getId());
+            if (!isStored(job.getId())) {
+                // Cleared while it was being sent
+                deleteImage(current);
+            } else {
+                UploadJob released = failedAttempt ? current.withFailedAttempt() : current;
+                UploadJob later = job.getKind() == UploadJob.Kind.UPDATE
+                        ? findQueuedEdit(job.getPostId(), job.getId()) : null;
+                if (later != null) {
+                    if (later.getImagePath() != null) {
+                        deleteImage(released);
+                    }
+                    released = released.mergedWith(later);
+                    store.delete(later.getId());
+                    storedCount--;
+                }
+                store.update(released);
+            }
+        }
+        Log.d(TAG, "Job #" + job.getId() + " back in queue (failed=" + failedAttempt + ")");
+        notifyChanged();
+    }
+
+    /**
+     * Start the workers of every lane that has jobs, e.g. when the app starts
+     */
+    public void resume() {
+        boolean[] lanes = new boolean[MAX_PARALLEL_UPLOADS];
+        synchronized (this) {
+            for (UploadJob job : loadJobs()) {
+                if (!running.containsKey(job.getId())) {
+                    lanes[laneOf(job)] = true;
+                }
+            }
+        }
+        for (int lane = 0; lane < lanes.length; lane++) {
+            if (lanes[lane]) {
+                workScheduler.scheduleLane(lane);
+            }
+        }
+    }
+
+    /**
+     * Drop every job and staged image, e.g. on logout; jobs being sent
+     * finish but are not retried
+     */
+    public void clear() {
+        synchronized (this) {
+            for (UploadJob job : loadJobs()) {
+                if (!running.containsKey(job.getId())) {
+                    deleteImage(job);
+                }
+            }
+            store.clear();
+            storedCount = 0;
+            finishedCount = 0;
+            failedCount = 0;
+        }
+        notifyChanged();
+    }
+
+    public synchronized Status getStatus() {
+        int stored = storedCount >= 0 ? storedCount : loadJobs().size();
+        long sent = 0;
+        long total = 0;
+        List<Item> items = new ArrayList<>();
+        for (UploadJob job : running.values()) {
+            long[] bytes = progress.get(job.getId());
+            if (bytes != null && bytes[1] > 0) {
+                sent += bytes[0];
+                total += bytes[1];
+                items.add(new Item(job, bytes[0], bytes[1]));
+            } else {
+                items.add(new Item(job, 0, 0));
+            }
+        }
+        return new Status(Math.max(0, stored - running.size()), running.size(), sent, total,
+                finishedCount, failedCount, Collections.unmodifiableList(items));
+    }
+
+    static int laneOf(UploadJob job) {
+        return (int) (job.getId() % MAX_PARALLEL_UPLOADS);
+    }
+
+    private void finish(UploadJob job, boolean success, String message) {
+        synchronized (this) {
+            running.remove(job.getId());
+            progress.remove(job.getId());
+            if (isStored(job.getId())) {
+                store.delete(job.getId());
+                storedCount--;
+                finishedCount++;
+                if (!success) {
+                    failedCount++;
+                }
+            }
+            deleteImage(job);
+        }
+        Log.d(TAG, "Job #" + job.getId() + (success ? " sent" : " failed: " + message));
+        for (Listener listener : listeners) {
+            listener.onJobFinished(job, success, message);
+        }
+        notifyChanged();
+    }
+
+    private UploadJob insert(UploadJob job) {
+        if (running.isEmpty() && (storedCount >= 0 ? storedCount : loadJobs().size()) == 0) {
+            // The queue was idle: this job starts a new batch
+            finishedCount = 0;
+            failedCount = 0;
+        }
+        UploadJob stored = job.withId(store.insert(job));
+        if (storedCount >= 0) {
+            storedCount++;
+        }
+        return stored;
+    }
+
+    private List<UploadJob> loadJobs() {
+        List<UploadJob> jobs = store.getJobs();
+        storedCount = jobs.size();
+        return jobs;
+    }
+
+    private boolean isStored(long id) {
+        for (UploadJob job : loadJobs()) {
+            if (job.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queued, not running edit of the post other than excludeId
+     */
+    private UploadJob findQueuedEdit(int postId, long excludeId) {
+        for (UploadJob job : loadJobs()) {
+            if (job.getKind() == UploadJob.Kind.UPDATE && job.getPostId() == postId
+                    && job.getId() != excludeId && !running.containsKey(job.getId())) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private boolean isEditInFlight(UploadJob job) {
+        if (job.getKind() != UploadJob.Kind.UPDATE) {
+            return false;
+        }
+        for (UploadJob other : running.values()) {
+            if (other.getKind() == UploadJob.Kind.UPDATE && other.getPostId() == job.getPostId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void deleteImage(UploadJob job) {
+        if (job.getImagePath() != null) {
+            new File(job.getImagePath()).delete();
+        }
+    }
+
+    private void notifyChanged() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Status status = getStatus();
+        for (Listener listener : listeners) {
+            listener.onQueueChanged(status);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.photoviewer.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DiskLruCache - Size-capped file cache with least-recently-used eviction
+ *
+ * Each key is stored as one file named after the SHA-1 of the key. Writes go
+ * to a temporary file that is renamed into place on commit, so readers never
+ * see a partially written entry. Recency survives restarts through the
+ * files' last-modified time. The index is built lazily on first use so the
+ * cache can be created on the main thread.
+ */
+public class DiskLruCache {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxSize;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private boolean initialized;
+
+    public DiskLruCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Rebuild the index from disk, oldest entries first
+     */
+    private synchronized void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                file.delete();
+                continue;
+            }
+            entries.put(file.getName(), file.length());
+            size += file.length();
+        }
+        trimToSize();
+    }
+
+    /**
+     * Get the file for a key and mark it as recently used
+     *
+     * @return cached file, or null on a miss
+     */
+    public synchronized File get(String key) {
+        ensureInitialized();
+        String name = hashKey(key);
+        Long length = entries.get(name);
+        if (length == null) {
+            return null;
+        }
+        File file = new File(directory, name);
+        if (!file.exists()) {
+            entries.remove(name);
+            size -= length;
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    public synchronized boolean contains(String key) {
+        ensureInitialized();
+        return entries.containsKey(hashKey(key));
+    }
+
+    /**
+     * Start writing a new value for a key. Nothing is visible until commit().
+     */
+    public Editor edit(String key) {
+        ensureInitialized();
+        String name = hashKey(key);
+        File temp = new File(directory, name + "." + System.nanoTime() + TEMP_SUFFIX);
+        return new Editor(name, temp);
+    }
+
+    /**
+     * Write a complete value for a key
+     */
+    public void put(String key, byte[] data) throws IOException {
+        Editor editor = edit(key);
+        try (OutputStream out = editor.newOutputStream()) {
+            out.write(data);
+        } catch (IOException e) {
+            editor.abort();
+            throw e;
+        }
+        editor.commit();
+    }
+
+    public synchronized boolean remove(String key) {
+        ensureInitialized();
+        String name = hashKey(key);
+        Long length = entries.remove(name);
+        if (length == null) {
+            return false;
+        }
+        size -= length;
+        new File(directory, name).delete();
+        return true;
+    }
+
+    public synchronized long getSize() {
+        ensureInitialized();
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int getEntryCount() {
+        ensureInitialized();
+        return entries.size();
+    }
+
+    /**
+     * Delete every entry
+     */
+    public synchronized void evictAll() {
+        ensureInitialized();
+        for (String name : entries.keySet()) {
+            new File(directory, name).delete();
+        }
+        entries.clear();
+        size = 0;
+    }
+
+    private synchronized void commitEntry(String name, File temp) throws IOException {
+        ensureInitialized();
+        File target = new File(directory, name);
+        Long previous = entries.remove(name);
+        if (previous != null) {
+            size -= previous;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Failed to commit cache entry " + name);
+        }
+        long length = target.length();
+        entries.put(name, length);
+        size += length;
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            size -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    static String hashKey(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return String.valueOf(key.hashCode());
+        }
+    }
+
+    /**
+     * Editor - Pending write for a single entry
+     */
+    public class Editor {
+        private final String name;
+        private final File temp;
+        private boolean done;
+
+        private Editor(String name, File temp) {
+            this.name = name;
+            this.temp = temp;
+        }
+
+        public OutputStream newOutputStream() throws IOException {
+            return new FileOutputStream(temp);
+        }
+
+        /**
+         * Atomically publish the written value
+         */
+        public void commit() throws IOException {
+            if (done) {
+                return;
+            }
+            done = true;
+            commitEntry(name, temp);
+        }
+
+        /**
+         * Discard the written value
+         */
+        public void abort() {
+            if (done) {
+                return;
+            }
+            done = true;
+            temp.delete();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.photoviewer.utils;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MemoryGovernor - Sheds in-memory caches when the system runs low on memory
+ *
+ * Every in-memory cache registers here. The Application forwards
+ * onTrimMemory and onLowMemory, and each cache is trimmed to a fraction of
+ * its current size that shrinks as the trim level rises: a little while
+ * the app is running and memory gets tight, half once the UI is hidden,
+ * everything once the app is a likely candidate to be killed. A smaller
+ * process is killed later, and what was dropped reloads from disk.
+ *
+ * What each cache freed is logged under the cache's name, in the unit the
+ * cache registered with, so bytes and entries are never mixed up.
+ */
+public class MemoryGovernor {
+    private static final String TAG = "MemoryGovernor";
+
+    private static MemoryGovernor instance;
+    // Guarded by this
+    private final List<Registration> registrations = new ArrayList<>();
+
+    /**
+     * An in-memory cache that can give memory back
+     */
+    public interface Trimmable {
+        /**
+         * Current size, in the unit the cache is bounded in (bytes for
+         * bitmaps, entries for parsed responses)
+         */
+        long getMemorySize();
+
+        /**
+         * Shrink to at most the given fraction of the current size; 0 empties the cache
+         */
+        void trimMemory(float keepFraction);
+    }
+
+    private static final class Registration {
+        final String name;
+        final String unit;
+        final Trimmable trimmable;
+
+        Registration(String name, String unit, Trimmable trimmable) {
+            this.name = name;
+            this.unit = unit;
+            this.trimmable = trimmable;
+        }
+    }
+
+    public static synchronized MemoryGovernor getInstance() {
+        if (instance == null) {
+            instance = new MemoryGovernor();
+        }
+        return instance;
+    }
+
+    /**
+     * @param name shown in the log
+     * @param unit unit of {@link Trimmable#getMemorySize()}, e.g. "bytes" or "entries"
+     */
+    public synchronized void register(String name, String unit, Trimmable trimmable) {
+        registrations.add(new Registration(name, unit, trimmable));
+    }
+
+    public synchronized void unregister(Trimmable trimmable) {
+        for (int i = registrations.size() - 1; i >= 0; i--) {
+            if (registrations.get(i).trimmable == trimmable) {
+                registrations.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Trim every registered cache for the given onTrimMemory level
+     */
+    public void onTrimMemory(int level) {
+        trim(keepFractionForLevel(level), "level " + level);
+    }
+
+    /**
+     * The system is about to kill background processes; empty every cache
+     */
+    public void onLowMemory() {
+        trim(0f, "low memory");
+    }
+
+    /**
+     * Fraction of each cache to keep at an onTrimMemory level
+     */
+    public static float keepFractionForLevel(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // Next in line to be killed: keep nothing
+            return 0f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            return 0.25f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            return 0.5f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            return 0.25f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            return 0.5f;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            return 0.75f;
+        }
+        return 1f;
+    }
+
+    private void trim(float keepFraction, String reason) {
+        if (keepFraction >= 1f) {
+            return;
+        }
+        List<Registration> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(registrations);
+        }
+        for (Registration registration : snapshot) {
+            long before = registration.trimmable.getMemorySize();
+            registration.trimmable.trimMemory(keepFraction);
+            long after = registration.trimmable.getMemorySize();
+            Log.d(TAG, "Trim (" + reason + ", keep " + Math.round(keepFraction * 100) + "%) "
+                    + registration.name + ": freed " + (before - after) + " " + registration.unit
+                    + ", " + before + " -> " + after + " " + registration.unit);
+        }
+    }
+}
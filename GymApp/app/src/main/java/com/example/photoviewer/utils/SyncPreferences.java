@@ -30,6 +30,13 @@ public class SyncPreferences {
         return lastId;
     }
 
+    /**
+     * Whether a last seen post ID has been stored since install or logout
+     */
+    public boolean hasLastSeenPostId() {
+        return prefs.contains(KEY_LAST_SEEN_POST_ID);
+    }
+
     /**
      * Update the last seen post ID
      * @param postId The highest post ID currently visible
@@ -0,0 +1,35 @@
+package com.example.photoviewer.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Helper class for what the server has said about uploads
+ * Photos are staged as JPEG until the server lists WebP among the image
+ * types it accepts; its answer is remembered across starts.
+ */
+public class UploadPreferences {
+    private static final String PREF_NAME = "PhotoViewerUploadPrefs";
+    private static final String KEY_WEBP_ACCEPTED = "webpAccepted";
+
+    private final SharedPreferences prefs;
+
+    public UploadPreferences(Context context) {
+        prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Whether the server last said it accepts WebP uploads
+     * @return false until the server has answered
+     */
+    public boolean isWebpAccepted() {
+        return prefs.getBoolean(KEY_WEBP_ACCEPTED, false);
+    }
+
+    /**
+     * Remember whether the server accepts WebP uploads
+     */
+    public void setWebpAccepted(boolean accepted) {
+        prefs.edit().putBoolean(KEY_WEBP_ACCEPTED, accepted).apply();
+    }
+}
@@ -6,18 +6,13 @@ import androidx.annotation.NonNull;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.services.PostSyncClient;
 import com.example.photoviewer.services.SessionManager;
 import com.example.photoviewer.utils.NotificationHelper;
 import com.example.photoviewer.utils.SyncPreferences;
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 
 /**
  * Background worker that periodically checks for new posts
@@ -47,63 +42,27 @@ public class BackgroundSyncWorker extends Worker {
             SyncPreferences syncPrefs = new SyncPreferences(context);
             NotificationHelper notificationHelper = new NotificationHelper(context);
 
-            // Fetch posts from server
-            String siteUrl = BuildConfig.API_BASE_URL;
-            URL url = new URL(siteUrl + "api_root/Post/");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestProperty("Authorization", "Token " + SessionManager.getInstance().getToken());
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(10000);
+            // Ask only for posts newer than the last seen one
+            PostSyncClient syncClient = new PostSyncClient(BuildConfig.API_BASE_URL);
+            boolean hasBaseline = syncPrefs.hasLastSeenPostId();
+            int lastSeenId = syncPrefs.getLastSeenPostId();
+            PostSyncClient.Delta delta = syncClient.fetchDelta(
+                    SessionManager.getInstance().getToken(), lastSeenId, HttpRequest.DEFAULT_READ_TIMEOUT_MS);
 
-            int responseCode = conn.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                InputStream is = conn.getInputStream();
-                BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-                StringBuilder result = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    result.append(line);
-                }
-                is.close();
-                conn.disconnect();
+            Log.d(TAG, "Sync complete: lastSeenId=" + lastSeenId +
+                  ", watermark=" + delta.getWatermark() + ", newPostCount=" + delta.getNewCount() +
+                  ", reset=" + delta.isReset());
 
-                // Parse JSON and check for new posts
-                JSONArray aryJson = new JSONArray(result.toString());
-                int lastSeenId = syncPrefs.getLastSeenPostId();
-                int maxId = 0;
-                int newPostCount = 0;
-                String firstNewObjectName = null;
-
-                for (int i = 0; i < aryJson.length(); i++) {
-                    JSONObject post_json = aryJson.getJSONObject(i);
-                    int id = post_json.optInt("id", -1);
-                    if (id > maxId) {
-                        maxId = id;
-                    }
-                    if (id > lastSeenId) {
-                        newPostCount++;
-                        if (firstNewObjectName == null) {
-                            firstNewObjectName = post_json.optString("title", "");
-                        }
-                    }
-                }
-
-                Log.d(TAG, "Sync complete: lastSeenId=" + lastSeenId +
-                      ", maxId=" + maxId + ", newPostCount=" + newPostCount);
-
-                // Show notification if new posts found
-                if (newPostCount > 0) {
-                    Log.d(TAG, "New posts detected, showing notification");
-                    notificationHelper.showNewDetectionNotification(newPostCount, firstNewObjectName);
-                    syncPrefs.setLastSeenPostId(maxId);
-                }
-
-                return Result.success();
-            } else {
-                Log.e(TAG, "Sync failed with HTTP code: " + responseCode);
-                return Result.retry();
+            if (!hasBaseline || delta.isReset()) {
+                // First sync or unknown watermark: adopt the server's without notifying
+                syncPrefs.setLastSeenPostId(delta.getWatermark());
+            } else if (delta.getNewCount() > 0) {
+                Log.d(TAG, "New posts detected, showing notification");
+                notificationHelper.showNewDetectionNotification(delta.getNewCount(), delta.getFirstNewTitle());
+                syncPrefs.setLastSeenPostId(delta.getWatermark());
             }
+
+            return Result.success();
         } catch (IOException | JSONException e) {
             Log.e(TAG, "Error in background sync: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,316 @@
+package com.example.photoviewer.workers;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.MediaStore;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.example.photoviewer.BuildConfig;
+import com.example.photoviewer.data.UploadJournal;
+import com.example.photoviewer.images.UploadImageEncoder;
+import com.example.photoviewer.models.UploadJob;
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.network.HttpResponse;
+import com.example.photoviewer.network.HttpTransport;
+import com.example.photoviewer.network.MultipartBody;
+import com.example.photoviewer.network.ResumableUpload;
+import com.example.photoviewer.services.SessionManager;
+import com.example.photoviewer.services.UploadQueue;
+import com.example.photoviewer.utils.UploadPreferences;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker that sends the jobs of the {@link UploadQueue}
+ *
+ * One unique work chain per lane; each worker drains the queue, so
+ * {@link UploadQueue#MAX_PARALLEL_UPLOADS} jobs are uploaded at a time.
+ * Runs only with a network connection and backs off exponentially after
+ * a failed attempt.
+ */
+public class UploadWorker extends Worker {
+    private static final String TAG = "UploadWorker";
+    private static final String WORK_NAME_PREFIX = "PostUpload-";
+    private static final String STAGING_DIR = "uploads";
+    private static final long BACKOFF_SECONDS = 30;
+    private static final String JPEG_TYPE = "image/jpeg";
+
+    /**
+     * An image copied to app storage for a queued job
+     */
+    public static final class StagedImage {
+        private final File file;
+        private final String fileName;
+        private final String mimeType;
+
+        StagedImage(File file, String fileName, String mimeType) {
+            this.file = file;
+            this.fileName = fileName;
+            this.mimeType = mimeType;
+        }
+
+        public String getPath() {
+            return file.getAbsolutePath();
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+    }
+
+    public UploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * The shared upload queue, backed by the journal and these workers
+     */
+    public static UploadQueue getQueue(Context context) {
+        Context appContext = context.getApplicationContext();
+        return UploadQueue.initialize(UploadJournal.getInstance(appContext),
+                lane -> schedule(appContext, lane));
+    }
+
+    /**
+     * Queue a worker for the lane after the one already running, if any,
+     * so a job added while the last worker is finishing is still picked up
+     */
+    static void schedule(Context context, int lane) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(UploadWorker.class)
+            .setConstraints(constraints)
+            .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+            .build();
+        WorkManager.getInstance(context)
+            .enqueueUniqueWork(WORK_NAME_PREFIX + lane, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    /**
+     * Shrink the picked image into app storage, where it stays until its job
+     * is done; the picker's permission on the original does not outlive the
+     * activity. An image that cannot be decoded here is copied as picked.
+     * Blocks; call off the main thread.
+     */
+    public static StagedImage stageImage(Context context, Uri uri) throws IOException {
+        File dir = new File(context.getFilesDir(), STAGING_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        String fileName = getFileName(context, uri);
+        try {
+            UploadImageEncoder.Result encoded = UploadImageEncoder.encode(context.getContentResolver(),
+                    uri, dir, uploadOptions(new UploadPreferences(context).isWebpAccepted()));
+            Log.d(TAG, "Staged " + fileName + " as " + encoded.getWidth() + "x" + encoded.getHeight()
+                    + " " + encoded.getMimeType() + ", " + encoded.getFile().length() + " bytes");
+            return new StagedImage(encoded.getFile(), encoded.fileName(fileName), encoded.getMimeType());
+        } catch (IOException e) {
+            Log.w(TAG, "Re-encode failed, staging " + fileName + " as picked: " + e.getMessage());
+        }
+
+        String type = context.getContentResolver().getType(uri);
+        String mimeType = type != null && type.startsWith("image/") ? type : JPEG_TYPE;
+        File file = File.createTempFile("upload", ".img", dir);
+        try (InputStream in = context.getContentResolver().openInputStream(uri);
+             OutputStream out = new FileOutputStream(file)) {
+            if (in == null) {
+                throw new IOException("Cannot open " + uri);
+            }
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+        return new StagedImage(file, fileName, mimeType);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        if (!SessionManager.getInstance().isLoggedIn()) {
+            // Jobs stay in the journal; the queue resumes them on the next start
+            Log.d(TAG, "User not logged in, leaving uploads queued");
+            return Result.success();
+        }
+
+        UploadQueue queue = getQueue(getApplicationContext());
+        UploadJob job;
+        while ((job = queue.claimNext()) != null) {
+            if (isStopped()) {
+                queue.release(job, false);
+                return Result.retry();
+            }
+            if (job.getImagePath() != null && !new File(job.getImagePath()).isFile()) {
+                queue.fail(job, "staged image is gone");
+                continue;
+            }
+
+            int code;
+            try {
+                code = send(queue, job);
+            } catch (IOException e) {
+                Log.w(TAG, "Upload of job #" + job.getId() + " interrupted: " + e.getMessage());
+                queue.release(job, true);
+                return Result.retry();
+            }
+            if (code >= 200 && code < 300) {
+                queue.complete(job);
+            } else if ((code == 415 || code == 400) && job.getImagePath() != null
+                    && !JPEG_TYPE.equals(job.getImageType())) {
+                // The server cannot take this format: send the photo once more as JPEG
+                new UploadPreferences(getApplicationContext()).setWebpAccepted(false);
+                try {
+                    restageAsJpeg(queue, job);
+                    queue.release(job, false);
+                } catch (IOException e) {
+                    queue.fail(job, "HTTP " + code + ", cannot re-encode as JPEG: " + e.getMessage());
+                }
+            } else if (code == 401 || code == 403) {
+                // Token expired: keep the job for after the next login
+                queue.release(job, false);
+                return Result.success();
+            } else if (code == 408 || code == 429 || code >= 500) {
+                queue.release(job, true);
+                return Result.retry();
+            } else {
+                // Sent again it would be rejected again
+                queue.fail(job, "HTTP " + code);
+            }
+        }
+        return Result.success();
+    }
+
+    /**
+     * Photos are uploaded at most 1920px on the long edge, around 400 KB;
+     * WebP is smaller than JPEG at the same quality, but only sent once the
+     * server has said its Pillow decodes it
+     */
+    private static UploadImageEncoder.Options uploadOptions(boolean webp) {
+        return new UploadImageEncoder.Options.Builder()
+                .format(webp ? UploadImageEncoder.Format.WEBP : UploadImageEncoder.Format.JPEG)
+                .build();
+    }
+
+    /**
+     * Re-encode the staged image of a running job as JPEG, in place of the old file
+     */
+    private void restageAsJpeg(UploadQueue queue, UploadJob job) throws IOException {
+        File staged = new File(job.getImagePath());
+        UploadImageEncoder.Result encoded = UploadImageEncoder.encode(
+                getApplicationContext().getContentResolver(), Uri.fromFile(staged),
+                staged.getParentFile(), uploadOptions(false));
+        queue.replaceImage(job, encoded.getFile().getAbsolutePath(),
+                encoded.fileName(job.getImageName()), encoded.getMimeType());
+        Log.w(TAG, "Job #" + job.getId() + ": " + job.getImageType() + " refused, re-encoded as JPEG");
+    }
+
+    /**
+     * Send one job: its image through a resumable upload session, an edit
+     * without a new image as a plain PUT
+     *
+     * @return the HTTP status code
+     */
+    private int send(UploadQueue queue, UploadJob job) throws IOException {
+        if (job.getImagePath() != null) {
+            return sendResumable(queue, job);
+        }
+        MultipartBody.Builder body = new MultipartBody.Builder()
+                .addFormField("title", job.getTitle())
+                .addFormField("text", job.getText())
+                .progressListener((written, length) -> queue.reportProgress(job.getId(), written, length));
+
+        boolean update = job.getKind() == UploadJob.Kind.UPDATE;
+        String url = BuildConfig.API_BASE_URL + "api_root/Post/" + (update ? job.getPostId() + "/" : "");
+        HttpRequest request = new HttpRequest.Builder(url)
+                .method(update ? "PUT" : "POST")
+                .header("Authorization", "Token " + SessionManager.getInstance().getToken())
+                .body(body.build())
+                .build();
+
+        try (HttpResponse response = HttpTransport.getInstance().execute(request)) {
+            int code = response.getCode();
+            Log.d(TAG, job.getKind() + " job #" + job.getId() + " (attempt " + (job.getAttempts() + 1)
+                    + "): HTTP " + code);
+            if (code >= 400 && code < 500) {
+                Log.e(TAG, "Upload rejected: " + code + " - " + response.getBodyString());
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Send the image in chunks, resuming the job's session if it has one;
+     * the session is recorded as soon as it is created, so an upload cut off
+     * at 90% by a lost connection or a killed process goes on from there
+     */
+    private int sendResumable(UploadQueue queue, UploadJob job) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("title", job.getTitle());
+        fields.put("text", job.getText());
+        if (job.getKind() == UploadJob.Kind.UPDATE) {
+            fields.put("post", String.valueOf(job.getPostId()));
+        }
+
+        ResumableUpload upload = new ResumableUpload.Builder(BuildConfig.API_BASE_URL,
+                SessionManager.getInstance().getToken(), new File(job.getImagePath()))
+                .file(job.getImageName(), job.getImageType())
+                .resumeSession(job.getUploadSession())
+                .sessionListener(session -> queue.setUploadSession(job, session))
+                .progressListener((written, length) -> queue.reportProgress(job.getId(), written, length))
+                .build();
+        ResumableUpload.Result result = upload.upload(fields);
+        List<String> accepted = upload.getAcceptedTypes();
+        if (accepted != null) {
+            new UploadPreferences(getApplicationContext()).setWebpAccepted(accepted.contains("image/webp"));
+        }
+        Log.d(TAG, job.getKind() + " job #" + job.getId() + " (attempt " + (job.getAttempts() + 1)
+                + ", session " + upload.getSessionId() + "): HTTP " + result.getCode());
+        if (!result.isSuccessful()) {
+            Log.e(TAG, "Upload rejected: " + result.getCode() + " - " + result.getBody());
+        }
+        return result.getCode();
+    }
+
+    private static String getFileName(Context context, Uri uri) {
+        String fileName = "image.jpg"; // 기본값
+        Cursor cursor = context.getContentResolver().query(uri, null, null, null, null);
+        if (cursor != null) {
+            try {
+                if (cursor.moveToFirst()) {
+                    int nameIndex = cursor.getColumnIndex(MediaStore.Images.Media.DISPLAY_NAME);
+                    if (nameIndex != -1) {
+                        fileName = cursor.getString(nameIndex);
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return fileName;
+    }
+}
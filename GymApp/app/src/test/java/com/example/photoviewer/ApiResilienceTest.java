@@ -0,0 +1,125 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.services.CircuitBreaker;
+import com.example.photoviewer.services.ResilienceStats;
+import com.example.photoviewer.services.RetryPolicy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the retry policy and circuit breaker used by GymApiService.
+ *
+ * Test IDs: AN-RETRY-01 through AN-RETRY-07
+ * Priority: P1 (High - Keeps a struggling backend from being hammered)
+ *
+ * The breaker runs on a manual clock so open/half-open transitions are exact.
+ */
+public class ApiResilienceTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private long clockMs;
+    private ResilienceStats stats;
+    private CircuitBreaker breaker;
+    private RetryPolicy policy;
+
+    @Before
+    public void setUp() {
+        clockMs = NOW;
+        stats = new ResilienceStats();
+        breaker = new CircuitBreaker("machines", 3, 10000, () -> clockMs, stats);
+        policy = new RetryPolicy(3, 500, 8000, 30000, new Random(42));
+    }
+
+    @Test
+    public void AN_RETRY_01_backoffIsJitteredWithinExponentialCeiling() {
+        for (int attempt = 1; attempt <= 6; attempt++) {
+            long ceiling = Math.min(8000, 500L << (attempt - 1));
+            for (int i = 0; i < 50; i++) {
+                long delay = policy.backoffDelayMs(attempt);
+                assertTrue("Delay should be within [0, " + ceiling + "]", delay >= 0 && delay <= ceiling);
+            }
+        }
+    }
+
+    @Test
+    public void AN_RETRY_02_onlyTransientFailuresAreRetried() {
+        assertTrue(policy.retryDelayMs(1, RetryPolicy.NETWORK_FAILURE, null, NOW) >= 0);
+        assertTrue(policy.retryDelayMs(1, 502, null, NOW) >= 0);
+        assertEquals("404 is not transient", -1, policy.retryDelayMs(1, 404, null, NOW));
+        assertEquals("Attempts are capped", -1, policy.retryDelayMs(3, 503, null, NOW));
+    }
+
+    @Test
+    public void AN_RETRY_03_retryAfterIsHonoredAndCapped() {
+        // Delta-seconds and HTTP-date forms
+        assertEquals(5000, policy.retryDelayMs(1, 503, "5", NOW));
+        assertEquals(2000, RetryPolicy.parseRetryAfterMs("Tue, 14 Nov 2023 22:13:22 GMT", NOW));
+        assertEquals(-1, RetryPolicy.parseRetryAfterMs("soon", NOW));
+
+        // Longer than the cap: give up instead of waiting
+        assertEquals(-1, policy.retryDelayMs(1, 429, "120", NOW));
+    }
+
+    @Test
+    public void AN_RETRY_04_breakerOpensAfterConsecutiveFailuresAndFailsFast() {
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals("A success resets the count", CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse("Open breaker should reject requests", breaker.allowRequest());
+        assertEquals(1, stats.getBreakerTripCount());
+    }
+
+    @Test
+    public void AN_RETRY_05_halfOpenAllowsSingleProbeAndSuccessCloses() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        clockMs += 10000;
+
+        assertTrue("First request after the pause is the probe", breaker.allowRequest());
+        assertFalse("Only one probe at a time", breaker.allowRequest());
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void AN_RETRY_06_failedProbeReopensAndCanceledProbeIsReleased() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        clockMs += 10000;
+        assertTrue(breaker.allowRequest());
+        breaker.recordCanceled();
+        assertTrue("A canceled probe frees the slot", breaker.allowRequest());
+
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2, stats.getBreakerTripCount());
+    }
+
+    @Test
+    public void AN_RETRY_07_openForKeepsBreakerOpenForRetryAfter() {
+        breaker.openFor(60000);
+
+        clockMs += 30000;
+        assertFalse("Still within Retry-After", breaker.allowRequest());
+        clockMs += 30000;
+        assertTrue(breaker.allowRequest());
+    }
+}
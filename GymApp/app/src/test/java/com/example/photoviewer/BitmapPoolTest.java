@@ -0,0 +1,104 @@
+package com.example.photoviewer;
+
+import android.graphics.Bitmap;
+
+import com.example.photoviewer.images.BitmapPool;
+import com.example.photoviewer.images.MemoryLruCache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for bitmap reuse.
+ *
+ * Test IDs: AN-POOL-01 through AN-POOL-04
+ * Priority: P2 (Medium - GC pauses while flinging long event lists)
+ */
+public class BitmapPoolTest {
+
+    // 480x270 RGB_565: a sampled 1920x1080 detector frame
+    private static final int THUMB_WIDTH = 480;
+    private static final int THUMB_HEIGHT = 270;
+    private static final int THUMB_BYTES = THUMB_WIDTH * THUMB_HEIGHT * 2;
+
+    private BitmapPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new BitmapPool(10L * THUMB_BYTES);
+    }
+
+    private static Bitmap bitmap(int allocationBytes) {
+        Bitmap bitmap = mock(Bitmap.class);
+        when(bitmap.getAllocationByteCount()).thenReturn(allocationBytes);
+        when(bitmap.isMutable()).thenReturn(true);
+        return bitmap;
+    }
+
+    @Test
+    public void AN_POOL_01_get_returnsPooledBitmapThatFits() {
+        assertNull(pool.get(THUMB_WIDTH, THUMB_HEIGHT, Bitmap.Config.RGB_565));
+
+        Bitmap pooled = bitmap(THUMB_BYTES);
+        pool.put(pooled);
+
+        assertSame(pooled, pool.get(THUMB_WIDTH, THUMB_HEIGHT, Bitmap.Config.RGB_565));
+        assertEquals(0, pool.getBitmapCount());
+        assertEquals(0, pool.getSize());
+    }
+
+    @Test
+    public void AN_POOL_02_get_skipsTooSmallAndFarTooLarge() {
+        pool.put(bitmap(THUMB_BYTES / 2));
+        pool.put(bitmap(THUMB_BYTES * 3));
+
+        assertNull("Too small to decode into",
+                pool.get(THUMB_WIDTH, THUMB_HEIGHT, Bitmap.Config.RGB_565));
+        assertNotNull("ARGB_8888 needs twice the bytes, within the oversize limit",
+                pool.get(THUMB_WIDTH, THUMB_HEIGHT, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void AN_POOL_03_put_rejectsUnusableAndRecyclesOverflow() {
+        Bitmap immutable = bitmap(THUMB_BYTES);
+        when(immutable.isMutable()).thenReturn(false);
+        pool.put(immutable);
+        assertEquals(0, pool.getBitmapCount());
+
+        Bitmap large = bitmap(THUMB_BYTES * 8);
+        pool.put(large);
+        pool.put(bitmap(THUMB_BYTES));
+        pool.put(bitmap(THUMB_BYTES));
+        pool.put(bitmap(THUMB_BYTES));
+
+        verify(large).recycle();
+        assertTrue(pool.getSize() <= 10L * THUMB_BYTES);
+        verify(immutable, never()).recycle();
+    }
+
+    /**
+     * Flinging through 200 rows with a cache that holds 20 thumbnails:
+     * once the cache is full, every decode reuses a bitmap it evicted.
+     */
+    @Test
+    public void AN_POOL_04_steadyScrolling_allocatesOnlyUntilCacheIsFull() {
+        int cachedThumbnails = 20;
+        MemoryLruCache<Bitmap> cache = new MemoryLruCache<>((long) cachedThumbnails * THUMB_BYTES,
+                Bitmap::getAllocationByteCount, (key, evicted) -> pool.put(evicted));
+
+        int allocations = 0;
+        for (int row = 0; row < 200; row++) {
+            Bitmap bitmap = pool.get(THUMB_WIDTH, THUMB_HEIGHT, Bitmap.Config.RGB_565);
+            if (bitmap == null) {
+                bitmap = bitmap(THUMB_BYTES);
+                allocations++;
+            }
+            cache.put("event-" + row, bitmap);
+        }
+
+        assertEquals(cachedThumbnails + 1, allocations);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.images.DecodePlan;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for size-aware decoding.
+ *
+ * Test IDs: AN-DECODE-01 through AN-DECODE-04
+ * Priority: P1 (High - Full camera frames in list rows run older tablets out of memory)
+ */
+public class DecodePlanTest {
+
+    // Detector uploads are full HD camera frames
+    private static final int FRAME_WIDTH = 1920;
+    private static final int FRAME_HEIGHT = 1080;
+    // 48dp list thumbnail on an xxhdpi screen
+    private static final int THUMBNAIL_PX = 144;
+    private static final int LIST_ROWS = 200;
+
+    @Test
+    public void AN_DECODE_01_sampleSize_keepsBothSidesAtOrAboveTarget() {
+        assertEquals(4, DecodePlan.calculateInSampleSize(FRAME_WIDTH, FRAME_HEIGHT, THUMBNAIL_PX, THUMBNAIL_PX));
+        assertEquals(2, DecodePlan.calculateInSampleSize(FRAME_WIDTH, FRAME_HEIGHT, 800, 400));
+        assertEquals("Never upsample", 1, DecodePlan.calculateInSampleSize(100, 100, 200, 200));
+        assertEquals("No target decodes at full size", 1, DecodePlan.calculateInSampleSize(FRAME_WIDTH, FRAME_HEIGHT, 0, 0));
+    }
+
+    @Test
+    public void AN_DECODE_02_plan_reportsDecodedSizeRoundedUp() {
+        DecodePlan plan = DecodePlan.forTarget(1001, 999, "image/jpeg", 100, 100);
+
+        assertEquals(8, plan.getSampleSize());
+        assertEquals(126, plan.getWidth());
+        assertEquals(125, plan.getHeight());
+    }
+
+    @Test
+    public void AN_DECODE_03_onlyOpaqueSourcesUseRgb565() {
+        assertTrue(DecodePlan.forTarget(100, 100, "image/jpeg", 100, 100).isOpaque());
+        assertFalse(DecodePlan.forTarget(100, 100, "image/png", 100, 100).isOpaque());
+        assertFalse(DecodePlan.forTarget(100, 100, null, 100, 100).isOpaque());
+
+        assertEquals(100 * 100 * DecodePlan.BYTES_PER_PIXEL_OPAQUE,
+                DecodePlan.forTarget(100, 100, "image/jpeg", 100, 100).getByteCount());
+    }
+
+    /**
+     * Planned bitmap bytes for 200 event list rows: a full HD frame sampled to the
+     * thumbnail in RGB_565 instead of decoded at full size in ARGB_8888.
+     */
+    @Test
+    public void AN_DECODE_04_listRowPlans_are32TimesSmallerThanFullFrames() {
+        long before = LIST_ROWS * (long) FRAME_WIDTH * FRAME_HEIGHT * DecodePlan.BYTES_PER_PIXEL_ALPHA;
+        long after = 0;
+        for (int i = 0; i < LIST_ROWS; i++) {
+            after += DecodePlan.forTarget(FRAME_WIDTH, FRAME_HEIGHT, "image/jpeg",
+                    THUMBNAIL_PX, THUMBNAIL_PX).getByteCount();
+        }
+
+        // 480x270 at 2 bytes per pixel instead of 1920x1080 at 4
+        assertEquals(before / 32, after);
+    }
+}
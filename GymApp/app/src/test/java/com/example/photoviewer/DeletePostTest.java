@@ -34,7 +34,7 @@ public class DeletePostTest {
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         // Given: A valid test post exists
-        testPost = new Post(42, "Test Title", "Test Content", "http://example.com/image.jpg", null);
+        testPost = new Post(42, "Test Title", "Test Content", "http://example.com/image.jpg");
     }
 
     // =========================================================================
@@ -44,7 +44,7 @@ public class DeletePostTest {
     @Test
     public void AN_DEL_01_postWithValidId_isValidForDeletion() {
         // Given: A post with a positive ID
-        Post validPost = new Post(1, "Title", "Text", "url", null);
+        Post validPost = new Post(1, "Title", "Text", "url");
 
         // When: Checking if valid for deletion
         boolean isValid = validPost.getId() > 0;
@@ -56,7 +56,7 @@ public class DeletePostTest {
     @Test
     public void AN_DEL_02_postWithZeroId_isInvalidForDeletion() {
         // Given: A post with ID 0
-        Post zeroIdPost = new Post(0, "Title", "Text", "url", null);
+        Post zeroIdPost = new Post(0, "Title", "Text", "url");
 
         // When: Checking if valid for deletion
         boolean isValid = zeroIdPost.getId() > 0;
@@ -68,7 +68,7 @@ public class DeletePostTest {
     @Test
     public void AN_DEL_03_postWithNegativeId_isInvalidForDeletion() {
         // Given: A post with negative ID
-        Post negativeIdPost = new Post(-1, "Title", "Text", "url", null);
+        Post negativeIdPost = new Post(-1, "Title", "Text", "url");
 
         // When: Checking if valid for deletion
         boolean isValid = negativeIdPost.getId() > 0;
@@ -96,7 +96,7 @@ public class DeletePostTest {
     @Test
     public void AN_DEL_05_deleteUrl_handlesLargeIds() {
         // Given: A post with a large ID
-        Post largeIdPost = new Post(999999, "Title", "Text", "url", null);
+        Post largeIdPost = new Post(999999, "Title", "Text", "url");
 
         // When: Constructing the delete URL
         String deleteUrl = API_BASE_URL + "api_root/Post/" + largeIdPost.getId() + "/";
@@ -207,6 +207,6 @@ public class DeletePostTest {
         assertEquals("getText should return text", "Test Content", testPost.getText());
         assertEquals("getImageUrl should return URL",
                 "http://example.com/image.jpg", testPost.getImageUrl());
-        assertNull("getImageBitmap should return null when not loaded", testPost.getImageBitmap());
+        assertEquals("getImageWidth should return 0 when not reported", 0, testPost.getImageWidth());
     }
 }
@@ -0,0 +1,201 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.models.EventPage;
+import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.services.EventPageSource;
+import com.example.photoviewer.services.GymApiService;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the windowed EventPageSource.
+ *
+ * Test IDs: AN-PAGE-01 through AN-PAGE-07
+ * Priority: P1 (High - Event history depth)
+ *
+ * A fake fetcher serves pages of 20 events from an in-memory list; callbacks
+ * run synchronously.
+ */
+public class EventPageSourceTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final List<MachineEvent> serverEvents = new ArrayList<>();
+    private final List<Integer> requestedPages = new ArrayList<>();
+    private final List<String> log = new ArrayList<>();
+    private String failWith;
+    private boolean holdResponses;
+    private final List<GymApiService.EventPageCallback> heldCallbacks = new ArrayList<>();
+    private int cancelCount;
+
+    private final EventPageSource.Listener listener = new EventPageSource.Listener() {
+        @Override
+        public void onRefreshed(List<MachineEvent> events) {
+            log.add("refreshed:" + events.size());
+        }
+
+        @Override
+        public void onAppended(List<MachineEvent> events, int droppedFromStart) {
+            log.add("appended:" + events.size() + ":" + droppedFromStart);
+        }
+
+        @Override
+        public void onPrepended(List<MachineEvent> events, int droppedFromEnd) {
+            log.add("prepended:" + events.size() + ":" + droppedFromEnd);
+        }
+
+        @Override
+        public void onError(String errorMessage, boolean initialLoad) {
+            log.add("error:" + errorMessage + ":" + initialLoad);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 95; i++) {
+            serverEvents.add(event(1000 - i));
+        }
+    }
+
+    private static MachineEvent event(int id) {
+        return new MachineEvent(id, 1, "런닝머신 #1", "start", "사용 시작", "", "", 1);
+    }
+
+    private GymApiService.ApiCall fetch(int page, GymApiService.EventPageCallback callback) {
+        requestedPages.add(page);
+        if (holdResponses) {
+            heldCallbacks.add(callback);
+            return () -> cancelCount++;
+        }
+        if (failWith != null) {
+            callback.onError(failWith);
+            return GymApiService.ApiCall.NONE;
+        }
+        int from = (page - 1) * PAGE_SIZE;
+        int to = Math.min(from + PAGE_SIZE, serverEvents.size());
+        List<MachineEvent> results = new ArrayList<>(serverEvents.subList(from, to));
+        callback.onSuccess(new EventPage(page, serverEvents.size(),
+                to < serverEvents.size(), page > 1, results));
+        return GymApiService.ApiCall.NONE;
+    }
+
+    private EventPageSource newSource(int maxPages) {
+        return new EventPageSource(this::fetch, Runnable::run, maxPages, listener);
+    }
+
+    @Test
+    public void AN_PAGE_01_refresh_loadsFirstPageOnly() {
+        EventPageSource source = newSource(10);
+
+        source.refresh();
+
+        assertEquals("Only page 1 should be requested", 1, requestedPages.size());
+        assertEquals(PAGE_SIZE, source.getEvents().size());
+        assertEquals(95, source.getTotalCount());
+        assertTrue(source.hasNextPage());
+        assertFalse(source.hasPreviousPage());
+        assertEquals("refreshed:20", log.get(0));
+    }
+
+    @Test
+    public void AN_PAGE_02_loadNextPage_appendsUntilLastPage() {
+        EventPageSource source = newSource(10);
+        source.refresh();
+
+        while (source.loadNextPage()) {
+            // keep paging
+        }
+
+        assertEquals("All events should be loaded", 95, source.getEvents().size());
+        assertEquals(5, source.getLastLoadedPage());
+        assertFalse(source.hasNextPage());
+        assertEquals("appended:15:0", log.get(log.size() - 1));
+        assertFalse("No request past the last page", source.loadNextPage());
+    }
+
+    @Test
+    public void AN_PAGE_03_window_dropsOldestPagesBeyondCap() {
+        EventPageSource source = newSource(2);
+        source.refresh();
+
+        source.loadNextPage();
+        source.loadNextPage();
+
+        assertEquals("Only two pages stay in memory", 2, source.getLoadedPageCount());
+        assertEquals(2, source.getFirstLoadedPage());
+        assertEquals(3, source.getLastLoadedPage());
+        assertEquals(40, source.getEvents().size());
+        assertEquals("Page 1 rows should be dropped", "appended:20:20", log.get(log.size() - 1));
+        assertEquals(980, source.getEvents().get(0).getId());
+        assertTrue(source.hasPreviousPage());
+    }
+
+    @Test
+    public void AN_PAGE_04_loadPreviousPage_restoresDroppedPage() {
+        EventPageSource source = newSource(2);
+        source.refresh();
+        source.loadNextPage();
+        source.loadNextPage();
+
+        assertTrue(source.loadPreviousPage());
+
+        assertEquals(1, source.getFirstLoadedPage());
+        assertEquals(2, source.getLastLoadedPage());
+        assertEquals(1000, source.getEvents().get(0).getId());
+        assertEquals("prepended:20:20", log.get(log.size() - 1));
+        assertTrue("Dropped tail page can be loaded again", source.hasNextPage());
+    }
+
+    @Test
+    public void AN_PAGE_05_loadNextPage_skipsEventsShiftedByNewArrivals() {
+        EventPageSource source = newSource(10);
+        source.refresh();
+
+        // Three new events arrive on the server, shifting page boundaries
+        serverEvents.add(0, event(1003));
+        serverEvents.add(0, event(1002));
+        serverEvents.add(0, event(1001));
+        source.loadNextPage();
+
+        assertEquals("Overlapping events are not repeated", "appended:17:0", log.get(log.size() - 1));
+        assertEquals(37, source.getEvents().size());
+    }
+
+    @Test
+    public void AN_PAGE_06_refresh_reportsInitialLoadErrors() {
+        EventPageSource source = newSource(10);
+        failWith = GymApiService.ERROR_NETWORK;
+
+        source.refresh();
+
+        assertEquals("error:" + GymApiService.ERROR_NETWORK + ":true", log.get(0));
+        assertFalse("Loading flag should be cleared", source.isLoading());
+        assertFalse("Nothing to page after a failed first load", source.loadNextPage());
+    }
+
+    @Test
+    public void AN_PAGE_07_refresh_cancelsSupersededLoad() {
+        EventPageSource source = newSource(10);
+        holdResponses = true;
+
+        // When: A second refresh starts while the first is still in flight
+        source.refresh();
+        source.refresh();
+
+        // Then: The first request is cancelled and its late response ignored
+        assertEquals("Superseded request should be cancelled", 1, cancelCount);
+        heldCallbacks.get(0).onSuccess(new EventPage(1, 1, false, false, new ArrayList<>()));
+        assertTrue("Stale response must not be delivered", log.isEmpty());
+
+        List<MachineEvent> latest = new ArrayList<>();
+        latest.add(event(1));
+        heldCallbacks.get(1).onSuccess(new EventPage(1, 1, false, false, latest));
+        assertEquals("refreshed:1", log.get(0));
+    }
+}
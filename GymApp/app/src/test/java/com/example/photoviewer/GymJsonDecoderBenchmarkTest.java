@@ -0,0 +1,140 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.services.GymJsonDecoder;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * JVM benchmark of event page decoding: streaming decoder vs. the previous
+ * read-to-String + org.json tree path.
+ *
+ * Test IDs: AN-DECODE-BENCH-01 through AN-DECODE-BENCH-02
+ * Priority: P2 (Performance)
+ *
+ * Timing runs only with: ./gradlew testDebugUnitTest -Pbenchmark=true
+ * --tests "*GymJsonDecoderBenchmarkTest"
+ */
+public class GymJsonDecoderBenchmarkTest {
+
+    private static final int[] PAYLOAD_SIZES = {20, 1000, 50000};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static byte[] buildEventPage(int count) {
+        StringBuilder json = new StringBuilder(count * 260);
+        json.append("{\"count\":").append(count).append(",\"next\":null,\"previous\":null,\"results\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i + 1)
+                    .append(",\"machine\":").append(i % 12 + 1)
+                    .append(",\"machine_name\":\"런닝머신 #").append(i % 12 + 1).append('"')
+                    .append(",\"event_type\":\"").append(i % 2 == 0 ? "start" : "end").append('"')
+                    .append(",\"event_type_display\":\"").append(i % 2 == 0 ? "사용 시작" : "사용 종료").append('"')
+                    .append(",\"image\":\"/media/events/2025/11/02/event_").append(i).append(".jpg\"")
+                    .append(",\"captured_at\":\"2025-11-02T14:35:10.123456+09:00\"")
+                    .append(",\"person_count\":").append(i % 3)
+                    .append('}');
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Previous GymApiService path: read lines into a String, build a JSONObject
+     * tree, then copy fields through the model constructor
+     */
+    private static List<MachineEvent> decodeWithJsonTree(InputStream body) throws IOException, JSONException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            response.append(line);
+        }
+        reader.close();
+
+        List<MachineEvent> events = new ArrayList<>();
+        JSONArray jsonArray = new JSONObject(response.toString()).getJSONArray("results");
+        for (int i = 0; i < jsonArray.length(); i++) {
+            events.add(new MachineEvent(jsonArray.getJSONObject(i)));
+        }
+        return events;
+    }
+
+    @Test
+    public void AN_DECODE_BENCH_01_streamingMatchesJsonTree() throws IOException, JSONException {
+        // Given: A generated page of events
+        byte[] page = buildEventPage(200);
+
+        // When: Decoding with both paths
+        List<MachineEvent> streamed = GymJsonDecoder.decodeEvents(new ByteArrayInputStream(page));
+        List<MachineEvent> tree = decodeWithJsonTree(new ByteArrayInputStream(page));
+
+        // Then: Both produce identical models
+        assertEquals(tree.size(), streamed.size());
+        for (int i = 0; i < tree.size(); i++) {
+            MachineEvent expected = tree.get(i);
+            MachineEvent actual = streamed.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getMachineId(), actual.getMachineId());
+            assertEquals(expected.getMachineName(), actual.getMachineName());
+            assertEquals(expected.getEventType(), actual.getEventType());
+            assertEquals(expected.getEventTypeDisplay(), actual.getEventTypeDisplay());
+            assertEquals(expected.getImageUrl(), actual.getImageUrl());
+            assertEquals(expected.getCapturedAt(), actual.getCapturedAt());
+            assertEquals(expected.getPersonCount(), actual.getPersonCount());
+        }
+    }
+
+    @Test
+    public void AN_DECODE_BENCH_02_compareDecodeTimes() throws IOException, JSONException {
+        assumeTrue("Run with -Pbenchmark=true", Boolean.getBoolean("benchmark"));
+
+        for (int size : PAYLOAD_SIZES) {
+            byte[] page = buildEventPage(size);
+            int rounds = size >= 50000 ? MEASURED_ROUNDS : MEASURED_ROUNDS * 10;
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                decodeWithJsonTree(new ByteArrayInputStream(page));
+                GymJsonDecoder.decodeEvents(new ByteArrayInputStream(page));
+            }
+
+            long treeNanos = 0;
+            long streamNanos = 0;
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                List<MachineEvent> tree = decodeWithJsonTree(new ByteArrayInputStream(page));
+                treeNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<MachineEvent> streamed = GymJsonDecoder.decodeEvents(new ByteArrayInputStream(page));
+                streamNanos += System.nanoTime() - start;
+
+                assertEquals(size, tree.size());
+                assertEquals(size, streamed.size());
+            }
+
+            System.out.printf("events=%d bytes=%d json-tree=%.2fms streaming=%.2fms speedup=%.2fx%n",
+                    size, page.length,
+                    treeNanos / 1e6 / rounds, streamNanos / 1e6 / rounds,
+                    (double) treeNanos / streamNanos);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.models.GymMachine;
+import com.example.photoviewer.models.MachineEvent;
+import com.example.photoviewer.services.GymJsonDecoder;
+
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the streaming GymJsonDecoder.
+ *
+ * Test IDs: AN-DECODE-01 through AN-DECODE-08
+ * Priority: P0 (Critical - All list screens decode through this path)
+ *
+ * These tests verify the decoder keeps the field fallbacks of the
+ * JSONObject model constructors.
+ */
+public class GymJsonDecoderTest {
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void AN_DECODE_01_events_parsesAllFields() throws IOException, JSONException {
+        // Given: A paginated event page with one full event
+        String json = "{\"count\":1,\"next\":null,\"previous\":null,\"results\":[{"
+                + "\"id\":10,\"machine\":3,\"machine_name\":\"런닝머신 #1\","
+                + "\"event_type\":\"start\",\"event_type_display\":\"사용 시작\","
+                + "\"image\":\"/media/events/2023/10/27/event_001.jpg\","
+                + "\"captured_at\":\"2023-10-27T14:35:10\",\"person_count\":2}]}";
+
+        // When: Decoding the stream
+        List<MachineEvent> events = GymJsonDecoder.decodeEvents(stream(json));
+
+        // Then: All fields are populated
+        assertEquals(1, events.size());
+        MachineEvent event = events.get(0);
+        assertEquals(10, event.getId());
+        assertEquals(3, event.getMachineId());
+        assertEquals("런닝머신 #1", event.getMachineName());
+        assertEquals("start", event.getEventType());
+        assertEquals("사용 시작", event.getEventTypeDisplay());
+        assertEquals("/media/events/2023/10/27/event_001.jpg", event.getImageUrl());
+        assertEquals("2023-10-27T14:35:10", event.getCapturedAt());
+        assertEquals(2, event.getPersonCount());
+    }
+
+    @Test
+    public void AN_DECODE_02_events_fallsBackToMachineId() throws IOException, JSONException {
+        // Given: Events using machine_id, or machine set to 0
+        String json = "{\"results\":[{\"id\":1,\"machine_id\":5},"
+                + "{\"id\":2,\"machine\":0,\"machine_id\":7}]}";
+
+        // When: Decoding
+        List<MachineEvent> events = GymJsonDecoder.decodeEvents(stream(json));
+
+        // Then: machine_id is used
+        assertEquals(5, events.get(0).getMachineId());
+        assertEquals(7, events.get(1).getMachineId());
+    }
+
+    @Test
+    public void AN_DECODE_03_events_usesDefaultsForMissingAndNullFields() throws IOException, JSONException {
+        // Given: An event with only an id and a null image
+        String json = "{\"results\":[{\"id\":1,\"image\":null,\"extra\":{\"nested\":[1,2]}}]}";
+
+        // When: Decoding
+        MachineEvent event = GymJsonDecoder.decodeEvents(stream(json)).get(0);
+
+        // Then: Defaults match the JSONObject constructor
+        assertEquals(0, event.getMachineId());
+        assertEquals("", event.getMachineName());
+        assertEquals("", event.getEventType());
+        assertEquals("", event.getImageUrl());
+        assertEquals("", event.getCapturedAt());
+        assertEquals(0, event.getPersonCount());
+    }
+
+    @Test(expected = JSONException.class)
+    public void AN_DECODE_04_events_throwsForMissingId() throws IOException, JSONException {
+        GymJsonDecoder.decodeEvents(stream("{\"results\":[{\"machine\":1}]}"));
+    }
+
+    @Test(expected = JSONException.class)
+    public void AN_DECODE_05_events_throwsJsonExceptionForMalformedBody() throws IOException, JSONException {
+        GymJsonDecoder.decodeEvents(stream("{\"results\":[{\"id\" 1}]}"));
+    }
+
+    @Test
+    public void AN_DECODE_06_machines_parsesLastEventAndDefaults() throws IOException, JSONException {
+        // Given: One machine with last_event and one with nulls
+        String json = "{\"count\":2,\"results\":["
+                + "{\"id\":1,\"name\":\"런닝머신 #1\",\"machine_type\":\"treadmill\","
+                + "\"location\":\"1층 A구역\",\"thumbnail\":\"/media/t.jpg\",\"is_active\":true,"
+                + "\"event_count\":152,\"last_event\":{\"event_type\":\"start\","
+                + "\"captured_at\":\"2023-10-27T14:35:10\"}},"
+                + "{\"id\":2,\"thumbnail\":null,\"last_event\":null}]}";
+
+        // When: Decoding
+        List<GymMachine> machines = GymJsonDecoder.decodeMachines(stream(json));
+
+        // Then: Fields and fallbacks are applied
+        assertEquals(2, machines.size());
+        GymMachine first = machines.get(0);
+        assertEquals("런닝머신 #1", first.getName());
+        assertEquals("treadmill", first.getMachineType());
+        assertEquals(152, first.getEventCount());
+        assertNotNull(first.getLastEvent());
+        assertEquals("start", first.getLastEvent().getEventType());
+        assertEquals("2023-10-27T14:35:10", first.getLastEvent().getCapturedAt());
+
+        GymMachine second = machines.get(1);
+        assertEquals("", second.getName());
+        assertEquals("", second.getThumbnailUrl());
+        assertTrue(second.isActive());
+        assertEquals(0, second.getEventCount());
+        assertNull(second.getLastEvent());
+    }
+
+    @Test
+    public void AN_DECODE_07_event_decodesSingleObject() throws IOException, JSONException {
+        // Given: An event detail response with numeric strings
+        String json = "{\"id\":\"42\",\"machine\":{\"id\":3},\"machine_id\":3,\"person_count\":1.0}";
+
+        // When: Decoding
+        MachineEvent event = GymJsonDecoder.decodeEvent(stream(json));
+
+        // Then: Values are coerced like optInt and nested machine falls back
+        assertEquals(42, event.getId());
+        assertEquals(3, event.getMachineId());
+        assertEquals(1, event.getPersonCount());
+    }
+
+    @Test
+    public void AN_DECODE_08_variants_parsedForEventsAndMachines() throws IOException, JSONException {
+        // Given: An event and a machine with server-generated variants
+        String events = "{\"results\":[{\"id\":1,\"image\":\"/media/events/f.jpg\","
+                + "\"image_variants\":[{\"width\":284,\"height\":160,\"format\":\"webp\","
+                + "\"url\":\"/media/thumbs/events/f_160.webp\"},{\"width\":null,\"url\":\"/x\"}]}]}";
+        String machines = "{\"results\":[{\"id\":2,\"thumbnail_variants\":[{\"width\":160,"
+                + "\"height\":213,\"format\":\"jpeg\",\"url\":\"/media/thumbs/m_160.jpg\"}]},"
+                + "{\"id\":3,\"thumbnail_variants\":null}]}";
+
+        // When: Decoding both
+        MachineEvent event = GymJsonDecoder.decodeEvents(stream(events)).get(0);
+        List<GymMachine> decodedMachines = GymJsonDecoder.decodeMachines(stream(machines));
+
+        // Then: Complete entries are kept, incomplete ones and nulls are dropped
+        assertEquals(1, event.getImageVariants().size());
+        assertEquals("/media/thumbs/events/f_160.webp", event.getImageVariants().get(0).getUrl());
+        assertEquals(213, decodedMachines.get(0).getThumbnailVariants().get(0).getHeight());
+        assertEquals("jpeg", decodedMachines.get(0).getThumbnailVariants().get(0).getFormat());
+        assertTrue(decodedMachines.get(1).getThumbnailVariants().isEmpty());
+    }
+}
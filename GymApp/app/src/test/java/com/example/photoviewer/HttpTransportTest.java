@@ -0,0 +1,512 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.network.HttpCall;
+import com.example.photoviewer.network.HttpDispatcher;
+import com.example.photoviewer.network.HttpRequest;
+import com.example.photoviewer.network.HttpResponse;
+import com.example.photoviewer.network.HttpTransport;
+import com.example.photoviewer.network.MultipartBody;
+import com.example.photoviewer.network.ResponseCache;
+import com.example.photoviewer.network.TransferStats;
+import com.example.photoviewer.scheduler.Priority;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the shared HTTP transport and dispatcher.
+ *
+ * Test IDs: AN-HTTP-01 through AN-HTTP-14
+ * Priority: P1 (High - All API calls go through this path)
+ *
+ * A local HttpServer stands in for the backend.
+ */
+public class HttpTransportTest {
+
+    private static final String LARGE_JSON = buildLargeJson();
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+    private final AtomicInteger fullEtagResponses = new AtomicInteger();
+    private final List<String> slowStartOrder = Collections.synchronizedList(new ArrayList<>());
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/slow/", exchange -> {
+            slowStartOrder.add(exchange.getRequestURI().getPath());
+            int active = activeRequests.incrementAndGet();
+            maxActiveRequests.accumulateAndGet(active, Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            activeRequests.decrementAndGet();
+            respond(exchange, 200, "{\"ok\":true}");
+        });
+        server.createContext("/echo/", exchange -> {
+            String auth = exchange.getRequestHeaders().getFirst("Authorization");
+            respond(exchange, 200, auth != null ? auth : "");
+        });
+        server.createContext("/missing/", exchange -> respond(exchange, 404, "{\"detail\":\"Not found\"}"));
+        server.createContext("/etag/", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullEtagResponses.incrementAndGet();
+            respond(exchange, 200, "{\"machines\":[1,2,3]}");
+        });
+        server.createContext("/gzip/", exchange -> {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+                respond(exchange, 200, LARGE_JSON);
+                return;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream os = exchange.getResponseBody()) {
+                compressed.writeTo(os);
+            }
+        });
+        server.createContext("/post/", exchange -> {
+            byte[] received = exchange.getRequestBody().readAllBytes();
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            respond(exchange, 200, exchange.getRequestMethod() + " " + contentType + " "
+                    + new String(received, StandardCharsets.UTF_8));
+        });
+        server.createContext("/upload/", exchange -> {
+            byte[] received = exchange.getRequestBody().readAllBytes();
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            String transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+            respond(exchange, 201, length + " " + transferEncoding + " " + received.length + "\n"
+                    + new String(received, StandardCharsets.UTF_8));
+        });
+        server.start();
+        cacheDir = Files.createTempDirectory("response-cache").toFile();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int code, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static String buildLargeJson() {
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"event_type\":\"start\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private CountDownLatch enqueueSlowCalls(HttpTransport transport, int count) {
+        return enqueueSlowCalls(transport, count, Priority.INTERACTIVE);
+    }
+
+    private CountDownLatch enqueueSlowCalls(HttpTransport transport, int count, Priority priority) {
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            HttpRequest request = new HttpRequest.Builder(baseUrl + "/slow/" + priority.name() + i)
+                    .priority(priority)
+                    .build();
+            transport.enqueue(request, new HttpTransport.Callback() {
+                @Override
+                public void onResponse(HttpResponse response) throws IOException {
+                    response.getBodyString();
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(HttpRequest failed, IOException e) {
+                    latch.countDown();
+                }
+            });
+        }
+        return latch;
+    }
+
+    @Test
+    public void AN_HTTP_01_dispatcher_respectsPerHostLimit() throws Exception {
+        // Given: A dispatcher allowing 2 concurrent calls per host
+        HttpTransport transport = new HttpTransport(new HttpDispatcher(16, 2));
+
+        // When: Queueing 8 slow calls against the same host
+        CountDownLatch latch = enqueueSlowCalls(transport, 8);
+
+        // Then: All complete and never more than 2 run at once
+        assertTrue("All calls should complete", latch.await(10, TimeUnit.SECONDS));
+        assertTrue("Per-host limit should be respected", maxActiveRequests.get() <= 2);
+    }
+
+    @Test
+    public void AN_HTTP_02_dispatcher_runsCallsConcurrently() throws Exception {
+        // Given: A dispatcher with room for 4 calls per host
+        HttpTransport transport = new HttpTransport(new HttpDispatcher(16, 4));
+
+        // When: Queueing several slow calls
+        CountDownLatch latch = enqueueSlowCalls(transport, 4);
+
+        // Then: Calls overlap instead of running one after another
+        assertTrue("All calls should complete", latch.await(10, TimeUnit.SECONDS));
+        assertTrue("Calls should run in parallel", maxActiveRequests.get() > 1);
+    }
+
+    @Test
+    public void AN_HTTP_03_execute_sendsHeadersAndReadsBody() throws IOException {
+        // Given: A request carrying an auth header
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        HttpRequest request = new HttpRequest.Builder(baseUrl + "/echo/")
+                .header("Authorization", "Token abc123")
+                .build();
+
+        // When: Executing synchronously
+        try (HttpResponse response = transport.execute(request)) {
+            // Then: Header reached the server and body is readable
+            assertEquals("Status should be 200", 200, response.getCode());
+            assertTrue("Response should be successful", response.isSuccessful());
+            assertEquals("Body should echo the header", "Token abc123", response.getBodyString());
+        }
+    }
+
+    @Test
+    public void AN_HTTP_04_execute_exposesErrorBody() throws IOException {
+        // Given: An endpoint returning 404
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        HttpRequest request = new HttpRequest.Builder(baseUrl + "/missing/").build();
+
+        // When: Executing synchronously
+        try (HttpResponse response = transport.execute(request)) {
+            // Then: Code and error body are available instead of an exception
+            assertEquals("Status should be 404", 404, response.getCode());
+            assertFalse("Response should not be successful", response.isSuccessful());
+            assertTrue("Error body should be readable",
+                    response.getBodyString().contains("Not found"));
+        }
+    }
+
+    @Test
+    public void AN_HTTP_05_requestBuilder_copiesAndOverridesHeaders() {
+        // Given: A request with headers
+        HttpRequest original = new HttpRequest.Builder("http://example.com/api/")
+                .header("Accept", "application/json")
+                .header("Authorization", "Token a")
+                .build();
+
+        // When: Deriving a new request and removing one header
+        HttpRequest derived = original.newBuilder()
+                .header("Authorization", null)
+                .build();
+
+        // Then: Original is unchanged and derived keeps the rest
+        assertEquals("Original keeps auth", "Token a", original.getHeader("Authorization"));
+        assertNull("Derived should drop auth", derived.getHeader("Authorization"));
+        assertEquals("Derived keeps accept", "application/json", derived.getHeader("Accept"));
+        assertEquals("Host should be parsed", "example.com", derived.getHost());
+    }
+
+    @Test
+    public void AN_HTTP_06_conditionalCache_servesCachedBodyOn304() throws IOException {
+        // Given: A transport with a response cache and a validated endpoint
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        ResponseCache cache = new ResponseCache(cacheDir, ResponseCache.DEFAULT_MAX_SIZE);
+        transport.setResponseCache(cache);
+        HttpRequest request = new HttpRequest.Builder(baseUrl + "/etag/")
+                .conditionalCache(true)
+                .build();
+
+        // When: Fetching twice
+        try (HttpResponse first = transport.execute(request)) {
+            assertEquals("First fetch should be 200", 200, first.getCode());
+            assertEquals("{\"machines\":[1,2,3]}", first.getBodyString());
+        }
+        try (HttpResponse second = transport.execute(request)) {
+            // Then: Second fetch is a 304 answered with the cached body
+            assertEquals("Second fetch should be 304", 304, second.getCode());
+            assertEquals("Cached body should be served", "{\"machines\":[1,2,3]}",
+                    second.getBodyString());
+        }
+        assertEquals("Body should be downloaded once", 1, fullEtagResponses.get());
+        assertEquals("One response should be revalidated", 1, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void AN_HTTP_07_conditionalCache_storesBodyDrainedOnClose() throws IOException {
+        // Given: A cached transport
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        ResponseCache cache = new ResponseCache(cacheDir, ResponseCache.DEFAULT_MAX_SIZE);
+        transport.setResponseCache(cache);
+        HttpRequest request = new HttpRequest.Builder(baseUrl + "/etag/")
+                .conditionalCache(true)
+                .build();
+
+        // When: Closing a response after reading only part of the body
+        try (HttpResponse response = transport.execute(request)) {
+            response.getBody().read(new byte[4]);
+        }
+
+        // Then: Draining on close completes the body, so the entry is stored intact
+        try (HttpResponse second = transport.execute(request)) {
+            assertEquals(304, second.getCode());
+            assertEquals("{\"machines\":[1,2,3]}", second.getBodyString());
+        }
+    }
+
+    @Test
+    public void AN_HTTP_08_cancel_dropsQueuedCall() throws Exception {
+        // Given: One call per host at a time, a slow call running and a second queued
+        HttpTransport transport = new HttpTransport(new HttpDispatcher(16, 1));
+        CountDownLatch first = enqueueSlowCalls(transport, 1);
+        AtomicInteger delivered = new AtomicInteger();
+        HttpCall queued = transport.enqueue(new HttpRequest.Builder(baseUrl + "/slow/queued").build(),
+                new HttpTransport.Callback() {
+                    @Override
+                    public void onResponse(HttpResponse response) {
+                        delivered.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onFailure(HttpRequest request, IOException e) {
+                        delivered.incrementAndGet();
+                    }
+                });
+        assertEquals(1, transport.getDispatcher().getQueuedCallsCount());
+
+        // When: Cancelling the queued call
+        queued.cancel();
+
+        // Then: It leaves the queue and never reaches the server or the callback
+        assertEquals(0, transport.getDispatcher().getQueuedCallsCount());
+        assertTrue(first.await(10, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals("Cancelled call should not be delivered", 0, delivered.get());
+        assertTrue(queued.isCanceled());
+    }
+
+    @Test
+    public void AN_HTTP_09_cancel_stopsRunningCallWithoutCallback() throws Exception {
+        // Given: A running slow call
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        AtomicInteger delivered = new AtomicInteger();
+        HttpCall call = transport.enqueue(new HttpRequest.Builder(baseUrl + "/slow/running").build(),
+                new HttpTransport.Callback() {
+                    @Override
+                    public void onResponse(HttpResponse response) {
+                        delivered.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onFailure(HttpRequest request, IOException e) {
+                        delivered.incrementAndGet();
+                    }
+                });
+        Thread.sleep(30);
+
+        // When: Cancelling it mid-flight
+        call.cancel();
+
+        // Then: The dispatcher frees the slot and no callback fires
+        Thread.sleep(300);
+        assertEquals("Cancelled call should not be delivered", 0, delivered.get());
+        assertEquals(0, transport.getDispatcher().getRunningCallsCount());
+    }
+
+    @Test
+    public void AN_HTTP_10_execute_inflatesGzipBodyAndCountsBytes() throws IOException {
+        // Given: An endpoint that gzips its JSON when asked to
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        HttpRequest request = new HttpRequest.Builder(baseUrl + "/gzip/").build();
+
+        // When: Executing a plain request
+        try (HttpResponse response = transport.execute(request)) {
+            // Then: gzip was advertised and the body arrives inflated
+            assertEquals("gzip", response.getHeader("Content-Encoding"));
+            assertEquals(LARGE_JSON, response.getBodyString());
+        }
+
+        // And: Wire bytes are the compressed size, decoded bytes the JSON size
+        TransferStats stats = transport.getTransferStats();
+        assertEquals(1, stats.getCompressedResponseCount());
+        assertEquals(LARGE_JSON.length(), stats.getDecodedBytes());
+        assertTrue("Compressed body should be much smaller",
+                stats.getWireBytes() * 5 < stats.getDecodedBytes());
+        assertEquals(stats.getDecodedBytes() - stats.getWireBytes(), stats.getSavedBytes());
+    }
+
+    @Test
+    public void AN_HTTP_11_execute_sendsRequestBody() throws IOException {
+        // Given: A POST request with a JSON body
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        HttpRequest request = new HttpRequest.Builder(baseUrl + "/post/")
+                .method("POST")
+                .body("{\"security_key\":\"k\"}".getBytes(StandardCharsets.UTF_8), "application/json")
+                .build();
+
+        // When: Executing it
+        try (HttpResponse response = transport.execute(request)) {
+            // Then: Method, content type and body all reach the server
+            assertEquals("POST application/json {\"security_key\":\"k\"}", response.getBodyString());
+        }
+    }
+
+    @Test
+    public void AN_HTTP_12_dispatcher_startsHigherPriorityFirstAndKeepsInteractiveSlot() throws Exception {
+        // Given: A dispatcher allowing 2 calls per host, busy with prefetch work
+        HttpDispatcher dispatcher = new HttpDispatcher(16, 2);
+        HttpTransport transport = new HttpTransport(dispatcher);
+        CountDownLatch prefetched = enqueueSlowCalls(transport, 4, Priority.PREFETCH);
+
+        // When: A visible image and then a tap arrive behind it
+        CountDownLatch visible = enqueueSlowCalls(transport, 1, Priority.VISIBLE_IMAGE);
+        CountDownLatch tapped = new CountDownLatch(1);
+        AtomicInteger prefetchQueuedAtTap = new AtomicInteger(-1);
+        transport.enqueue(new HttpRequest.Builder(baseUrl + "/echo/").build(), new HttpTransport.Callback() {
+            @Override
+            public void onResponse(HttpResponse response) throws IOException {
+                response.getBodyString();
+                prefetchQueuedAtTap.set(dispatcher.getQueueStats().getQueueDepth(Priority.PREFETCH));
+                tapped.countDown();
+            }
+
+            @Override
+            public void onFailure(HttpRequest failed, IOException e) {
+                tapped.countDown();
+            }
+        });
+
+        // Then: The tap uses the reserved slot and finishes while prefetch still waits
+        assertTrue("Interactive call should complete", tapped.await(5, TimeUnit.SECONDS));
+        assertTrue("Prefetch calls should still be queued", prefetchQueuedAtTap.get() > 0);
+
+        // And: The visible image jumps ahead of the queued prefetch calls
+        assertTrue(visible.await(5, TimeUnit.SECONDS));
+        assertTrue(prefetched.await(5, TimeUnit.SECONDS));
+        assertEquals("/slow/PREFETCH0", slowStartOrder.get(0));
+        assertEquals("/slow/VISIBLE_IMAGE0", slowStartOrder.get(1));
+        assertTrue("Only one non-interactive call per host at a time", maxActiveRequests.get() <= 1);
+        assertEquals(1, dispatcher.getQueueStats().getStartedCount(Priority.VISIBLE_IMAGE));
+    }
+
+    @Test
+    public void AN_HTTP_13_multipart_streamsWithContentLength() throws IOException {
+        // Given: Two text fields and a 200 KB file part of known size
+        byte[] image = new byte[200 * 1024];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) ('a' + i % 26);
+        }
+        List<Long> progress = new ArrayList<>();
+        MultipartBody body = new MultipartBody.Builder()
+                .addFormField("title", "벤치프레스")
+                .addFormField("text", "hello")
+                .addFilePart("image", "photo.jpg", "image/jpeg", MultipartBody.fromBytes(image))
+                .progressListener((written, total) -> progress.add(written))
+                .build();
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        HttpRequest request = new HttpRequest.Builder(baseUrl + "/upload/")
+                .method("POST")
+                .body(body)
+                .build();
+
+        // When: Uploading it
+        String received;
+        try (HttpResponse response = transport.execute(request)) {
+            assertEquals(201, response.getCode());
+            received = response.getBodyString();
+        }
+
+        // Then: The length was declared up front and matches what was sent
+        long length = body.contentLength();
+        assertTrue(length > image.length);
+        assertTrue(received, received.startsWith(length + " null " + length + "\n"));
+        String boundary = body.getBoundary();
+        assertTrue(received.contains("--" + boundary + "\r\nContent-Disposition: form-data; name=\"title\"\r\n\r\n벤치프레스\r\n"));
+        assertTrue(received.contains("name=\"image\"; filename=\"photo.jpg\"\r\nContent-Type: image/jpeg\r\n\r\nabcdef"));
+        assertTrue(received.endsWith("\r\n--" + boundary + "--\r\n"));
+        // Progress is throttled, increases, and ends at the full length
+        assertTrue("Progress reported in steps, not per buffer", progress.size() <= 5);
+        assertEquals(Long.valueOf(length), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void AN_HTTP_14_multipart_unknownLengthIsSentChunked() throws IOException {
+        // Given: A file part whose size the provider does not report
+        byte[] image = "not really a jpeg".getBytes(StandardCharsets.UTF_8);
+        MultipartBody body = new MultipartBody.Builder()
+                .addFilePart("image", "photo.jpg", "image/jpeg", new MultipartBody.Source() {
+                    @Override
+                    public InputStream open() {
+                        return new java.io.ByteArrayInputStream(image);
+                    }
+
+                    @Override
+                    public long length() {
+                        return -1;
+                    }
+                })
+                .build();
+        assertEquals(-1, body.contentLength());
+
+        // When: Uploading it
+        HttpTransport transport = new HttpTransport(new HttpDispatcher());
+        try (HttpResponse response = transport.execute(new HttpRequest.Builder(baseUrl + "/upload/")
+                .method("POST")
+                .body(body)
+                .build())) {
+            // Then: It went chunked without a Content-Length, and arrived whole
+            String received = response.getBodyString();
+            assertTrue(received, received.startsWith("null chunked "));
+            assertTrue(received.contains("\r\n\r\nnot really a jpeg\r\n--" + body.getBoundary() + "--"));
+        }
+    }
+}
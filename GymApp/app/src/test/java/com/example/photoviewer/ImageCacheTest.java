@@ -0,0 +1,127 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.images.ImageCacheStats;
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.images.MemoryLruCache;
+import com.example.photoviewer.scheduler.Priority;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the image cache building blocks.
+ *
+ * Test IDs: AN-IMG-01 through AN-IMG-07
+ * Priority: P1 (High - Every image view loads through this cache)
+ *
+ * Strings stand in for bitmaps; their length is their size in bytes.
+ */
+public class ImageCacheTest {
+
+    private MemoryLruCache<String> cache;
+
+    @Before
+    public void setUp() {
+        cache = new MemoryLruCache<>(10, String::length);
+    }
+
+    @Test
+    public void AN_IMG_01_memoryCache_evictsLeastRecentlyUsedByBytes() {
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.get("a");
+
+        cache.put("c", "cccc");
+
+        assertNull("Least recently used entry should be evicted", cache.get("b"));
+        assertEquals("aaaa", cache.get("a"));
+        assertEquals("cccc", cache.get("c"));
+        assertEquals(8, cache.getSize());
+    }
+
+    @Test
+    public void AN_IMG_02_memoryCache_replacesAndSkipsOversizedValues() {
+        cache.put("a", "aaaa");
+        cache.put("a", "aa");
+        assertEquals("Replacing should update the size", 2, cache.getSize());
+
+        cache.put("huge", "12345678901");
+
+        assertNull("Values larger than the cache are not stored", cache.get("huge"));
+        assertEquals("aa", cache.get("a"));
+    }
+
+    @Test
+    public void AN_IMG_03_memoryCache_trimToSizeKeepsNewest() {
+        cache.put("a", "aaa");
+        cache.put("b", "bbb");
+        cache.put("c", "ccc");
+
+        cache.trimToSize(3);
+
+        assertEquals(1, cache.getEntryCount());
+        assertEquals("ccc", cache.get("c"));
+    }
+
+    @Test
+    public void AN_IMG_04_requestKey_includesTargetSize() {
+        ImageRequest thumbnail = new ImageRequest.Builder("/media/a.jpg").size(96, 96).build();
+        ImageRequest full = thumbnail.newBuilder().size(1080, 1920).priority(Priority.INTERACTIVE).build();
+
+        assertFalse(thumbnail.getKey().equals(full.getKey()));
+        assertEquals("/media/a.jpg", full.getUrl());
+        assertEquals(Priority.VISIBLE_IMAGE, thumbnail.getPriority());
+        assertFalse(new ImageRequest.Builder("/media/a.jpg").build().hasSize());
+    }
+
+    @Test
+    public void AN_IMG_05_stats_reportHitRatiosPerLevel() {
+        ImageCacheStats stats = new ImageCacheStats();
+        assertEquals(0, stats.getOverallHitRatio(), 0);
+
+        for (int i = 0; i < 6; i++) {
+            stats.recordMemoryHit();
+        }
+        stats.recordDiskHit();
+        stats.recordDiskHit();
+        stats.recordNetworkLoad(1024);
+        stats.recordFailure();
+
+        assertEquals(10, stats.getRequestCount());
+        assertEquals(0.6, stats.getMemoryHitRatio(), 1e-9);
+        assertEquals("Half of the memory misses came from disk", 0.5, stats.getDiskHitRatio(), 1e-9);
+        assertEquals(0.8, stats.getOverallHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void AN_IMG_06_stats_countCancellationsApartFromHitRatios() {
+        ImageCacheStats stats = new ImageCacheStats();
+        stats.recordMemoryHit();
+        stats.recordNetworkLoad(2048);
+        stats.recordCanceled(false);
+        stats.recordCanceled(false);
+        stats.recordCanceled(true);
+
+        assertEquals(5, stats.getRequestCount());
+        assertEquals(2, stats.getCompletedCount());
+        assertEquals(2, stats.getCanceledBeforeStartCount());
+        assertEquals(1, stats.getCanceledInFlightCount());
+        assertEquals("Canceled loads do not dilute the hit ratio", 0.5, stats.getOverallHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void AN_IMG_07_findLargest_picksBiggestSizeOfUrlWithoutTouchingOrder() {
+        cache.put("/media/a.jpg#48x48", "aa");
+        cache.put("/media/a.jpg#96x96", "aaaa");
+        cache.put("/media/b.jpg#48x48", "bbb");
+
+        assertEquals("aaaa", cache.findLargest("/media/a.jpg#"));
+        assertNull(cache.findLargest("/media/c.jpg#"));
+
+        // The lookup must not make the a.jpg entries most recently used
+        cache.put("/media/c.jpg#48x48", "cc");
+        assertNull(cache.get("/media/a.jpg#48x48"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.images.ImageRequest;
+import com.example.photoviewer.models.ImageVariant;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for choosing a server-generated image variant.
+ *
+ * Test IDs: AN-VARIANT-01 through AN-VARIANT-04
+ * Priority: P2 (Medium - List thumbnails must not download full frames)
+ */
+public class ImageVariantTest {
+
+    private static final List<String> FORMATS = Arrays.asList("webp", "jpeg");
+
+    // What the server generates for a 1280x720 frame: short sides 160 and 480
+    private static final List<ImageVariant> VARIANTS = Arrays.asList(
+            new ImageVariant(284, 160, "webp", "/media/thumbs/f_160.webp"),
+            new ImageVariant(284, 160, "jpeg", "/media/thumbs/f_160.jpg"),
+            new ImageVariant(853, 480, "webp", "/media/thumbs/f_480.webp"),
+            new ImageVariant(853, 480, "jpeg", "/media/thumbs/f_480.jpg"));
+
+    @Test
+    public void AN_VARIANT_01_picksSmallestCoveringVariant_preferringWebp() {
+        // 48dp square thumbnail at xxhdpi
+        ImageVariant small = ImageVariant.pickSmallest(VARIANTS, 144, 144, FORMATS);
+        assertEquals("/media/thumbs/f_160.webp", small.getUrl());
+
+        // Too tall for the 160 variant
+        ImageVariant medium = ImageVariant.pickSmallest(VARIANTS, 200, 200, FORMATS);
+        assertEquals("/media/thumbs/f_480.webp", medium.getUrl());
+    }
+
+    @Test
+    public void AN_VARIANT_02_skipsUndecodableFormats_andFallsBackToOriginal() {
+        ImageVariant jpeg = ImageVariant.pickSmallest(VARIANTS, 144, 144,
+                Collections.singletonList("jpeg"));
+        assertEquals("/media/thumbs/f_160.jpg", jpeg.getUrl());
+
+        assertNull("Full-screen target is larger than every variant",
+                ImageVariant.pickSmallest(VARIANTS, 1080, 810, FORMATS));
+        assertNull("Unknown target size", ImageVariant.pickSmallest(VARIANTS, 0, 0, FORMATS));
+    }
+
+    @Test
+    public void AN_VARIANT_03_jsonRoundTrip_dropsIncompleteEntries() throws JSONException {
+        JSONArray array = new JSONArray("[{\"width\":284,\"height\":160,\"format\":\"webp\","
+                + "\"url\":\"/media/thumbs/f_160.webp\"},{\"width\":0,\"height\":160,"
+                + "\"format\":\"jpeg\",\"url\":\"/x.jpg\"},{\"width\":10,\"height\":10}]");
+
+        List<ImageVariant> variants = ImageVariant.listFromJson(array);
+        assertEquals(1, variants.size());
+
+        List<ImageVariant> stored = ImageVariant.listFromJsonString(
+                ImageVariant.listToJsonString(variants));
+        assertEquals(1, stored.size());
+        assertEquals(284, stored.get(0).getWidth());
+        assertEquals(160, stored.get(0).getHeight());
+        assertEquals("webp", stored.get(0).getFormat());
+        assertEquals("/media/thumbs/f_160.webp", stored.get(0).getUrl());
+
+        assertTrue(ImageVariant.listFromJsonString(null).isEmpty());
+        assertTrue(ImageVariant.listFromJsonString("not json").isEmpty());
+    }
+
+    @Test
+    public void AN_VARIANT_04_request_downloadsVariant_butKeysOnOriginal() {
+        ImageRequest request = new ImageRequest.Builder("/media/events/f.jpg")
+                .size(144, 144)
+                .variants(VARIANTS)
+                .build();
+
+        assertEquals("/media/thumbs/f_160.webp", request.getSourceUrl());
+        assertEquals("/media/events/f.jpg#144x144", request.getKey());
+
+        ImageRequest unsized = new ImageRequest.Builder("/media/events/f.jpg")
+                .variants(VARIANTS)
+                .build();
+        assertEquals("/media/events/f.jpg", unsized.getSourceUrl());
+        assertEquals("/media/thumbs/f_480.webp",
+                unsized.newBuilder().size(400, 300).build().getSourceUrl());
+    }
+}
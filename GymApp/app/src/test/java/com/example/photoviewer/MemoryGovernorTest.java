@@ -0,0 +1,88 @@
+package com.example.photoviewer;
+
+import android.content.ComponentCallbacks2;
+
+import com.example.photoviewer.images.MemoryLruCache;
+import com.example.photoviewer.utils.MemoryGovernor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for cache shedding under memory pressure.
+ *
+ * Test IDs: AN-MEM-01 through AN-MEM-03
+ * Priority: P1 (High - Low-RAM tablets kill the app in the background)
+ *
+ * Strings stand in for bitmaps; their length is their size in bytes.
+ */
+public class MemoryGovernorTest {
+
+    private MemoryGovernor governor;
+    private MemoryLruCache<String> images;
+    private MemoryLruCache<String> responses;
+
+    private static MemoryGovernor.Trimmable trimmable(MemoryLruCache<String> cache) {
+        return new MemoryGovernor.Trimmable() {
+            @Override
+            public long getMemorySize() {
+                return cache.getSize();
+            }
+
+            @Override
+            public void trimMemory(float keepFraction) {
+                cache.trimToSize((long) (cache.getSize() * keepFraction));
+            }
+        };
+    }
+
+    @Before
+    public void setUp() {
+        governor = new MemoryGovernor();
+        images = new MemoryLruCache<>(100, String::length);
+        responses = new MemoryLruCache<>(100, String::length);
+        for (int i = 0; i < 8; i++) {
+            images.put("image" + i, "iiiiiiiiii");
+            responses.put("response" + i, "rr");
+        }
+    }
+
+    @Test
+    public void AN_MEM_01_keepFraction_shrinksAsTrimLevelRises() {
+        assertEquals(1f, MemoryGovernor.keepFractionForLevel(0), 0);
+        assertEquals(0.75f, MemoryGovernor.keepFractionForLevel(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE), 0);
+        assertEquals(0.25f, MemoryGovernor.keepFractionForLevel(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL), 0);
+        assertEquals(0.5f, MemoryGovernor.keepFractionForLevel(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN), 0);
+        assertEquals(0.25f, MemoryGovernor.keepFractionForLevel(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND), 0);
+        assertEquals(0f, MemoryGovernor.keepFractionForLevel(ComponentCallbacks2.TRIM_MEMORY_MODERATE), 0);
+        assertEquals(0f, MemoryGovernor.keepFractionForLevel(ComponentCallbacks2.TRIM_MEMORY_COMPLETE), 0);
+    }
+
+    @Test
+    public void AN_MEM_02_trimMemory_trimsEveryCacheInProportion() {
+        governor.register("images", "bytes", trimmable(images));
+        governor.register("responses", "bytes", trimmable(responses));
+
+        governor.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        assertEquals(40, images.getSize());
+        assertEquals(8, responses.getSize());
+        assertEquals("Most recently used entries are kept", "iiiiiiiiii", images.get("image7"));
+        assertNull(images.get("image0"));
+    }
+
+    @Test
+    public void AN_MEM_03_lowMemory_emptiesRegisteredCachesOnly() {
+        MemoryGovernor.Trimmable imageTrimmer = trimmable(images);
+        governor.register("images", "bytes", imageTrimmer);
+        governor.register("responses", "bytes", trimmable(responses));
+        governor.unregister(imageTrimmer);
+
+        governor.onLowMemory();
+
+        assertEquals(0, responses.getEntryCount());
+        assertEquals("Unregistered caches are left alone", 80, images.getSize());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.services.GymApiService;
+import com.example.photoviewer.services.GymRepository;
+import com.example.photoviewer.services.OfflineFirstLoader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for OfflineFirstLoader (stored data first, then revalidate).
+ *
+ * Test IDs: AN-OFFLINE-01 through AN-OFFLINE-06
+ * Priority: P1 (High - Screens render from the local store)
+ *
+ * The disk executor is a queue run by hand so each test controls whether the
+ * local read finishes before or after the network answers.
+ */
+public class OfflineFirstLoaderTest {
+
+    private final Deque<Runnable> diskTasks = new ArrayDeque<>();
+    private final List<String> log = new ArrayList<>();
+    private OfflineFirstLoader loader;
+
+    private String stored;
+    private String written;
+    private OfflineFirstLoader.RemoteResult<String> remote;
+    private int remoteCancelCount;
+
+    private final GymRepository.DataCallback<String> callback = new GymRepository.DataCallback<String>() {
+        @Override
+        public void onData(String data, boolean fromCache) {
+            log.add((fromCache ? "cached:" : "fresh:") + data);
+        }
+
+        @Override
+        public void onError(String errorMessage, boolean hasCachedData) {
+            log.add("error:" + errorMessage + ":" + hasCachedData);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        loader = new OfflineFirstLoader(diskTasks::add);
+    }
+
+    private GymApiService.ApiCall load() {
+        return loader.load(
+                () -> stored,
+                result -> {
+                    remote = result;
+                    return () -> remoteCancelCount++;
+                },
+                value -> written = value,
+                callback);
+    }
+
+    private void runDiskTasks() {
+        while (!diskTasks.isEmpty()) {
+            diskTasks.poll().run();
+        }
+    }
+
+    @Test
+    public void AN_OFFLINE_01_storedValueDeliveredBeforeFreshAndFreshIsStored() {
+        stored = "old";
+        load();
+
+        runDiskTasks();
+        remote.onSuccess("new");
+        runDiskTasks();
+
+        assertEquals("cached:old", log.get(0));
+        assertEquals("fresh:new", log.get(1));
+        assertEquals("Fresh value should be written back", "new", written);
+    }
+
+    @Test
+    public void AN_OFFLINE_02_freshBeforeLocalRead_skipsStoredValue() {
+        stored = "old";
+        load();
+
+        // Network answers before the disk read runs
+        remote.onSuccess("new");
+        runDiskTasks();
+
+        assertEquals("Stale data must not replace fresh data", 1, log.size());
+        assertEquals("fresh:new", log.get(0));
+    }
+
+    @Test
+    public void AN_OFFLINE_03_networkError_reportsStoredDataOnScreen() {
+        stored = "old";
+        load();
+
+        runDiskTasks();
+        remote.onError(GymApiService.ERROR_NETWORK);
+
+        assertEquals("cached:old", log.get(0));
+        assertEquals("error:" + GymApiService.ERROR_NETWORK + ":true", log.get(1));
+        assertNull("Nothing should be written after an error", written);
+    }
+
+    @Test
+    public void AN_OFFLINE_04_errorBeforeLocalRead_isHeldUntilReadFinishes() {
+        stored = "old";
+        load();
+
+        remote.onError(GymApiService.ERROR_NETWORK);
+        assertTrue("Error waits for the local read", log.isEmpty());
+        runDiskTasks();
+
+        assertEquals("cached:old", log.get(0));
+        assertEquals("error:" + GymApiService.ERROR_NETWORK + ":true", log.get(1));
+    }
+
+    @Test
+    public void AN_OFFLINE_05_nothingStored_errorReportsNoCachedData() {
+        load();
+
+        runDiskTasks();
+        remote.onError(GymApiService.ERROR_SERVER);
+
+        assertEquals(1, log.size());
+        assertEquals("error:" + GymApiService.ERROR_SERVER + ":false", log.get(0));
+    }
+
+    @Test
+    public void AN_OFFLINE_06_cancel_stopsDeliveryAndCancelsRequest() {
+        stored = "old";
+        GymApiService.ApiCall call = load();
+
+        call.cancel();
+        runDiskTasks();
+        remote.onSuccess("new");
+        runDiskTasks();
+
+        assertTrue("Nothing should be delivered after cancel", log.isEmpty());
+        assertEquals("Network request should be cancelled", 1, remoteCancelCount);
+        assertNull("Cancelled result should not be stored", written);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.photoviewer;
 
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -8,7 +9,7 @@ import static org.junit.Assert.*;
 /**
  * Unit tests for the Post model class.
  *
- * Test IDs: AN-POST-01 through AN-POST-12
+ * Test IDs: AN-POST-01 through AN-POST-15
  * Priority: P0 (Critical - Core data model)
  *
  * These tests verify the Post class construction, getters, and edge cases.
@@ -21,7 +22,7 @@ public class PostModelTest {
     public void setUp() {
         // Given: A standard test post
         testPost = new Post(1, "Test Title", "Test Content",
-                "http://example.com/image.jpg", null);
+                "http://example.com/image.jpg");
     }
 
     // =========================================================================
@@ -31,20 +32,20 @@ public class PostModelTest {
     @Test
     public void AN_POST_01_constructor_createsPostWithAllFields() {
         // Given/When: Creating a post with all fields
-        Post post = new Post(42, "Title", "Content", "http://image.url", null);
+        Post post = new Post(42, "Title", "Content", "http://image.url");
 
         // Then: All fields should be set correctly
         assertEquals("ID should be set", 42, post.getId());
         assertEquals("Title should be set", "Title", post.getTitle());
         assertEquals("Content should be set", "Content", post.getText());
         assertEquals("Image URL should be set", "http://image.url", post.getImageUrl());
-        assertNull("Bitmap should be null initially", post.getImageBitmap());
+        assertFalse("Image size should be unknown", post.hasImageSize());
     }
 
     @Test
     public void AN_POST_02_constructor_handlesNullTitle() {
         // Given/When: Creating a post with null title
-        Post post = new Post(1, null, "Content", "url", null);
+        Post post = new Post(1, null, "Content", "url");
 
         // Then: Title should be null
         assertNull("Null title should be stored as null", post.getTitle());
@@ -53,7 +54,7 @@ public class PostModelTest {
     @Test
     public void AN_POST_03_constructor_handlesNullContent() {
         // Given/When: Creating a post with null content
-        Post post = new Post(1, "Title", null, "url", null);
+        Post post = new Post(1, "Title", null, "url");
 
         // Then: Content should be null
         assertNull("Null content should be stored as null", post.getText());
@@ -62,7 +63,7 @@ public class PostModelTest {
     @Test
     public void AN_POST_04_constructor_handlesNullImageUrl() {
         // Given/When: Creating a post with null image URL
-        Post post = new Post(1, "Title", "Content", null, null);
+        Post post = new Post(1, "Title", "Content", null);
 
         // Then: Image URL should be null
         assertNull("Null image URL should be stored as null", post.getImageUrl());
@@ -83,7 +84,7 @@ public class PostModelTest {
     @Test
     public void AN_POST_06_id_handlesZero() {
         // Given/When: Creating a post with ID 0
-        Post post = new Post(0, "Title", "Content", "url", null);
+        Post post = new Post(0, "Title", "Content", "url");
 
         // Then: ID should be 0
         assertEquals("ID 0 should be stored", 0, post.getId());
@@ -92,7 +93,7 @@ public class PostModelTest {
     @Test
     public void AN_POST_07_id_handlesNegativeValues() {
         // Given/When: Creating a post with negative ID
-        Post post = new Post(-1, "Title", "Content", "url", null);
+        Post post = new Post(-1, "Title", "Content", "url");
 
         // Then: Negative ID should be stored
         assertEquals("Negative ID should be stored", -1, post.getId());
@@ -101,7 +102,7 @@ public class PostModelTest {
     @Test
     public void AN_POST_08_id_handlesLargeValues() {
         // Given/When: Creating a post with large ID
-        Post post = new Post(Integer.MAX_VALUE, "Title", "Content", "url", null);
+        Post post = new Post(Integer.MAX_VALUE, "Title", "Content", "url");
 
         // Then: Large ID should be stored
         assertEquals("Large ID should be stored", Integer.MAX_VALUE, post.getId());
@@ -145,7 +146,7 @@ public class PostModelTest {
     @Test
     public void AN_POST_12_emptyStrings_areStoredCorrectly() {
         // Given/When: Creating a post with empty strings
-        Post post = new Post(1, "", "", "", null);
+        Post post = new Post(1, "", "", "");
 
         // Then: Empty strings should be stored
         assertEquals("Empty title should be stored", "", post.getTitle());
@@ -159,7 +160,7 @@ public class PostModelTest {
         String koreanTitle = "테스트 제목 - Test 123!@#$%";
 
         // When: Creating a post with special characters
-        Post post = new Post(1, koreanTitle, "Content", "url", null);
+        Post post = new Post(1, koreanTitle, "Content", "url");
 
         // Then: Special characters should be preserved
         assertEquals("Special characters should be preserved",
@@ -172,7 +173,7 @@ public class PostModelTest {
         String multiline = "Line 1\nLine 2\nLine 3";
 
         // When: Creating a post with multiline content
-        Post post = new Post(1, "Title", multiline, "url", null);
+        Post post = new Post(1, "Title", multiline, "url");
 
         // Then: Newlines should be preserved
         assertTrue("Content should contain newlines",
@@ -186,7 +187,7 @@ public class PostModelTest {
         String httpsUrl = "https://secure.example.com/image.jpg";
 
         // When: Creating a post with HTTPS URL
-        Post post = new Post(1, "Title", "Content", httpsUrl, null);
+        Post post = new Post(1, "Title", "Content", httpsUrl);
 
         // Then: HTTPS URL should be stored
         assertTrue("URL should start with https",
@@ -199,10 +200,72 @@ public class PostModelTest {
         String urlWithParams = "http://example.com/image.jpg?width=300&height=200";
 
         // When: Creating a post with URL containing query params
-        Post post = new Post(1, "Title", "Content", urlWithParams, null);
+        Post post = new Post(1, "Title", "Content", urlWithParams);
 
         // Then: URL with params should be stored
         assertEquals("URL with query params should be preserved",
                 urlWithParams, post.getImageUrl());
     }
-}
\ No newline at end of file
+
+    // =========================================================================
+    // AN-POST-13: API Response Parsing
+    // =========================================================================
+
+    @Test
+    public void AN_POST_13_fromJson_readsImageDimensions() throws Exception {
+        // Given: A post list entry as returned by the API
+        JSONObject json = new JSONObject()
+                .put("id", 7)
+                .put("title", "Title")
+                .put("text", "Content")
+                .put("image", "http://example.com/media/a.jpg")
+                .put("image_width", 640)
+                .put("image_height", 480);
+
+        // When: Parsing it
+        Post post = new Post(json);
+
+        // Then: Metadata and image size are set, without any image download
+        assertEquals(7, post.getId());
+        assertEquals("http://example.com/media/a.jpg", post.getImageUrl());
+        assertTrue(post.hasImageSize());
+        assertEquals(640, post.getImageWidth());
+        assertEquals(480, post.getImageHeight());
+    }
+
+    @Test
+    public void AN_POST_14_fromJson_handlesMissingImageAndSize() throws Exception {
+        // Given: A post without an image, from a server that does not report sizes
+        JSONObject json = new JSONObject()
+                .put("id", 8)
+                .put("title", "Title")
+                .put("image", JSONObject.NULL);
+
+        // When: Parsing it
+        Post post = new Post(json);
+
+        // Then: The post has no image and no size
+        assertNull(post.getImageUrl());
+        assertFalse(post.hasImage());
+        assertFalse(post.hasImageSize());
+        assertEquals("", post.getText());
+    }
+
+    // =========================================================================
+    // AN-POST-15: Row Layout
+    // =========================================================================
+
+    @Test
+    public void AN_POST_15_heightForWidth_keepsAspectRatio() {
+        // Given: A landscape post, a portrait post and one without a size
+        Post landscape = new Post(1, "a", "b", "http://example.com/a.jpg", 640, 480);
+        Post portrait = new Post(2, "a", "b", "http://example.com/b.jpg", 3000, 4000);
+        Post unknown = new Post(3, "a", "b", "http://example.com/c.jpg");
+
+        // Then: Rows are laid out at the image's aspect ratio, or the fallback height
+        assertEquals(810, landscape.heightForWidth(1080, 525));
+        assertEquals(1440, portrait.heightForWidth(1080, 525));
+        assertEquals(525, unknown.heightForWidth(1080, 525));
+        assertEquals("Width not known yet", 525, landscape.heightForWidth(0, 525));
+    }
+}
@@ -0,0 +1,430 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.network.ResumableUpload;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for resumable chunked uploads.
+ *
+ * Test IDs: AN-RESUME-01 through AN-RESUME-08
+ * Priority: P1 (High - Uploads over flaky gym Wi-Fi)
+ *
+ * FlakyUploadServer is the local harness: a socket server speaking the
+ * server's upload protocol that drops connections at random offsets, either
+ * partway through a chunk (nothing committed) or after committing it but
+ * before answering (response lost).
+ */
+public class ResumableUploadTest {
+
+    private static final int FILE_SIZE = 300 * 1024 + 123;
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private FlakyUploadServer server;
+    private File file;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FlakyUploadServer();
+        content = new byte[FILE_SIZE];
+        new Random(7).nextBytes(content);
+        file = File.createTempFile("upload", ".webp");
+        Files.write(file.toPath(), content);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        file.delete();
+    }
+
+    private ResumableUpload.Builder upload() {
+        return new ResumableUpload.Builder(server.baseUrl(), "test_token", file)
+                .file("bench.webp", "image/webp")
+                .chunkSize(CHUNK_SIZE)
+                .retries(10, 0);
+    }
+
+    private static Map<String, String> fields() {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("title", "Bench");
+        fields.put("text", "Loose bolt");
+        return fields;
+    }
+
+    @Test
+    public void AN_RESUME_01_cleanUpload_sendsChunksInOrderAndCompletes() throws IOException {
+        List<String> sessions = new ArrayList<>();
+        List<Long> progress = new ArrayList<>();
+
+        ResumableUpload.Result result = upload()
+                .sessionListener(sessions::add)
+                .progressListener((written, length) -> progress.add(written))
+                .build()
+                .upload(fields());
+
+        assertEquals(201, result.getCode());
+        assertArrayEquals(content, server.received());
+        assertEquals("One PUT per chunk", (FILE_SIZE + CHUNK_SIZE - 1) / CHUNK_SIZE, server.puts.get());
+        assertEquals(Arrays.asList("s1"), sessions);
+        assertEquals(Long.valueOf(FILE_SIZE), progress.get(progress.size() - 1));
+        assertEquals("Bench", server.completion.optString("title"));
+        assertEquals("image/webp", server.sessionRequest.optString("content_type"));
+    }
+
+    @Test
+    public void AN_RESUME_02_randomDrops_resumeFromCommittedOffset() throws IOException {
+        for (int seed = 1; seed <= 5; seed++) {
+            server.reset(seed, 0.3);
+
+            ResumableUpload.Result result = upload().build().upload(fields());
+
+            assertEquals("seed " + seed, 201, result.getCode());
+            assertArrayEquals("seed " + seed, content, server.received());
+            assertTrue("seed " + seed + " injected no drops", server.drops.get() > 0);
+            // A drop costs at most the chunk in flight, never the whole file
+            assertTrue("seed " + seed + " resent too much",
+                    server.bodyBytes.get() <= FILE_SIZE + (long) server.drops.get() * CHUNK_SIZE);
+        }
+    }
+
+    @Test
+    public void AN_RESUME_03_storedSession_resumesWithoutNewSession() throws IOException {
+        int committed = 5 * CHUNK_SIZE;
+        server.preload("s9", Arrays.copyOf(content, committed));
+        List<String> sessions = new ArrayList<>();
+
+        ResumableUpload.Result result = upload()
+                .resumeSession("s9")
+                .sessionListener(sessions::add)
+                .build()
+                .upload(fields());
+
+        assertEquals(201, result.getCode());
+        assertTrue("No new session", sessions.isEmpty());
+        assertEquals("First PUT at the committed offset", Long.valueOf(committed), server.putStarts.get(0));
+        assertArrayEquals(content, server.received());
+
+        // A session the server has forgotten is replaced
+        server.reset(0, 0);
+        result = upload().resumeSession("gone").sessionListener(sessions::add).build().upload(fields());
+        assertEquals(201, result.getCode());
+        assertEquals(Arrays.asList("s1"), sessions);
+    }
+
+    @Test
+    public void AN_RESUME_04_checksumMismatch_resendsOnce() throws IOException {
+        server.corruptNextChunk = true;
+
+        ResumableUpload.Result result = upload().build().upload(fields());
+
+        assertEquals(201, result.getCode());
+        assertEquals("Rejected once, then accepted", 2, server.completions.get());
+        assertArrayEquals(content, server.received());
+    }
+
+    @Test
+    public void AN_RESUME_05_noProgress_givesUpButKeepsSession() {
+        server.reset(3, 1.0);
+        ResumableUpload upload = upload().retries(3, 0).build();
+
+        try {
+            upload.upload(fields());
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // The worker retries later with the same session
+        }
+        assertEquals("s1", upload.getSessionId());
+        assertEquals("1 attempt + 3 retries", 4, server.puts.get());
+    }
+
+    @Test
+    public void AN_RESUME_06_unsupportedType_refusedBeforeAnyBytesWithAcceptedTypes() throws IOException {
+        server.acceptedTypes = "[\"image/jpeg\",\"image/png\"]";
+
+        ResumableUpload upload = upload().build();
+        ResumableUpload.Result result = upload.upload(fields());
+
+        assertEquals(415, result.getCode());
+        assertEquals(Arrays.asList("image/jpeg", "image/png"), upload.getAcceptedTypes());
+        assertEquals("Nothing sent", 0, server.puts.get());
+        assertNull(upload.getSessionId());
+    }
+
+    @Test
+    public void AN_RESUME_07_conflictWithoutProgress_countsAsStall() {
+        server.refuseChunks = true;
+        ResumableUpload upload = upload().retries(3, 0).build();
+
+        try {
+            upload.upload(fields());
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // The server never moved past offset 0
+        }
+        assertEquals("1 attempt + 3 retries", 4, server.puts.get());
+        assertEquals(0, server.completions.get());
+    }
+
+    @Test
+    public void AN_RESUME_08_repeatedCompletionConflict_givesUp() {
+        server.refuseCompletion = true;
+        ResumableUpload upload = upload().retries(3, 0).build();
+
+        try {
+            upload.upload(fields());
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // Every byte is committed but the server keeps answering 409
+        }
+        assertEquals("1 attempt + 3 retries", 4, server.completions.get());
+        assertEquals("s1", upload.getSessionId());
+    }
+
+    /**
+     * Minimal HTTP/1.1 server for api_root/uploads/, one connection per request
+     */
+    private static final class FlakyUploadServer implements AutoCloseable {
+        private static final Pattern RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+
+        private final ServerSocket socket;
+        private final Thread thread;
+        private final Map<String, ByteArrayOutputStream> sessions = new HashMap<>();
+        private String lastSession;
+        private int sessionCounter;
+        private Random random = new Random(0);
+        private double dropRate;
+
+        final AtomicInteger puts = new AtomicInteger();
+        final AtomicInteger drops = new AtomicInteger();
+        final AtomicInteger completions = new AtomicInteger();
+        final java.util.concurrent.atomic.AtomicLong bodyBytes = new java.util.concurrent.atomic.AtomicLong();
+        final List<Long> putStarts = new ArrayList<>();
+        volatile boolean corruptNextChunk;
+        // Answer every chunk with 409 and the unchanged offset
+        volatile boolean refuseChunks;
+        // Answer every completion with 409
+        volatile boolean refuseCompletion;
+        volatile String acceptedTypes = "[\"image/jpeg\",\"image/png\",\"image/webp\"]";
+        volatile JSONObject sessionRequest;
+        volatile JSONObject completion;
+
+        FlakyUploadServer() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            thread = new Thread(this::serve, "FlakyUploadServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String baseUrl() {
+            return "http://127.0.0.1:" + socket.getLocalPort() + "/";
+        }
+
+        synchronized void reset(long seed, double dropRate) {
+            this.random = new Random(seed);
+            this.dropRate = dropRate;
+            sessions.clear();
+            sessionCounter = 0;
+            puts.set(0);
+            drops.set(0);
+            bodyBytes.set(0);
+            putStarts.clear();
+        }
+
+        synchronized void preload(String id, byte[] committed) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            data.write(committed, 0, committed.length);
+            sessions.put(id, data);
+            lastSession = id;
+        }
+
+        synchronized byte[] received() {
+            return sessions.get(lastSession).toByteArray();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        private void serve() {
+            while (!socket.isClosed()) {
+                try (Socket connection = socket.accept()) {
+                    handle(connection);
+                } catch (IOException ignored) {
+                    // Dropped on purpose, or the server was closed
+                }
+            }
+        }
+
+        private void handle(Socket connection) throws IOException {
+            InputStream in = new BufferedInputStream(connection.getInputStream());
+            String[] requestLine = readLine(in).split(" ");
+            String method = requestLine[0];
+            String path = requestLine[1];
+            Map<String, String> headers = new HashMap<>();
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                int colon = line.indexOf(':');
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+            int length = Integer.parseInt(headers.getOrDefault("content-length", "0"));
+
+            synchronized (this) {
+                boolean put = "PUT".equals(method);
+                boolean drop = put && random.nextDouble() < dropRate;
+                boolean dropBeforeCommit = drop && random.nextBoolean();
+                if (put) {
+                    puts.incrementAndGet();
+                }
+                if (dropBeforeCommit) {
+                    // Connection lost partway through the chunk: nothing is committed
+                    int partial = random.nextInt(Math.max(1, length));
+                    bodyBytes.addAndGet(readBody(in, partial).length);
+                    drops.incrementAndGet();
+                    return;
+                }
+                byte[] body = readBody(in, length);
+                bodyBytes.addAndGet(put ? body.length : 0);
+                String[] response = route(method, path, headers, body);
+                if (drop) {
+                    // Committed, but the response never reaches the app
+                    drops.incrementAndGet();
+                    return;
+                }
+                respond(connection.getOutputStream(), Integer.parseInt(response[0]), response[1]);
+            }
+        }
+
+        private String[] route(String method, String path, Map<String, String> headers, byte[] body) {
+            String prefix = "/api_root/uploads/";
+            String rest = path.substring(prefix.length());
+            if ("POST".equals(method) && rest.isEmpty()) {
+                sessionRequest = new JSONObject(new String(body, StandardCharsets.UTF_8));
+                if (!acceptedTypes.contains("\"" + sessionRequest.optString("content_type") + "\"")) {
+                    return new String[]{"415", "{\"accepted_types\":" + acceptedTypes + "}"};
+                }
+                String id = "s" + (++sessionCounter);
+                sessions.put(id, new ByteArrayOutputStream());
+                lastSession = id;
+                return new String[]{"201", status(id)};
+            }
+            String id = rest.substring(0, rest.indexOf('/'));
+            ByteArrayOutputStream data = sessions.get(id);
+            if (data == null) {
+                return new String[]{"404", "{\"detail\":\"Not found.\"}"};
+            }
+            if ("GET".equals(method)) {
+                return new String[]{"200", status(id)};
+            }
+            if ("PUT".equals(method)) {
+                Matcher range = RANGE.matcher(headers.getOrDefault("content-range", ""));
+                assertTrue(range.matches());
+                long start = Long.parseLong(range.group(1));
+                putStarts.add(start);
+                if (start != data.size() || refuseChunks) {
+                    return new String[]{"409", status(id)};
+                }
+                if (corruptNextChunk) {
+                    corruptNextChunk = false;
+                    body = body.clone();
+                    body[0] ^= 0x55;
+                }
+                data.write(body, 0, body.length);
+                return new String[]{"200", status(id)};
+            }
+            // POST complete/
+            completions.incrementAndGet();
+            completion = new JSONObject(new String(body, StandardCharsets.UTF_8));
+            if (refuseCompletion) {
+                return new String[]{"409", status(id)};
+            }
+            if (!sha256(data.toByteArray()).equals(completion.optString("sha256"))) {
+                data.reset();
+                return new String[]{"422", "{\"error\":\"checksum mismatch\",\"offset\":0}"};
+            }
+            return new String[]{"201", "{\"id\":1}"};
+        }
+
+        private String status(String id) {
+            return "{\"id\":\"" + id + "\",\"offset\":" + sessions.get(id).size()
+                    + ",\"accepted_types\":" + acceptedTypes + "}";
+        }
+
+        private static void respond(OutputStream out, int code, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            String head = "HTTP/1.1 " + code + " X\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Content-Length: " + bytes.length + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.flush();
+        }
+
+        private static byte[] readBody(InputStream in, int length) throws IOException {
+            byte[] body = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int n = in.read(body, read, length - read);
+                if (n == -1) {
+                    break;
+                }
+                read += n;
+            }
+            return Arrays.copyOf(body, read);
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1 && c != '\n') {
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+
+        private static String sha256(byte[] data) {
+            try {
+                StringBuilder hex = new StringBuilder();
+                for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+                    hex.append(String.format("%02x", b & 0xff));
+                }
+                return hex.toString();
+            } catch (java.security.NoSuchAlgorithmException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.scheduler.Priority;
+import com.example.photoviewer.scheduler.QueueStats;
+import com.example.photoviewer.scheduler.TaskScheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the app-wide priority TaskScheduler.
+ *
+ * Test IDs: AN-SCHED-01 through AN-SCHED-05
+ * Priority: P1 (High - A tap must not wait behind thumbnail downloads)
+ *
+ * Every test first fills the non-interactive worker with a task blocked on a
+ * latch, so the order of the tasks queued behind it is deterministic.
+ */
+public class TaskSchedulerTest {
+
+    // One reserved interactive worker and one shared worker, so queued
+    // non-interactive tasks run strictly one after another
+    private static final int THREADS = 2;
+
+    private TaskScheduler scheduler;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws InterruptedException {
+        scheduler = new TaskScheduler(THREADS);
+        CountDownLatch blocked = new CountDownLatch(THREADS - 1);
+        for (int i = 0; i < THREADS - 1; i++) {
+            scheduler.submit(Priority.VISIBLE_IMAGE, () -> {
+                blocked.countDown();
+                await(release);
+            });
+        }
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CountDownLatch submitRecording(Priority priority, String name, CountDownLatch done) {
+        scheduler.submit(priority, () -> {
+            order.add(name);
+            done.countDown();
+        });
+        return done;
+    }
+
+    @Test
+    public void AN_SCHED_01_interactiveRunsWhileOtherWorkersAreBusy() throws InterruptedException {
+        // Given: All non-interactive workers are busy and thumbnails are queued
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 30; i++) {
+            scheduler.submit(Priority.VISIBLE_IMAGE, () -> order.add("thumbnail"));
+        }
+
+        // When: The user taps an event
+        submitRecording(Priority.INTERACTIVE, "tap", done);
+
+        // Then: The tap runs on the reserved worker before any queued thumbnail
+        assertTrue("Interactive task should not wait", done.await(1, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("tap"), order);
+        release.countDown();
+    }
+
+    @Test
+    public void AN_SCHED_02_queuedTasksStartByPriorityThenFifo() throws InterruptedException {
+        // Given: Tasks of every class queued lowest first
+        CountDownLatch done = new CountDownLatch(5);
+        submitRecording(Priority.BACKGROUND, "sync", done);
+        submitRecording(Priority.PREFETCH, "prefetch-1", done);
+        submitRecording(Priority.PREFETCH, "prefetch-2", done);
+        submitRecording(Priority.VISIBLE_IMAGE, "visible", done);
+        assertTrue("Nothing runs while workers are blocked", order.isEmpty());
+
+        // When: The blocked worker finishes
+        release.countDown();
+        submitRecording(Priority.BACKGROUND, "sync-2", done);
+
+        // Then: Higher classes start first, FIFO within a class
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("visible", order.get(0));
+        assertTrue(order.indexOf("prefetch-1") < order.indexOf("prefetch-2"));
+        assertTrue(order.indexOf("prefetch-2") < order.indexOf("sync"));
+    }
+
+    @Test
+    public void AN_SCHED_03_cancelledTaskNeverRuns() throws InterruptedException {
+        // Given: A queued prefetch task
+        TaskScheduler.Task task = scheduler.submit(Priority.PREFETCH, () -> order.add("prefetch"));
+        assertEquals(1, scheduler.getStats().getQueueDepth(Priority.PREFETCH));
+
+        // When: It is cancelled before a worker is free
+        task.cancel();
+        CountDownLatch done = submitRecording(Priority.BACKGROUND, "sync", new CountDownLatch(1));
+        release.countDown();
+
+        // Then: It is dropped from the queue and never runs
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("sync"), order);
+        assertEquals(0, scheduler.getStats().getQueueDepth(Priority.PREFETCH));
+        assertEquals(0, scheduler.getStats().getStartedCount(Priority.PREFETCH));
+    }
+
+    @Test
+    public void AN_SCHED_04_statsTrackDepthAndWaitPerClass() throws InterruptedException {
+        // Given: Two queued prefetch tasks
+        CountDownLatch done = new CountDownLatch(2);
+        submitRecording(Priority.PREFETCH, "prefetch-1", done);
+        submitRecording(Priority.PREFETCH, "prefetch-2", done);
+        QueueStats stats = scheduler.getStats();
+        assertEquals(2, stats.getQueueDepth(Priority.PREFETCH));
+
+        // When: They wait a while before a worker is free
+        Thread.sleep(50);
+        release.countDown();
+
+        // Then: Depth drains and the wait is recorded for that class only
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, stats.getQueueDepth(Priority.PREFETCH));
+        assertEquals(2, stats.getStartedCount(Priority.PREFETCH));
+        assertTrue("Wait should cover the blocked period", stats.getMaxWaitMs(Priority.PREFETCH) >= 40);
+        assertEquals(0, stats.getStartedCount(Priority.INTERACTIVE));
+    }
+
+    @Test
+    public void AN_SCHED_05_serialExecutorRunsOneTaskAtATimeInOrder() throws InterruptedException {
+        // Given: A serial lane on a scheduler with interactive workers free
+        Executor serial = scheduler.serialExecutor(Priority.INTERACTIVE);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+
+        // When: Many tasks are handed to it at once
+        for (int i = 0; i < 20; i++) {
+            String name = "task-" + i;
+            serial.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(name);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        // Then: They never overlap and finish in submission order
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("task-" + i, order.get(i));
+        }
+        release.countDown();
+    }
+}
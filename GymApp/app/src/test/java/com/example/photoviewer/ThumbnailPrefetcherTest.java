@@ -0,0 +1,49 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.images.ThumbnailPrefetcher;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for direction-aware thumbnail prefetch.
+ *
+ * Test IDs: AN-PREFETCH-01 through AN-PREFETCH-04
+ * Priority: P2 (Medium - Placeholders while scrolling event lists)
+ */
+public class ThumbnailPrefetcherTest {
+
+    @Test
+    public void AN_PREFETCH_01_scrollingDown_prefetchesRowsBelowVisible() {
+        int[] positions = ThumbnailPrefetcher.positionsToPrefetch(10, 17, 1, 5, 100);
+
+        assertArrayEquals(new int[]{18, 19, 20, 21, 22}, positions);
+    }
+
+    @Test
+    public void AN_PREFETCH_02_scrollingUp_prefetchesRowsAboveVisibleNearestFirst() {
+        int[] positions = ThumbnailPrefetcher.positionsToPrefetch(10, 17, -1, 5, 100);
+
+        assertArrayEquals(new int[]{9, 8, 7, 6, 5}, positions);
+    }
+
+    @Test
+    public void AN_PREFETCH_03_window_stopsAtListEnds() {
+        assertArrayEquals(new int[]{98, 99}, ThumbnailPrefetcher.positionsToPrefetch(90, 97, 1, 5, 100));
+        assertArrayEquals(new int[]{1, 0}, ThumbnailPrefetcher.positionsToPrefetch(2, 9, -1, 5, 100));
+        assertEquals(0, ThumbnailPrefetcher.positionsToPrefetch(0, 7, -1, 5, 100).length);
+        assertEquals(0, ThumbnailPrefetcher.positionsToPrefetch(92, 99, 1, 5, 100).length);
+    }
+
+    @Test
+    public void AN_PREFETCH_04_fastFling_pausesPrefetch() {
+        int screenHeight = 2000;
+
+        assertFalse("Normal scrolling keeps prefetching",
+                ThumbnailPrefetcher.isFling(screenHeight, screenHeight));
+        assertTrue("Faster than two screens per second is a fling",
+                ThumbnailPrefetcher.isFling(screenHeight * 3, screenHeight));
+        assertFalse("Not laid out yet", ThumbnailPrefetcher.isFling(10000, 0));
+    }
+}
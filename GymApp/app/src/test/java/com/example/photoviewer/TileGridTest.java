@@ -0,0 +1,55 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.images.TileGrid;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for tiled decoding of zoomed full-size images.
+ *
+ * Test IDs: AN-TILE-01 through AN-TILE-03
+ * Priority: P2 (Medium - Zooming into a frame must not decode it whole)
+ */
+public class TileGridTest {
+
+    // Detector uploads are full HD camera frames
+    private static final int FRAME_WIDTH = 1920;
+    private static final int FRAME_HEIGHT = 1080;
+
+    @Test
+    public void AN_TILE_01_sampleSize_followsZoom() {
+        assertEquals("Frame fitted to a 480px wide screen", 4, TileGrid.sampleSizeForScale(0.25f));
+        assertEquals(2, TileGrid.sampleSizeForScale(0.4f));
+        assertEquals("Never fewer decoded than screen pixels", 1, TileGrid.sampleSizeForScale(0.9f));
+        assertEquals(1, TileGrid.sampleSizeForScale(2f));
+    }
+
+    @Test
+    public void AN_TILE_02_visibleTiles_coverOnlyTheViewport() {
+        // Zoomed in on the middle of the frame at full resolution
+        List<TileGrid.Tile> tiles = TileGrid.visibleTiles(FRAME_WIDTH, FRAME_HEIGHT, 1, 700, 300, 1100, 700);
+
+        assertEquals(4, tiles.size());
+        TileGrid.Tile first = tiles.get(0);
+        assertEquals(1, first.getColumn());
+        assertEquals(0, first.getRow());
+        assertEquals(512, first.getLeft());
+        assertEquals(1024, first.getRight());
+        assertEquals("1/2/1", tiles.get(3).getKey());
+    }
+
+    @Test
+    public void AN_TILE_03_visibleTiles_clipToImageEdges() {
+        // Zoomed out: coarse tiles, the last ones cut at the frame edge
+        List<TileGrid.Tile> tiles = TileGrid.visibleTiles(FRAME_WIDTH, FRAME_HEIGHT, 4, -100, -100, 3000, 3000);
+
+        assertEquals(1, tiles.size());
+        assertEquals(FRAME_WIDTH, tiles.get(0).getRight());
+        assertEquals(FRAME_HEIGHT, tiles.get(0).getBottom());
+        assertTrue(TileGrid.visibleTiles(FRAME_WIDTH, FRAME_HEIGHT, 1, 2000, 0, 2500, 100).isEmpty());
+    }
+}
@@ -38,7 +38,7 @@ public class UpdatePostTest {
         MockitoAnnotations.openMocks(this);
         // Given: A valid test post exists with original content
         testPost = new Post(42, "Original Title", "Original Content",
-                "http://example.com/original.jpg", null);
+                "http://example.com/original.jpg");
 
         // Setup mock connection for output
         when(mockConnection.getOutputStream()).thenReturn(mockOutputStream);
@@ -51,7 +51,7 @@ public class UpdatePostTest {
     @Test
     public void AN_UPD_01_postWithValidId_isValidForUpdate() {
         // Given: A post with a positive ID
-        Post validPost = new Post(1, "Title", "Text", "url", null);
+        Post validPost = new Post(1, "Title", "Text", "url");
 
         // When: Checking if valid for update
         boolean isValid = validPost.getId() > 0;
@@ -63,7 +63,7 @@ public class UpdatePostTest {
     @Test
     public void AN_UPD_02_postWithZeroId_isInvalidForUpdate() {
         // Given: A post with ID 0
-        Post zeroIdPost = new Post(0, "Title", "Text", "url", null);
+        Post zeroIdPost = new Post(0, "Title", "Text", "url");
 
         // When: Checking if valid for update
         boolean isValid = zeroIdPost.getId() > 0;
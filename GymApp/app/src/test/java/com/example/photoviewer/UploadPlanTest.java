@@ -0,0 +1,68 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.images.UploadPlan;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for shrinking photos before upload.
+ *
+ * Test IDs: AN-UPLOAD-01 through AN-UPLOAD-03
+ * Priority: P2 (Medium - Uploads over gym Wi-Fi must stay small)
+ */
+public class UploadPlanTest {
+
+    // 12 MP phone camera photo, stored landscape
+    private static final int PHOTO_WIDTH = 4000;
+    private static final int PHOTO_HEIGHT = 3000;
+
+    @Test
+    public void AN_UPLOAD_01_largePhoto_isSampledAndScaledToMaxLongEdge() {
+        UploadPlan plan = UploadPlan.forSource(PHOTO_WIDTH, PHOTO_HEIGHT,
+                UploadPlan.ORIENTATION_NORMAL, 1920);
+
+        assertEquals("Decodes 2000x1500, not 4000x3000", 2, plan.getSampleSize());
+        assertEquals(1920, plan.getWidth());
+        assertEquals(1440, plan.getHeight());
+        assertEquals(0, plan.getRotationDegrees());
+        assertFalse(plan.isMirrored());
+
+        UploadPlan small = UploadPlan.forSource(800, 600, 0, 1920);
+        assertEquals(1, small.getSampleSize());
+        assertEquals("Never scaled up", 800, small.getWidth());
+        assertEquals(600, small.getHeight());
+    }
+
+    @Test
+    public void AN_UPLOAD_02_exifOrientation_turnsOutputUpright() {
+        // Portrait shot stored sideways with a rotate-90 tag
+        UploadPlan portrait = UploadPlan.forSource(PHOTO_WIDTH, PHOTO_HEIGHT,
+                UploadPlan.ORIENTATION_ROTATE_90, 1920);
+        assertEquals(90, portrait.getRotationDegrees());
+        assertEquals(1440, portrait.getWidth());
+        assertEquals(1920, portrait.getHeight());
+
+        UploadPlan transpose = UploadPlan.forSource(PHOTO_WIDTH, PHOTO_HEIGHT,
+                UploadPlan.ORIENTATION_TRANSPOSE, 1920);
+        assertTrue(transpose.isMirrored());
+        assertEquals(270, transpose.getRotationDegrees());
+        assertEquals(1440, transpose.getWidth());
+
+        UploadPlan flipped = UploadPlan.forSource(PHOTO_WIDTH, PHOTO_HEIGHT,
+                UploadPlan.ORIENTATION_FLIP_VERTICAL, 1920);
+        assertTrue(flipped.isMirrored());
+        assertEquals(180, flipped.getRotationDegrees());
+        assertEquals(1920, flipped.getWidth());
+    }
+
+    @Test
+    public void AN_UPLOAD_03_quality_stepsDownUntilTargetOrMinimum() {
+        long target = 400 * 1024;
+        assertEquals(75, UploadPlan.nextQuality(85, 700 * 1024, target, 60, 10));
+        assertEquals(60, UploadPlan.nextQuality(65, 700 * 1024, target, 60, 10));
+        assertEquals("Fits: keep it", -1, UploadPlan.nextQuality(85, 300 * 1024, target, 60, 10));
+        assertEquals("At the minimum: keep it", -1, UploadPlan.nextQuality(60, 700 * 1024, target, 60, 10));
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.photoviewer;
+
+import com.example.photoviewer.data.UploadStore;
+import com.example.photoviewer.models.UploadJob;
+import com.example.photoviewer.services.UploadQueue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit tests for the durable upload queue (journal, merging, claiming).
+ *
+ * Test IDs: AN-QUEUE-01 through AN-QUEUE-09
+ * Priority: P1 (High - Staff must never redo an upload)
+ *
+ * The journal is an in-memory UploadStore; a second queue over the same
+ * store stands in for the app after a restart.
+ */
+public class UploadQueueTest {
+
+    private final MemoryStore store = new MemoryStore();
+    private final List<Integer> scheduledLanes = new ArrayList<>();
+    private final List<String> finished = new ArrayList<>();
+    private final List<File> stagedFiles = new ArrayList<>();
+    private UploadQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new UploadQueue(store, scheduledLanes::add);
+        queue.addListener(new UploadQueue.Listener() {
+            @Override
+            public void onQueueChanged(UploadQueue.Status status) {
+            }
+
+            @Override
+            public void onJobFinished(UploadJob job, boolean success, String message) {
+                finished.add(job.getTitle() + ":" + (success ? "sent" : message));
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : stagedFiles) {
+            file.delete();
+        }
+    }
+
+    private String stage() throws IOException {
+        return stage(0);
+    }
+
+    private String stage(int bytes) throws IOException {
+        File file = File.createTempFile("staged", ".webp");
+        stagedFiles.add(file);
+        Files.write(file.toPath(), new byte[bytes]);
+        return file.getAbsolutePath();
+    }
+
+    private List<UploadJob> batch(int... sizes) throws IOException {
+        List<UploadJob> posts = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            posts.add(UploadJob.newPost("Machine " + (i + 1), "batch", stage(sizes[i]),
+                    "m" + (i + 1) + ".webp", "image/webp"));
+        }
+        return posts;
+    }
+
+    @Test
+    public void AN_QUEUE_01_enqueuedJob_isJournaledAndSurvivesRestart() throws IOException {
+        String image = stage();
+        UploadJob job = queue.enqueueCreate("Bench", "Loose bolt", image, "bench.webp", "image/webp");
+
+        assertEquals(1, store.jobs.size());
+        assertEquals("Its lane's worker was started", 1, scheduledLanes.size());
+
+        // Claimed, then the process dies mid-upload
+        assertNotNull(queue.claimNext());
+        assertEquals(1, queue.getStatus().getRunningCount());
+
+        UploadQueue restarted = new UploadQueue(store, scheduledLanes::add);
+        scheduledLanes.clear();
+        restarted.resume();
+        assertEquals("Workers restarted for the journaled job", 1, scheduledLanes.size());
+        UploadJob again = restarted.claimNext();
+        assertNotNull("Pending again after a restart", again);
+        assertEquals(job.getId(), again.getId());
+        assertEquals(image, again.getImagePath());
+    }
+
+    @Test
+    public void AN_QUEUE_02_repeatedEdits_mergeIntoOneJob() throws IOException {
+        String firstImage = stage();
+        queue.enqueueEdit(7, "Rower", "v1", firstImage, "a.webp", "image/webp");
+        UploadJob merged = queue.enqueueEdit(7, "Rower", "v2", null, null, null);
+
+        assertEquals("One job for the post", 1, store.jobs.size());
+        assertEquals("v2", merged.getText());
+        assertEquals("Earlier image kept when the later edit has none", firstImage, merged.getImagePath());
+
+        String secondImage = stage();
+        merged = queue.enqueueEdit(7, "Rower 2", "v3", secondImage, "b.webp", "image/webp");
+        assertEquals(1, store.jobs.size());
+        assertEquals("Rower 2", merged.getTitle());
+        assertEquals(secondImage, merged.getImagePath());
+        assertFalse("Replaced staged image deleted", new File(firstImage).exists());
+
+        queue.enqueueEdit(8, "Treadmill", "other post", null, null, null);
+        assertEquals("Edits of other posts are separate", 2, store.jobs.size());
+    }
+
+    @Test
+    public void AN_QUEUE_03_editWhileEarlierEditIsSent_waitsForIt() {
+        queue.enqueueEdit(7, "Rower", "v1", null, null, null);
+        UploadJob first = queue.claimNext();
+        queue.enqueueEdit(7, "Rower", "v2", null, null, null);
+        queue.enqueueCreate("Bench", "new", null, null, null);
+
+        assertEquals("Not merged into the job being sent", 3, store.jobs.size());
+        UploadJob next = queue.claimNext();
+        assertEquals("The later edit is skipped, the new post is not", "Bench", next.getTitle());
+        assertNull(queue.claimNext());
+
+        queue.complete(first);
+        UploadJob second = queue.claimNext();
+        assertNotNull(second);
+        assertEquals("v2", second.getText());
+    }
+
+    @Test
+    public void AN_QUEUE_04_failedAttempt_isRequeuedAndAbsorbsLaterEdit() throws IOException {
+        String image = stage();
+        queue.enqueueEdit(7, "Rower", "v1", image, "a.webp", "image/webp");
+        UploadJob sending = queue.claimNext();
+        queue.enqueueEdit(7, "Rower", "v2", null, null, null);
+
+        queue.release(sending, true);
+
+        assertEquals("Later edit folded into the released job", 1, store.jobs.size());
+        UploadJob retried = queue.claimNext();
+        assertEquals(sending.getId(), retried.getId());
+        assertEquals(1, retried.getAttempts());
+        assertEquals("v2", retried.getText());
+        assertEquals(image, retried.getImagePath());
+        assertTrue(finished.isEmpty());
+    }
+
+    @Test
+    public void AN_QUEUE_05_finishedJobs_leaveJournalAndReportProgress() throws IOException {
+        String sentImage = stage();
+        String rejectedImage = stage();
+        queue.enqueueCreate("Bench", "a", sentImage, "a.webp", "image/webp");
+        queue.enqueueCreate("Rower", "b", rejectedImage, "b.webp", "image/webp");
+
+        UploadJob first = queue.claimNext();
+        UploadJob second = queue.claimNext();
+        queue.reportProgress(first.getId(), 50, 100);
+        queue.reportProgress(second.getId(), 25, 300);
+        UploadQueue.Status status = queue.getStatus();
+        assertEquals(2, status.getRunningCount());
+        assertEquals(0, status.getPendingCount());
+        assertEquals("Aggregate of both bodies", 18, status.getPercent());
+
+        queue.complete(first);
+        queue.fail(second, "HTTP 400");
+
+        assertTrue(store.jobs.isEmpty());
+        assertTrue(queue.getStatus().isIdle());
+        assertFalse(new File(sentImage).exists());
+        assertFalse(new File(rejectedImage).exists());
+        assertEquals("[Bench:sent, Rower:HTTP 400]", finished.toString());
+    }
+
+    @Test
+    public void AN_QUEUE_06_uploadSession_survivesRetryUntilImageIsReplaced() throws IOException {
+        queue.enqueueEdit(7, "Rower", "v1", stage(), "a.webp", "image/webp");
+        UploadJob sending = queue.claimNext();
+
+        queue.setUploadSession(sending, "s1");
+        assertEquals("Journaled while the job runs", "s1", store.jobs.get(sending.getId()).getUploadSession());
+        queue.release(sending, true);
+
+        UploadJob retried = new UploadQueue(store, scheduledLanes::add).claimNext();
+        assertEquals("Resumed after a restart", "s1", retried.getUploadSession());
+        assertEquals(1, retried.getAttempts());
+
+        queue.enqueueEdit(7, "Rower", "v2", null, null, null);
+        assertEquals("Kept when the image is unchanged", "s1", store.jobs.get(sending.getId()).getUploadSession());
+        queue.enqueueEdit(7, "Rower", "v3", stage(), "b.webp", "image/webp");
+        assertNull("Dropped with the image it belongs to", store.jobs.get(sending.getId()).getUploadSession());
+    }
+
+    @Test
+    public void AN_QUEUE_07_batch_largestFirstWithPerItemAndBatchProgress() throws IOException {
+        List<UploadJob> jobs = queue.enqueueBatch(batch(100, 400, 200, 300, 50));
+
+        assertEquals("Largest image first", "Machine 2", jobs.get(0).getTitle());
+        assertEquals("Machine 5", jobs.get(4).getTitle());
+        assertEquals("Each lane started once", UploadQueue.MAX_PARALLEL_UPLOADS, scheduledLanes.size());
+
+        // One worker per lane
+        List<UploadJob> sending = new ArrayList<>();
+        UploadJob job;
+        while (sending.size() < UploadQueue.MAX_PARALLEL_UPLOADS && (job = queue.claimNext()) != null) {
+            sending.add(job);
+        }
+        queue.reportProgress(sending.get(0).getId(), 200, 400);
+        queue.reportProgress(sending.get(1).getId(), 300, 300);
+        UploadQueue.Status status = queue.getStatus();
+        assertEquals(5, status.getBatchSize());
+        assertEquals(UploadQueue.MAX_PARALLEL_UPLOADS, status.getItems().size());
+        assertEquals("Machine 2", status.getItems().get(0).getJob().getTitle());
+        assertEquals(50, status.getItems().get(0).getPercent());
+        assertEquals("No progress reported yet", -1, status.getItems().get(2).getPercent());
+        assertEquals("(50 + 100) / 5 jobs", 30, status.getBatchPercent());
+
+        queue.complete(sending.get(0));
+        queue.complete(sending.get(1));
+        queue.fail(sending.get(2), "HTTP 400");
+        status = queue.getStatus();
+        assertEquals(3, status.getFinishedCount());
+        assertEquals(1, status.getFailedCount());
+        assertEquals(5, status.getBatchSize());
+        assertEquals(60, status.getBatchPercent());
+
+        queue.complete(queue.claimNext());
+        queue.complete(queue.claimNext());
+        assertTrue(queue.getStatus().isIdle());
+        assertEquals("Counts kept until the next batch", 5, queue.getStatus().getFinishedCount());
+
+        queue.enqueueCreate("Bench", "next", stage(), "a.webp", "image/webp");
+        assertEquals(0, queue.getStatus().getFinishedCount());
+        assertEquals(1, queue.getStatus().getBatchSize());
+    }
+
+    @Test
+    public void AN_QUEUE_08_batchOfTen_lanesStayBusyLargestFirst() throws IOException {
+        // Upload time of each photo in time units, proportional to its size
+        int[] durations = {120, 40, 60, 200, 40, 80, 60, 40, 100, 60};
+        queue.enqueueBatch(batch(durations));
+
+        // Workers on a virtual clock: whichever lane finishes first claims next
+        long[] laneFreeAt = new long[UploadQueue.MAX_PARALLEL_UPLOADS];
+        UploadJob[] laneJob = new UploadJob[UploadQueue.MAX_PARALLEL_UPLOADS];
+        List<Long> claimed = new ArrayList<>();
+        for (int lane = 0; lane < laneJob.length; lane++) {
+            laneJob[lane] = queue.claimNext();
+            laneFreeAt[lane] = new File(laneJob[lane].getImagePath()).length();
+            claimed.add(laneFreeAt[lane]);
+        }
+        assertEquals("Every lane busy", UploadQueue.MAX_PARALLEL_UPLOADS,
+                queue.getStatus().getRunningCount());
+
+        long makespan = 0;
+        while (true) {
+            int lane = 0;
+            for (int i = 1; i < laneFreeAt.length; i++) {
+                if (laneJob[i] != null && (laneJob[lane] == null || laneFreeAt[i] < laneFreeAt[lane])) {
+                    lane = i;
+                }
+            }
+            if (laneJob[lane] == null) {
+                break;
+            }
+            long now = laneFreeAt[lane];
+            makespan = Math.max(makespan, now);
+            queue.complete(laneJob[lane]);
+            boolean pending = queue.getStatus().getPendingCount() > 0;
+            laneJob[lane] = queue.claimNext();
+            assertEquals("A freed lane never idles while jobs wait", pending, laneJob[lane] != null);
+            if (laneJob[lane] != null) {
+                long duration = new File(laneJob[lane].getImagePath()).length();
+                laneFreeAt[lane] = now + duration;
+                claimed.add(duration);
+            }
+            assertTrue("One upload per lane at most",
+                    queue.getStatus().getRunningCount() <= UploadQueue.MAX_PARALLEL_UPLOADS);
+        }
+
+        List<Long> largestFirst = new ArrayList<>(claimed);
+        largestFirst.sort(Collections.reverseOrder());
+        assertEquals("Claimed largest first", largestFirst, claimed);
+        assertEquals(10, queue.getStatus().getFinishedCount());
+        // The 200 unit photo starts first; the other 600 units are spread over
+        // the remaining lanes, so the batch ends at 280 rather than 800
+        assertEquals(280, makespan);
+    }
+
+    /**
+     * Wall-clock run of AN-QUEUE-08 with real worker threads; timing only
+     * with -Pbenchmark=true
+     */
+    @Test
+    public void AN_QUEUE_09_benchmark_batchOfTenWithWorkerThreads() throws Exception {
+        assumeTrue("Run with -Pbenchmark=true", Boolean.getBoolean("benchmark"));
+        int[] durations = {120, 40, 60, 200, 40, 80, 60, 40, 100, 60};
+        int sum = 0;
+        for (int duration : durations) {
+            sum += duration;
+        }
+        queue.enqueueBatch(batch(durations));
+
+        // A worker per lane draining the queue, as UploadWorker does
+        CountDownLatch done = new CountDownLatch(UploadQueue.MAX_PARALLEL_UPLOADS);
+        long start = System.nanoTime();
+        for (int lane = 0; lane < UploadQueue.MAX_PARALLEL_UPLOADS; lane++) {
+            new Thread(() -> {
+                UploadJob job;
+                while ((job = queue.claimNext()) != null) {
+                    try {
+                        Thread.sleep(new File(job.getImagePath()).length());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    queue.complete(job);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println("AN-QUEUE-09: 10 uploads, sequential " + sum + " ms, batch " + elapsedMs + " ms");
+        assertEquals(10, queue.getStatus().getFinishedCount());
+    }
+
+    private static final class MemoryStore implements UploadStore {
+        final Map<Long, UploadJob> jobs = new LinkedHashMap<>();
+        long nextId = 1;
+
+        @Override
+        public List<UploadJob> getJobs() {
+            return new ArrayList<>(jobs.values());
+        }
+
+        @Override
+        public long insert(UploadJob job) {
+            long id = nextId++;
+            jobs.put(id, job.withId(id));
+            return id;
+        }
+
+        @Override
+        public void update(UploadJob job) {
+            if (jobs.containsKey(job.getId())) {
+                jobs.put(job.getId(), job);
+            }
+        }
+
+        @Override
+        public void delete(long id) {
+            jobs.remove(id);
+        }
+
+        @Override
+        public void clear() {
+            jobs.clear();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+"""
+변형이 없는 기존 행의 썸네일 변형 채우기
+
+직렬화는 저장된 변형만 내보내므로, 변형 기능 이전에 올라온 이미지는
+이 명령을 한 번 실행해야 목록에 축소본이 나온다.
+"""
+from django.core.management.base import BaseCommand
+
+from blog.models import GymMachine, MachineEvent
+from blog.thumbnails import ensure_variants
+
+# (모델, 이미지 필드, 변형 필드)
+TARGETS = (
+    (GymMachine, 'thumbnail', 'thumbnail_variants'),
+    (MachineEvent, 'image', 'image_variants'),
+)
+
+
+class Command(BaseCommand):
+    help = '변형(image_variants/thumbnail_variants)이 없는 행의 썸네일 변형을 만든다'
+
+    def add_arguments(self, parser):
+        parser.add_argument(
+            '--limit', type=int, default=None,
+            help='모델마다 처리할 최대 행 수 (기본: 전부)'
+        )
+
+    def handle(self, *args, **options):
+        limit = options['limit']
+        for model, field_name, variants_field in TARGETS:
+            rows = (model.objects
+                    .filter(**{f'{variants_field}__isnull': True})
+                    .exclude(**{field_name: ''})
+                    .order_by('pk'))
+            if limit is not None:
+                rows = rows[:limit]
+            count = 0
+            for instance in rows.iterator():
+                ensure_variants(instance, field_name, variants_field)
+                count += 1
+            self.stdout.write(f"{model.__name__}: {count}개 행의 변형을 만듦")
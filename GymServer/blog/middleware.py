@@ -0,0 +1,18 @@
+from django.conf import settings
+from django.middleware.gzip import GZipMiddleware
+
+
+class JsonGZipMiddleware(GZipMiddleware):
+    """
+    GZIP_MIN_LENGTH 바이트 이상인 JSON API 응답만 gzip 압축
+    (이미지 등 이미 압축된 본문과 작은 응답은 그대로 전달)
+    """
+
+    def process_response(self, request, response):
+        if response.streaming:
+            return response
+        if not response.get('Content-Type', '').startswith('application/json'):
+            return response
+        if len(response.content) < getattr(settings, 'GZIP_MIN_LENGTH', 1024):
+            return response
+        return super().process_response(request, response)
@@ -0,0 +1,32 @@
+from django.db import migrations, models
+
+
+def fill_image_dimensions(apps, schema_editor):
+    """기존 포스트 이미지의 픽셀 크기 채우기 (파일이 없거나 읽을 수 없으면 비워 둠)"""
+    Post = apps.get_model("blog", "Post")
+    for post in Post.objects.exclude(image="").iterator():
+        try:
+            width, height = post.image.width, post.image.height
+        except (OSError, ValueError):
+            continue
+        Post.objects.filter(pk=post.pk).update(image_width=width, image_height=height)
+
+
+class Migration(migrations.Migration):
+    dependencies = [
+        ("blog", "0005_machineevent"),
+    ]
+
+    operations = [
+        migrations.AddField(
+            model_name="post",
+            name="image_height",
+            field=models.PositiveIntegerField(blank=True, editable=False, null=True),
+        ),
+        migrations.AddField(
+            model_name="post",
+            name="image_width",
+            field=models.PositiveIntegerField(blank=True, editable=False, null=True),
+        ),
+        migrations.RunPython(fill_image_dimensions, migrations.RunPython.noop),
+    ]
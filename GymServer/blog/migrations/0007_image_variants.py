@@ -0,0 +1,21 @@
+from django.db import migrations, models
+
+
+class Migration(migrations.Migration):
+    # 기존 행은 None으로 남겨 두고 manage.py backfill_variants로 변형을 만듦
+    dependencies = [
+        ("blog", "0006_post_image_dimensions"),
+    ]
+
+    operations = [
+        migrations.AddField(
+            model_name="gymmachine",
+            name="thumbnail_variants",
+            field=models.JSONField(blank=True, editable=False, null=True),
+        ),
+        migrations.AddField(
+            model_name="machineevent",
+            name="image_variants",
+            field=models.JSONField(blank=True, editable=False, null=True),
+        ),
+    ]
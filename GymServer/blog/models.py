@@ -1,6 +1,16 @@
+import hashlib
+import os
+import uuid
+from datetime import timedelta
+
 from django.conf import settings
 from django.db import models
+from django.db.models.signals import post_delete
+from django.dispatch import receiver
 from django.utils import timezone
+from PIL import features
+
+from blog.thumbnails import delete_variants, generate_variants
 
 
 class Post(models.Model):
@@ -10,6 +20,19 @@ class Post(models.Model):
     created_date = models.DateTimeField(default=timezone.now)
     published_date = models.DateTimeField(blank=True, null=True)
     image = models.ImageField(upload_to='blog_image/%Y/%m/%d/', default='blog_image/default_error.png')
+    # 이미지 픽셀 크기 (앱이 이미지를 받기 전에 행 레이아웃을 잡는 데 사용)
+    image_width = models.PositiveIntegerField(null=True, blank=True, editable=False)
+    image_height = models.PositiveIntegerField(null=True, blank=True, editable=False)
+
+    def save(self, *args, **kwargs):
+        # 새 이미지가 올라왔거나 크기가 비어 있으면 크기를 다시 읽음
+        # (ImageField의 width_field와 달리 파일이 없어도 조회 시 오류가 나지 않음)
+        if self.image and (self.image_width is None or not self.image._committed):
+            try:
+                self.image_width, self.image_height = self.image.width, self.image.height
+            except (OSError, ValueError):
+                self.image_width = self.image_height = None
+        super().save(*args, **kwargs)
 
     def publish(self):
         self.published_date = timezone.now()
@@ -57,12 +80,28 @@ class GymMachine(models.Model):
         blank=True,
         null=True
     )
+    # 썸네일 축소 변형 목록 (blog.thumbnails), None이면 아직 만들지 않음
+    thumbnail_variants = models.JSONField(null=True, blank=True, editable=False)
     is_active = models.BooleanField(default=True)
     created_at = models.DateTimeField(auto_now_add=True)
 
     class Meta:
         ordering = ['location', 'name']
 
+    def save(self, *args, **kwargs):
+        # 새 썸네일이 올라오면 저장 경로가 정해진 뒤 변형을 다시 만듦
+        new_thumbnail = bool(self.thumbnail) and not self.thumbnail._committed
+        stale = None
+        if new_thumbnail or not self.thumbnail:
+            stale = self.thumbnail_variants
+            self.thumbnail_variants = None
+        super().save(*args, **kwargs)
+        # 이전 썸네일의 변형은 새 변형을 만들기 전에 지움 (같은 이름일 수 있음)
+        delete_variants(self.thumbnail.storage, stale)
+        if new_thumbnail:
+            self.thumbnail_variants = generate_variants(self.thumbnail)
+            super().save(update_fields=['thumbnail_variants'])
+
     def __str__(self):
         return f"{self.name} ({self.location})"
 
@@ -81,6 +120,8 @@ class MachineEvent(models.Model):
     )
     event_type = models.CharField(max_length=10, choices=EVENT_TYPES)
     image = models.ImageField(upload_to='events/%Y/%m/%d/')
+    # 이미지 축소 변형 목록 (blog.thumbnails), None이면 아직 만들지 않음
+    image_variants = models.JSONField(null=True, blank=True, editable=False)
     captured_at = models.DateTimeField(help_text="Edge에서 캡처한 시각")
     created_at = models.DateTimeField(auto_now_add=True)
 
@@ -102,5 +143,117 @@ class MachineEvent(models.Model):
             models.Index(fields=['event_type', '-captured_at']),
         ]
 
+    def save(self, *args, **kwargs):
+        # 새 프레임이 올라오면 저장 경로가 정해진 뒤 변형을 만듦
+        new_image = bool(self.image) and not self.image._committed
+        stale = None
+        if new_image:
+            stale = self.image_variants
+            self.image_variants = None
+        super().save(*args, **kwargs)
+        delete_variants(self.image.storage, stale)
+        if new_image:
+            self.image_variants = generate_variants(self.image)
+            super().save(update_fields=['image_variants'])
+
     def __str__(self):
         return f"{self.machine.name} - {self.get_event_type_display()} ({self.captured_at})"
+
+
+# 행이 지워지면 변형 파일도 지움 (QuerySet.delete와 CASCADE로 지워지는 이벤트 포함)
+@receiver(post_delete, sender=GymMachine)
+def delete_machine_variants(sender, instance, **kwargs):
+    delete_variants(instance.thumbnail.storage, instance.thumbnail_variants)
+
+
+@receiver(post_delete, sender=MachineEvent)
+def delete_event_variants(sender, instance, **kwargs):
+    delete_variants(instance.image.storage, instance.image_variants)
+
+
+class UploadSession(models.Model):
+    """
+    재개 가능한 이미지 업로드 세션 (/api_root/uploads/)
+
+    앱이 이미지를 청크로 나눠 PUT 하면 받은 바이트를 임시 파일에 이어 붙이고
+    커밋된 위치(offset)를 기록함. 연결이 끊기면 앱은 offset을 조회해 그 위치부터
+    다시 보냄. 완료 요청에서 크기와 SHA-256을 확인한 뒤 Post를 만들거나 수정함.
+    완료된 세션은 결과 포스트만 기억하고 EXPIRE_AFTER 뒤에 정리됨.
+    """
+    MAX_SIZE = 20 * 1024 * 1024
+    # 이 시간 동안 청크가 오지 않은 세션은 새 세션을 만들 때 정리
+    EXPIRE_AFTER = timedelta(days=1)
+
+    id = models.UUIDField(primary_key=True, default=uuid.uuid4, editable=False)
+    owner = models.ForeignKey(
+        settings.AUTH_USER_MODEL,
+        on_delete=models.CASCADE,
+        related_name='upload_sessions'
+    )
+    file_name = models.CharField(max_length=255)
+    content_type = models.CharField(max_length=100)
+    size = models.PositiveBigIntegerField()
+    offset = models.PositiveBigIntegerField(default=0)
+    # 완료 후 만들어지거나 수정된 포스트 (완료 응답이 유실돼 다시 요청해도 같은 포스트를 돌려줌)
+    post = models.ForeignKey(Post, null=True, blank=True, on_delete=models.SET_NULL,
+                             related_name='+')
+    created_at = models.DateTimeField(auto_now_add=True)
+    updated_at = models.DateTimeField(auto_now=True)
+
+    @staticmethod
+    def accepted_types():
+        """업로드 받을 수 있는 이미지 형식 (WebP는 서버 Pillow가 디코딩할 수 있을 때만)"""
+        types = ['image/jpeg', 'image/png']
+        if features.check('webp'):
+            types.append('image/webp')
+        return types
+
+    @property
+    def part_path(self):
+        # MEDIA_ROOT 밖에 두어 완료 전의 파일이 공개 URL로 노출되지 않음
+        return os.path.join(settings.UPLOAD_SESSION_ROOT, f'{self.id}.part')
+
+    def write_chunk(self, start, data):
+        """start 위치부터 data를 기록하고 offset을 커밋 (start는 현재 offset이어야 함)"""
+        os.makedirs(settings.UPLOAD_SESSION_ROOT, exist_ok=True)
+        mode = 'r+b' if os.path.exists(self.part_path) else 'wb'
+        with open(self.part_path, mode) as part:
+            # 커밋되지 않은 꼬리(이전 요청이 중간에 끊긴 경우)는 버림
+            part.seek(start)
+            part.truncate()
+            part.write(data)
+            part.flush()
+            os.fsync(part.fileno())
+        self.offset = start + len(data)
+        self.save(update_fields=['offset', 'updated_at'])
+
+    def sha256(self):
+        digest = hashlib.sha256()
+        with open(self.part_path, 'rb') as part:
+            for block in iter(lambda: part.read(64 * 1024), b''):
+                digest.update(block)
+        return digest.hexdigest()
+
+    def reset(self):
+        """받은 바이트를 버리고 처음부터 다시 받음"""
+        self.remove_part()
+        self.offset = 0
+        self.save(update_fields=['offset', 'updated_at'])
+
+    def remove_part(self):
+        try:
+            os.remove(self.part_path)
+        except FileNotFoundError:
+            pass
+
+    def discard(self):
+        self.remove_part()
+        self.delete()
+
+    @classmethod
+    def discard_expired(cls):
+        for session in cls.objects.filter(updated_at__lt=timezone.now() - cls.EXPIRE_AFTER):
+            session.discard()
+
+    def __str__(self):
+        return f"{self.file_name} ({self.offset}/{self.size})"
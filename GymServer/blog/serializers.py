@@ -4,53 +4,86 @@ from django.contrib.auth.models import User
 import json
 
 
+class ImageVariantsMixin:
+    """축소 변형 목록을 앱이 고를 수 있는 형태로 직렬화"""
+
+    def variant_list(self, obj, field_name, variants_field):
+        # 아직 변형이 없는 행은 빈 목록 (요청 중에는 인코딩하지 않음)
+        variants = getattr(obj, variants_field) or []
+        storage = getattr(obj, field_name).storage
+        request = self.context.get('request')
+        result = []
+        for variant in variants:
+            url = storage.url(variant['name'])
+            # 원본 image 필드와 같은 규칙: 요청이 있으면 절대 URL
+            if request is not None:
+                url = request.build_absolute_uri(url)
+            result.append({
+                'width': variant['width'],
+                'height': variant['height'],
+                'format': variant['format'],
+                'url': url,
+            })
+        return result
+
+
 class PostSerializer(serializers.HyperlinkedModelSerializer):
     author = serializers.PrimaryKeyRelatedField(read_only=True)
 
     class Meta:
         model = Post
-        fields = ('id', 'author', 'title', 'text','created_date','published_date', 'image')
+        fields = ('id', 'author', 'title', 'text','created_date','published_date', 'image',
+                  'image_width', 'image_height')
+        read_only_fields = ('image_width', 'image_height')
 
 
 class SecurityKeyLoginSerializer(serializers.Serializer):
     security_key = serializers.CharField(max_length=64)
 
 
-class MachineEventSerializer(serializers.ModelSerializer):
+class MachineEventSerializer(ImageVariantsMixin, serializers.ModelSerializer):
     """Full event serializer for detail view"""
     machine_name = serializers.CharField(source='machine.name', read_only=True)
     event_type_display = serializers.CharField(
         source='get_event_type_display',
         read_only=True
     )
+    image_variants = serializers.SerializerMethodField()
 
     class Meta:
         model = MachineEvent
         fields = [
             'id', 'machine', 'machine_name',
             'event_type', 'event_type_display',
-            'image', 'captured_at', 'created_at',
+            'image', 'image_variants', 'captured_at', 'created_at',
             'person_count', 'detections', 'change_info'
         ]
         read_only_fields = ['created_at']
 
+    def get_image_variants(self, obj):
+        return self.variant_list(obj, 'image', 'image_variants')
+
 
-class MachineEventListSerializer(serializers.ModelSerializer):
+class MachineEventListSerializer(ImageVariantsMixin, serializers.ModelSerializer):
     """Lightweight serializer for list view"""
     machine_name = serializers.CharField(source='machine.name', read_only=True)
     event_type_display = serializers.CharField(
         source='get_event_type_display',
         read_only=True
     )
+    image_variants = serializers.SerializerMethodField()
 
     class Meta:
         model = MachineEvent
         fields = [
             'id', 'machine', 'machine_name',
             'event_type', 'event_type_display',
-            'image', 'captured_at', 'person_count'
+            'image', 'image_variants', 'captured_at', 'person_count'
         ]
 
+    def get_image_variants(self, obj):
+        return self.variant_list(obj, 'image', 'image_variants')
+
 
 class MachineEventCreateSerializer(serializers.ModelSerializer):
     """Serializer for creating events (POST from Edge)"""
@@ -83,7 +116,8 @@ class MachineEventCreateSerializer(serializers.ModelSerializer):
         return value
 
 
-class GymMachineSerializer(serializers.ModelSerializer):
+class GymMachineSerializer(ImageVariantsMixin, serializers.ModelSerializer):
+    thumbnail_variants = serializers.SerializerMethodField()
     event_count = serializers.SerializerMethodField()
     last_event = serializers.SerializerMethodField()
 
@@ -91,10 +125,13 @@ class GymMachineSerializer(serializers.ModelSerializer):
         model = GymMachine
         fields = [
             'id', 'name', 'machine_type', 'location',
-            'description', 'thumbnail', 'is_active',
+            'description', 'thumbnail', 'thumbnail_variants', 'is_active',
             'event_count', 'last_event'
         ]
 
+    def get_thumbnail_variants(self, obj):
+        return self.variant_list(obj, 'thumbnail', 'thumbnail_variants')
+
     def get_event_count(self, obj):
         # MachineEvent model will be added in Epic 2
         # For now, check if events relation exists
@@ -1,8 +1,10 @@
 import json
-from io import BytesIO
+from io import BytesIO, StringIO
+from unittest import mock
 from PIL import Image
 from django.test import TestCase
 from django.contrib.auth.models import User
+from django.core.management import call_command
 from django.core.files.uploadedfile import SimpleUploadedFile
 from django.utils import timezone
 from rest_framework.test import APIClient
@@ -736,3 +738,153 @@ class MachineEventPaginationTestCase(TestCase):
         self.assertEqual(len(response.data['results']), 5)  # 25 - 20 = 5
         self.assertIsNone(response.data['next'])
         self.assertIsNotNone(response.data['previous'])
+
+
+class MachineEventImageVariantsTestCase(TestCase):
+    """Test cases for downscaled image variants exposed to the app"""
+
+    def setUp(self):
+        self.client = APIClient()
+        self.user = User.objects.create_user(username='testuser', password='testpass')
+        self.token, _ = Token.objects.get_or_create(user=self.user)
+        self.machine = GymMachine.objects.create(
+            name='런닝머신 #1',
+            machine_type='treadmill',
+            location='1층 A구역',
+            is_active=True
+        )
+
+    def test_variants_generated_at_ingest(self):
+        """
+        Given: A 1280x720 frame uploaded with an event
+        When: The event is saved
+        Then: Each variant size is stored with its short side at that size
+        """
+        event = MachineEvent.objects.create(
+            machine=self.machine,
+            event_type='start',
+            image=create_test_image('frame.jpg', size=(1280, 720)),
+            captured_at=timezone.now(),
+            person_count=1
+        )
+        sizes = sorted({(v['width'], v['height']) for v in event.image_variants})
+        self.assertEqual(sizes, [(284, 160), (853, 480)])
+        formats = {v['format'] for v in event.image_variants}
+        self.assertIn('jpeg', formats)
+        for variant in event.image_variants:
+            self.assertTrue(event.image.storage.exists(variant['name']))
+
+    def test_small_image_has_no_variants(self):
+        """A frame already smaller than every variant is never upscaled"""
+        event = MachineEvent.objects.create(
+            machine=self.machine,
+            event_type='start',
+            image=create_test_image('small.jpg', size=(100, 100)),
+            captured_at=timezone.now(),
+            person_count=1
+        )
+        self.assertEqual(event.image_variants, [])
+
+    def test_event_list_never_encodes_missing_variants(self):
+        """
+        Given: An event stored before variants existed (image_variants is null)
+        When: The event list is requested
+        Then: The event lists no variants and nothing is encoded during the request
+        """
+        event = MachineEvent.objects.create(
+            machine=self.machine,
+            event_type='start',
+            image=create_test_image('legacy.jpg', size=(640, 480)),
+            captured_at=timezone.now(),
+            person_count=1
+        )
+        MachineEvent.objects.filter(pk=event.pk).update(image_variants=None)
+
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        with mock.patch('blog.thumbnails.generate_variants') as generate:
+            response = self.client.get(f'/api/machines/{self.machine.id}/events/')
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertEqual(response.data['results'][0]['image_variants'], [])
+        generate.assert_not_called()
+        event.refresh_from_db()
+        self.assertIsNone(event.image_variants)
+
+    def test_backfill_command_generates_missing_variants(self):
+        """
+        Given: An event stored before variants existed (image_variants is null)
+        When: manage.py backfill_variants runs and the event list is requested
+        Then: Variants are stored once and returned with their URLs
+        """
+        event = MachineEvent.objects.create(
+            machine=self.machine,
+            event_type='start',
+            image=create_test_image('legacy.jpg', size=(640, 480)),
+            captured_at=timezone.now(),
+            person_count=1
+        )
+        MachineEvent.objects.filter(pk=event.pk).update(image_variants=None)
+
+        call_command('backfill_variants', stdout=StringIO())
+
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        response = self.client.get(f'/api/machines/{self.machine.id}/events/')
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        variants = response.data['results'][0]['image_variants']
+        self.assertTrue(variants)
+        for variant in variants:
+            self.assertEqual(set(variant), {'width', 'height', 'format', 'url'})
+            self.assertEqual(min(variant['width'], variant['height']), 160)
+            self.assertIn('/thumbs/', variant['url'])
+        event.refresh_from_db()
+        self.assertEqual(len(event.image_variants), len(variants))
+
+    def test_replacing_image_deletes_old_variants(self):
+        """
+        Given: An event whose frame already has variants
+        When: The frame is replaced
+        Then: The old variant files are deleted and new ones are stored
+        """
+        event = MachineEvent.objects.create(
+            machine=self.machine,
+            event_type='start',
+            image=create_test_image('first.jpg', size=(640, 480)),
+            captured_at=timezone.now(),
+            person_count=1
+        )
+        storage = event.image.storage
+        old_names = [v['name'] for v in event.image_variants]
+        self.assertTrue(old_names)
+
+        event.image = create_test_image('second.jpg', size=(640, 480))
+        event.save()
+
+        for name in old_names:
+            self.assertFalse(storage.exists(name))
+        for variant in event.image_variants:
+            self.assertTrue(storage.exists(variant['name']))
+
+    def test_deleting_machine_deletes_event_variants(self):
+        """
+        Given: A machine with a thumbnail and an event, both with variants
+        When: The machine is deleted (events are removed by cascade)
+        Then: Every variant file is deleted
+        """
+        self.machine.thumbnail = create_test_image('machine.jpg', size=(640, 480))
+        self.machine.save()
+        event = MachineEvent.objects.create(
+            machine=self.machine,
+            event_type='start',
+            image=create_test_image('frame.jpg', size=(640, 480)),
+            captured_at=timezone.now(),
+            person_count=1
+        )
+        storage = event.image.storage
+        names = [v['name'] for v in self.machine.thumbnail_variants + event.image_variants]
+        self.assertTrue(names)
+
+        self.machine.delete()
+
+        for name in names:
+            self.assertFalse(storage.exists(name))
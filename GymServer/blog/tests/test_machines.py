@@ -1,4 +1,6 @@
-from django.test import TestCase
+import gzip
+import json
+from django.test import TestCase, override_settings
 from django.contrib.auth.models import User
 from rest_framework.test import APIClient
 from rest_framework.authtoken.models import Token
@@ -194,3 +196,88 @@ class GymMachineAPITestCase(TestCase):
         machine_types = {m['name']: m['machine_type'] for m in results}
         self.assertEqual(machine_types.get('런닝머신 #1'), 'treadmill')
         self.assertEqual(machine_types.get('벤치프레스 #1'), 'bench_press')
+
+    def test_machine_list_returns_etag(self):
+        """Test machine list response carries an ETag validator"""
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        response = self.client.get('/api_root/machines/')
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertIn('ETag', response)
+        self.assertEqual(response['Cache-Control'], 'private, no-cache')
+
+    def test_machine_list_not_modified_with_matching_etag(self):
+        """Test If-None-Match with current ETag returns empty 304"""
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        etag = self.client.get('/api_root/machines/')['ETag']
+
+        response = self.client.get('/api_root/machines/', HTTP_IF_NONE_MATCH=etag)
+
+        self.assertEqual(response.status_code, status.HTTP_304_NOT_MODIFIED)
+        self.assertEqual(response.content, b'')
+        self.assertEqual(response['ETag'], etag)
+
+    def test_machine_list_etag_changes_when_machine_changes(self):
+        """Test stale ETag gets a full 200 after a machine is edited"""
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        etag = self.client.get('/api_root/machines/')['ETag']
+
+        self.machine1.location = '1층 B구역'
+        self.machine1.save()
+        response = self.client.get('/api_root/machines/', HTTP_IF_NONE_MATCH=etag)
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertNotEqual(response['ETag'], etag)
+
+    def _create_more_machines(self, count):
+        """Helper to make the list body large enough to compress"""
+        for i in range(count):
+            GymMachine.objects.create(
+                name=f'덤벨 랙 #{i}',
+                machine_type='other',
+                location='4층 D구역',
+                description='무게별 덤벨 보관대',
+                is_active=True
+            )
+
+    @override_settings(GZIP_MIN_LENGTH=200)
+    def test_machine_list_gzipped_when_client_accepts(self):
+        """Test JSON above the size threshold is gzip-compressed"""
+        self._create_more_machines(10)
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        response = self.client.get('/api_root/machines/', HTTP_ACCEPT_ENCODING='gzip')
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertEqual(response['Content-Encoding'], 'gzip')
+        self.assertIn('Accept-Encoding', response['Vary'])
+        data = json.loads(gzip.decompress(response.content))
+        self.assertEqual(data['count'], 12)
+
+    @override_settings(GZIP_MIN_LENGTH=200)
+    def test_machine_list_not_gzipped_without_accept_encoding(self):
+        """Test clients that do not ask for gzip get a plain body"""
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        response = self.client.get('/api_root/machines/')
+
+        self.assertFalse(response.has_header('Content-Encoding'))
+        self.assertEqual(len(response.json()['results']), 2)
+
+    @override_settings(GZIP_MIN_LENGTH=1024 * 1024)
+    def test_machine_list_below_threshold_not_gzipped(self):
+        """Test small JSON responses are sent uncompressed"""
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        response = self.client.get('/api_root/machines/', HTTP_ACCEPT_ENCODING='gzip')
+
+        self.assertFalse(response.has_header('Content-Encoding'))
+
+    @override_settings(GZIP_MIN_LENGTH=200)
+    def test_machine_list_gzipped_etag_still_revalidates(self):
+        """Test the ETag of a compressed response still yields a 304"""
+        self._create_more_machines(10)
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        etag = self.client.get('/api_root/machines/', HTTP_ACCEPT_ENCODING='gzip')['ETag']
+
+        response = self.client.get('/api_root/machines/', HTTP_ACCEPT_ENCODING='gzip',
+                                   HTTP_IF_NONE_MATCH=etag)
+
+        self.assertEqual(response.status_code, status.HTTP_304_NOT_MODIFIED)
@@ -305,7 +305,7 @@ class PostListAPITests(APITestCase):
     """
     Tests for Post list endpoint: GET /api_root/Post/
 
-    Test IDs: BE-1-05 through BE-1-07
+    Test IDs: BE-1-05 through BE-1-07, BE-1-12
     Priority: P0 (Critical path)
     """
 
@@ -404,6 +404,124 @@ class PostListAPITests(APITestCase):
         self.assertEqual(response.data['results'], [])
         self.assertEqual(response.data['count'], 0)
 
+    def test_BE_1_12_post_list_includes_image_dimensions(self):
+        """
+        BE-1-12: Post list carries image pixel size
+
+        Priority: P1
+        Requirement: 앱이 이미지 다운로드 전에 행을 먼저 그릴 수 있어야 함
+
+        Given: A post with a 640x480 image
+        When: GET /api_root/Post/
+        Then: The post has image_width 640 and image_height 480
+        """
+        # Given
+        PostFactory.create(
+            author=self.api_user.user,
+            image=create_test_image('wide.jpg', size=(640, 480))
+        )
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+
+        # When
+        response = self.client.get(self.list_url)
+
+        # Then
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        post = response.data['results'][0]
+        self.assertEqual(post['image_width'], 640)
+        self.assertEqual(post['image_height'], 480)
+
+
+class PostDeltaSyncAPITests(APITestCase):
+    """
+    Tests for incremental sync: GET /api_root/Post/?since_id=N
+
+    Test IDs: BE-1-08 through BE-1-11
+    Priority: P1 (Background sync cost)
+    """
+
+    def setUp(self):
+        """Set up test data before each test"""
+        self.list_url = '/api_root/Post/'
+
+        self.api_user = ApiUserFactory.create()
+        self.token, _ = Token.objects.get_or_create(user=self.api_user.user)
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+
+        self.posts = [
+            PostFactory.create(author=self.api_user.user, title=f'Post {i+1}')
+            for i in range(3)
+        ]
+
+    def tearDown(self):
+        """Clean up test data after each test"""
+        Post.objects.all().delete()
+        Token.objects.all().delete()
+        ApiUser.objects.all().delete()
+        User.objects.all().delete()
+
+    def test_BE_1_08_since_id_returns_only_newer_posts(self):
+        """
+        BE-1-08: Only posts after the client's watermark are returned
+
+        Given: 3 posts and a client that has seen the first one
+        When: GET /api_root/Post/?since_id=<first id>
+        Then: The 2 newer posts, oldest first, with the new watermark
+        """
+        response = self.client.get(self.list_url, {'since_id': self.posts[0].id})
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertFalse(response.data['reset'])
+        self.assertEqual(response.data['new_count'], 2)
+        self.assertEqual(response.data['watermark'], self.posts[2].id)
+        self.assertEqual([p['id'] for p in response.data['results']],
+                         [self.posts[1].id, self.posts[2].id])
+
+    def test_BE_1_09_since_id_limit_caps_results_not_count(self):
+        """
+        BE-1-09: limit bounds the payload while new_count stays exact
+
+        Given: 3 posts and a client that has seen none
+        When: GET /api_root/Post/?since_id=0&limit=1
+        Then: One post is returned, new_count is 3, watermark jumps to the newest
+        """
+        response = self.client.get(self.list_url, {'since_id': 0, 'limit': 1})
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertEqual(len(response.data['results']), 1)
+        self.assertEqual(response.data['results'][0]['title'], 'Post 1')
+        self.assertEqual(response.data['new_count'], 3)
+        self.assertEqual(response.data['watermark'], self.posts[2].id)
+
+    def test_BE_1_10_unknown_watermark_requests_reset(self):
+        """
+        BE-1-10: A watermark beyond the newest post asks for a full resync
+
+        Given: The newest post was deleted after the client saw it
+        When: GET /api_root/Post/?since_id=<deleted id>
+        Then: reset is true and the watermark is the current newest id
+        """
+        seen_id = self.posts[2].id
+        self.posts[2].delete()
+
+        response = self.client.get(self.list_url, {'since_id': seen_id})
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertTrue(response.data['reset'])
+        self.assertEqual(response.data['watermark'], self.posts[1].id)
+        self.assertEqual(response.data['results'], [])
+
+    def test_BE_1_11_invalid_since_id_returns_400(self):
+        """
+        BE-1-11: Non-numeric watermark is rejected
+
+        When: GET /api_root/Post/?since_id=abc
+        Then: 400 Bad Request
+        """
+        response = self.client.get(self.list_url, {'since_id': 'abc'})
+
+        self.assertEqual(response.status_code, status.HTTP_400_BAD_REQUEST)
+
 
 # =============================================================================
 # BE-2: Post Create API Tests (Epic 2)
@@ -251,3 +251,27 @@ class MachineStatsAPITestCase(TestCase):
 
         self.assertEqual(response.status_code, status.HTTP_200_OK)
         self.assertEqual(response.data['total_starts'], 2)  # Only machine1's events
+
+    def test_stats_not_modified_with_matching_etag(self):
+        """Test If-None-Match with current ETag returns empty 304"""
+        self._create_event(self.machine, 'start', timezone.now())
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        url = f'/api_root/machines/{self.machine.id}/stats/'
+        etag = self.client.get(url)['ETag']
+
+        response = self.client.get(url, HTTP_IF_NONE_MATCH=etag)
+
+        self.assertEqual(response.status_code, status.HTTP_304_NOT_MODIFIED)
+        self.assertEqual(response.content, b'')
+
+    def test_stats_etag_changes_after_new_event(self):
+        """Test a new event invalidates the previous ETag"""
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+        url = f'/api_root/machines/{self.machine.id}/stats/'
+        etag = self.client.get(url)['ETag']
+
+        self._create_event(self.machine, 'start', timezone.now())
+        response = self.client.get(url, HTTP_IF_NONE_MATCH=etag)
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertEqual(response.data['total_starts'], 1)
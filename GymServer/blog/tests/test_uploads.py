@@ -0,0 +1,329 @@
+"""
+Resumable upload API tests: /api_root/uploads/
+
+The app creates a session, PUTs byte ranges, asks for the committed offset
+after a failure and completes with the SHA-256 of the whole file.
+FlakyUploader below is the local harness: it drops the connection at
+random offsets and resumes the way the app does.
+"""
+
+import hashlib
+import os
+import random
+import shutil
+import tempfile
+from io import BytesIO
+from unittest import mock
+
+from PIL import Image
+from django.contrib.auth.models import User
+from django.test import TestCase, override_settings
+from rest_framework import status
+from rest_framework.authtoken.models import Token
+from rest_framework.test import APIClient
+
+from blog.models import Post, UploadSession
+
+
+def create_test_image_bytes(size=(640, 480)):
+    """A JPEG with noise, so it does not compress to a few hundred bytes"""
+    rng = random.Random(42)
+    image = Image.new('RGB', size)
+    image.putdata([(rng.randrange(256), rng.randrange(256), rng.randrange(256))
+                   for _ in range(size[0] * size[1])])
+    file = BytesIO()
+    image.save(file, 'JPEG', quality=90)
+    return file.getvalue()
+
+
+class FlakyUploader:
+    """
+    Uploads like the app, with connection drops injected at random offsets
+
+    Each chunk is dropped with probability drop_rate, in one of three ways:
+    - 'lost': the request never reaches the server
+    - 'truncated': the server receives only part of the body
+    - 'no_response': the server commits the chunk but the response is lost
+    After a drop the uploader asks for the committed offset and resumes there.
+    """
+    MODES = ('lost', 'truncated', 'no_response')
+
+    def __init__(self, client, data, chunk_size, seed, drop_rate=0.4):
+        self.client = client
+        self.data = data
+        self.chunk_size = chunk_size
+        self.random = random.Random(seed)
+        self.drop_rate = drop_rate
+        self.drops = {mode: 0 for mode in self.MODES}
+
+    def upload(self, session_url):
+        offset = 0
+        while offset < len(self.data):
+            end = min(offset + self.chunk_size, len(self.data)) - 1
+            chunk = self.data[offset:end + 1]
+            headers = {'HTTP_CONTENT_RANGE': f'bytes {offset}-{end}/{len(self.data)}'}
+            mode = self.random.choice(self.MODES) if self.random.random() < self.drop_rate else None
+
+            if mode == 'lost':
+                self.drops[mode] += 1
+            elif mode == 'truncated':
+                self.drops[mode] += 1
+                cut = self.random.randrange(len(chunk))
+                response = self.client.put(session_url, chunk[:cut],
+                                           content_type='application/octet-stream', **headers)
+                assert response.status_code == status.HTTP_400_BAD_REQUEST, response.status_code
+            else:
+                response = self.client.put(session_url, chunk,
+                                           content_type='application/octet-stream', **headers)
+                if mode == 'no_response':
+                    self.drops[mode] += 1
+                else:
+                    assert response.status_code == status.HTTP_200_OK, response.status_code
+                    offset = response.data['offset']
+                    continue
+
+            # Connection dropped: resume from what the server committed
+            offset = self.client.get(session_url).data['offset']
+        return sum(self.drops.values())
+
+
+@override_settings(MEDIA_ROOT=tempfile.mkdtemp(), UPLOAD_SESSION_ROOT=tempfile.mkdtemp())
+class UploadSessionAPITestCase(TestCase):
+    """Test cases for resumable uploads"""
+
+    CHUNK_SIZE = 16 * 1024
+
+    @classmethod
+    def setUpClass(cls):
+        super().setUpClass()
+        cls.image_bytes = create_test_image_bytes()
+
+    @classmethod
+    def tearDownClass(cls):
+        from django.conf import settings
+        shutil.rmtree(settings.MEDIA_ROOT, ignore_errors=True)
+        shutil.rmtree(settings.UPLOAD_SESSION_ROOT, ignore_errors=True)
+        super().tearDownClass()
+
+    def setUp(self):
+        self.client = APIClient()
+        self.user = User.objects.create_user(username='staff', password='testpass')
+        self.token, _ = Token.objects.get_or_create(user=self.user)
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {self.token.key}')
+
+    def create_session(self, data=None):
+        data = data if data is not None else self.image_bytes
+        response = self.client.post('/api_root/uploads/', {
+            'file_name': 'bench.jpg',
+            'content_type': 'image/jpeg',
+            'size': len(data),
+        }, format='json')
+        self.assertEqual(response.status_code, status.HTTP_201_CREATED)
+        return f"/api_root/uploads/{response.data['id']}/"
+
+    def put_chunk(self, url, start, chunk, total=None):
+        total = total if total is not None else len(self.image_bytes)
+        return self.client.put(url, chunk, content_type='application/octet-stream',
+                               HTTP_CONTENT_RANGE=f'bytes {start}-{start + len(chunk) - 1}/{total}')
+
+    def complete(self, url, data=None, **fields):
+        data = data if data is not None else self.image_bytes
+        body = {'sha256': hashlib.sha256(data).hexdigest(), 'title': '벤치 점검', 'text': '볼트 교체'}
+        body.update(fields)
+        return self.client.post(url + 'complete/', body, format='json')
+
+    def test_create_session_starts_at_offset_zero(self):
+        """
+        Given: An authenticated staff member
+        When: A session is created for an image
+        Then: The committed offset is 0 and the size is recorded
+        """
+        url = self.create_session()
+        response = self.client.get(url)
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        self.assertEqual(response.data['offset'], 0)
+        self.assertEqual(response.data['size'], len(self.image_bytes))
+
+    def test_create_session_rejects_bad_size_and_type(self):
+        """Oversized, empty and non-image uploads are refused up front"""
+        for body in ({'file_name': 'a.jpg', 'content_type': 'image/jpeg', 'size': 0},
+                     {'file_name': 'a.jpg', 'content_type': 'image/jpeg',
+                      'size': UploadSession.MAX_SIZE + 1},
+                     {'file_name': 'a.txt', 'content_type': 'text/plain', 'size': 10}):
+            response = self.client.post('/api_root/uploads/', body, format='json')
+            self.assertEqual(response.status_code, status.HTTP_400_BAD_REQUEST)
+
+    def test_create_session_reports_accepted_types(self):
+        """
+        Given: A server whose Pillow may lack WebP support
+        When: A session is created, or one is asked for in a format it cannot decode
+        Then: The accepted types are listed, and the unsupported format gets 415
+        """
+        response = self.client.post('/api_root/uploads/', {
+            'file_name': 'bench.jpg', 'content_type': 'image/jpeg', 'size': 10,
+        }, format='json')
+        self.assertIn('image/jpeg', response.data['accepted_types'])
+
+        with mock.patch('blog.models.features.check', return_value=False):
+            response = self.client.post('/api_root/uploads/', {
+                'file_name': 'bench.webp', 'content_type': 'image/webp', 'size': 10,
+            }, format='json')
+        self.assertEqual(response.status_code, status.HTTP_415_UNSUPPORTED_MEDIA_TYPE)
+        self.assertNotIn('image/webp', response.data['accepted_types'])
+
+    def test_chunks_in_order_then_complete_creates_post(self):
+        """
+        Given: A session
+        When: Every chunk is PUT in order and the upload is completed
+        Then: A post is created with the exact bytes and the received file is removed
+        """
+        url = self.create_session()
+        for start in range(0, len(self.image_bytes), self.CHUNK_SIZE):
+            response = self.put_chunk(url, start, self.image_bytes[start:start + self.CHUNK_SIZE])
+            self.assertEqual(response.status_code, status.HTTP_200_OK)
+            self.assertEqual(response.data['offset'],
+                             min(start + self.CHUNK_SIZE, len(self.image_bytes)))
+
+        response = self.complete(url)
+
+        self.assertEqual(response.status_code, status.HTTP_201_CREATED)
+        post = Post.objects.get(id=response.data['id'])
+        self.assertEqual(post.author, self.user)
+        self.assertEqual((post.image_width, post.image_height), (640, 480))
+        with post.image.open('rb') as stored:
+            self.assertEqual(stored.read(), self.image_bytes)
+        self.assertFalse(os.path.exists(UploadSession.objects.get(post=post).part_path))
+
+    def test_chunk_at_wrong_offset_returns_committed_offset(self):
+        """
+        Given: A session with one chunk committed
+        When: A chunk that does not start at the committed offset is PUT
+        Then: 409 Conflict with the offset to resume from; nothing is written
+        """
+        url = self.create_session()
+        self.put_chunk(url, 0, self.image_bytes[:self.CHUNK_SIZE])
+
+        ahead = self.put_chunk(url, 2 * self.CHUNK_SIZE,
+                               self.image_bytes[2 * self.CHUNK_SIZE:3 * self.CHUNK_SIZE])
+        again = self.put_chunk(url, 0, self.image_bytes[:self.CHUNK_SIZE])
+
+        self.assertEqual(ahead.status_code, status.HTTP_409_CONFLICT)
+        self.assertEqual(ahead.data['offset'], self.CHUNK_SIZE)
+        self.assertEqual(again.status_code, status.HTTP_409_CONFLICT)
+        self.assertEqual(self.client.get(url).data['offset'], self.CHUNK_SIZE)
+
+    def test_random_connection_drops_resume_to_identical_file(self):
+        """
+        Given: Connections dropped at random offsets (lost request, truncated body, lost response)
+        When: The uploader resumes from the committed offset after each drop
+        Then: The completed post holds exactly the original bytes, for several seeds
+        """
+        for seed in range(5):
+            url = self.create_session()
+            uploader = FlakyUploader(self.client, self.image_bytes, self.CHUNK_SIZE, seed)
+
+            drops = uploader.upload(url)
+            response = self.complete(url)
+
+            self.assertGreater(drops, 0, f'seed {seed} injected no drops')
+            self.assertEqual(response.status_code, status.HTTP_201_CREATED, f'seed {seed}')
+            with Post.objects.get(id=response.data['id']).image.open('rb') as stored:
+                self.assertEqual(hashlib.sha256(stored.read()).hexdigest(),
+                                 hashlib.sha256(self.image_bytes).hexdigest())
+
+    def test_checksum_mismatch_resets_session(self):
+        """
+        Given: All bytes received, but one of them was corrupted in transit
+        When: The upload is completed with the checksum of the original
+        Then: 422, the session restarts at offset 0 and no post is created
+        """
+        corrupted = bytearray(self.image_bytes)
+        corrupted[100] ^= 0xFF
+        url = self.create_session()
+        self.put_chunk(url, 0, bytes(corrupted))
+
+        response = self.complete(url)
+
+        self.assertEqual(response.status_code, status.HTTP_422_UNPROCESSABLE_ENTITY)
+        self.assertEqual(response.data['offset'], 0)
+        self.assertEqual(Post.objects.count(), 0)
+
+    def test_complete_before_all_bytes_is_refused(self):
+        """Completing a partial upload returns 409 with the committed offset"""
+        url = self.create_session()
+        self.put_chunk(url, 0, self.image_bytes[:self.CHUNK_SIZE])
+
+        response = self.complete(url)
+
+        self.assertEqual(response.status_code, status.HTTP_409_CONFLICT)
+        self.assertEqual(response.data['offset'], self.CHUNK_SIZE)
+
+    def test_repeated_complete_returns_same_post(self):
+        """
+        Given: A completed upload whose response was lost
+        When: The app completes it again
+        Then: The same post is returned and no duplicate is created
+        """
+        url = self.create_session()
+        self.put_chunk(url, 0, self.image_bytes)
+        first = self.complete(url)
+
+        second = self.complete(url)
+
+        self.assertEqual(second.status_code, status.HTTP_200_OK)
+        self.assertEqual(second.data['id'], first.data['id'])
+        self.assertEqual(Post.objects.count(), 1)
+
+    def test_repeated_complete_applies_later_title_and_text(self):
+        """
+        Given: An image edit completed on the server whose response was lost
+        When: The app retries it with a later text-only edit merged in
+        Then: The same post is returned with the later title and text
+        """
+        post = Post.objects.create(author=self.user, title='예전 제목', text='예전 내용')
+        url = self.create_session()
+        self.put_chunk(url, 0, self.image_bytes)
+        self.complete(url, post=post.id, title='새 제목', text='새 내용')
+
+        retried = self.complete(url, post=post.id, title='나중 제목', text='나중 내용')
+
+        self.assertEqual(retried.status_code, status.HTTP_200_OK)
+        self.assertEqual(retried.data['id'], post.id)
+        post.refresh_from_db()
+        self.assertEqual((post.title, post.text), ('나중 제목', '나중 내용'))
+        self.assertEqual(Post.objects.count(), 1)
+
+    def test_complete_with_post_updates_existing_post(self):
+        """Completing with a post id replaces that post's image, title and text"""
+        post = Post.objects.create(author=self.user, title='예전 제목', text='예전 내용')
+        url = self.create_session()
+        self.put_chunk(url, 0, self.image_bytes)
+
+        response = self.complete(url, post=post.id, title='새 제목')
+
+        self.assertEqual(response.status_code, status.HTTP_200_OK)
+        post.refresh_from_db()
+        self.assertEqual(post.title, '새 제목')
+        self.assertEqual((post.image_width, post.image_height), (640, 480))
+        self.assertEqual(Post.objects.count(), 1)
+
+    def test_complete_with_empty_post_creates_post(self):
+        """An empty post field creates a new post and answers 201, like no post field"""
+        url = self.create_session()
+        self.put_chunk(url, 0, self.image_bytes)
+
+        response = self.complete(url, post='')
+
+        self.assertEqual(response.status_code, status.HTTP_201_CREATED)
+        self.assertEqual(Post.objects.count(), 1)
+
+    def test_session_of_other_user_is_not_found(self):
+        """Sessions are private to the user who created them"""
+        url = self.create_session()
+        other = User.objects.create_user(username='other', password='testpass')
+        token, _ = Token.objects.get_or_create(user=other)
+        self.client.credentials(HTTP_AUTHORIZATION=f'Token {token.key}')
+
+        self.assertEqual(self.client.get(url).status_code, status.HTTP_404_NOT_FOUND)
+        self.assertEqual(self.put_chunk(url, 0, self.image_bytes).status_code,
+                         status.HTTP_404_NOT_FOUND)
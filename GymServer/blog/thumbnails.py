@@ -0,0 +1,125 @@
+"""
+이미지 썸네일 변형(variant) 생성
+
+Edge가 올린 원본 프레임은 그대로 두고, 짧은 변이 VARIANT_SIZES가 되도록
+축소한 사본을 WebP(서버 Pillow가 지원할 때)와 JPEG로 만들어 둔다.
+앱은 목록 썸네일처럼 작은 뷰에는 원본 대신 뷰를 채우는 가장 작은 변형을
+받아 간다.
+
+변형은 업로드 시점(모델 save)에 만들고, 변형이 없는 기존 행은
+`manage.py backfill_variants`로 채운다. 직렬화는 저장된 목록만 읽고 인코딩하지
+않는다. 변형 목록은 모델의 JSONField에 저장하고, 이미지가 바뀌거나 행이
+삭제되면 이전 변형 파일을 지운다.
+"""
+import logging
+import os
+from io import BytesIO
+
+from django.core.files.base import ContentFile
+from PIL import Image, ImageOps, features
+
+logger = logging.getLogger(__name__)
+
+# 짧은 변 기준 픽셀 크기 (48dp 목록 썸네일 ~ 화면 절반 크기)
+VARIANT_SIZES = (160, 480)
+
+_ENCODINGS = {
+    # 형식: (확장자, Pillow 형식, 저장 옵션)
+    'webp': ('webp', 'WEBP', {'quality': 75, 'method': 4}),
+    'jpeg': ('jpg', 'JPEG', {'quality': 80, 'optimize': True, 'progressive': True}),
+}
+
+
+def variant_formats():
+    """만들 수 있는 형식 (작은 형식 우선)"""
+    formats = []
+    if features.check('webp'):
+        formats.append('webp')
+    formats.append('jpeg')
+    return formats
+
+
+def variant_name(name, size, fmt):
+    """원본 파일 이름에서 정해지는 변형 저장 경로"""
+    stem, _ = os.path.splitext(name)
+    return f"thumbs/{stem}_{size}.{_ENCODINGS[fmt][0]}"
+
+
+def scaled_size(width, height, size):
+    """짧은 변이 size가 되는 크기, 원본이 그보다 작으면 None (확대하지 않음)"""
+    short = min(width, height)
+    if short <= size:
+        return None
+    scale = size / short
+    return max(1, round(width * scale)), max(1, round(height * scale))
+
+
+def generate_variants(field_file):
+    """
+    원본 이미지의 변형을 모두 만들어 저장
+
+    반환값: [{'width', 'height', 'format', 'name'}, ...]
+    원본을 읽을 수 없으면 빈 목록 (다시 시도하지 않도록 호출 측이 저장)
+    """
+    if not field_file:
+        return []
+    try:
+        field_file.open('rb')
+        try:
+            with Image.open(field_file) as source:
+                # 회전 정보가 있으면 픽셀에 반영한 뒤 축소
+                image = ImageOps.exif_transpose(source).convert('RGB')
+        finally:
+            field_file.close()
+    except (OSError, ValueError) as e:
+        logger.warning("썸네일 원본을 읽을 수 없음 %s: %s", field_file.name, e)
+        return []
+
+    storage = field_file.storage
+    variants = []
+    for size in VARIANT_SIZES:
+        scaled = scaled_size(image.width, image.height, size)
+        if scaled is None:
+            continue
+        resized = image.resize(scaled, Image.LANCZOS)
+        for fmt in variant_formats():
+            _, pil_format, options = _ENCODINGS[fmt]
+            buffer = BytesIO()
+            try:
+                resized.save(buffer, pil_format, **options)
+            except (OSError, ValueError) as e:
+                logger.warning("썸네일 인코딩 실패 %s (%s): %s", field_file.name, fmt, e)
+                continue
+            name = variant_name(field_file.name, size, fmt)
+            if storage.exists(name):
+                storage.delete(name)
+            name = storage.save(name, ContentFile(buffer.getvalue()))
+            variants.append({
+                'width': scaled[0],
+                'height': scaled[1],
+                'format': fmt,
+                'name': name,
+            })
+    return variants
+
+
+def delete_variants(storage, variants):
+    """저장된 변형 파일을 모두 삭제 (이미 없는 파일은 건너뜀)"""
+    for variant in variants or []:
+        name = variant.get('name')
+        if name and storage.exists(name):
+            storage.delete(name)
+
+
+def ensure_variants(instance, field_name, variants_field):
+    """변형을 아직 만들지 않은 행이면 지금 만들어 저장 (backfill_variants 명령용)"""
+    variants = getattr(instance, variants_field)
+    if variants is not None:
+        return variants
+    field_file = getattr(instance, field_name)
+    if not field_file:
+        return []
+    variants = generate_variants(field_file)
+    setattr(instance, variants_field, variants)
+    type(instance).objects.filter(pk=instance.pk).update(**{variants_field: variants})
+    return variants
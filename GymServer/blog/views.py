@@ -1,7 +1,11 @@
+import hashlib
+import json
+import re
+
 from django.shortcuts import render, get_object_or_404, redirect
 from django.utils import timezone
 from django.db.models import Count, Max
-from .models import Post, ApiUser, GymMachine, MachineEvent
+from .models import Post, ApiUser, GymMachine, MachineEvent, UploadSession
 from .forms import PostForm
 from rest_framework import viewsets, status
 from rest_framework.decorators import action
@@ -19,6 +23,10 @@ from rest_framework.status import HTTP_400_BAD_REQUEST, HTTP_401_UNAUTHORIZED, H
 from rest_framework.authtoken.models import Token
 from django.contrib.auth import login as django_login, logout as django_logout
 from django.contrib.auth.models import User
+from django.core.files.uploadedfile import UploadedFile
+from django.core.serializers.json import DjangoJSONEncoder
+from django.db import transaction
+from django.utils.cache import get_conditional_response
 
 
 
@@ -91,17 +99,216 @@ class BlogImages(viewsets.ModelViewSet):
     queryset = Post.objects.all()
     serializer_class = PostSerializer
 
+    # since_id 증분 동기화 응답에 포함할 최대 포스트 수
+    SYNC_DEFAULT_LIMIT = 20
+    SYNC_MAX_LIMIT = 100
+
+    def list(self, request, *args, **kwargs):
+        if 'since_id' in request.query_params:
+            return self.delta_sync(request)
+        return super().list(request, *args, **kwargs)
+
+    def delta_sync(self, request):
+        """
+        ?since_id=N 증분 동기화: 클라이언트 워터마크(N)보다 새 포스트만 반환
+
+        응답: watermark(현재 최대 id), new_count(새 포스트 수),
+        reset(서버가 모르는 워터마크 - 클라이언트는 전체 재동기화),
+        results(새 포스트 중 오래된 순으로 최대 limit개)
+        """
+        try:
+            since_id = int(request.query_params['since_id'])
+            limit = int(request.query_params.get('limit', self.SYNC_DEFAULT_LIMIT))
+        except ValueError:
+            return Response({'error': 'since_id and limit must be integers'},
+                            status=HTTP_400_BAD_REQUEST)
+        if since_id < 0 or limit < 0:
+            return Response({'error': 'since_id and limit must not be negative'},
+                            status=HTTP_400_BAD_REQUEST)
+        limit = min(limit, self.SYNC_MAX_LIMIT)
+
+        queryset = self.get_queryset()
+        watermark = queryset.aggregate(max_id=Max('id'))['max_id'] or 0
+        if since_id > watermark:
+            # 포스트가 삭제되었거나 DB가 초기화되어 워터마크를 신뢰할 수 없음
+            return Response({
+                'watermark': watermark,
+                'new_count': 0,
+                'reset': True,
+                'results': [],
+            })
+
+        newer = queryset.filter(id__gt=since_id).order_by('id')
+        serializer = self.get_serializer(newer[:limit], many=True)
+        return Response({
+            'watermark': watermark,
+            'new_count': newer.count(),
+            'reset': False,
+            'results': serializer.data,
+        })
+
     def perform_create(self, serializer):
         # 인증된 사용자를 author로 자동 설정하고 published_date도 설정
         serializer.save(author=self.request.user, published_date=timezone.now())
 
 
+class UploadSessionViewSet(viewsets.ViewSet):
+    """
+    재개 가능한 이미지 업로드 (/api_root/uploads/)
+
+    POST   uploads/                세션 생성 {file_name, content_type, size}
+    GET    uploads/<id>/           커밋된 offset 조회 (연결이 끊긴 뒤 이어 보낼 위치)
+    PUT    uploads/<id>/           Content-Range: bytes 시작-끝/전체 청크를 offset 위치에 기록
+    POST   uploads/<id>/complete/  {sha256, title, text[, post]} 확인 후 Post 생성(201) 또는 수정(200)
+                                   (다시 요청하면 같은 포스트를 200으로 돌려줌)
+    DELETE uploads/<id>/           세션 취소
+
+    청크는 요청 본문을 모두 받은 뒤에만 커밋되므로, 중간에 끊긴 요청은 offset을 바꾸지 않음.
+    """
+    permission_classes = [IsAuthenticated]
+    lookup_value_regex = '[0-9a-f-]{36}'
+
+    # 청크 하나의 최대 크기 (DATA_UPLOAD_MAX_MEMORY_SIZE 2.5MB보다 작게)
+    MAX_CHUNK_SIZE = 2 * 1024 * 1024
+    CONTENT_RANGE = re.compile(r'^bytes (\d+)-(\d+)/(\d+)$')
+
+    def get_session(self, request, pk):
+        return get_object_or_404(UploadSession, pk=pk, owner=request.user)
+
+    @staticmethod
+    def session_status(session):
+        return {'id': str(session.id), 'offset': session.offset, 'size': session.size,
+                'accepted_types': UploadSession.accepted_types()}
+
+    def create(self, request):
+        try:
+            size = int(request.data.get('size', ''))
+        except (TypeError, ValueError):
+            return Response({'error': 'size must be an integer'}, status=HTTP_400_BAD_REQUEST)
+        file_name = str(request.data.get('file_name', '')).strip()
+        content_type = str(request.data.get('content_type', ''))
+        if not file_name or not content_type.startswith('image/'):
+            return Response({'error': 'file_name and an image content_type are required'},
+                            status=HTTP_400_BAD_REQUEST)
+        if content_type not in UploadSession.accepted_types():
+            # 앱은 이 응답의 accepted_types를 보고 다른 형식으로 다시 인코딩함
+            return Response({'error': f'{content_type} is not supported',
+                             'accepted_types': UploadSession.accepted_types()},
+                            status=status.HTTP_415_UNSUPPORTED_MEDIA_TYPE)
+        if size <= 0 or size > UploadSession.MAX_SIZE:
+            return Response({'error': f'size must be between 1 and {UploadSession.MAX_SIZE}'},
+                            status=HTTP_400_BAD_REQUEST)
+
+        UploadSession.discard_expired()
+        session = UploadSession.objects.create(
+            owner=request.user,
+            file_name=file_name[:255],
+            content_type=content_type[:100],
+            size=size,
+        )
+        return Response(self.session_status(session), status=status.HTTP_201_CREATED)
+
+    def retrieve(self, request, pk=None):
+        return Response(self.session_status(self.get_session(request, pk)))
+
+    def update(self, request, pk=None):
+        session = self.get_session(request, pk)
+        match = self.CONTENT_RANGE.match(request.headers.get('Content-Range', ''))
+        if not match:
+            return Response({'error': 'Content-Range: bytes start-end/size is required'},
+                            status=HTTP_400_BAD_REQUEST)
+        start, end, total = (int(value) for value in match.groups())
+        if end - start + 1 > self.MAX_CHUNK_SIZE:
+            return Response({'error': f'chunks are at most {self.MAX_CHUNK_SIZE} bytes'},
+                            status=status.HTTP_413_REQUEST_ENTITY_TOO_LARGE)
+        data = request.body
+        if total != session.size or end < start or end >= total or len(data) != end - start + 1:
+            return Response({'error': 'Content-Range does not match the session or the body'},
+                            status=HTTP_400_BAD_REQUEST)
+
+        with transaction.atomic():
+            session = UploadSession.objects.select_for_update().get(pk=session.pk)
+            if start != session.offset:
+                # 앱은 응답의 offset부터 다시 보냄
+                return Response(self.session_status(session), status=status.HTTP_409_CONFLICT)
+            session.write_chunk(start, data)
+        return Response(self.session_status(session))
+
+    def destroy(self, request, pk=None):
+        self.get_session(request, pk).discard()
+        return Response(status=status.HTTP_204_NO_CONTENT)
+
+    @action(detail=True, methods=['post'])
+    def complete(self, request, pk=None):
+        session = self.get_session(request, pk)
+        with transaction.atomic():
+            session = UploadSession.objects.select_for_update().get(pk=session.pk)
+            if session.post_id is not None:
+                # 완료 응답이 유실되어 다시 요청함: 같은 포스트를 돌려주되,
+                # 그 사이 앱에서 합쳐진 수정(제목/내용)은 반영함
+                fields = {key: request.data[key] for key in ('title', 'text') if key in request.data}
+                serializer = PostSerializer(session.post, data=fields, partial=True,
+                                            context={'request': request})
+                serializer.is_valid(raise_exception=True)
+                if fields:
+                    serializer.save()
+                return Response(serializer.data)
+            if session.offset != session.size:
+                return Response(self.session_status(session), status=status.HTTP_409_CONFLICT)
+            if session.sha256() != str(request.data.get('sha256', '')).lower():
+                # 전송 중 손상: 받은 바이트를 버리고 앱이 처음부터 다시 보냄
+                session.reset()
+                return Response(dict(self.session_status(session), error='checksum mismatch'),
+                                status=status.HTTP_422_UNPROCESSABLE_ENTITY)
+
+            post_id = request.data.get('post')
+            post = get_object_or_404(Post, pk=post_id) if post_id else None
+            with open(session.part_path, 'rb') as part:
+                image = UploadedFile(file=part, name=session.file_name,
+                                     content_type=session.content_type, size=session.size)
+                data = {'title': request.data.get('title', ''), 'text': request.data.get('text', ''),
+                        'image': image}
+                serializer = PostSerializer(post, data=data, partial=post is not None,
+                                            context={'request': request})
+                serializer.is_valid(raise_exception=True)
+                # 빈 post 값('')도 새 포스트: 상태 코드는 실제로 만들었는지로 정함
+                created = post is None
+                if created:
+                    post = serializer.save(author=request.user, published_date=timezone.now())
+                else:
+                    post = serializer.save()
+            session.remove_part()
+            session.post = post
+            session.save(update_fields=['post', 'updated_at'])
+        return Response(serializer.data,
+                        status=status.HTTP_201_CREATED if created else status.HTTP_200_OK)
+
+
+def conditional_api_response(request, data):
+    """
+    응답 본문 해시로 ETag를 붙이고, If-None-Match가 일치하면 304를 반환
+    (기구 정보에는 수정 시각이 없어 Last-Modified 대신 본문 기반 ETag 사용)
+    """
+    payload = json.dumps(data, sort_keys=True, cls=DjangoJSONEncoder)
+    etag = '"%s"' % hashlib.md5(payload.encode('utf-8')).hexdigest()
+    response = Response(data)
+    response['ETag'] = etag
+    # 클라이언트는 캐시해도 되지만 매번 재검증해야 함
+    response['Cache-Control'] = 'private, no-cache'
+    return get_conditional_response(request, etag=etag, response=response)
+
+
 class GymMachineViewSet(viewsets.ModelViewSet):
     """운동기구 ViewSet"""
     queryset = GymMachine.objects.filter(is_active=True)
     serializer_class = GymMachineSerializer
     permission_classes = [IsAuthenticated]
 
+    def list(self, request, *args, **kwargs):
+        """기구 목록 (ETag 조건부 응답)"""
+        response = super().list(request, *args, **kwargs)
+        return conditional_api_response(request, response.data)
+
     @action(detail=True, methods=['get'])
     def stats(self, request, pk=None):
         """기구별 통계"""
@@ -122,7 +329,7 @@ class GymMachineViewSet(viewsets.ModelViewSet):
             count=Count('id')
         ).order_by('date')
 
-        return Response({
+        return conditional_api_response(request, {
             'machine_id': machine.id,
             'machine_name': machine.name,
             'total_starts': events.filter(event_type='start').count(),
@@ -68,6 +68,8 @@ REST_FRAMEWORK = {
 
 MIDDLEWARE = [
     "django.middleware.security.SecurityMiddleware",
+    # 본문을 수정하는 다른 미들웨어보다 먼저 위치해야 함
+    "blog.middleware.JsonGZipMiddleware",
     "django.contrib.sessions.middleware.SessionMiddleware",
     "django.middleware.common.CommonMiddleware",
     "django.middleware.csrf.CsrfViewMiddleware",
@@ -76,6 +78,9 @@ MIDDLEWARE = [
     "django.middleware.clickjacking.XFrameOptionsMiddleware",
 ]
 
+# 이 크기(바이트) 미만의 JSON 응답은 압축하지 않음
+GZIP_MIN_LENGTH = 1024
+
 ROOT_URLCONF = "mysite.urls"
 
 TEMPLATES = [
@@ -151,4 +156,7 @@ DEFAULT_AUTO_FIELD = "django.db.models.BigAutoField"
 MdESSAGE_STORAGE = "django.contrib.messages.storage.session.SessionStorage"
 
 MEDIA_URL = "/media/"
-MEDIA_ROOT = BASE_DIR / "media/" 
\ No newline at end of file
+MEDIA_ROOT = BASE_DIR / "media/" 
+
+# 재개 가능한 업로드의 수신 중인 파일 (blog.models.UploadSession)
+UPLOAD_SESSION_ROOT = BASE_DIR / "upload_sessions/" 
\ No newline at end of file
@@ -26,6 +26,7 @@ router = routers.DefaultRouter()
 router.register('Post', views.BlogImages)
 router.register('machines', views.GymMachineViewSet)
 router.register('events', views.MachineEventViewSet)
+router.register('uploads', views.UploadSessionViewSet, basename='upload')
 
 urlpatterns = [
     path('', views.gym_login, name='gym_login_root'),